@@ -3,13 +3,25 @@ package ru.practicum.shareit.booking.controllers;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
+import ru.practicum.shareit.booking.dto.BookingQuery;
+import ru.practicum.shareit.booking.model.enums.BookingRole;
+import ru.practicum.shareit.booking.model.enums.BookingSort;
 import ru.practicum.shareit.booking.model.enums.BookingState;
+import ru.practicum.shareit.booking.model.enums.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.pagination.CursorPage;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Контроллер для управления бронированиями в приложении ShareIt.
@@ -36,6 +48,22 @@ public class BookingController {
         return jpaBookingService.createBooking(userId, bookingDtoRequest);
     }
 
+    /**
+     * Создает несколько бронирований вещей одним запросом. Если хотя бы одно бронирование
+     * создать нельзя, не создается ни одно.
+     *
+     * @param userId             ID пользователя, который бронирует вещи (передается в заголовке).
+     * @param bookingDtoRequests Список DTO с информацией о бронированиях.
+     * @return Список DTO созданных бронирований в порядке запросов.
+     */
+    @PostMapping("/batch")
+    public List<BookingDto> createBookings(@RequestHeader("X-Sharer-User-Id") long userId,
+                                           @RequestBody List<@Valid BookingDtoRequest> bookingDtoRequests) {
+        log.info("Запрос на бронирование нескольких вещей. ID пользователя: {}, количество: {}", userId,
+                bookingDtoRequests.size());
+        return jpaBookingService.createBookings(userId, bookingDtoRequests);
+    }
+
     /**
      * Подтверждает или отклоняет бронирование вещи владельцем.
      *
@@ -53,6 +81,40 @@ public class BookingController {
         return jpaBookingService.confirmOrRejectBooking(userId, bookingId, approved);
     }
 
+    /**
+     * Подтверждает или отклоняет несколько бронирований вещей владельца одним запросом.
+     * Уже подтверждённые или отклонённые бронирования не изменяются.
+     *
+     * @param userId   ID владельца вещей (передается в заголовке).
+     * @param ids      ID бронирований (через запятую).
+     * @param approved Параметр, указывающий, подтверждены бронирования или отклонены.
+     * @return Список DTO бронирований с их статусом после обработки.
+     */
+    @PatchMapping
+    public List<BookingDto> confirmOrRejectBookings(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                    @RequestParam List<Long> ids,
+                                                    @RequestParam boolean approved) {
+        log.info("Запрос на пакетное подтверждение или отклонение бронирований. ID владельца: {}, " +
+                "ID бронирований: {}, BookingStatus: {}", userId, ids, approved);
+        return jpaBookingService.confirmOrRejectBookings(userId, ids, approved);
+    }
+
+    /**
+     * Подписывает пользователя на события бронирований по Server-Sent Events.
+     * <p>
+     * Владелец вещей получает события о создании бронирований своих вещей, арендатор — о подтверждении
+     * и отклонении своих бронирований. Данные события — DTO бронирования, имя события — CREATED
+     * или STATUS_CHANGED.
+     *
+     * @param userId ID пользователя (передается в заголовке).
+     * @return Поток событий бронирований.
+     */
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToEvents(@RequestHeader("X-Sharer-User-Id") long userId) {
+        log.info("Запрос на подписку на события бронирований. ID пользователя: {}", userId);
+        return jpaBookingService.subscribeToEvents(userId);
+    }
+
     /**
      * Получает информацию о конкретном бронировании по его ID.
      * <p>
@@ -71,36 +133,113 @@ public class BookingController {
     }
 
     /**
-     * Получает список всех бронирований текущего пользователя по их состоянию.
+     * Получает страницу бронирований текущего пользователя по их состоянию.
      * <p>
-     * Бронирования сортируются по дате от более новых к более старым.
+     * Бронирования сортируются по дате от более новых к более старым. Курсор следующей страницы
+     * возвращается в заголовке {@value CursorPage#NEXT_CURSOR_HEADER}.
      *
      * @param userId ID текущего пользователя (передается в заголовке).
      * @param state  Состояние бронирований (ALL, CURRENT, PAST, FUTURE, WAITING, REJECTED).
+     * @param after  Курсор предыдущей страницы (необязательный).
+     * @param from   Количество пропускаемых бронирований, если курсор не указан,
+     *               не больше {@code shareit.pagination.max-offset}.
+     * @param size   Размер страницы.
      * @return Список DTO с информацией о бронированиях.
      */
     @GetMapping()
-    public List<BookingDto> getAllByBookerIdAndState(@RequestHeader("X-Sharer-User-Id") long userId,
-                                                     @RequestParam(defaultValue = "ALL") BookingState state) {
+    public ResponseEntity<List<BookingDto>> getAllByBookerIdAndState(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestParam(defaultValue = "ALL") BookingState state,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "0") int from,
+            @RequestParam(defaultValue = "${shareit.pagination.default-size}") int size) {
         log.info("Запрос на получение списка всех бронирований текущего пользователя. ID пользователя: {}, " +
-                "Состояние: {}", userId, state);
-        return jpaBookingService.getBookingState(userId, state);
+                "Состояние: {}, from: {}, size: {}", userId, state, from, size);
+        return jpaBookingService.getBookingState(userId, state, after, from, size).toResponseEntity();
     }
 
     /**
-     * Получает список бронирований для всех вещей текущего пользователя (владельца).
+     * Получает количество бронирований текущего пользователя по каждому состоянию.
+     *
+     * @param userId ID текущего пользователя (передается в заголовке).
+     * @return Количество бронирований для каждого состояния (ALL, CURRENT, PAST, FUTURE, WAITING, REJECTED).
+     */
+    @GetMapping("/counts")
+    public Map<BookingState, Long> getBookingStateCounts(@RequestHeader("X-Sharer-User-Id") long userId) {
+        log.info("Запрос на подсчёт бронирований текущего пользователя по состояниям. ID пользователя: {}", userId);
+        return jpaBookingService.getBookingStateCounts(userId);
+    }
+
+    /**
+     * Получает количество бронирований для всех вещей текущего пользователя (владельца) по каждому состоянию.
+     *
+     * @param userId ID владельца вещей (передается в заголовке).
+     * @return Количество бронирований для каждого состояния (ALL, CURRENT, PAST, FUTURE, WAITING, REJECTED).
+     */
+    @GetMapping("/owner/counts")
+    public Map<BookingState, Long> getOwnerBookingStateCounts(@RequestHeader("X-Sharer-User-Id") long userId) {
+        log.info("Запрос на подсчёт бронирований для всех вещей текущего пользователя по состояниям. " +
+                "ID пользователя: {}", userId);
+        return jpaBookingService.getOwnerBookingStateCounts(userId);
+    }
+
+    /**
+     * Получает страницу бронирований для всех вещей текущего пользователя (владельца).
      * <p>
-     * Бронирования сортируются по дате от более новых к более старым.
+     * Бронирования сортируются по дате от более новых к более старым. Курсор следующей страницы
+     * возвращается в заголовке {@value CursorPage#NEXT_CURSOR_HEADER}.
      *
      * @param userId ID владельца вещей (передается в заголовке).
      * @param state  Состояние бронирований (ALL, CURRENT, PAST, FUTURE, WAITING, REJECTED).
+     * @param after  Курсор предыдущей страницы (необязательный).
+     * @param from   Количество пропускаемых бронирований, если курсор не указан,
+     *               не больше {@code shareit.pagination.max-offset}.
+     * @param size   Размер страницы.
      * @return Список DTO с информацией о бронированиях вещей текущего пользователя.
      */
     @GetMapping("/owner")
-    public List<BookingDto> getAllByBookerId(@RequestHeader("X-Sharer-User-Id") long userId,
-                                             @RequestParam(defaultValue = "ALL") BookingState state) {
+    public ResponseEntity<List<BookingDto>> getAllByBookerId(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestParam(defaultValue = "ALL") BookingState state,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "0") int from,
+            @RequestParam(defaultValue = "${shareit.pagination.default-size}") int size) {
         log.info("Запрос на получение списка бронирований для всех вещей текущего пользователя. " +
-                "ID пользователя: {}, Состояние: {}", userId, state);
-        return jpaBookingService.getAllByOwnerId(userId, state);
+                "ID пользователя: {}, Состояние: {}, from: {}, size: {}", userId, state, from, size);
+        return jpaBookingService.getAllByOwnerId(userId, state, after, from, size).toResponseEntity();
+    }
+
+    /**
+     * Получает страницу бронирований текущего пользователя по произвольному сочетанию фильтров.
+     * <p>
+     * Все фильтры необязательны и объединяются условием «и». Курсор следующей страницы
+     * возвращается в заголовке {@value CursorPage#NEXT_CURSOR_HEADER}.
+     *
+     * @param userId  ID текущего пользователя (передается в заголовке).
+     * @param role    Роль пользователя: арендатор (BOOKER) или владелец вещей (OWNER).
+     * @param status  Допустимые статусы бронирований (через запятую).
+     * @param itemId  ID вещей (через запятую).
+     * @param from    Наименьшее время начала бронирования.
+     * @param to      Время, раньше которого бронирование должно начаться.
+     * @param sort    Порядок бронирований по времени начала (START_DESC, START_ASC).
+     * @param after   Курсор предыдущей страницы (необязательный).
+     * @param size    Размер страницы.
+     * @return Список DTO с информацией о бронированиях.
+     */
+    @GetMapping("/query")
+    public ResponseEntity<List<BookingDto>> queryBookings(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestParam(defaultValue = "BOOKER") BookingRole role,
+            @RequestParam(required = false) Set<BookingStatus> status,
+            @RequestParam(required = false) Set<Long> itemId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "START_DESC") BookingSort sort,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "${shareit.pagination.default-size}") int size) {
+        BookingQuery query = new BookingQuery(role, status, itemId, from, to, sort);
+        log.info("Запрос на получение списка бронирований по условиям. ID пользователя: {}, условия: {}, size: {}",
+                userId, query, size);
+        return jpaBookingService.queryBookings(userId, query, after, size).toResponseEntity();
     }
 }
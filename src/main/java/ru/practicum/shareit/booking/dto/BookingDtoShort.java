@@ -0,0 +1,28 @@
+package ru.practicum.shareit.booking.dto;
+
+import ru.practicum.shareit.booking.model.enums.BookingStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Проекция бронирования для пакетной загрузки последних и следующих бронирований вещей.
+ * <p>
+ * Заполняется напрямую JPQL-выражением {@code SELECT new ...}, без загрузки сущностей
+ * {@link ru.practicum.shareit.booking.model.Booking}, вещи и пользователей.
+ * Поле {@code itemId} позволяет сгруппировать результат по вещам.
+ * </p>
+ *
+ * @param itemId   ID вещи, к которой относится бронирование
+ * @param id       ID бронирования
+ * @param start    дата и время начала бронирования
+ * @param end      дата и время окончания бронирования
+ * @param bookerId ID пользователя, который забронировал вещь
+ * @param status   статус бронирования
+ */
+public record BookingDtoShort(Long itemId,
+                              Long id,
+                              LocalDateTime start,
+                              LocalDateTime end,
+                              Long bookerId,
+                              BookingStatus status) {
+}
@@ -0,0 +1,48 @@
+package ru.practicum.shareit.booking.dto;
+
+import ru.practicum.shareit.booking.model.enums.BookingStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Плоская проекция бронирования для списков бронирований арендатора и владельца.
+ * <p>
+ * Заполняется напрямую JPQL-выражением {@code SELECT new ...} по одному запросу с соединением
+ * бронирования, вещи, её владельца и арендатора. Сущности при этом не загружаются в контекст
+ * персистентности, а выбираются только столбцы, которые входят в ответ.
+ * </p>
+ *
+ * @param id              ID бронирования
+ * @param start           дата и время начала бронирования
+ * @param end             дата и время окончания бронирования
+ * @param status          статус бронирования
+ * @param itemId          ID вещи
+ * @param itemName        название вещи
+ * @param itemDescription описание вещи
+ * @param itemAvailable   доступность вещи для аренды
+ * @param itemQuantity    количество одинаковых экземпляров вещи
+ * @param itemRequest     запрос, по которому создана вещь
+ * @param ownerId         ID владельца вещи
+ * @param ownerName       имя владельца вещи
+ * @param ownerEmail      электронная почта владельца вещи
+ * @param bookerId        ID арендатора
+ * @param bookerName      имя арендатора
+ * @param bookerEmail     электронная почта арендатора
+ */
+public record BookingDtoView(Long id,
+                             LocalDateTime start,
+                             LocalDateTime end,
+                             BookingStatus status,
+                             Long itemId,
+                             String itemName,
+                             String itemDescription,
+                             Boolean itemAvailable,
+                             Integer itemQuantity,
+                             String itemRequest,
+                             Long ownerId,
+                             String ownerName,
+                             String ownerEmail,
+                             Long bookerId,
+                             String bookerName,
+                             String bookerEmail) {
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.booking.dto;
+
+import ru.practicum.shareit.booking.model.enums.BookingRole;
+import ru.practicum.shareit.booking.model.enums.BookingSort;
+import ru.practicum.shareit.booking.model.enums.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Условия отбора бронирований для запроса с произвольным сочетанием фильтров.
+ * <p>
+ * Незаданные фильтры не ограничивают результат: пустые наборы статусов и вещей означают любые статусы
+ * и любые вещи, а отсутствующие границы интервала — интервал без соответствующей границы.
+ * </p>
+ *
+ * @param role     роль пользователя в бронированиях
+ * @param statuses допустимые статусы бронирований
+ * @param itemIds  ID вещей
+ * @param from     наименьшее время начала бронирования включительно или {@code null}
+ * @param to       время, раньше которого бронирование должно начаться, или {@code null}
+ * @param sort     порядок бронирований
+ */
+public record BookingQuery(BookingRole role,
+                           Set<BookingStatus> statuses,
+                           Set<Long> itemIds,
+                           LocalDateTime from,
+                           LocalDateTime to,
+                           BookingSort sort) {
+}
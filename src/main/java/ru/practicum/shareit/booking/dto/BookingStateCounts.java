@@ -0,0 +1,55 @@
+package ru.practicum.shareit.booking.dto;
+
+import ru.practicum.shareit.booking.model.enums.BookingState;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Количество бронирований по каждому состоянию {@link BookingState}.
+ * <p>
+ * Заполняется напрямую JPQL-выражением {@code SELECT new ...} одним агрегирующим запросом
+ * с условными суммами, все состояния вычисляются относительно одного и того же момента времени.
+ * </p>
+ *
+ * @param all      все бронирования
+ * @param current  текущие бронирования
+ * @param past     завершённые бронирования
+ * @param future   будущие бронирования
+ * @param waiting  бронирования, ожидающие подтверждения
+ * @param rejected отклонённые бронирования
+ */
+public record BookingStateCounts(long all,
+                                 long current,
+                                 long past,
+                                 long future,
+                                 long waiting,
+                                 long rejected) {
+
+    /**
+     * Складывает количество бронирований по каждому состоянию, например из оперативной таблицы и архива.
+     *
+     * @param other количество бронирований, которое нужно прибавить
+     * @return суммарное количество бронирований
+     */
+    public BookingStateCounts plus(BookingStateCounts other) {
+        return new BookingStateCounts(all + other.all, current + other.current, past + other.past,
+                future + other.future, waiting + other.waiting, rejected + other.rejected);
+    }
+
+    /**
+     * Возвращает количество бронирований по состояниям.
+     *
+     * @return количество бронирований для каждого значения {@link BookingState} в порядке объявления
+     */
+    public Map<BookingState, Long> toMap() {
+        Map<BookingState, Long> counts = new EnumMap<>(BookingState.class);
+        counts.put(BookingState.ALL, all);
+        counts.put(BookingState.CURRENT, current);
+        counts.put(BookingState.PAST, past);
+        counts.put(BookingState.FUTURE, future);
+        counts.put(BookingState.WAITING, waiting);
+        counts.put(BookingState.REJECTED, rejected);
+        return counts;
+    }
+}
@@ -0,0 +1,39 @@
+package ru.practicum.shareit.booking.events;
+
+import ru.practicum.shareit.booking.dto.BookingDto;
+
+/**
+ * Событие изменения бронирования, которое доставляется владельцу вещи и арендатору.
+ *
+ * @param type    тип события
+ * @param ownerId ID владельца забронированной вещи
+ * @param booking бронирование после изменения
+ */
+public record BookingEvent(Type type, long ownerId, BookingDto booking) {
+
+    /**
+     * Возвращает ID пользователей, которым нужно доставить событие.
+     *
+     * @return ID владельца вещи и арендатора
+     */
+    public long[] recipients() {
+        long bookerId = booking.getBooker().getId();
+        return ownerId == bookerId ? new long[]{ownerId} : new long[]{ownerId, bookerId};
+    }
+
+    /**
+     * Тип события бронирования.
+     */
+    public enum Type {
+
+        /**
+         * Создано новое бронирование.
+         */
+        CREATED,
+
+        /**
+         * Бронирование подтверждено, отклонено или отменено по истечении срока подтверждения.
+         */
+        STATUS_CHANGED
+    }
+}
@@ -0,0 +1,216 @@
+package ru.practicum.shareit.booking.events;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Рассылка событий бронирований подписчикам по Server-Sent Events.
+ * <p>
+ * Пользователь подписывается на события по своему ID и получает события о бронированиях своих вещей
+ * и о своих бронированиях. События доставляются после фиксации транзакции, в которой они опубликованы.
+ * </p>
+ * <p>
+ * У каждого подписчика есть ограниченный буфер неотправленных событий. Отправка выполняется в отдельном
+ * виртуальном потоке, поэтому медленный клиент не задерживает публикацию. Если клиент не успевает читать
+ * события и буфер заполнен, самое старое событие отбрасывается: память, занятая подписчиком,
+ * не превышает размера буфера.
+ * </p>
+ */
+@Component
+@Slf4j
+public class BookingEventBroker {
+
+    private final int bufferSize;
+
+    private final long timeoutMillis;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Подписчики по ID пользователя.
+     */
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+    /**
+     * Номер последнего отправленного события, используется как ID события SSE.
+     */
+    private final AtomicLong sequence = new AtomicLong();
+
+    public BookingEventBroker(@Value("${shareit.bookings.events.buffer-size:100}") int bufferSize,
+                              @Value("${shareit.bookings.events.timeout:PT30M}") Duration timeout) {
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    /**
+     * Подписывает пользователя на события бронирований.
+     *
+     * @param userId ID пользователя
+     * @return поток событий; завершается по тайм-ауту, при отключении клиента или ошибке отправки
+     */
+    public SseEmitter subscribe(long userId) {
+        return subscribe(userId, new SseEmitter(timeoutMillis));
+    }
+
+    /**
+     * Подписывает пользователя на события бронирований через переданный поток событий.
+     *
+     * @param userId  ID пользователя
+     * @param emitter поток событий
+     * @return тот же поток событий
+     */
+    SseEmitter subscribe(long userId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(userId, emitter);
+        subscribers.compute(userId, (key, userSubscribers) -> {
+            Set<Subscriber> result = userSubscribers == null ? ConcurrentHashMap.newKeySet() : userSubscribers;
+            result.add(subscriber);
+            return result;
+        });
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(() -> {
+            subscriber.close();
+            emitter.complete();
+        });
+        emitter.onError(error -> subscriber.close());
+        log.info("Подписка на события бронирований. ID пользователя: {}", userId);
+        return emitter;
+    }
+
+    /**
+     * Рассылает событие владельцу вещи и арендатору. Вызывается после фиксации транзакции,
+     * а вне транзакции — сразу после публикации события.
+     *
+     * @param event событие бронирования
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingEvent(BookingEvent event) {
+        long id = sequence.incrementAndGet();
+        for (long userId : event.recipients()) {
+            subscribers.getOrDefault(userId, Set.of()).forEach(subscriber -> subscriber.offer(id, event));
+        }
+    }
+
+    /**
+     * Возвращает количество подписок пользователя.
+     *
+     * @param userId ID пользователя
+     * @return количество подписок
+     */
+    int countSubscribers(long userId) {
+        return subscribers.getOrDefault(userId, Set.of()).size();
+    }
+
+    /**
+     * Завершает все подписки при остановке приложения.
+     */
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(userSubscribers -> userSubscribers.forEach(subscriber -> {
+            subscriber.close();
+            subscriber.emitter.complete();
+        }));
+        executor.shutdownNow();
+    }
+
+    /**
+     * Подписчик с ограниченным буфером неотправленных событий.
+     */
+    private final class Subscriber {
+
+        private final long userId;
+
+        private final SseEmitter emitter;
+
+        private final Deque<Delivery> buffer = new ArrayDeque<>();
+
+        /**
+         * Выполняется ли отправка событий из буфера.
+         */
+        private boolean draining;
+
+        private boolean closed;
+
+        private Subscriber(long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        private void offer(long id, BookingEvent event) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (buffer.size() >= bufferSize) {
+                    Delivery dropped = buffer.pollFirst();
+                    log.debug("Буфер событий переполнен, отброшено событие {}. ID пользователя: {}", dropped.id(),
+                            userId);
+                }
+                buffer.addLast(new Delivery(id, event));
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            executor.execute(this::drain);
+        }
+
+        private void drain() {
+            while (true) {
+                Delivery delivery;
+                synchronized (this) {
+                    delivery = closed ? null : buffer.pollFirst();
+                    if (delivery == null) {
+                        draining = false;
+                        return;
+                    }
+                }
+                try {
+                    emitter.send(SseEmitter.event()
+                            .id(String.valueOf(delivery.id()))
+                            .name(delivery.event().type().name())
+                            .data(delivery.event().booking(), MediaType.APPLICATION_JSON));
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Не удалось отправить событие бронирования. ID пользователя: {}", userId, e);
+                    close();
+                    emitter.completeWithError(e);
+                }
+            }
+        }
+
+        private void close() {
+            synchronized (this) {
+                closed = true;
+                buffer.clear();
+            }
+            subscribers.computeIfPresent(userId, (key, userSubscribers) -> {
+                userSubscribers.remove(this);
+                return userSubscribers.isEmpty() ? null : userSubscribers;
+            });
+        }
+    }
+
+    /**
+     * Событие, ожидающее отправки подписчику.
+     *
+     * @param id    номер события
+     * @param event событие бронирования
+     */
+    private record Delivery(long id, BookingEvent event) {
+    }
+}
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.booking.events;
+
+import java.time.LocalDateTime;
+
+/**
+ * Событие наступления срока в жизненном цикле бронирования.
+ *
+ * @param type      тип события
+ * @param bookingId ID бронирования
+ * @param itemId    ID забронированной вещи
+ * @param start     время начала бронирования
+ */
+public record BookingTransition(Type type, long bookingId, long itemId, LocalDateTime start) {
+
+    /**
+     * Тип события жизненного цикла бронирования.
+     */
+    public enum Type {
+
+        /**
+         * Наступило время начала бронирования.
+         */
+        STARTED,
+
+        /**
+         * Наступило время окончания бронирования.
+         */
+        ENDED,
+
+        /**
+         * Бронирование не было подтверждено в отведённый срок.
+         */
+        EXPIRED
+    }
+}
@@ -2,7 +2,14 @@ package ru.practicum.shareit.booking.mapper;
 
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoItem;
+import ru.practicum.shareit.booking.dto.BookingDtoShort;
+import ru.practicum.shareit.booking.dto.BookingDtoView;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * Mapper-класс для преобразования объектов бронирования между различными представлениями (DTO и сущность).
@@ -11,6 +18,7 @@ import ru.practicum.shareit.booking.model.Booking;
  * - {@link Booking} (сущность бронирования)
  * - {@link BookingDto} (DTO для передачи данных бронирования)
  * - {@link BookingDtoItem} (DTO для представления бронирования без полной информации о предмете и пользователе)
+ * - {@link BookingDtoView} (плоская проекция бронирования для списков)
  * </p>
  * <p>
  * Основное назначение этого класса — разделить слои приложения (сущность и DTO),
@@ -36,6 +44,45 @@ public class BookingMapper {
                 .build();
     }
 
+    /**
+     * Преобразует плоскую проекцию {@link BookingDtoView} в {@link BookingDto}.
+     * Вещь и пользователи создаются как отсоединённые объекты и не попадают в контекст персистентности.
+     *
+     * @param booking проекция бронирования, полученная запросом списка бронирований
+     * @param tags    теги вещи
+     * @return объект {@link BookingDto} с данными о бронировании
+     */
+    public static BookingDto toBookingDto(BookingDtoView booking, Set<String> tags) {
+        User owner = User.builder()
+                .id(booking.ownerId())
+                .name(booking.ownerName())
+                .email(booking.ownerEmail())
+                .build();
+        Item item = Item.builder()
+                .id(booking.itemId())
+                .name(booking.itemName())
+                .description(booking.itemDescription())
+                .available(booking.itemAvailable())
+                .quantity(booking.itemQuantity())
+                .owner(owner)
+                .request(booking.itemRequest())
+                .tags(new HashSet<>(tags))
+                .build();
+        User booker = User.builder()
+                .id(booking.bookerId())
+                .name(booking.bookerName())
+                .email(booking.bookerEmail())
+                .build();
+        return BookingDto.builder()
+                .id(booking.id())
+                .start(booking.start())
+                .end(booking.end())
+                .item(item)
+                .booker(booker)
+                .status(booking.status())
+                .build();
+    }
+
     /**
      * Преобразует объект {@link BookingDto} обратно в сущность {@link Booking}.
      *
@@ -70,4 +117,21 @@ public class BookingMapper {
                 .status(booking.getStatus())
                 .build();
     }
+
+    /**
+     * Преобразует проекцию {@link BookingDtoShort} в {@link BookingDtoItem}.
+     *
+     * @param booking проекция бронирования, полученная пакетным запросом
+     * @return объект {@link BookingDtoItem} с краткой информацией о бронировании
+     */
+    public static BookingDtoItem toBookingDtoItem(BookingDtoShort booking) {
+        if (booking == null) return null;
+        return BookingDtoItem.builder()
+                .id(booking.id())
+                .start(booking.start())
+                .end(booking.end())
+                .bookerId(booking.bookerId())
+                .status(booking.status())
+                .build();
+    }
 }
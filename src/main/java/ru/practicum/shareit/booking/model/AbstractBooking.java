@@ -0,0 +1,57 @@
+package ru.practicum.shareit.booking.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+import ru.practicum.shareit.booking.model.enums.BookingStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * Общие поля бронирования, которые хранятся одинаково в оперативной таблице {@code bookings}
+ * и в архиве {@code bookings_archive}.
+ */
+@MappedSuperclass
+@Getter
+@Setter
+@SuperBuilder
+@NoArgsConstructor
+public abstract class AbstractBooking {
+
+    /**
+     * Время начала бронирования.
+     */
+    @Column(name = "start_date")
+    private LocalDateTime start;
+
+    /**
+     * Время окончания бронирования.
+     */
+    @Column(name = "end_date")
+    private LocalDateTime end;
+
+    /**
+     * Вещь, которую бронируют.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "item_id")
+    private Item item;
+
+    /**
+     * Пользователь, который сделал бронирование.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "booker_id")
+    private User booker;
+
+    /**
+     * Статус бронирования.
+     * <p>
+     * Статус может принимать значения, указанные в перечислении {@link BookingStatus}.
+     * </p>
+     */
+    @Enumerated(EnumType.STRING)
+    private BookingStatus status;
+}
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.booking.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Завершённое бронирование, перенесённое в архив.
+ * <p>
+ * Бронирование попадает в архив с тем же идентификатором, под которым оно было создано, и больше
+ * не изменяется. На PostgreSQL таблица {@code bookings_archive} секционирована по времени окончания.
+ * </p>
+ */
+@Entity
+@Table(name = "bookings_archive", schema = "public")
+@Getter
+@Setter
+@NoArgsConstructor
+public class ArchivedBooking extends AbstractBooking {
+
+    /**
+     * Идентификатор бронирования.
+     */
+    @Id
+    @Column(name = "booking_id")
+    private Long id;
+}
@@ -2,11 +2,7 @@ package ru.practicum.shareit.booking.model;
 
 import jakarta.persistence.*;
 import lombok.*;
-import ru.practicum.shareit.booking.model.enums.BookingStatus;
-import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.model.User;
-
-import java.time.LocalDateTime;
+import lombok.experimental.SuperBuilder;
 
 /**
  * Класс, представляющий модель бронирования.
@@ -16,15 +12,26 @@ import java.time.LocalDateTime;
  * а также информацию о пользователе, который сделал бронирование,
  * и о самой вещи, которую бронируют.
  * </p>
+ * <p>
+ * Сущность отображается на оперативную таблицу {@code bookings}. Завершённые бронирования со временем
+ * переносятся в архив {@link ArchivedBooking}.
+ * </p>
  */
 @Entity
 @Table(name = "bookings", schema = "public")
+@NamedEntityGraph(name = Booking.DETAILS_GRAPH,
+        attributeNodes = {@NamedAttributeNode(value = "item", subgraph = "item"), @NamedAttributeNode("booker")},
+        subgraphs = @NamedSubgraph(name = "item", attributeNodes = @NamedAttributeNode("owner")))
 @Getter
 @Setter
-@Builder
+@SuperBuilder
 @NoArgsConstructor
-@AllArgsConstructor
-public class Booking {
+public class Booking extends AbstractBooking {
+
+    /**
+     * Граф загрузки бронирования вместе с вещью, её владельцем и арендатором — всё, что входит в ответ.
+     */
+    public static final String DETAILS_GRAPH = "Booking.details";
 
     /**
      * Уникальный идентификатор бронирования.
@@ -33,39 +40,4 @@ public class Booking {
     @Column(name = "booking_id")
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
-
-    /**
-     * Время начала бронирования.
-     */
-    @Column(name = "start_date")
-    private LocalDateTime start;
-
-    /**
-     * Время окончания бронирования.
-     */
-    @Column(name = "end_date")
-    private LocalDateTime end;
-
-    /**
-     * Вещь, которую бронируют.
-     */
-    @ManyToOne
-    @JoinColumn(name = "item_id")
-    private Item item;
-
-    /**
-     * Пользователь, который сделал бронирование.
-     */
-    @ManyToOne
-    @JoinColumn(name = "booker_id")
-    private User booker;
-
-    /**
-     * Статус бронирования.
-     * <p>
-     * Статус может принимать значения, указанные в перечислении {@link BookingStatus}.
-     * </p>
-     */
-    @Enumerated(EnumType.STRING)
-    private BookingStatus status;
 }
@@ -0,0 +1,122 @@
+package ru.practicum.shareit.booking.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import ru.practicum.shareit.booking.model.enums.BookingStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Бронирование в модели чтения для владельцев вещей.
+ * <p>
+ * Таблица {@code owner_bookings} дублирует поля оперативных бронирований вместе с данными вещи, её владельца
+ * и арендатора, которые входят в ответ, поэтому списки и счётчики бронирований владельца читаются одним
+ * запросом к одной таблице без соединения с {@code items} и {@code users}.
+ * Строки добавляются и изменяются сервисами в тех же транзакциях, что и бронирования, вещи и пользователи,
+ * а удаляются каскадно вместе с бронированием, в том числе при переносе в архив.
+ * </p>
+ */
+@Entity
+@Table(name = "owner_bookings", schema = "public")
+@Getter
+@Setter
+@NoArgsConstructor
+public class OwnerBooking {
+
+    /**
+     * Идентификатор бронирования.
+     */
+    @Id
+    @Column(name = "booking_id")
+    private Long id;
+
+    /**
+     * Идентификатор владельца вещи.
+     */
+    @Column(name = "owner_id")
+    private Long ownerId;
+
+    /**
+     * Имя владельца вещи.
+     */
+    @Column(name = "owner_name")
+    private String ownerName;
+
+    /**
+     * Электронная почта владельца вещи.
+     */
+    @Column(name = "owner_email")
+    private String ownerEmail;
+
+    /**
+     * Идентификатор вещи.
+     */
+    @Column(name = "item_id")
+    private Long itemId;
+
+    /**
+     * Название вещи.
+     */
+    @Column(name = "item_name")
+    private String itemName;
+
+    /**
+     * Описание вещи.
+     */
+    @Column(name = "item_description")
+    private String itemDescription;
+
+    /**
+     * Доступность вещи для аренды.
+     */
+    @Column(name = "item_available")
+    private Boolean itemAvailable;
+
+    /**
+     * Количество одинаковых экземпляров вещи.
+     */
+    @Column(name = "item_quantity")
+    private Integer itemQuantity;
+
+    /**
+     * Запрос, по которому создана вещь.
+     */
+    @Column(name = "item_request")
+    private String itemRequest;
+
+    /**
+     * Идентификатор арендатора.
+     */
+    @Column(name = "booker_id")
+    private Long bookerId;
+
+    /**
+     * Имя арендатора.
+     */
+    @Column(name = "booker_name")
+    private String bookerName;
+
+    /**
+     * Электронная почта арендатора.
+     */
+    @Column(name = "booker_email")
+    private String bookerEmail;
+
+    /**
+     * Время начала бронирования.
+     */
+    @Column(name = "start_date")
+    private LocalDateTime start;
+
+    /**
+     * Время окончания бронирования.
+     */
+    @Column(name = "end_date")
+    private LocalDateTime end;
+
+    /**
+     * Статус бронирования.
+     */
+    @Enumerated(EnumType.STRING)
+    private BookingStatus status;
+}
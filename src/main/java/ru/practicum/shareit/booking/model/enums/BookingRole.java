@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.model.enums;
+
+/**
+ * Роль пользователя в бронированиях, по которой они отбираются.
+ * <ul>
+ *     <li>{@link #BOOKER} — бронирования, сделанные пользователем.</li>
+ *     <li>{@link #OWNER} — бронирования вещей, принадлежащих пользователю.</li>
+ * </ul>
+ */
+public enum BookingRole {
+    /**
+     * Пользователь — арендатор.
+     */
+    BOOKER,
+
+    /**
+     * Пользователь — владелец вещей.
+     */
+    OWNER
+}
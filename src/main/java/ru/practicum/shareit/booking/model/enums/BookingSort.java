@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking.model.enums;
+
+/**
+ * Порядок бронирований в результатах запроса.
+ * При равном времени начала бронирования упорядочиваются по ID в том же направлении.
+ * <ul>
+ *     <li>{@link #START_DESC} — от более поздних к более ранним.</li>
+ *     <li>{@link #START_ASC} — от более ранних к более поздним.</li>
+ * </ul>
+ */
+public enum BookingSort {
+    /**
+     * По убыванию времени начала.
+     */
+    START_DESC,
+
+    /**
+     * По возрастанию времени начала.
+     */
+    START_ASC
+}
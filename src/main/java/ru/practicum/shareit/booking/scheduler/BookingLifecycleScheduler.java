@@ -0,0 +1,201 @@
+package ru.practicum.shareit.booking.scheduler;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingDtoShort;
+import ru.practicum.shareit.booking.events.BookingEvent;
+import ru.practicum.shareit.booking.events.BookingTransition;
+import ru.practicum.shareit.booking.model.enums.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingIntervalIndex;
+import ru.practicum.shareit.booking.storage.JpaBookingRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Планировщик событий жизненного цикла бронирований.
+ * <p>
+ * Сроки начала и окончания ожидающих подтверждения и подтверждённых бронирований, а также срок ожидания
+ * подтверждения хранятся в {@link TimingWheel}. Раз в тик ({@code shareit.bookings.scheduler.tick}) время колеса
+ * продвигается, и для наступивших сроков публикуется {@link BookingTransition}. Бронирование, не подтверждённое
+ * за {@code shareit.bookings.waiting.expire-after-start} после начала или до окончания, считается просроченным.
+ * </p>
+ * <p>
+ * При запуске приложения сроки загружаются из базы данных, далее они обновляются по событиям
+ * {@link BookingEvent}: новое бронирование добавляет сроки, подтверждение отменяет срок ожидания,
+ * отклонение и отмена — все сроки бронирования.
+ * </p>
+ */
+@Component
+@Slf4j
+public class BookingLifecycleScheduler {
+
+    private final JpaBookingRepository jpaBookingRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final long tickMillis;
+
+    private final Duration expireAfterStart;
+
+    private final TimingWheel<BookingTransition> wheel;
+
+    /**
+     * Таймеры по ID бронирования. Доступ синхронизирован на {@link #wheel}.
+     */
+    private final Map<Long, List<TimingWheel.Timeout<BookingTransition>>> timeouts = new HashMap<>();
+
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("booking-lifecycle").daemon().factory());
+
+    public BookingLifecycleScheduler(JpaBookingRepository jpaBookingRepository,
+                                     ApplicationEventPublisher eventPublisher,
+                                     @Value("${shareit.bookings.scheduler.tick:PT1S}") Duration tick,
+                                     @Value("${shareit.bookings.waiting.expire-after-start:P1D}")
+                                     Duration expireAfterStart) {
+        this.jpaBookingRepository = jpaBookingRepository;
+        this.eventPublisher = eventPublisher;
+        this.tickMillis = tick.toMillis();
+        this.expireAfterStart = expireAfterStart;
+        this.wheel = new TimingWheel<>(System.currentTimeMillis() / tickMillis);
+    }
+
+    /**
+     * Загружает сроки незавершённых бронирований и запускает отсчёт времени.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void start() {
+        LocalDateTime now = LocalDateTime.now();
+        try (Stream<BookingDtoShort> bookings = jpaBookingRepository.streamUnfinishedBookings(
+                BookingIntervalIndex.BLOCKING_STATUSES, now)) {
+            bookings.forEach(booking -> schedule(booking.id(), booking.itemId(), booking.status(), booking.start(),
+                    booking.end(), now));
+        }
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        log.info("Запущен планировщик бронирований. Таймеров: {}", size());
+    }
+
+    /**
+     * Обновляет сроки бронирования после его создания или изменения статуса.
+     *
+     * @param event событие бронирования
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingEvent(BookingEvent event) {
+        BookingDto booking = event.booking();
+        switch (booking.getStatus()) {
+            case WAITING -> schedule(booking.getId(), booking.getItem().getId(), booking.getStatus(),
+                    booking.getStart(), booking.getEnd(), LocalDateTime.now());
+            case APPROVED -> cancel(booking.getId(), BookingTransition.Type.EXPIRED);
+            default -> cancel(booking.getId(), null);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    private void schedule(long bookingId, long itemId, BookingStatus status, LocalDateTime start,
+                          LocalDateTime end, LocalDateTime now) {
+        List<BookingTransition> transitions = new ArrayList<>(3);
+        List<LocalDateTime> deadlines = new ArrayList<>(3);
+        if (start.isAfter(now)) {
+            transitions.add(new BookingTransition(BookingTransition.Type.STARTED, bookingId, itemId, start));
+            deadlines.add(start);
+        }
+        transitions.add(new BookingTransition(BookingTransition.Type.ENDED, bookingId, itemId, start));
+        deadlines.add(end);
+        if (status == BookingStatus.WAITING) {
+            LocalDateTime expiry = start.plus(expireAfterStart);
+            transitions.add(new BookingTransition(BookingTransition.Type.EXPIRED, bookingId, itemId, start));
+            deadlines.add(expiry.isBefore(end) ? expiry : end);
+        }
+        synchronized (wheel) {
+            List<TimingWheel.Timeout<BookingTransition>> bookingTimeouts = new ArrayList<>(transitions.size());
+            for (int i = 0; i < transitions.size(); i++) {
+                bookingTimeouts.add(wheel.schedule(toTick(deadlines.get(i)), transitions.get(i)));
+            }
+            List<TimingWheel.Timeout<BookingTransition>> previous = timeouts.put(bookingId, bookingTimeouts);
+            if (previous != null) {
+                previous.forEach(wheel::cancel);
+            }
+        }
+    }
+
+    /**
+     * Отменяет таймеры бронирования.
+     *
+     * @param bookingId ID бронирования
+     * @param type      тип отменяемого таймера или {@code null}, чтобы отменить все таймеры бронирования
+     */
+    private void cancel(long bookingId, BookingTransition.Type type) {
+        synchronized (wheel) {
+            List<TimingWheel.Timeout<BookingTransition>> bookingTimeouts = timeouts.get(bookingId);
+            if (bookingTimeouts == null) {
+                return;
+            }
+            bookingTimeouts.removeIf(timeout -> {
+                boolean matches = type == null || timeout.value().type() == type;
+                if (matches) {
+                    wheel.cancel(timeout);
+                }
+                return matches;
+            });
+            if (bookingTimeouts.isEmpty()) {
+                timeouts.remove(bookingId);
+            }
+        }
+    }
+
+    private void tick() {
+        List<BookingTransition> transitions;
+        synchronized (wheel) {
+            transitions = wheel.advance(System.currentTimeMillis() / tickMillis);
+            for (BookingTransition transition : transitions) {
+                List<TimingWheel.Timeout<BookingTransition>> bookingTimeouts = timeouts.get(transition.bookingId());
+                if (bookingTimeouts != null) {
+                    bookingTimeouts.removeIf(timeout -> timeout.value() == transition);
+                    if (bookingTimeouts.isEmpty()) {
+                        timeouts.remove(transition.bookingId());
+                    }
+                }
+            }
+        }
+        for (BookingTransition transition : transitions) {
+            try {
+                eventPublisher.publishEvent(transition);
+            } catch (RuntimeException e) {
+                log.warn("Ошибка обработки события бронирования: {}", transition, e);
+            }
+        }
+    }
+
+    private long toTick(LocalDateTime dateTime) {
+        return Math.ceilDiv(dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), tickMillis);
+    }
+
+    private int size() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package ru.practicum.shareit.booking.scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Иерархическое колесо таймеров.
+ * <p>
+ * Время измеряется в тиках. Колесо состоит из {@value #LEVELS} уровней по {@value #SLOTS} ячеек: ячейка уровня
+ * {@code L} охватывает {@code 64^L} тиков. Таймер помещается в ячейку самого нижнего уровня, на котором его срок
+ * умещается в один оборот, поэтому добавление и отмена выполняются за O(1) независимо от числа таймеров.
+ * Когда время доходит до ячейки верхнего уровня, её таймеры переносятся на нижние уровни; каждый таймер
+ * переносится не более {@value #LEVELS} раз. Промежутки, в которых нижние уровни пусты, пропускаются целиком.
+ * </p>
+ * <p>
+ * Класс не потокобезопасен, вызовы нужно синхронизировать снаружи.
+ * </p>
+ *
+ * @param <T> тип значения таймера
+ */
+final class TimingWheel<T> {
+
+    static final int LEVELS = 6;
+
+    static final int SLOTS = 64;
+
+    private static final int SLOT_BITS = 6;
+
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    /**
+     * Количество тиков, которое охватывает один оборот верхнего уровня.
+     */
+    private static final long SPAN = 1L << (SLOT_BITS * LEVELS);
+
+    private final Timeout<T>[][] slots;
+
+    /**
+     * Количество таймеров на каждом уровне.
+     */
+    private final int[] levelSizes = new int[LEVELS];
+
+    /**
+     * Таймеры, срок которых наступил к моменту добавления.
+     */
+    private final Timeout<T> due = new Timeout<>(0, null);
+
+    private long currentTick;
+
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(long currentTick) {
+        this.currentTick = currentTick;
+        this.slots = new Timeout[LEVELS][SLOTS];
+        for (Timeout<T>[] level : slots) {
+            for (int i = 0; i < SLOTS; i++) {
+                level[i] = new Timeout<>(0, null);
+            }
+        }
+    }
+
+    /**
+     * Добавляет таймер. Таймер со сроком в прошлом сработает при следующем продвижении времени.
+     *
+     * @param deadlineTick тик, в который таймер должен сработать
+     * @param value        значение таймера
+     * @return таймер, который можно отменить
+     */
+    Timeout<T> schedule(long deadlineTick, T value) {
+        Timeout<T> timeout = new Timeout<>(deadlineTick, value);
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Отменяет таймер. Повторная отмена и отмена сработавшего таймера ничего не делают.
+     *
+     * @param timeout таймер
+     */
+    void cancel(Timeout<T> timeout) {
+        if (unlink(timeout)) {
+            size--;
+        }
+    }
+
+    /**
+     * Продвигает время до указанного тика и возвращает значения сработавших таймеров в порядке их сроков.
+     *
+     * @param tick текущий тик
+     * @return значения сработавших таймеров
+     */
+    List<T> advance(long tick) {
+        List<T> expired = new ArrayList<>();
+        drain(due, expired);
+        while (currentTick < tick) {
+            int lowest = 0;
+            while (lowest < LEVELS && levelSizes[lowest] == 0) {
+                lowest++;
+            }
+            if (lowest == LEVELS) {
+                currentTick = tick;
+                break;
+            }
+            if (lowest > 0) {
+                long boundary = (currentTick | ((1L << (SLOT_BITS * lowest)) - 1)) + 1;
+                if (boundary > tick) {
+                    currentTick = tick;
+                    break;
+                }
+                currentTick = boundary - 1;
+            }
+            currentTick++;
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(slots[level][index(currentTick, level)]);
+                }
+            }
+            // таймеры со сроком ровно в этот тик переносятся с верхних уровней в due
+            drain(due, expired);
+            drain(slots[0][index(currentTick, 0)], expired);
+        }
+        return expired;
+    }
+
+    /**
+     * Возвращает количество ожидающих таймеров.
+     *
+     * @return количество таймеров
+     */
+    int size() {
+        return size;
+    }
+
+    private void place(Timeout<T> timeout) {
+        long delta = timeout.deadlineTick - currentTick;
+        if (delta <= 0) {
+            timeout.level = -1;
+            due.append(timeout);
+            return;
+        }
+        long tick = delta < SPAN ? timeout.deadlineTick : currentTick + SPAN - 1;
+        int level = 0;
+        while (level < LEVELS - 1 && Math.min(delta, SPAN - 1) >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        timeout.level = level;
+        levelSizes[level]++;
+        slots[level][index(tick, level)].append(timeout);
+    }
+
+    private boolean unlink(Timeout<T> timeout) {
+        if (!timeout.unlink()) {
+            return false;
+        }
+        if (timeout.level >= 0) {
+            levelSizes[timeout.level]--;
+        }
+        return true;
+    }
+
+    private void cascade(Timeout<T> slot) {
+        Timeout<T> timeout = slot.next;
+        while (timeout != slot) {
+            Timeout<T> next = timeout.next;
+            unlink(timeout);
+            place(timeout);
+            timeout = next;
+        }
+    }
+
+    private void drain(Timeout<T> slot, List<T> expired) {
+        Timeout<T> timeout = slot.next;
+        while (timeout != slot) {
+            Timeout<T> next = timeout.next;
+            unlink(timeout);
+            if (timeout.deadlineTick > currentTick) {
+                place(timeout);
+            } else {
+                size--;
+                expired.add(timeout.value);
+            }
+            timeout = next;
+        }
+    }
+
+    private static int index(long tick, int level) {
+        return (int) (tick >>> (SLOT_BITS * level)) & SLOT_MASK;
+    }
+
+    /**
+     * Таймер колеса — элемент двусвязного списка ячейки. Заголовок ячейки — таймер без значения,
+     * замкнутый сам на себя.
+     *
+     * @param <T> тип значения таймера
+     */
+    static final class Timeout<T> {
+
+        private final long deadlineTick;
+
+        private final T value;
+
+        private Timeout<T> prev = this;
+
+        private Timeout<T> next = this;
+
+        /**
+         * Уровень колеса, на котором находится таймер, или -1 для таймеров с наступившим сроком.
+         */
+        private int level;
+
+        private Timeout(long deadlineTick, T value) {
+            this.deadlineTick = deadlineTick;
+            this.value = value;
+        }
+
+        T value() {
+            return value;
+        }
+
+        private void append(Timeout<T> timeout) {
+            timeout.prev = prev;
+            timeout.next = this;
+            prev.next = timeout;
+            prev = timeout;
+        }
+
+        private boolean unlink() {
+            if (next == this) {
+                return false;
+            }
+            prev.next = next;
+            next.prev = prev;
+            prev = this;
+            next = this;
+            return true;
+        }
+    }
+}
@@ -1,11 +1,16 @@
 package ru.practicum.shareit.booking.service;
 
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
+import ru.practicum.shareit.booking.dto.BookingQuery;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.enums.BookingState;
+import ru.practicum.shareit.pagination.CursorPage;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Интерфейс для сервиса управления бронированиями.
@@ -25,6 +30,15 @@ public interface BookingService {
      */
     BookingDto createBooking(long userId, BookingDtoRequest bookingDtoRequest);
 
+    /**
+     * Создает несколько бронирований в одной транзакции: либо создаются все, либо ни одного.
+     *
+     * @param userId             Идентификатор пользователя, который делает бронирования.
+     * @param bookingDtoRequests Данные для создания бронирований.
+     * @return Созданные бронирования в порядке запросов.
+     */
+    List<BookingDto> createBookings(long userId, List<BookingDtoRequest> bookingDtoRequests);
+
     /**
      * Подтверждает или отклоняет бронирование.
      *
@@ -35,6 +49,17 @@ public interface BookingService {
      */
     BookingDto confirmOrRejectBooking(long userId, long bookingId, boolean approved);
 
+    /**
+     * Подтверждает или отклоняет несколько бронирований вещей пользователя в одной транзакции.
+     * Бронирования, которые уже подтверждены или отклонены, не изменяются.
+     *
+     * @param userId     Идентификатор владельца вещей.
+     * @param bookingIds Идентификаторы бронирований.
+     * @param approved   Статус подтверждения: true для подтверждения, false для отклонения.
+     * @return Указанные бронирования с их статусом после обработки.
+     */
+    List<BookingDto> confirmOrRejectBookings(long userId, Collection<Long> bookingIds, boolean approved);
+
     /**
      * Получает данные о конкретном бронировании по его идентификатору.
      *
@@ -45,22 +70,65 @@ public interface BookingService {
     BookingDto getBookingById(long userId, long bookingId);
 
     /**
-     * Получает список всех бронирований текущего пользователя по указанному состоянию.
+     * Получает страницу бронирований текущего пользователя по указанному состоянию.
+     * Бронирования упорядочены по времени начала от более поздних к более ранним.
      *
      * @param userId Идентификатор пользователя.
      * @param state  Состояние бронирования, по которому нужно получить список.
-     * @return Список объектов BookingDto, соответствующих состоянию бронирования.
+     * @param after  Курсор предыдущей страницы или {@code null} для первой страницы.
+     * @param from   Количество пропускаемых бронирований, если курсор не указан.
+     * @param size   Размер страницы.
+     * @return Страница объектов BookingDto, соответствующих состоянию бронирования.
      */
-    List<BookingDto> getBookingState(long userId, BookingState state);
+    CursorPage<BookingDto> getBookingState(long userId, BookingState state, String after, int from, int size);
 
     /**
-     * Получает список всех бронирований для всех вещей текущего пользователя по указанному состоянию.
+     * Получает страницу бронирований для всех вещей текущего пользователя по указанному состоянию.
+     * Бронирования упорядочены по времени начала от более поздних к более ранним.
      *
      * @param userId Идентификатор пользователя.
      * @param state  Состояние бронирования, по которому нужно получить список.
-     * @return Список объектов BookingDto, соответствующих состоянию бронирования.
+     * @param after  Курсор предыдущей страницы или {@code null} для первой страницы.
+     * @param from   Количество пропускаемых бронирований, если курсор не указан.
+     * @param size   Размер страницы.
+     * @return Страница объектов BookingDto, соответствующих состоянию бронирования.
+     */
+    CursorPage<BookingDto> getAllByOwnerId(long userId, BookingState state, String after, int from, int size);
+
+    /**
+     * Получает страницу бронирований пользователя по произвольному сочетанию фильтров.
+     *
+     * @param userId Идентификатор пользователя.
+     * @param query  Условия отбора и порядок бронирований.
+     * @param after  Курсор предыдущей страницы или {@code null} для первой страницы.
+     * @param size   Размер страницы.
+     * @return Страница объектов BookingDto, удовлетворяющих условиям.
+     */
+    CursorPage<BookingDto> queryBookings(long userId, BookingQuery query, String after, int size);
+
+    /**
+     * Подсчитывает бронирования текущего пользователя по всем состояниям.
+     *
+     * @param userId Идентификатор пользователя.
+     * @return Количество бронирований для каждого состояния.
+     */
+    Map<BookingState, Long> getBookingStateCounts(long userId);
+
+    /**
+     * Подсчитывает бронирования всех вещей текущего пользователя по всем состояниям.
+     *
+     * @param userId Идентификатор пользователя.
+     * @return Количество бронирований для каждого состояния.
+     */
+    Map<BookingState, Long> getOwnerBookingStateCounts(long userId);
+
+    /**
+     * Подписывает пользователя на события его бронирований и бронирований его вещей.
+     *
+     * @param userId Идентификатор пользователя.
+     * @return Поток событий Server-Sent Events.
      */
-    List<BookingDto> getAllByOwnerId(long userId, BookingState state);
+    SseEmitter subscribeToEvents(long userId);
 
     /**
      * Проверяет существование бронирования по его идентификатору.
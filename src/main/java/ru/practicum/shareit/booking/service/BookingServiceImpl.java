@@ -2,24 +2,61 @@ package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoRequest;
+import ru.practicum.shareit.booking.dto.BookingDtoView;
+import ru.practicum.shareit.booking.dto.BookingQuery;
+import ru.practicum.shareit.booking.dto.BookingStateCounts;
+import ru.practicum.shareit.booking.events.BookingEvent;
+import ru.practicum.shareit.booking.events.BookingEventBroker;
+import ru.practicum.shareit.booking.events.BookingTransition;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.enums.BookingSort;
 import ru.practicum.shareit.booking.model.enums.BookingState;
 import ru.practicum.shareit.booking.model.enums.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingBatchWriter;
+import ru.practicum.shareit.booking.storage.BookingCriteriaRepository;
+import ru.practicum.shareit.booking.storage.BookingIntervalIndex;
+import ru.practicum.shareit.booking.storage.JpaArchivedBookingRepository;
 import ru.practicum.shareit.booking.storage.JpaBookingRepository;
+import ru.practicum.shareit.booking.storage.JpaOwnerBookingRepository;
+import ru.practicum.shareit.error.exception.ConflictException;
 import ru.practicum.shareit.error.exception.ForbiddenException;
 import ru.practicum.shareit.error.exception.NotFoundException;
 import ru.practicum.shareit.error.exception.ValidationException;
+import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSnapshot;
+import ru.practicum.shareit.item.search.ItemTagIndex;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.CursorCodec;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.pagination.OffsetLimitRequest;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Реализация сервиса управления бронированиями.
@@ -33,64 +70,286 @@ import java.util.List;
 @Slf4j
 public class BookingServiceImpl implements BookingService {
 
+    /**
+     * Время начала, предшествующее в порядке сортировки всем бронированиям; ключ первой страницы.
+     */
+    private static final LocalDateTime FIRST_PAGE_START = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    /**
+     * Порядок бронирований на странице: по убыванию времени начала, затем по убыванию ID.
+     */
+    private static final Comparator<BookingDtoView> KEYSET_ORDER = Comparator.comparing(BookingDtoView::start)
+            .thenComparing(BookingDtoView::id)
+            .reversed();
+
     private final JpaBookingRepository jpaBookingRepository;
+    private final JpaArchivedBookingRepository jpaArchivedBookingRepository;
+    private final JpaOwnerBookingRepository jpaOwnerBookingRepository;
+    private final BookingCriteriaRepository bookingCriteriaRepository;
+    private final BookingBatchWriter bookingBatchWriter;
     private final UserService userServiceImpl;
     private final ItemService itemServiceImpl;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemTagIndex itemTagIndex;
+    private final BookingEventBroker bookingEventBroker;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Максимальное количество бронирований, обрабатываемых одним пакетным запросом.
+     */
+    @Value("${shareit.bookings.bulk.max-size:100}")
+    private int bulkMaxSize;
+
+    /**
+     * Наибольший размер страницы.
+     */
+    @Value("${shareit.pagination.max-size:1000}")
+    private int maxPageSize;
+
+    /**
+     * Наибольшее смещение {@code from}: дальние страницы запрашиваются по курсору {@code after}.
+     */
+    @Value("${shareit.pagination.max-offset:1000}")
+    private int maxOffset;
+
+    /**
+     * Горизонт архивации: в архиве только бронирования, закончившиеся раньше, чем этот срок назад.
+     */
+    @Value("${shareit.bookings.archive.horizon:P30D}")
+    private Duration archiveHorizon;
 
     /**
      * Создает новое бронирование.
+     * Число ожидающих подтверждения и подтверждённых бронирований вещи, пересекающихся с новым, должно быть
+     * меньше количества вещи, проверка выполняется по индексу {@link BookingIntervalIndex}.
+     * В той же транзакции бронирование добавляется в модель чтения владельца {@code owner_bookings}.
+     * Вещь проверяется и попадает в ответ по снимку из кэша, а бронирование связывается со ссылкой на неё,
+     * поэтому при попадании в кэш вещь не читается из базы данных.
      *
      * @param userId            Идентификатор пользователя, который делает бронирование.
      * @param bookingDtoRequest Объект, содержащий данные для создания бронирования.
      * @return Созданное бронирование в виде объекта BookingDto.
      */
     @Override
+    @Transactional
     public BookingDto createBooking(long userId, BookingDtoRequest bookingDtoRequest) {
         checkTime(bookingDtoRequest);
         User user = userServiceImpl.checkUserExist(userId);
-        Item item = itemServiceImpl.checkItemExist(bookingDtoRequest.getItemId());
-        if (!item.getAvailable()) {
+        ItemSnapshot item = itemServiceImpl.getItemSnapshot(bookingDtoRequest.getItemId());
+        if (!item.available()) {
             throw new ValidationException("Ошибка, вещь недоступна.");
         }
         Booking booking = Booking.builder()
                 .start(bookingDtoRequest.getStart())
                 .end(bookingDtoRequest.getEnd())
-                .item(item)
+                .item(itemServiceImpl.getItemReference(item.id()))
                 .booker(user)
                 .status(BookingStatus.WAITING)
                 .build();
-        Booking bookingResultDao = jpaBookingRepository.save(booking);
+        Booking bookingResultDao = bookingIntervalIndex.admit(item.id(), booking.getStart(), booking.getEnd(),
+                () -> {
+                    Booking saved = jpaBookingRepository.save(booking);
+                    jpaOwnerBookingRepository.copyFromBookings(List.of(saved.getId()));
+                    return saved;
+                });
+        releaseAfterRollback(List.of(bookingResultDao));
         log.info("Создано бронирование DAO: \n{}", bookingResultDao);
         BookingDto bookingResultDto = BookingMapper.toBookingDto(bookingResultDao);
+        bookingResultDto.setItem(ItemMapper.toItem(item));
         log.info("Бронирование DAO: \n{}", bookingResultDto);
+        eventPublisher.publishEvent(new BookingEvent(BookingEvent.Type.CREATED, item.ownerId(), bookingResultDto));
         return bookingResultDto;
     }
 
+    /**
+     * Создает несколько бронирований одной транзакцией: либо сохраняются все, либо ни одного.
+     * <p>
+     * Сначала строки вещей блокируются на запись в порядке возрастания ID и проверяются их существование
+     * и доступность, поэтому индекс не заводит интервалы для несуществующих вещей. Блокировки строк берутся
+     * до блокировок индекса {@link BookingIntervalIndex}: транзакция, изменившая количество вещи, удерживает
+     * строку и ждёт блокировку интервалов вещи, поэтому ожидание строки под блокировкой интервалов привело бы
+     * к взаимной блокировке, которую база данных не обнаружит. Затем интервалы проверяются по индексу с учётом
+     * количества вещей и друг друга, а бронирования вставляются одним пакетом JDBC.
+     * Если транзакция откатывается, время вещей освобождается в индексе.
+     * </p>
+     *
+     * @param userId             Идентификатор пользователя, который делает бронирования.
+     * @param bookingDtoRequests Данные для создания бронирований.
+     * @return Созданные бронирования в порядке запросов.
+     * @throws ValidationException если список пуст, превышает {@code shareit.bookings.bulk.max-size},
+     *                             содержит некорректное время или недоступную вещь.
+     * @throws NotFoundException   если какой-либо вещи не существует.
+     * @throws ConflictException   если для какого-либо бронирования заняты все экземпляры вещи.
+     */
+    @Override
+    @Transactional
+    public List<BookingDto> createBookings(long userId, List<BookingDtoRequest> bookingDtoRequests) {
+        if (bookingDtoRequests.isEmpty()) {
+            throw new ValidationException("Не указаны бронирования.");
+        }
+        if (bookingDtoRequests.size() > bulkMaxSize) {
+            throw new ValidationException("За один запрос можно создать не более " + bulkMaxSize + " бронирований.");
+        }
+        bookingDtoRequests.forEach(this::checkTime);
+        User user = userServiceImpl.checkUserExist(userId);
+        Map<Long, Item> items = itemServiceImpl.lockItemsWithOwner(bookingDtoRequests.stream()
+                        .map(BookingDtoRequest::getItemId)
+                        .toList()).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        items.values().stream()
+                .filter(item -> !item.getAvailable())
+                .findFirst()
+                .ifPresent(item -> {
+                    throw new ValidationException("Ошибка, вещь с ID: " + item.getId() + " недоступна.");
+                });
+        List<Booking> bookings = bookingIntervalIndex.admitAll(bookingDtoRequests, () -> {
+            List<Booking> newBookings = bookingDtoRequests.stream()
+                    .map(request -> Booking.builder()
+                            .start(request.getStart())
+                            .end(request.getEnd())
+                            .item(items.get(request.getItemId()))
+                            .booker(user)
+                            .status(BookingStatus.WAITING)
+                            .build())
+                    .toList();
+            List<Booking> saved = bookingBatchWriter.insertAll(newBookings);
+            jpaOwnerBookingRepository.copyFromBookings(saved.stream().map(Booking::getId).toList());
+            return saved;
+        });
+        releaseAfterRollback(bookings);
+        List<BookingDto> result = bookings.stream().map(BookingMapper::toBookingDto).toList();
+        log.info("Создано бронирований: {}. ID пользователя: {}", result.size(), userId);
+        result.forEach(booking -> eventPublisher.publishEvent(new BookingEvent(BookingEvent.Type.CREATED,
+                booking.getItem().getOwner().getId(), booking)));
+        return result;
+    }
+
     /**
      * Подтверждает или отклоняет бронирование.
+     * <p>
+     * Статус меняется одним условным запросом {@code UPDATE ... WHERE status = 'WAITING'}. Если запрос
+     * не изменил ни одной строки, бронирование не существует, принадлежит чужой вещи или уже обработано,
+     * в том числе одновременным запросом. Статус в модели чтения владельца меняется в той же транзакции.
+     * </p>
      *
      * @param userId    Идентификатор пользователя, который подтверждает или отклоняет бронирование.
      * @param bookingId Идентификатор бронирования, которое нужно подтвердить или отклонить.
      * @param approved  Статус подтверждения: true для подтверждения, false для отклонения.
      * @return Обновленное бронирование в виде объекта BookingDto.
+     * @throws ConflictException если бронирование уже подтверждено или отклонено.
      */
     @Override
+    @Transactional
     public BookingDto confirmOrRejectBooking(long userId, long bookingId, boolean approved) {
+        BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        if (jpaBookingRepository.updateWaitingStatus(List.of(bookingId), userId, status) == 0) {
+            Booking booking = checkBookingExist(bookingId);
+            itemServiceImpl.checkUserAuthorizationForItem(userId, booking.getItem());
+            throw new ConflictException("Бронирование с ID: " + bookingId + " уже обработано. Статус: "
+                    + booking.getStatus());
+        }
+        jpaOwnerBookingRepository.updateStatus(List.of(bookingId), status);
         Booking booking = checkBookingExist(bookingId);
-        itemServiceImpl.checkUserAuthorizationForItem(userId, booking.getItem());
-        if (approved) {
-            booking.setStatus(BookingStatus.APPROVED);
-            log.info("Бронирование подтверждено. BookingStatus: {}", booking.getStatus());
-        } else {
-            booking.setStatus(BookingStatus.REJECTED);
-            log.info("Бронирование отклонено. BookingStatus: {}", booking.getStatus());
-        }
-        jpaBookingRepository.save(booking);
+        if (!approved) {
+            releaseAfterCommit(List.of(booking));
+        }
         BookingDto bookingDto = BookingMapper.toBookingDto(booking);
         log.info("Статус бронирования изменен. ID бронирования: {}, Статус: {}", bookingId, bookingDto.getStatus());
+        eventPublisher.publishEvent(new BookingEvent(BookingEvent.Type.STATUS_CHANGED, userId, bookingDto));
         return bookingDto;
     }
 
+    /**
+     * Подтверждает или отклоняет несколько бронирований вещей пользователя в одной транзакции.
+     * <p>
+     * Бронирования блокируются на запись в порядке возрастания ID, после чего статус ожидающих подтверждения
+     * бронирований меняется одним запросом. Уже подтверждённые или отклонённые бронирования не изменяются.
+     * Время вещей, занятое отклонёнными бронированиями, освобождается в индексе после фиксации транзакции.
+     * </p>
+     *
+     * @param userId     Идентификатор владельца вещей.
+     * @param bookingIds Идентификаторы бронирований.
+     * @param approved   Статус подтверждения: true для подтверждения, false для отклонения.
+     * @return Все указанные бронирования с их статусом после обработки, отсортированные по ID.
+     * @throws ValidationException если список пуст или превышает {@code shareit.bookings.bulk.max-size}.
+     * @throws NotFoundException   если какие-то бронирования не найдены среди бронирований вещей пользователя.
+     */
+    @Override
+    @Transactional
+    public List<BookingDto> confirmOrRejectBookings(long userId, Collection<Long> bookingIds, boolean approved) {
+        Set<Long> ids = new TreeSet<>(bookingIds);
+        if (ids.isEmpty()) {
+            throw new ValidationException("Не указаны ID бронирований.");
+        }
+        if (ids.size() > bulkMaxSize) {
+            throw new ValidationException("За один запрос можно обработать не более " + bulkMaxSize
+                    + " бронирований.");
+        }
+        userServiceImpl.checkUserExist(userId);
+        List<Booking> bookings = jpaBookingRepository.findAllForUpdateByIdInAndOwnerId(ids, userId);
+        if (bookings.size() < ids.size()) {
+            Set<Long> missing = new TreeSet<>(ids);
+            bookings.forEach(booking -> missing.remove(booking.getId()));
+            throw new NotFoundException("Бронирования с ID: " + missing
+                    + " не найдены среди бронирований вещей пользователя.");
+        }
+        List<Booking> waiting = bookings.stream()
+                .filter(booking -> booking.getStatus() == BookingStatus.WAITING)
+                .toList();
+        Set<Long> changedIds = waiting.stream().map(Booking::getId).collect(Collectors.toSet());
+        if (!waiting.isEmpty()) {
+            BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+            if (!approved) {
+                releaseAfterCommit(waiting);
+            }
+            int updated = jpaBookingRepository.updateWaitingStatus(changedIds, userId, status);
+            jpaOwnerBookingRepository.updateStatus(changedIds, status);
+            log.info("Изменён статус бронирований. ID владельца: {}, Статус: {}, изменено: {} из {}", userId,
+                    status, updated, ids.size());
+        }
+        List<BookingDto> result = jpaBookingRepository.findViewsByIdIn(ids).stream()
+                .map(booking -> BookingMapper.toBookingDto(booking, itemTagIndex.tagsOf(booking.itemId())))
+                .toList();
+        result.stream()
+                .filter(booking -> changedIds.contains(booking.getId()))
+                .forEach(booking -> eventPublisher.publishEvent(
+                        new BookingEvent(BookingEvent.Type.STATUS_CHANGED, userId, booking)));
+        return result;
+    }
+
+    /**
+     * Обрабатывает наступление срока бронирования, полученное от
+     * {@link ru.practicum.shareit.booking.scheduler.BookingLifecycleScheduler}.
+     * <p>
+     * По окончании бронирования его интервал удаляется из {@link BookingIntervalIndex}. Бронирование,
+     * не подтверждённое в срок, отменяется условным запросом, если владелец не успел его обработать,
+     * а время вещи освобождается после фиксации отмены.
+     * </p>
+     *
+     * @param transition Событие жизненного цикла бронирования.
+     */
+    @EventListener
+    @Transactional
+    public void onBookingTransition(BookingTransition transition) {
+        switch (transition.type()) {
+            case STARTED -> log.debug("Бронирование началось. ID бронирования: {}", transition.bookingId());
+            case ENDED -> bookingIntervalIndex.release(transition.itemId(), transition.bookingId());
+            case EXPIRED -> {
+                if (jpaBookingRepository.cancelWaiting(transition.bookingId()) == 0) {
+                    return;
+                }
+                jpaOwnerBookingRepository.updateStatus(List.of(transition.bookingId()), BookingStatus.CANCELLED);
+                releaseAfterCommit(transition.itemId(), transition.bookingId());
+                log.info("Бронирование не подтверждено в срок и отменено. ID бронирования: {}",
+                        transition.bookingId());
+                jpaBookingRepository.findViewsByIdIn(List.of(transition.bookingId())).forEach(booking ->
+                        eventPublisher.publishEvent(new BookingEvent(BookingEvent.Type.STATUS_CHANGED,
+                                booking.ownerId(), BookingMapper.toBookingDto(booking,
+                                itemTagIndex.tagsOf(booking.itemId())))));
+            }
+        }
+    }
+
     /**
      * Получает данные о конкретном бронировании по его идентификатору.
      *
@@ -101,7 +360,11 @@ public class BookingServiceImpl implements BookingService {
     @Override
     public BookingDto getBookingById(long userId, long bookingId) {
         userServiceImpl.checkUserExist(userId);
-        Booking booking = checkBookingExist(bookingId);
+        Optional<Booking> hotBooking = jpaBookingRepository.findWithDetailsById(bookingId);
+        if (hotBooking.isEmpty()) {
+            return getArchivedBookingById(userId, bookingId);
+        }
+        Booking booking = hotBooking.get();
         checkUserAuthorizationForBooking(userId, booking);
         BookingDto bookingDto = BookingMapper.toBookingDto(booking);
         log.info("Получено бронирование:\n{}", bookingDto);
@@ -109,64 +372,191 @@ public class BookingServiceImpl implements BookingService {
     }
 
     /**
-     * Получает список всех бронирований текущего пользователя по указанному состоянию.
+     * Получает страницу бронирований текущего пользователя по указанному состоянию.
      *
      * @param userId Идентификатор пользователя.
      * @param state  Состояние бронирования, по которому нужно получить список.
-     * @return Список объектов BookingDto, соответствующих состоянию бронирования.
+     * @param after  Курсор предыдущей страницы или {@code null} для первой страницы.
+     * @param from   Количество пропускаемых бронирований, если курсор не указан.
+     * @param size   Размер страницы.
+     * @return Страница объектов BookingDto, соответствующих состоянию бронирования.
      */
     @Override
-    public List<BookingDto> getBookingState(long userId, BookingState state) {
+    public CursorPage<BookingDto> getBookingState(long userId, BookingState state, String after, int from, int size) {
+        Keyset keyset = toKeyset(after, from, size);
         userServiceImpl.checkUserExist(userId);
         log.info("Получен список бронирований арендатором. Состояние: {}, ID Пользователя: {}", state, userId);
-        return switch (state) {
-            case ALL -> toBookingDtoList(jpaBookingRepository.findAllByBookerIdOrderByStartDesc(userId));
+        LocalDateTime start = keyset.start();
+        long id = keyset.id();
+        Pageable page = keyset.page();
+        List<BookingDtoView> bookings = switch (state) {
+            case ALL -> withArchive(page,
+                    hot -> jpaBookingRepository.findAllByBookerId(userId, start, id, hot),
+                    archive -> jpaArchivedBookingRepository.findAllByBookerId(userId, start, id, archive));
             case CURRENT ->
-                    toBookingDtoList(jpaBookingRepository.findAllByBookerStateCurrent(userId, LocalDateTime.now()));
-            case PAST -> toBookingDtoList(jpaBookingRepository.findAllByBookerStatePast(userId, LocalDateTime.now()));
+                    jpaBookingRepository.findAllByBookerStateCurrent(userId, LocalDateTime.now(), start, id, page);
+            case PAST -> withArchive(page,
+                    hot -> jpaBookingRepository.findAllByBookerStatePast(userId, LocalDateTime.now(), start, id, hot),
+                    archive -> jpaArchivedBookingRepository.findAllByBookerId(userId, start, id, archive));
             case FUTURE ->
-                    toBookingDtoList(jpaBookingRepository.findAllByBookerStateFuture(userId, LocalDateTime.now()));
+                    jpaBookingRepository.findAllByBookerStateFuture(userId, LocalDateTime.now(), start, id, page);
             case WAITING ->
-                    toBookingDtoList(jpaBookingRepository.findAllByBookerIdAndStatus(userId, BookingStatus.WAITING));
-            case REJECTED ->
-                    toBookingDtoList(jpaBookingRepository.findAllByBookerIdAndStatus(userId, BookingStatus.REJECTED));
+                    jpaBookingRepository.findAllByBookerIdAndStatus(userId, BookingStatus.WAITING, start, id, page);
+            case REJECTED -> withArchive(page,
+                    hot -> jpaBookingRepository.findAllByBookerIdAndStatus(userId, BookingStatus.REJECTED, start, id,
+                            hot),
+                    archive -> jpaArchivedBookingRepository.findAllByBookerIdAndStatus(userId, BookingStatus.REJECTED,
+                            start, id, archive));
         };
+        return toBookingDtoPage(bookings, size);
     }
 
     /**
-     * Получает список всех бронирований для всех вещей текущего пользователя по указанному состоянию.
+     * Получает страницу бронирований для всех вещей текущего пользователя по указанному состоянию.
+     * <p>
+     * Страница читается одним запросом из модели чтения {@code owner_bookings} диапазоном индекса одной
+     * таблицы: данные вещи, её владельца и арендатора хранятся в той же строке.
+     * </p>
      *
      * @param userId Идентификатор пользователя.
      * @param state  Состояние бронирования, по которому нужно получить список.
-     * @return Список объектов BookingDto, соответствующих состоянию бронирования.
+     * @param after  Курсор предыдущей страницы или {@code null} для первой страницы.
+     * @param from   Количество пропускаемых бронирований, если курсор не указан.
+     * @param size   Размер страницы.
+     * @return Страница объектов BookingDto, соответствующих состоянию бронирования.
      */
     @Override
-    public List<BookingDto> getAllByOwnerId(long userId, BookingState state) {
+    public CursorPage<BookingDto> getAllByOwnerId(long userId, BookingState state, String after, int from, int size) {
+        Keyset keyset = toKeyset(after, from, size);
         userServiceImpl.checkUserExist(userId);
         log.info("Получен список бронирований владельцем вещей. Состояние: {}, ID Пользователя: {}", state, userId);
-        return switch (state) {
-            case ALL -> toBookingDtoList(jpaBookingRepository.findAllByOwnerId(userId));
-            case CURRENT ->
-                    toBookingDtoList(jpaBookingRepository.findAllByOwnerStateCurrent(userId, LocalDateTime.now()));
-            case PAST -> toBookingDtoList(jpaBookingRepository.findAllByOwnerStatePast(userId, LocalDateTime.now()));
-            case FUTURE ->
-                    toBookingDtoList(jpaBookingRepository.findAllByOwnerStateFuture(userId, LocalDateTime.now()));
-            case WAITING ->
-                    toBookingDtoList(jpaBookingRepository.findAllByOwnerIdAndStatus(userId, BookingStatus.WAITING));
-            case REJECTED ->
-                    toBookingDtoList(jpaBookingRepository.findAllByOwnerIdAndStatus(userId, BookingStatus.REJECTED));
+        LocalDateTime start = keyset.start();
+        long id = keyset.id();
+        Pageable page = keyset.page();
+        List<BookingDtoView> bookings = switch (state) {
+            case ALL -> withArchive(page,
+                    hot -> jpaOwnerBookingRepository.findAllByOwnerId(userId, start, id, hot),
+                    archive -> jpaArchivedBookingRepository.findAllByOwnerId(userId, start, id, archive));
+            case CURRENT -> jpaOwnerBookingRepository.findAllByOwnerStateCurrent(userId, LocalDateTime.now(), start,
+                    id, page);
+            case PAST -> withArchive(page,
+                    hot -> jpaOwnerBookingRepository.findAllByOwnerStatePast(userId, LocalDateTime.now(), start, id,
+                            hot),
+                    archive -> jpaArchivedBookingRepository.findAllByOwnerId(userId, start, id, archive));
+            case FUTURE -> jpaOwnerBookingRepository.findAllByOwnerStateFuture(userId, LocalDateTime.now(), start,
+                    id, page);
+            case WAITING -> jpaOwnerBookingRepository.findAllByOwnerIdAndStatus(userId, BookingStatus.WAITING, start,
+                    id, page);
+            case REJECTED -> withArchive(page,
+                    hot -> jpaOwnerBookingRepository.findAllByOwnerIdAndStatus(userId, BookingStatus.REJECTED, start,
+                            id, hot),
+                    archive -> jpaArchivedBookingRepository.findAllByOwnerIdAndStatus(userId, BookingStatus.REJECTED,
+                            start, id, archive));
         };
+        return toBookingDtoPage(bookings, size);
+    }
+
+    /**
+     * Получает страницу бронирований пользователя по произвольному сочетанию фильтров.
+     * <p>
+     * Запрос к оперативной таблице собирается {@link BookingCriteriaRepository} и выполняется одним
+     * SQL-выражением. Архив запрашивается вторым выражением, только если нижняя граница времени начала
+     * не задана или раньше горизонта архивации: все бронирования архива закончились раньше него.
+     * </p>
+     *
+     * @param userId Идентификатор пользователя.
+     * @param query  Условия отбора и порядок бронирований.
+     * @param after  Курсор предыдущей страницы или {@code null} для первой страницы.
+     * @param size   Размер страницы.
+     * @return Страница объектов BookingDto, удовлетворяющих условиям.
+     * @throws ValidationException если размер страницы, курсор или интервал времени некорректны.
+     */
+    @Override
+    public CursorPage<BookingDto> queryBookings(long userId, BookingQuery query, String after, int size) {
+        CursorCodec.checkSize(size, maxPageSize);
+        if (query.from() != null && query.to() != null && !query.from().isBefore(query.to())) {
+            throw new ValidationException("Начало интервала должно быть раньше его конца.");
+        }
+        LocalDateTime start = null;
+        long id = 0;
+        if (after != null) {
+            String[] values = CursorCodec.decode(after, 2);
+            start = CursorCodec.parseDateTime(values[0], after);
+            id = CursorCodec.parseLong(values[1], after);
+        }
+        userServiceImpl.checkUserExist(userId);
+        log.info("Получен список бронирований по условиям. ID Пользователя: {}, условия: {}", userId, query);
+        List<BookingDtoView> bookings = bookingCriteriaRepository.findAll(userId, query, start, id, size + 1);
+        if (query.from() == null || query.from().isBefore(LocalDateTime.now().minus(archiveHorizon))) {
+            Comparator<BookingDtoView> order = query.sort() == BookingSort.START_ASC
+                    ? KEYSET_ORDER.reversed()
+                    : KEYSET_ORDER;
+            bookings = Stream.concat(bookings.stream(),
+                            bookingCriteriaRepository.findAllArchived(userId, query, start, id, size + 1).stream())
+                    .sorted(order)
+                    .limit(size + 1)
+                    .toList();
+        }
+        return toBookingDtoPage(bookings, size);
+    }
+
+    /**
+     * Подсчитывает бронирования текущего пользователя по всем состояниям одним агрегирующим запросом.
+     *
+     * @param userId Идентификатор пользователя.
+     * @return Количество бронирований для каждого состояния.
+     */
+    @Override
+    public Map<BookingState, Long> getBookingStateCounts(long userId) {
+        userServiceImpl.checkUserExist(userId);
+        Map<BookingState, Long> counts = jpaBookingRepository.countByBookerIdGroupByState(userId, LocalDateTime.now())
+                .plus(jpaArchivedBookingRepository.countByBookerIdGroupByState(userId))
+                .toMap();
+        log.info("Подсчитаны бронирования арендатора. ID Пользователя: {}, {}", userId, counts);
+        return counts;
+    }
+
+    /**
+     * Подсчитывает бронирования всех вещей текущего пользователя по всем состояниям одним агрегирующим запросом.
+     * Оперативные бронирования подсчитываются по модели чтения {@code owner_bookings}.
+     *
+     * @param userId Идентификатор пользователя.
+     * @return Количество бронирований для каждого состояния.
+     */
+    @Override
+    public Map<BookingState, Long> getOwnerBookingStateCounts(long userId) {
+        userServiceImpl.checkUserExist(userId);
+        BookingStateCounts hot = jpaOwnerBookingRepository.countByOwnerIdGroupByState(userId, LocalDateTime.now());
+        Map<BookingState, Long> counts = hot.plus(jpaArchivedBookingRepository.countByOwnerIdGroupByState(userId))
+                .toMap();
+        log.info("Подсчитаны бронирования владельца вещей. ID Пользователя: {}, {}", userId, counts);
+        return counts;
+    }
+
+    /**
+     * Подписывает пользователя на события создания, подтверждения и отклонения его бронирований
+     * и бронирований его вещей.
+     *
+     * @param userId Идентификатор пользователя.
+     * @return Поток событий Server-Sent Events.
+     */
+    @Override
+    public SseEmitter subscribeToEvents(long userId) {
+        userServiceImpl.checkUserExist(userId);
+        return bookingEventBroker.subscribe(userId);
     }
 
     /**
      * Проверяет существование бронирования по его идентификатору.
+     * Бронирование загружается по графу {@link Booking#DETAILS_GRAPH}: вещь, её владелец и арендатор
+     * нужны и для проверки авторизации, и для ответа.
      *
      * @param bookingId Идентификатор проверяемого бронирования.
      * @return Объект Booking, если бронирование существует.
      */
     @Override
     public Booking checkBookingExist(long bookingId) {
-        return jpaBookingRepository.findById(bookingId).orElseThrow(() -> {
+        return jpaBookingRepository.findWithDetailsById(bookingId).orElseThrow(() -> {
             String errorMessage = "Бронирования с ID: " + bookingId + " не существует.";
             log.warn("Ошибка получения: {}", errorMessage);
             return new NotFoundException(errorMessage);
@@ -188,17 +578,158 @@ public class BookingServiceImpl implements BookingService {
     }
 
     /**
-     * Преобразует список объектов Booking в список BookingDto.
+     * Разбирает параметры страницы бронирований.
+     * <p>
+     * Курсор содержит время начала и ID последнего бронирования предыдущей страницы. Без курсора страница
+     * начинается с самого позднего бронирования, а параметр {@code from} задаёт смещение от него. Смещение
+     * ограничено {@code shareit.pagination.max-offset}, поэтому база данных и {@link #withArchive} никогда
+     * не просматривают больше {@code max-offset + size} бронирований.
+     * Страница запрашивается на одно бронирование больше размера, чтобы определить наличие следующей.
+     * </p>
+     *
+     * @param after Курсор предыдущей страницы или {@code null}.
+     * @param from  Количество пропускаемых бронирований.
+     * @param size  Размер страницы.
+     * @return Ключ, после которого начинается страница, и запрос страницы.
+     * @throws ValidationException если смещение отрицательно, больше {@code shareit.pagination.max-offset}
+     *                             или указано вместе с курсором.
+     */
+    private Keyset toKeyset(String after, int from, int size) {
+        CursorCodec.checkSize(size, maxPageSize);
+        if (from < 0) {
+            throw new ValidationException("Параметр from не может быть отрицательным.");
+        }
+        if (from > maxOffset) {
+            throw new ValidationException("Параметр from не может быть больше " + maxOffset
+                    + ", для следующих страниц используйте курсор after.");
+        }
+        if (after == null) {
+            return new Keyset(FIRST_PAGE_START, Long.MAX_VALUE, new OffsetLimitRequest(from, size + 1));
+        }
+        if (from > 0) {
+            throw new ValidationException("Параметр from нельзя указывать вместе с курсором страницы.");
+        }
+        String[] values = CursorCodec.decode(after, 2);
+        return new Keyset(CursorCodec.parseDateTime(values[0], after), CursorCodec.parseLong(values[1], after),
+                new OffsetLimitRequest(0, size + 1));
+    }
+
+    /**
+     * Находит бронирование в архиве и проверяет, что пользователь — арендатор или владелец вещи.
      *
-     * @param bookings Список объектов Booking.
-     * @return Список объектов BookingDto.
+     * @param userId    Идентификатор пользователя, запрашивающего данные о бронировании.
+     * @param bookingId Идентификатор запрашиваемого бронирования.
+     * @return Объект BookingDto с данными о бронировании.
      */
-    private List<BookingDto> toBookingDtoList(List<Booking> bookings) {
-        return bookings.stream().map(BookingMapper::toBookingDto).toList();
+    private BookingDto getArchivedBookingById(long userId, long bookingId) {
+        BookingDtoView booking = jpaArchivedBookingRepository.findViewById(bookingId).orElseThrow(() -> {
+            String errorMessage = "Бронирования с ID: " + bookingId + " не существует.";
+            log.warn("Ошибка получения: {}", errorMessage);
+            return new NotFoundException(errorMessage);
+        });
+        if (userId != booking.bookerId() && userId != booking.ownerId()) {
+            throw new ForbiddenException("Ошибка авторизации.");
+        }
+        BookingDto bookingDto = BookingMapper.toBookingDto(booking, itemTagIndex.tagsOf(booking.itemId()));
+        log.info("Получено архивное бронирование:\n{}", bookingDto);
+        return bookingDto;
     }
 
     /**
-     * Проверяет временные рамки для бронирования.
+     * Запрашивает страницу бронирований из оперативной таблицы и из архива и объединяет их.
+     * <p>
+     * Из каждой таблицы запрашивается столько бронирований, сколько нужно для страницы вместе со смещением,
+     * после чего результаты объединяются в порядке ключа страницы и смещение применяется к объединённому списку.
+     * Смещение ограничено в {@link #toKeyset}, поэтому в памяти не бывает больше
+     * {@code 2 * (max-offset + size + 1)} бронирований.
+     * </p>
+     *
+     * @param page    Смещение и размер страницы.
+     * @param hot     Запрос к оперативной таблице.
+     * @param archive Запрос к архиву.
+     * @return Страница бронирований.
+     */
+    private List<BookingDtoView> withArchive(Pageable page, Function<Pageable, List<BookingDtoView>> hot,
+                                             Function<Pageable, List<BookingDtoView>> archive) {
+        Pageable merged = new OffsetLimitRequest(0, Math.toIntExact(page.getOffset() + page.getPageSize()));
+        return Stream.concat(hot.apply(merged).stream(), archive.apply(merged).stream())
+                .sorted(KEYSET_ORDER)
+                .skip(page.getOffset())
+                .limit(page.getPageSize())
+                .toList();
+    }
+
+    /**
+     * Преобразует результат запроса страницы бронирований в страницу BookingDto.
+     * Теги вещей берутся из индекса {@link ItemTagIndex}, без дополнительных запросов к базе данных.
+     *
+     * @param bookings Проекции бронирований, запрошенные на одно больше размера страницы.
+     * @param size     Размер страницы.
+     * @return Страница объектов BookingDto.
+     */
+    private CursorPage<BookingDto> toBookingDtoPage(List<BookingDtoView> bookings, int size) {
+        return CursorPage.of(bookings, size, booking -> CursorCodec.encode(booking.start(), booking.id()))
+                .map(booking -> BookingMapper.toBookingDto(booking, itemTagIndex.tagsOf(booking.itemId())));
+    }
+
+    /**
+     * Освобождает в индексе время вещей, занятое бронированиями, после фиксации текущей транзакции.
+     *
+     * @param bookings Бронирования, которые перестают занимать время вещей.
+     */
+    private void releaseAfterCommit(List<Booking> bookings) {
+        runAfterCommit(toReleases(bookings));
+    }
+
+    /**
+     * Освобождает в индексе время вещи, занятое бронированием, после фиксации текущей транзакции.
+     *
+     * @param itemId    Идентификатор вещи.
+     * @param bookingId Идентификатор бронирования, которое перестаёт занимать время вещи.
+     */
+    private void releaseAfterCommit(long itemId, long bookingId) {
+        runAfterCommit(List.of(() -> bookingIntervalIndex.release(itemId, bookingId)));
+    }
+
+    private static void runAfterCommit(List<Runnable> releases) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                releases.forEach(Runnable::run);
+            }
+        });
+    }
+
+    /**
+     * Освобождает в индексе время вещей, занятое бронированиями, если текущая транзакция не будет зафиксирована.
+     *
+     * @param bookings Бронирования, добавленные в индекс в текущей транзакции.
+     */
+    private void releaseAfterRollback(List<Booking> bookings) {
+        List<Runnable> releases = toReleases(bookings);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    releases.forEach(Runnable::run);
+                }
+            }
+        });
+    }
+
+    private List<Runnable> toReleases(List<Booking> bookings) {
+        return bookings.stream()
+                .map(booking -> {
+                    long itemId = booking.getItem().getId();
+                    long bookingId = booking.getId();
+                    return (Runnable) () -> bookingIntervalIndex.release(itemId, bookingId);
+                })
+                .toList();
+    }
+
+    /**
+     * Проверяет временные рамки для бронирования. Время окончания ограничено шкалой индекса
+     * {@link BookingIntervalIndex}: более поздние бронирования индекс не смог бы учесть.
      *
      * @param bookingDtoRequest Объект, содержащий данные для создания бронирования.
      */
@@ -215,5 +746,19 @@ public class BookingServiceImpl implements BookingService {
         if (bookingDtoRequest.getStart().isBefore(LocalDateTime.now())) {
             throw new ValidationException("Время начала не может быть раньше текущего времени.");
         }
+        if (bookingDtoRequest.getEnd().isAfter(BookingIntervalIndex.LATEST_END)) {
+            throw new ValidationException("Время конца не может быть позже " + BookingIntervalIndex.LATEST_END
+                    + ".");
+        }
+    }
+
+    /**
+     * Ключ (время начала, ID), после которого начинается страница бронирований.
+     *
+     * @param start Время начала последнего бронирования предыдущей страницы.
+     * @param id    ID последнего бронирования предыдущей страницы.
+     * @param page  Запрос страницы.
+     */
+    private record Keyset(LocalDateTime start, long id, Pageable page) {
     }
-}
\ No newline at end of file
+}
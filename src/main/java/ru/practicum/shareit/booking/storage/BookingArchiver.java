@@ -0,0 +1,134 @@
+package ru.practicum.shareit.booking.storage;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Фоновый перенос завершённых бронирований в архив.
+ * <p>
+ * Раз в {@code shareit.bookings.archive.interval} бронирования, закончившиеся раньше, чем
+ * {@code shareit.bookings.archive.horizon} назад, переносятся из оперативной таблицы {@code bookings}
+ * в {@code bookings_archive} порциями по {@code shareit.bookings.archive.batch-size}. Каждая порция переносится
+ * в отдельной транзакции: строки блокируются, копируются в архив и удаляются из оперативной таблицы.
+ * </p>
+ * <p>
+ * На PostgreSQL архив секционирован по времени окончания бронирования, по секции на год. Секции создаются
+ * перед переносом бронирований соответствующего года. Нужные команды выбираются по
+ * {@code spring.sql.init.platform}.
+ * </p>
+ */
+@Component
+@Slf4j
+public class BookingArchiver {
+
+    private final JpaBookingRepository jpaBookingRepository;
+
+    private final JpaArchivedBookingRepository jpaArchivedBookingRepository;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Duration horizon;
+
+    private final Duration interval;
+
+    private final int batchSize;
+
+    private final boolean partitioned;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("booking-archiver").daemon().factory());
+
+    public BookingArchiver(JpaBookingRepository jpaBookingRepository,
+                           JpaArchivedBookingRepository jpaArchivedBookingRepository,
+                           JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${shareit.bookings.archive.horizon:P30D}") Duration horizon,
+                           @Value("${shareit.bookings.archive.interval:PT1H}") Duration interval,
+                           @Value("${shareit.bookings.archive.batch-size:1000}") int batchSize,
+                           @Value("${spring.sql.init.platform}") String platform) {
+        this.jpaBookingRepository = jpaBookingRepository;
+        this.jpaArchivedBookingRepository = jpaArchivedBookingRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.horizon = horizon;
+        this.interval = interval;
+        this.batchSize = batchSize;
+        this.partitioned = "postgresql".equals(platform);
+    }
+
+    /**
+     * Запускает периодический перенос бронирований в архив.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor.scheduleWithFixedDelay(this::archiveSafely, interval.toMillis(), interval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Переносит в архив все бронирования, закончившиеся раньше горизонта архивации.
+     *
+     * @return количество перенесённых бронирований
+     */
+    public int archive() {
+        LocalDateTime before = LocalDateTime.now().minus(horizon);
+        int total = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> archiveBatch(before));
+            total += moved;
+        } while (moved == batchSize);
+        if (total > 0) {
+            log.info("Перенесены в архив бронирования, закончившиеся до {}. Количество: {}", before, total);
+        }
+        return total;
+    }
+
+    private int archiveBatch(LocalDateTime before) {
+        List<Long> ids = jpaBookingRepository.findIdsForArchiveBefore(before, batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        if (partitioned) {
+            jpaBookingRepository.findEndYears(ids).forEach(this::createPartition);
+        }
+        jpaArchivedBookingRepository.copyFromBookings(ids);
+        jpaBookingRepository.deleteAllByIdIn(ids);
+        return ids.size();
+    }
+
+    private void createPartition(int year) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS bookings_archive_" + year
+                + " PARTITION OF bookings_archive FOR VALUES FROM ('" + year + "-01-01') TO ('" + (year + 1)
+                + "-01-01')");
+    }
+
+    private void archiveSafely() {
+        try {
+            archive();
+        } catch (RuntimeException e) {
+            log.warn("Ошибка переноса бронирований в архив.", e);
+        }
+    }
+}
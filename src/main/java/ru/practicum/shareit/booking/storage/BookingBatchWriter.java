@@ -0,0 +1,80 @@
+package ru.practicum.shareit.booking.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Пакетная вставка бронирований.
+ * <p>
+ * Идентификаторы бронирований генерируются столбцом {@code IDENTITY}, поэтому Hibernate не объединяет
+ * вставки в пакеты. Здесь бронирования вставляются одним пакетом JDBC, а сгенерированные идентификаторы
+ * возвращаются драйвером. Вставка выполняется в текущей транзакции. Время записывается в часовом поясе
+ * {@code hibernate.jdbc.time_zone}, как и при сохранении через Hibernate.
+ * </p>
+ */
+@Component
+public class BookingBatchWriter {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO bookings (start_date, end_date, item_id, booker_id, status)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TimeZone timeZone;
+
+    public BookingBatchWriter(JdbcTemplate jdbcTemplate,
+                              @Value("${spring.jpa.properties.hibernate.jdbc.time_zone:}") String timeZone) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.timeZone = timeZone.isEmpty() ? TimeZone.getDefault() : TimeZone.getTimeZone(timeZone);
+    }
+
+    /**
+     * Вставляет бронирования одним пакетом и заполняет их идентификаторы.
+     *
+     * @param bookings бронирования без идентификаторов
+     * @return те же бронирования с заполненными идентификаторами
+     */
+    public List<Booking> insertAll(List<Booking> bookings) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        Booking booking = bookings.get(i);
+                        Calendar calendar = Calendar.getInstance(timeZone);
+                        statement.setTimestamp(1, Timestamp.valueOf(booking.getStart()), calendar);
+                        statement.setTimestamp(2, Timestamp.valueOf(booking.getEnd()), calendar);
+                        statement.setLong(3, booking.getItem().getId());
+                        statement.setLong(4, booking.getBooker().getId());
+                        statement.setString(5, booking.getStatus().name());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return bookings.size();
+                    }
+                }, keyHolder);
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < bookings.size(); i++) {
+            bookings.get(i).setId(((Number) keys.get(i).get("booking_id")).longValue());
+        }
+        return bookings;
+    }
+}
@@ -0,0 +1,122 @@
+package ru.practicum.shareit.booking.storage;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.dto.BookingDtoView;
+import ru.practicum.shareit.booking.dto.BookingQuery;
+import ru.practicum.shareit.booking.model.AbstractBooking;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.enums.BookingRole;
+import ru.practicum.shareit.booking.model.enums.BookingSort;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Запросы бронирований с произвольным сочетанием фильтров {@link BookingQuery}.
+ * <p>
+ * Запрос собирается через Criteria API и выполняется одним SQL-выражением с той же проекцией
+ * {@link BookingDtoView}, что и фиксированные запросы {@link JpaBookingRepository}. В выражение попадают
+ * только заданные фильтры: условие на арендатора или владельца, время начала и ключ страницы совпадают
+ * с условиями фиксированных запросов, поэтому используются те же индексы {@code (booker_id, start_date)},
+ * {@code (item_id, start_date)} и {@code items (owner_id)}.
+ * </p>
+ */
+@Repository
+@RequiredArgsConstructor
+public class BookingCriteriaRepository {
+
+    private final EntityManager entityManager;
+
+    /**
+     * Находит страницу бронирований в оперативной таблице.
+     *
+     * @param userId     Идентификатор пользователя.
+     * @param query      Условия отбора и порядок бронирований.
+     * @param afterStart Время начала последнего бронирования предыдущей страницы или {@code null}.
+     * @param afterId    Идентификатор последнего бронирования предыдущей страницы.
+     * @param limit      Наибольшее количество бронирований.
+     * @return Страница бронирований с данными вещи, её владельца и арендатора.
+     */
+    public List<BookingDtoView> findAll(long userId, BookingQuery query, LocalDateTime afterStart, long afterId,
+                                        int limit) {
+        return find(Booking.class, userId, query, afterStart, afterId, limit);
+    }
+
+    /**
+     * Находит страницу бронирований в архиве. Условия и порядок такие же, как у {@link #findAll}.
+     *
+     * @param userId     Идентификатор пользователя.
+     * @param query      Условия отбора и порядок бронирований.
+     * @param afterStart Время начала последнего бронирования предыдущей страницы или {@code null}.
+     * @param afterId    Идентификатор последнего бронирования предыдущей страницы.
+     * @param limit      Наибольшее количество бронирований.
+     * @return Страница бронирований с данными вещи, её владельца и арендатора.
+     */
+    public List<BookingDtoView> findAllArchived(long userId, BookingQuery query, LocalDateTime afterStart,
+                                                long afterId, int limit) {
+        return find(ArchivedBooking.class, userId, query, afterStart, afterId, limit);
+    }
+
+    private <B extends AbstractBooking> List<BookingDtoView> find(Class<B> table, long userId, BookingQuery query,
+                                                                  LocalDateTime afterStart, long afterId,
+                                                                  int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookingDtoView> criteria = builder.createQuery(BookingDtoView.class);
+        Root<B> booking = criteria.from(table);
+        Join<B, Item> item = booking.join("item");
+        Join<Item, User> owner = item.join("owner");
+        Join<B, User> booker = booking.join("booker");
+        Path<Long> id = booking.get("id");
+        Path<LocalDateTime> start = booking.get("start");
+        criteria.select(builder.construct(BookingDtoView.class,
+                id, start, booking.get("end"), booking.get("status"),
+                item.get("id"), item.get("name"), item.get("description"), item.get("available"),
+                item.get("quantity"), item.get("request"),
+                owner.get("id"), owner.get("name"), owner.get("email"),
+                booker.get("id"), booker.get("name"), booker.get("email")));
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(query.role() == BookingRole.OWNER
+                ? builder.equal(item.get("owner").get("id"), userId)
+                : builder.equal(booking.get("booker").get("id"), userId));
+        if (query.statuses() != null && !query.statuses().isEmpty()) {
+            predicates.add(booking.get("status").in(query.statuses()));
+        }
+        if (query.itemIds() != null && !query.itemIds().isEmpty()) {
+            predicates.add(booking.get("item").get("id").in(query.itemIds()));
+        }
+        if (query.from() != null) {
+            predicates.add(builder.greaterThanOrEqualTo(start, query.from()));
+        }
+        if (query.to() != null) {
+            predicates.add(builder.lessThan(start, query.to()));
+        }
+        boolean ascending = query.sort() == BookingSort.START_ASC;
+        if (afterStart != null && ascending) {
+            predicates.add(builder.or(builder.greaterThan(start, afterStart),
+                    builder.and(builder.equal(start, afterStart), builder.greaterThan(id, afterId))));
+        } else if (afterStart != null) {
+            predicates.add(builder.or(builder.lessThan(start, afterStart),
+                    builder.and(builder.equal(start, afterStart), builder.lessThan(id, afterId))));
+        }
+        criteria.where(predicates.toArray(Predicate[]::new));
+        criteria.orderBy(ascending
+                ? List.of(builder.asc(start), builder.asc(id))
+                : List.of(builder.desc(start), builder.desc(id)));
+        return entityManager.createQuery(criteria)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
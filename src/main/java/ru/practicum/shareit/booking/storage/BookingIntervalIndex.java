@@ -0,0 +1,442 @@
+package ru.practicum.shareit.booking.storage;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.BookingDtoRequest;
+import ru.practicum.shareit.booking.dto.BookingDtoShort;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.enums.BookingStatus;
+import ru.practicum.shareit.error.exception.ConflictException;
+import ru.practicum.shareit.item.storage.JpaItemRepository;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Индекс интервалов бронирований, не допускающий одновременных бронирований вещи сверх её количества.
+ * <p>
+ * Для каждой вещи хранится {@link OccupancyTree} — дерево отрезков по секундам, в котором каждое ожидающее
+ * подтверждения или подтверждённое бронирование прибавляет единицу к своему интервалу {@code [start, end)}.
+ * Наибольшее число одновременных бронирований на интервале нового бронирования находится за O(log n)
+ * от длины шкалы, сколько бы бронирований вещи ни пересекалось. Интервал округляется до целых секунд
+ * наружу, поэтому бронирования, стыкующиеся внутри одной секунды, считаются пересекающимися.
+ * Интервалы и количество вещи загружаются из базы данных при первом обращении, а закончившиеся интервалы
+ * отбрасываются при следующих проверках.
+ * </p>
+ * <p>
+ * При удалении из индекса интервалы вещи помечаются устаревшими под её блокировкой: проверка, начатая
+ * до удаления, успевает закончиться, а проверка, взявшая блокировку после, повторяется с заново загруженными
+ * интервалами. Бронирования, принятые в ещё не зафиксированных транзакциях, база данных при загрузке не видит,
+ * поэтому до завершения транзакции они хранятся отдельно и добавляются к загруженным интервалам.
+ * Загрузка выполняется вне блокировок словаря, а результат загрузки, начатой до удаления, отбрасывается.
+ * </p>
+ * <p>
+ * Под блокировками интервалов нельзя ждать блокировок строк базы данных: вызывающий код блокирует строки
+ * вещей заранее, а удаление интервалов внутри транзакции откладывается до её фиксации.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BookingIntervalIndex {
+
+    /**
+     * Статусы бронирований, занимающих время вещи.
+     */
+    public static final Set<BookingStatus> BLOCKING_STATUSES = EnumSet.of(BookingStatus.WAITING,
+            BookingStatus.APPROVED);
+
+    /**
+     * Наибольшее время окончания бронирования, которое помещается в шкалу {@link OccupancyTree}.
+     * Более поздние бронирования нужно отклонять до обращения к индексу.
+     */
+    public static final LocalDateTime LATEST_END = LocalDateTime.ofEpochSecond(OccupancyTree.SIZE, 0,
+            ZoneOffset.UTC);
+
+    private final JpaBookingRepository jpaBookingRepository;
+
+    private final JpaItemRepository jpaItemRepository;
+
+    /**
+     * Интервалы бронирований по ID вещи.
+     */
+    private final Map<Long, ItemIntervals> items = new ConcurrentHashMap<>();
+
+    /**
+     * Интервалы бронирований из незавершённых транзакций по ID вещи и ID бронирования.
+     */
+    private final Map<Long, Map<Long, Interval>> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Номер поколения индекса, увеличивается при каждом удалении интервалов.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Проверяет, что на интервале остался свободный экземпляр вещи, и сохраняет бронирование.
+     * Проверка и сохранение выполняются под блокировкой вещи, поэтому два бронирования одной вещи,
+     * претендующие на последний свободный экземпляр, не могут быть сохранены одновременно.
+     *
+     * @param itemId ID вещи
+     * @param start  время начала бронирования
+     * @param end    время окончания бронирования
+     * @param save   сохраняет бронирование, если интервал свободен
+     * @return сохранённое бронирование
+     * @throws ConflictException если на интервале заняты все экземпляры вещи
+     */
+    public Booking admit(long itemId, LocalDateTime start, LocalDateTime end, Supplier<Booking> save) {
+        while (true) {
+            ItemIntervals intervals = intervals(itemId);
+            synchronized (intervals) {
+                if (intervals.stale) {
+                    continue;
+                }
+                intervals.checkFree(itemId, start, end);
+                Booking booking = save.get();
+                intervals.add(booking.getId(), start, end);
+                addPending(itemId, booking);
+                return booking;
+            }
+        }
+    }
+
+    /**
+     * Проверяет, что для каждого из нескольких бронирований остался свободный экземпляр вещи
+     * с учётом остальных бронирований из того же списка, и сохраняет бронирования.
+     * <p>
+     * Блокировки вещей берутся в порядке возрастания ID и удерживаются до окончания сохранения, поэтому
+     * одновременные запросы с пересекающимися наборами вещей не блокируют друг друга взаимно.
+     * Если проверка или сохранение не удались, время, занятое проверенными бронированиями, освобождается.
+     * </p>
+     *
+     * @param requests запросы на бронирование вещей, строки которых уже заблокированы в текущей транзакции
+     * @param save     сохраняет бронирования, если все интервалы свободны
+     * @return сохранённые бронирования
+     * @throws ConflictException если на интервале какого-либо бронирования заняты все экземпляры вещи
+     */
+    public List<Booking> admitAll(List<BookingDtoRequest> requests, Supplier<List<Booking>> save) {
+        while (true) {
+            List<Booking> bookings = tryAdmitAll(requests, save);
+            if (bookings != null) {
+                return bookings;
+            }
+        }
+    }
+
+    /**
+     * Выполняет {@link #admitAll}, если интервалы ни одной из вещей не устарели, иначе возвращает {@code null}.
+     */
+    private List<Booking> tryAdmitAll(List<BookingDtoRequest> requests, Supplier<List<Booking>> save) {
+        Map<Long, ItemIntervals> locks = new TreeMap<>();
+        requests.forEach(request -> locks.computeIfAbsent(request.getItemId(), this::intervals));
+        return withLocks(locks.values().iterator(), () -> {
+            if (locks.values().stream().anyMatch(intervals -> intervals.stale)) {
+                return null;
+            }
+            List<Runnable> rollback = new ArrayList<>();
+            List<Booking> bookings;
+            try {
+                for (BookingDtoRequest request : requests) {
+                    ItemIntervals intervals = locks.get(request.getItemId());
+                    intervals.checkFree(request.getItemId(), request.getStart(), request.getEnd());
+                    intervals.occupy(request.getStart(), request.getEnd(), 1);
+                    rollback.add(() -> intervals.occupy(request.getStart(), request.getEnd(), -1));
+                }
+                bookings = save.get();
+            } catch (RuntimeException e) {
+                rollback.forEach(Runnable::run);
+                throw e;
+            }
+            for (Booking booking : bookings) {
+                locks.get(booking.getItem().getId()).register(booking.getId(), booking.getStart(), booking.getEnd());
+                addPending(booking.getItem().getId(), booking);
+            }
+            return bookings;
+        });
+    }
+
+    /**
+     * Освобождает время вещи, занятое бронированием, которое перестало его занимать.
+     * Если интервалы вещи ещё не загружены, индекс не меняется: при загрузке они будут прочитаны из базы данных.
+     *
+     * @param itemId    ID вещи
+     * @param bookingId ID бронирования
+     */
+    public void release(long itemId, long bookingId) {
+        ItemIntervals intervals = items.get(itemId);
+        if (intervals == null) {
+            return;
+        }
+        synchronized (intervals) {
+            intervals.remove(bookingId);
+        }
+    }
+
+    /**
+     * Удаляет интервалы вещи из индекса. При следующем обращении они будут загружены заново.
+     * Вызывается также при изменении количества вещи. Внутри транзакции интервалы удаляются только
+     * после её фиксации: до этого другие транзакции всё равно загружают прежние данные, а ожидание блокировки
+     * интервалов при удержании блокировок строк могло бы привести к взаимной блокировке с проверкой,
+     * которая под блокировкой интервалов пишет в базу данных.
+     *
+     * @param itemId ID вещи
+     */
+    public void evict(long itemId) {
+        evictAfterCommit(() -> markStale(itemId));
+    }
+
+    /**
+     * Удаляет из индекса интервалы указанных вещей, например всех вещей удалённого владельца.
+     * Интервалы остальных вещей сохраняются. Внутри транзакции интервалы удаляются после её фиксации.
+     *
+     * @param itemIds ID вещей
+     */
+    public void evictAll(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = List.copyOf(itemIds);
+        evictAfterCommit(() -> ids.forEach(this::markStale));
+    }
+
+    /**
+     * Удаляет из индекса интервалы всех вещей.
+     * Используется после удаления всех вещей, когда бронирования удалены каскадом в базе данных.
+     */
+    public void clear() {
+        evictAfterCommit(() -> items.forEach(this::markStale));
+    }
+
+    private void markStale(long itemId) {
+        ItemIntervals intervals;
+        while ((intervals = items.get(itemId)) != null) {
+            markStale(itemId, intervals);
+        }
+    }
+
+    private void evictAfterCommit(Runnable eviction) {
+        Runnable evictNow = () -> {
+            generation.incrementAndGet();
+            eviction.run();
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictNow.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evictNow.run();
+            }
+        });
+    }
+
+    /**
+     * Помечает интервалы вещи устаревшими и удаляет их из индекса после окончания текущей проверки.
+     */
+    private void markStale(long itemId, ItemIntervals intervals) {
+        synchronized (intervals) {
+            intervals.stale = true;
+            items.remove(itemId, intervals);
+        }
+    }
+
+    /**
+     * Запоминает бронирование до завершения транзакции, в которой оно сохранено.
+     * Вне транзакции бронирование уже зафиксировано и будет прочитано при загрузке.
+     */
+    private void addPending(long itemId, Booking booking) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Interval interval = new Interval(booking.getId(), booking.getStart(), booking.getEnd());
+        pending.compute(itemId, (key, intervals) -> {
+            Map<Long, Interval> result = intervals == null ? new HashMap<>() : intervals;
+            result.put(interval.bookingId(), interval);
+            return result;
+        });
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                pending.computeIfPresent(itemId, (key, intervals) -> {
+                    intervals.remove(interval.bookingId());
+                    return intervals.isEmpty() ? null : intervals;
+                });
+            }
+        });
+    }
+
+    private List<Interval> pendingIntervals(long itemId) {
+        List<Interval> result = new ArrayList<>();
+        pending.computeIfPresent(itemId, (key, intervals) -> {
+            result.addAll(intervals.values());
+            return intervals;
+        });
+        return result;
+    }
+
+    /**
+     * Выполняет действие, удерживая блокировки интервалов вещей в порядке итератора.
+     */
+    private <T> T withLocks(Iterator<ItemIntervals> locks, Supplier<T> action) {
+        if (!locks.hasNext()) {
+            return action.get();
+        }
+        ItemIntervals intervals = locks.next();
+        synchronized (intervals) {
+            return withLocks(locks, action);
+        }
+    }
+
+    /**
+     * Возвращает интервалы вещи, при необходимости загружая их из базы данных.
+     * Загрузка выполняется вне блокировки словаря; если за время загрузки интервалы были удалены
+     * из индекса, загрузка повторяется.
+     */
+    private ItemIntervals intervals(long itemId) {
+        while (true) {
+            ItemIntervals intervals = items.get(itemId);
+            if (intervals != null) {
+                return intervals;
+            }
+            long loadGeneration = generation.get();
+            ItemIntervals loaded = load(itemId);
+            intervals = items.compute(itemId, (key, current) -> {
+                if (current != null) {
+                    return current;
+                }
+                return generation.get() == loadGeneration ? loaded : null;
+            });
+            if (intervals != null) {
+                return intervals;
+            }
+        }
+    }
+
+    /**
+     * Загружает интервалы вещи. Незафиксированные бронирования читаются до запроса к базе данных:
+     * бронирование, зафиксированное между этими чтениями, будет найдено запросом.
+     */
+    private ItemIntervals load(long itemId) {
+        List<Interval> inFlight = pendingIntervals(itemId);
+        ItemIntervals intervals = new ItemIntervals(jpaItemRepository.findQuantityById(itemId).orElse(1));
+        for (BookingDtoShort booking : jpaBookingRepository.findIntervalsByItemId(itemId, BLOCKING_STATUSES,
+                LocalDateTime.now())) {
+            intervals.add(booking.id(), booking.start(), booking.end());
+        }
+        for (Interval interval : inFlight) {
+            if (!intervals.byId.containsKey(interval.bookingId())) {
+                intervals.add(interval.bookingId(), interval.start(), interval.end());
+            }
+        }
+        log.debug("Загружены интервалы бронирований вещи. ID вещи: {}, количество: {}, интервалов: {}", itemId,
+                intervals.quantity, intervals.byId.size());
+        return intervals;
+    }
+
+    /**
+     * Интервалы бронирований одной вещи.
+     */
+    private static final class ItemIntervals {
+
+        private final int quantity;
+
+        /**
+         * Интервалы удалены из индекса, проверку нужно повторить с новыми интервалами.
+         */
+        private boolean stale;
+
+        private final OccupancyTree occupancy = new OccupancyTree();
+
+        private final Map<Long, Interval> byId = new HashMap<>();
+
+        private final PriorityQueue<Interval> byEnd = new PriorityQueue<>(Comparator.comparing(Interval::end));
+
+        private ItemIntervals(int quantity) {
+            this.quantity = quantity;
+        }
+
+        private void checkFree(long itemId, LocalDateTime start, LocalDateTime end) {
+            removeFinished();
+            int busy = occupancy.max(fromCell(start), toCell(end));
+            if (busy >= quantity) {
+                throw new ConflictException("Вещь с ID: " + itemId + " уже забронирована с " + start + " по " + end
+                        + ": заняты все экземпляры (" + quantity + ").");
+            }
+        }
+
+        private void add(long bookingId, LocalDateTime start, LocalDateTime end) {
+            occupy(start, end, 1);
+            register(bookingId, start, end);
+        }
+
+        /**
+         * Запоминает бронирование, время которого уже занято в дереве, чтобы его можно было освободить.
+         */
+        private void register(long bookingId, LocalDateTime start, LocalDateTime end) {
+            Interval interval = new Interval(bookingId, start, end);
+            byId.put(bookingId, interval);
+            byEnd.add(interval);
+        }
+
+        private void remove(long bookingId) {
+            Interval interval = byId.remove(bookingId);
+            if (interval != null) {
+                occupy(interval.start(), interval.end(), -1);
+            }
+        }
+
+        private void occupy(LocalDateTime start, LocalDateTime end, int delta) {
+            occupancy.add(fromCell(start), toCell(end), delta);
+        }
+
+        /**
+         * Отбрасывает закончившиеся интервалы. В очереди могут оставаться уже освобождённые интервалы,
+         * они пропускаются.
+         */
+        private void removeFinished() {
+            LocalDateTime now = LocalDateTime.now();
+            while (!byEnd.isEmpty() && !byEnd.peek().end().isAfter(now)) {
+                Interval interval = byEnd.poll();
+                if (byId.remove(interval.bookingId(), interval)) {
+                    occupy(interval.start(), interval.end(), -1);
+                }
+            }
+        }
+
+        private static long fromCell(LocalDateTime start) {
+            return start.toEpochSecond(ZoneOffset.UTC);
+        }
+
+        private static long toCell(LocalDateTime end) {
+            return end.toEpochSecond(ZoneOffset.UTC) + (end.getNano() > 0 ? 1 : 0);
+        }
+    }
+
+    /**
+     * Интервал бронирования.
+     *
+     * @param bookingId ID бронирования
+     * @param start     время начала
+     * @param end       время окончания
+     */
+    private record Interval(long bookingId, LocalDateTime start, LocalDateTime end) {
+    }
+}
@@ -0,0 +1,219 @@
+package ru.practicum.shareit.booking.storage;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.booking.dto.BookingDtoShort;
+import ru.practicum.shareit.booking.dto.BookingDtoView;
+import ru.practicum.shareit.booking.dto.BookingStateCounts;
+import ru.practicum.shareit.booking.model.ArchivedBooking;
+import ru.practicum.shareit.booking.model.enums.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Репозиторий архива завершённых бронирований.
+ * <p>
+ * В архиве только бронирования, закончившиеся раньше горизонта архивации, поэтому для состояний
+ * CURRENT, FUTURE и WAITING он не запрашивается, а все архивные бронирования относятся к состоянию PAST.
+ * </p>
+ */
+public interface JpaArchivedBookingRepository extends JpaRepository<ArchivedBooking, Long> {
+
+    /**
+     * Находит архивное бронирование по идентификатору.
+     *
+     * @param bookingId Идентификатор бронирования.
+     * @return Бронирование с данными вещи, её владельца и арендатора, если есть.
+     */
+    @Query("""
+            SELECT new ru.practicum.shareit.booking.dto.BookingDtoView(
+                b.id, b.start, b.end, b.status, i.id, i.name, i.description, i.available, i.quantity,
+                i.request, o.id, o.name, o.email, u.id, u.name, u.email)
+            FROM ArchivedBooking b
+            JOIN b.item i
+            JOIN i.owner o
+            JOIN b.booker u
+            WHERE b.id = ?1
+            """)
+    Optional<BookingDtoView> findViewById(long bookingId);
+
+    /**
+     * Находит страницу архивных бронирований пользователя.
+     * Порядок и ключ страницы такие же, как у {@link JpaBookingRepository#findAllByBookerId}.
+     *
+     * @param userId Идентификатор пользователя.
+     * @param afterStart Время начала последнего бронирования предыдущей страницы.
+     * @param afterId Идентификатор последнего бронирования предыдущей страницы.
+     * @param page Смещение и размер страницы.
+     * @return Страница бронирований с данными вещи, её владельца и арендатора.
+     */
+    @Query("""
+            SELECT new ru.practicum.shareit.booking.dto.BookingDtoView(
+                b.id, b.start, b.end, b.status, i.id, i.name, i.description, i.available, i.quantity,
+                i.request, o.id, o.name, o.email, u.id, u.name, u.email)
+            FROM ArchivedBooking b
+            JOIN b.item i
+            JOIN i.owner o
+            JOIN b.booker u
+            WHERE b.booker.id = ?1
+              AND (b.start < ?2 OR (b.start = ?2 AND b.id < ?3))
+            ORDER BY b.start DESC, b.id DESC
+            """)
+    List<BookingDtoView> findAllByBookerId(long userId, LocalDateTime afterStart, long afterId, Pageable page);
+
+    /**
+     * Находит страницу архивных бронирований пользователя с указанным статусом.
+     *
+     * @param userId Идентификатор пользователя.
+     * @param status Статус бронирования.
+     * @param afterStart Время начала последнего бронирования предыдущей страницы.
+     * @param afterId Идентификатор последнего бронирования предыдущей страницы.
+     * @param page Смещение и размер страницы.
+     * @return Страница бронирований с данными вещи, её владельца и арендатора.
+     */
+    @Query("""
+            SELECT new ru.practicum.shareit.booking.dto.BookingDtoView(
+                b.id, b.start, b.end, b.status, i.id, i.name, i.description, i.available, i.quantity,
+                i.request, o.id, o.name, o.email, u.id, u.name, u.email)
+            FROM ArchivedBooking b
+            JOIN b.item i
+            JOIN i.owner o
+            JOIN b.booker u
+            WHERE b.booker.id = ?1 AND b.status = ?2
+              AND (b.start < ?3 OR (b.start = ?3 AND b.id < ?4))
+            ORDER BY b.start DESC, b.id DESC
+            """)
+    List<BookingDtoView> findAllByBookerIdAndStatus(long userId, BookingStatus status, LocalDateTime afterStart,
+                                                    long afterId, Pageable page);
+
+    /**
+     * Находит страницу архивных бронирований вещей владельца.
+     *
+     * @param userId Идентификатор владельца.
+     * @param afterStart Время начала последнего бронирования предыдущей страницы.
+     * @param afterId Идентификатор последнего бронирования предыдущей страницы.
+     * @param page Смещение и размер страницы.
+     * @return Страница бронирований с данными вещи, её владельца и арендатора.
+     */
+    @Query("""
+            SELECT new ru.practicum.shareit.booking.dto.BookingDtoView(
+                b.id, b.start, b.end, b.status, i.id, i.name, i.description, i.available, i.quantity,
+                i.request, o.id, o.name, o.email, u.id, u.name, u.email)
+            FROM ArchivedBooking b
+            JOIN b.item i
+            JOIN i.owner o
+            JOIN b.booker u
+            WHERE i.owner.id = ?1
+              AND (b.start < ?2 OR (b.start = ?2 AND b.id < ?3))
+            ORDER BY b.start DESC, b.id DESC
+            """)
+    List<BookingDtoView> findAllByOwnerId(long userId, LocalDateTime afterStart, long afterId, Pageable page);
+
+    /**
+     * Находит страницу архивных бронирований вещей владельца с указанным статусом.
+     *
+     * @param userId Идентификатор владельца.
+     * @param status Статус бронирования.
+     * @param afterStart Время начала последнего бронирования предыдущей страницы.
+     * @param afterId Идентификатор последнего бронирования предыдущей страницы.
+     * @param page Смещение и размер страницы.
+     * @return Страница бронирований с данными вещи, её владельца и арендатора.
+     */
+    @Query("""
+            SELECT new ru.practicum.shareit.booking.dto.BookingDtoView(
+                b.id, b.start, b.end, b.status, i.id, i.name, i.description, i.available, i.quantity,
+                i.request, o.id, o.name, o.email, u.id, u.name, u.email)
+            FROM ArchivedBooking b
+            JOIN b.item i
+            JOIN i.owner o
+            JOIN b.booker u
+            WHERE i.owner.id = ?1 AND b.status = ?2
+              AND (b.start < ?3 OR (b.start = ?3 AND b.id < ?4))
+            ORDER BY b.start DESC, b.id DESC
+            """)
+    List<BookingDtoView> findAllByOwnerIdAndStatus(long userId, BookingStatus status, LocalDateTime afterStart,
+                                                   long afterId, Pageable page);
+
+    /**
+     * Подсчитывает архивные бронирования пользователя по состояниям. Все архивные бронирования завершены.
+     *
+     * @param userId Идентификатор пользователя.
+     * @return Количество бронирований по состояниям.
+     */
+    @Query("""
+            SELECT new ru.practicum.shareit.booking.dto.BookingStateCounts(
+                COUNT(b), 0L, COUNT(b), 0L,
+                COALESCE(SUM(CASE WHEN b.status = ru.practicum.shareit.booking.model.enums.BookingStatus.WAITING
+                                  THEN 1L ELSE 0L END), 0L),
+                COALESCE(SUM(CASE WHEN b.status = ru.practicum.shareit.booking.model.enums.BookingStatus.REJECTED
+                                  THEN 1L ELSE 0L END), 0L))
+            FROM ArchivedBooking b
+            WHERE b.booker.id = ?1
+            """)
+    BookingStateCounts countByBookerIdGroupByState(long userId);
+
+    /**
+     * Подсчитывает архивные бронирования вещей владельца по состояниям. Все архивные бронирования завершены.
+     *
+     * @param userId Идентификатор владельца.
+     * @return Количество бронирований по состояниям.
+     */
+    @Query("""
+            SELECT new ru.practicum.shareit.booking.dto.BookingStateCounts(
+                COUNT(b), 0L, COUNT(b), 0L,
+                COALESCE(SUM(CASE WHEN b.status = ru.practicum.shareit.booking.model.enums.BookingStatus.WAITING
+                                  THEN 1L ELSE 0L END), 0L),
+                COALESCE(SUM(CASE WHEN b.status = ru.practicum.shareit.booking.model.enums.BookingStatus.REJECTED
+                                  THEN 1L ELSE 0L END), 0L))
+            FROM ArchivedBooking b
+            JOIN b.item i
+            WHERE i.owner.id = ?1
+            """)
+    BookingStateCounts countByOwnerIdGroupByState(long userId);
+
+    /**
+     * Находит последние архивные бронирования для набора вещей одним запросом.
+     * Используется для вещей, у которых нет завершённых бронирований в оперативной таблице.
+     *
+     * @param itemIds Идентификаторы вещей.
+     * @return Список последних бронирований вещей.
+     */
+    @Query("""
+            SELECT new ru.practicum.shareit.booking.dto.BookingDtoShort(
+                b.item.id, b.id, b.start, b.end, b.booker.id, b.status)
+            FROM ArchivedBooking b
+            WHERE b.item.id IN ?1
+              AND b.end = (SELECT MAX(lb.end) FROM ArchivedBooking lb WHERE lb.item.id = b.item.id)
+            """)
+    List<BookingDtoShort> findLastBookingsByItemIds(Collection<Long> itemIds);
+
+    /**
+     * Проверяет, что у пользователя есть архивное бронирование вещи, закончившееся до указанного момента.
+     *
+     * @param bookerId Идентификатор арендатора.
+     * @param itemId Идентификатор вещи.
+     * @param localDateTime Момент времени для проверки.
+     * @return {@code true}, если такое бронирование есть.
+     */
+    boolean existsByBookerIdAndItemIdAndEndBefore(long bookerId, long itemId, LocalDateTime localDateTime);
+
+    /**
+     * Копирует бронирования из оперативной таблицы в архив.
+     *
+     * @param bookingIds Идентификаторы бронирований.
+     * @return Количество скопированных бронирований.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO bookings_archive (booking_id, start_date, end_date, item_id, booker_id, status)
+            SELECT booking_id, start_date, end_date, item_id, booker_id, status
+            FROM bookings
+            WHERE booking_id IN ?1
+            """, nativeQuery = true)
+    int copyFromBookings(Collection<Long> bookingIds);
+}
@@ -1,147 +1,273 @@
 package ru.practicum.shareit.booking.storage;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingDtoShort;
+import ru.practicum.shareit.booking.dto.BookingDtoView;
+import ru.practicum.shareit.booking.dto.BookingStateCounts;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.enums.BookingStatus;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface JpaBookingRepository extends JpaRepository<Booking, Long> {
 
     /**
-     * Находит все бронирования пользователя, отсортированные по времени начала (от последнего к первому).
+     * Находит бронирование вместе с вещью, её владельцем и арендатором одним запросом.
      *
-     * @param userId Идентификатор пользователя.
-     * @return Список бронирований.
+     * @param bookingId Идентификатор бронирования.
+     * @return Бронирование, если есть.
      */
-    List<Booking> findAllByBookerIdOrderByStartDesc(long userId);
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    Optional<Booking> findWithDetailsById(long bookingId);
 
     /**
-     * Находит все текущие бронирования пользователя на заданный момент времени.
+     * Находит бронирования из указанного набора, относящиеся к вещам владельца, и блокирует их на запись
+     * до конца транзакции. Строки блокируются в порядке возрастания ID, чтобы параллельные пакетные
+     * операции не приводили к взаимной блокировке.
      *
-     * @param userId Идентификатор пользователя.
-     * @param localDateTime Момент времени для проверки.
-     * @return Список текущих бронирований.
+     * @param bookingIds Идентификаторы бронирований.
+     * @param ownerId Идентификатор владельца вещей.
+     * @return Заблокированные бронирования, отсортированные по ID.
      */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("""
             SELECT b FROM Booking b
-            WHERE b.booker.id = ?1 AND b.start < ?2 AND b.end > ?2
-            ORDER BY b.start DESC
+            WHERE b.id IN ?1 AND b.item.id IN (SELECT i.id FROM Item i WHERE i.owner.id = ?2)
+            ORDER BY b.id
             """)
-    List<Booking> findAllByBookerStateCurrent(long userId, LocalDateTime localDateTime);
+    List<Booking> findAllForUpdateByIdInAndOwnerId(Collection<Long> bookingIds, long ownerId);
 
     /**
-     * Находит все прошедшие бронирования пользователя.
+     * Изменяет статус ожидающих подтверждения бронирований вещей владельца одним запросом.
+     * Бронирования в другом статусе или чужих вещей не изменяются, поэтому из двух одновременных
+     * подтверждений одного бронирования срабатывает только одно.
      *
-     * @param userId Идентификатор пользователя.
-     * @param localDateTime Момент времени для проверки.
-     * @return Список прошедших бронирований.
+     * @param bookingIds Идентификаторы бронирований.
+     * @param ownerId Идентификатор владельца вещей.
+     * @param status Новый статус.
+     * @return Количество изменённых бронирований.
      */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
     @Query("""
-            SELECT b FROM Booking b
-            WHERE b.booker.id = ?1 AND b.end < ?2
-            ORDER BY b.start DESC
+            UPDATE Booking b SET b.status = ?3
+            WHERE b.id IN ?1 AND b.status = ru.practicum.shareit.booking.model.enums.BookingStatus.WAITING
+              AND b.item.id IN (SELECT i.id FROM Item i WHERE i.owner.id = ?2)
             """)
-    List<Booking> findAllByBookerStatePast(long userId, LocalDateTime localDateTime);
+    int updateWaitingStatus(Collection<Long> bookingIds, long ownerId, BookingStatus status);
 
     /**
-     * Находит все будущие бронирования пользователя.
+     * Отменяет бронирование, если оно всё ещё ожидает подтверждения.
+     * Используется для бронирований, не подтверждённых в отведённый срок.
      *
-     * @param userId Идентификатор пользователя.
-     * @param localDateTime Момент времени для проверки.
-     * @return Список будущих бронирований.
+     * @param bookingId Идентификатор бронирования.
+     * @return Количество изменённых бронирований: 0, если бронирование уже обработано или удалено.
      */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
     @Query("""
-            SELECT b FROM Booking b
-            WHERE b.booker.id = ?1 AND ?2 < b.start
-            ORDER BY b.start DESC
+            UPDATE Booking b SET b.status = ru.practicum.shareit.booking.model.enums.BookingStatus.CANCELLED
+            WHERE b.id = ?1 AND b.status = ru.practicum.shareit.booking.model.enums.BookingStatus.WAITING
             """)
-    List<Booking> findAllByBookerStateFuture(long userId, LocalDateTime localDateTime);
+    int cancelWaiting(long bookingId);
 
     /**
-     * Находит все бронирования пользователя с указанным статусом.
+     * Находит бронирования по идентификаторам.
      *
-     * @param userId Идентификатор пользователя.
-     * @param status Статус бронирования.
-     * @return Список бронирований с заданным статусом.
+     * @param bookingIds Идентификаторы бронирований.
+     * @return Бронирования с данными вещи, её владельца и арендатора, отсортированные по ID.
      */
-    List<Booking> findAllByBookerIdAndStatus(long userId, BookingStatus status);
+    @Query("""
+            SELECT new ru.practicum.shareit.booking.dto.BookingDtoView(
+                b.id, b.start, b.end, b.status, i.id, i.name, i.description, i.available, i.quantity,
+                i.request, o.id, o.name, o.email, u.id, u.name, u.email)
+            FROM Booking b
+            JOIN b.item i
+            JOIN i.owner o
+            JOIN b.booker u
+            WHERE b.id IN ?1
+            ORDER BY b.id
+            """)
+    List<BookingDtoView> findViewsByIdIn(Collection<Long> bookingIds);
 
     /**
-     * Находит все бронирования для владельца вещей.
+     * Находит страницу бронирований пользователя.
+     * <p>
+     * Бронирования упорядочены по времени начала (от последнего к первому), а при равном времени начала —
+     * по убыванию ID. Страница начинается после бронирования с ключом ({@code afterStart}, {@code afterId}).
+     * </p>
      *
-     * @param userId Идентификатор владельца.
-     * @return Список всех бронирований для владельца.
+     * @param userId Идентификатор пользователя.
+     * @param afterStart Время начала последнего бронирования предыдущей страницы.
+     * @param afterId Идентификатор последнего бронирования предыдущей страницы.
+     * @param page Смещение и размер страницы.
+     * @return Страница бронирований с данными вещи, её владельца и арендатора.
      */
     @Query("""
-            SELECT b FROM Booking b
-            JOIN Item i
-            WHERE i.owner.id = ?1
-            ORDER BY b.start DESC
+            SELECT new ru.practicum.shareit.booking.dto.BookingDtoView(
+                b.id, b.start, b.end, b.status, i.id, i.name, i.description, i.available, i.quantity,
+                i.request, o.id, o.name, o.email, u.id, u.name, u.email)
+            FROM Booking b
+            JOIN b.item i
+            JOIN i.owner o
+            JOIN b.booker u
+            WHERE b.booker.id = ?1
+              AND (b.start < ?2 OR (b.start = ?2 AND b.id < ?3))
+            ORDER BY b.start DESC, b.id DESC
             """)
-    List<Booking> findAllByOwnerId(long userId);
+    List<BookingDtoView> findAllByBookerId(long userId, LocalDateTime afterStart, long afterId, Pageable page);
 
     /**
-     * Находит все текущие бронирования для владельца на заданный момент времени.
+     * Находит страницу текущих бронирований пользователя на заданный момент времени.
+     * <p>
+     * Бронирования упорядочены по времени начала (от последнего к первому), а при равном времени начала —
+     * по убыванию ID. Страница начинается после бронирования с ключом ({@code afterStart}, {@code afterId}).
+     * </p>
      *
-     * @param userId Идентификатор владельца.
+     * @param userId Идентификатор пользователя.
      * @param localDateTime Момент времени для проверки.
-     * @return Список текущих бронирований для владельца.
+     * @param afterStart Время начала последнего бронирования предыдущей страницы.
+     * @param afterId Идентификатор последнего бронирования предыдущей страницы.
+     * @param page Смещение и размер страницы.
+     * @return Страница бронирований с данными вещи, её владельца и арендатора.
      */
     @Query("""
-            SELECT b FROM Booking b
-            JOIN Item i
-            WHERE i.owner.id = ?1 AND b.start < ?2 AND b.end > ?2
-            ORDER BY b.start DESC
+            SELECT new ru.practicum.shareit.booking.dto.BookingDtoView(
+                b.id, b.start, b.end, b.status, i.id, i.name, i.description, i.available, i.quantity,
+                i.request, o.id, o.name, o.email, u.id, u.name, u.email)
+            FROM Booking b
+            JOIN b.item i
+            JOIN i.owner o
+            JOIN b.booker u
+            WHERE b.booker.id = ?1 AND b.start < ?2 AND b.end > ?2
+              AND (b.start < ?3 OR (b.start = ?3 AND b.id < ?4))
+            ORDER BY b.start DESC, b.id DESC
             """)
-    List<Booking> findAllByOwnerStateCurrent(long userId, LocalDateTime localDateTime);
+    List<BookingDtoView> findAllByBookerStateCurrent(long userId, LocalDateTime localDateTime, LocalDateTime afterStart,
+                                                     long afterId, Pageable page);
 
     /**
-     * Находит все прошедшие бронирования для владельца.
+     * Находит страницу прошедших бронирований пользователя.
+     * <p>
+     * Бронирования упорядочены по времени начала (от последнего к первому), а при равном времени начала —
+     * по убыванию ID. Страница начинается после бронирования с ключом ({@code afterStart}, {@code afterId}).
+     * </p>
      *
-     * @param userId Идентификатор владельца.
+     * @param userId Идентификатор пользователя.
      * @param localDateTime Момент времени для проверки.
-     * @return Список прошедших бронирований для владельца.
+     * @param afterStart Время начала последнего бронирования предыдущей страницы.
+     * @param afterId Идентификатор последнего бронирования предыдущей страницы.
+     * @param page Смещение и размер страницы.
+     * @return Страница бронирований с данными вещи, её владельца и арендатора.
      */
     @Query("""
-            SELECT b FROM Booking b
-            JOIN Item i
-            WHERE i.owner.id = ?1 AND b.end < ?2
-            ORDER BY b.start DESC
+            SELECT new ru.practicum.shareit.booking.dto.BookingDtoView(
+                b.id, b.start, b.end, b.status, i.id, i.name, i.description, i.available, i.quantity,
+                i.request, o.id, o.name, o.email, u.id, u.name, u.email)
+            FROM Booking b
+            JOIN b.item i
+            JOIN i.owner o
+            JOIN b.booker u
+            WHERE b.booker.id = ?1 AND b.end < ?2
+              AND (b.start < ?3 OR (b.start = ?3 AND b.id < ?4))
+            ORDER BY b.start DESC, b.id DESC
             """)
-    List<Booking> findAllByOwnerStatePast(long userId, LocalDateTime localDateTime);
+    List<BookingDtoView> findAllByBookerStatePast(long userId, LocalDateTime localDateTime, LocalDateTime afterStart,
+                                                  long afterId, Pageable page);
 
     /**
-     * Находит все будущие бронирования для владельца.
+     * Находит страницу будущих бронирований пользователя.
+     * <p>
+     * Бронирования упорядочены по времени начала (от последнего к первому), а при равном времени начала —
+     * по убыванию ID. Страница начинается после бронирования с ключом ({@code afterStart}, {@code afterId}).
+     * </p>
      *
-     * @param userId Идентификатор владельца.
+     * @param userId Идентификатор пользователя.
      * @param localDateTime Момент времени для проверки.
-     * @return Список будущих бронирований для владельца.
+     * @param afterStart Время начала последнего бронирования предыдущей страницы.
+     * @param afterId Идентификатор последнего бронирования предыдущей страницы.
+     * @param page Смещение и размер страницы.
+     * @return Страница бронирований с данными вещи, её владельца и арендатора.
      */
     @Query("""
-            SELECT b FROM Booking b
-            JOIN Item i
-            WHERE i.owner.id = ?1 AND ?2 < b.start
-            ORDER BY b.start DESC
+            SELECT new ru.practicum.shareit.booking.dto.BookingDtoView(
+                b.id, b.start, b.end, b.status, i.id, i.name, i.description, i.available, i.quantity,
+                i.request, o.id, o.name, o.email, u.id, u.name, u.email)
+            FROM Booking b
+            JOIN b.item i
+            JOIN i.owner o
+            JOIN b.booker u
+            WHERE b.booker.id = ?1 AND ?2 < b.start
+              AND (b.start < ?3 OR (b.start = ?3 AND b.id < ?4))
+            ORDER BY b.start DESC, b.id DESC
             """)
-    List<Booking> findAllByOwnerStateFuture(long userId, LocalDateTime localDateTime);
+    List<BookingDtoView> findAllByBookerStateFuture(long userId, LocalDateTime localDateTime, LocalDateTime afterStart,
+                                                    long afterId, Pageable page);
 
     /**
-     * Находит все бронирования владельца с указанным статусом.
+     * Находит страницу бронирований пользователя с указанным статусом.
+     * <p>
+     * Бронирования упорядочены по времени начала (от последнего к первому), а при равном времени начала —
+     * по убыванию ID. Страница начинается после бронирования с ключом ({@code afterStart}, {@code afterId}).
+     * </p>
      *
-     * @param userId Идентификатор владельца.
+     * @param userId Идентификатор пользователя.
      * @param status Статус бронирования.
-     * @return Список бронирований владельца с заданным статусом.
+     * @param afterStart Время начала последнего бронирования предыдущей страницы.
+     * @param afterId Идентификатор последнего бронирования предыдущей страницы.
+     * @param page Смещение и размер страницы.
+     * @return Страница бронирований с данными вещи, её владельца и арендатора.
      */
     @Query("""
-            SELECT b FROM Booking b
-            JOIN Item i
-            WHERE i.owner.id = ?1 AND b.status = ?2
+            SELECT new ru.practicum.shareit.booking.dto.BookingDtoView(
+                b.id, b.start, b.end, b.status, i.id, i.name, i.description, i.available, i.quantity,
+                i.request, o.id, o.name, o.email, u.id, u.name, u.email)
+            FROM Booking b
+            JOIN b.item i
+            JOIN i.owner o
+            JOIN b.booker u
+            WHERE b.booker.id = ?1 AND b.status = ?2
+              AND (b.start < ?3 OR (b.start = ?3 AND b.id < ?4))
+            ORDER BY b.start DESC, b.id DESC
             """)
-    List<Booking> findAllByOwnerIdAndStatus(long userId, BookingStatus status);
+    List<BookingDtoView> findAllByBookerIdAndStatus(long userId, BookingStatus status, LocalDateTime afterStart,
+                                                    long afterId, Pageable page);
+
+    /**
+     * Подсчитывает бронирования пользователя по всем состояниям одним запросом.
+     *
+     * @param userId Идентификатор пользователя.
+     * @param localDateTime Момент времени, относительно которого определяются состояния.
+     * @return Количество бронирований по состояниям.
+     */
+    @Query("""
+            SELECT new ru.practicum.shareit.booking.dto.BookingStateCounts(
+                COUNT(b),
+                COALESCE(SUM(CASE WHEN b.start < ?2 AND b.end > ?2 THEN 1L ELSE 0L END), 0L),
+                COALESCE(SUM(CASE WHEN b.end < ?2 THEN 1L ELSE 0L END), 0L),
+                COALESCE(SUM(CASE WHEN ?2 < b.start THEN 1L ELSE 0L END), 0L),
+                COALESCE(SUM(CASE WHEN b.status = ru.practicum.shareit.booking.model.enums.BookingStatus.WAITING
+                                  THEN 1L ELSE 0L END), 0L),
+                COALESCE(SUM(CASE WHEN b.status = ru.practicum.shareit.booking.model.enums.BookingStatus.REJECTED
+                                  THEN 1L ELSE 0L END), 0L))
+            FROM Booking b
+            WHERE b.booker.id = ?1
+            """)
+    BookingStateCounts countByBookerIdGroupByState(long userId, LocalDateTime localDateTime);
 
     /**
      * Находит последнее бронирование для вещи по идентификатору.
@@ -173,6 +299,109 @@ public interface JpaBookingRepository extends JpaRepository<Booking, Long> {
             """)
     Optional<Booking> findNextBookingByBookerId(long itemId, LocalDateTime localDateTime);
 
+    /**
+     * Находит последние бронирования сразу для набора вещей одним запросом.
+     * <p>
+     * Для каждой вещи выбирается бронирование с максимальным временем окончания среди завершённых
+     * к указанному моменту. При совпадении времени окончания у одной вещи может вернуться
+     * несколько строк — выбор между ними остаётся за вызывающим кодом.
+     * </p>
+     *
+     * @param itemIds Идентификаторы вещей.
+     * @param localDateTime Момент времени для проверки.
+     * @return Список последних бронирований вещей.
+     */
+    @Query("""
+            SELECT new ru.practicum.shareit.booking.dto.BookingDtoShort(
+                b.item.id, b.id, b.start, b.end, b.booker.id, b.status)
+            FROM Booking b
+            WHERE b.item.id IN ?1 AND b.end < ?2
+              AND b.end = (SELECT MAX(lb.end) FROM Booking lb
+                           WHERE lb.item.id = b.item.id AND lb.end < ?2)
+            """)
+    List<BookingDtoShort> findLastBookingsByItemIds(Collection<Long> itemIds, LocalDateTime localDateTime);
+
+    /**
+     * Находит следующие бронирования сразу для набора вещей одним запросом.
+     * <p>
+     * Для каждой вещи выбирается бронирование с минимальным временем начала среди ещё не начавшихся
+     * к указанному моменту. При совпадении времени начала у одной вещи может вернуться
+     * несколько строк — выбор между ними остаётся за вызывающим кодом.
+     * </p>
+     *
+     * @param itemIds Идентификаторы вещей.
+     * @param localDateTime Момент времени для проверки.
+     * @return Список следующих бронирований вещей.
+     */
+    @Query("""
+            SELECT new ru.practicum.shareit.booking.dto.BookingDtoShort(
+                b.item.id, b.id, b.start, b.end, b.booker.id, b.status)
+            FROM Booking b
+            WHERE b.item.id IN ?1 AND b.start > ?2
+              AND b.start = (SELECT MIN(nb.start) FROM Booking nb
+                             WHERE nb.item.id = b.item.id AND nb.start > ?2)
+            """)
+    List<BookingDtoShort> findNextBookingsByItemIds(Collection<Long> itemIds, LocalDateTime localDateTime);
+
+    /**
+     * Находит бронирования вещи с указанными статусами, которые заканчиваются после заданного момента.
+     * Используется для построения индекса интервалов бронирований вещи.
+     *
+     * @param itemId Идентификатор вещи.
+     * @param statuses Статусы бронирований.
+     * @param localDateTime Момент времени для проверки.
+     * @return Список бронирований, отсортированный по времени начала.
+     */
+    @Query("""
+            SELECT new ru.practicum.shareit.booking.dto.BookingDtoShort(
+                b.item.id, b.id, b.start, b.end, b.booker.id, b.status)
+            FROM Booking b
+            WHERE b.item.id = ?1 AND b.status IN ?2 AND b.end > ?3
+            ORDER BY b.start
+            """)
+    List<BookingDtoShort> findIntervalsByItemId(long itemId, Collection<BookingStatus> statuses,
+                                                LocalDateTime localDateTime);
+
+    /**
+     * Возвращает поток бронирований вещи с указанным статусом, пересекающихся с промежутком {@code [from, to)}.
+     * Бронирования читаются порциями по индексу {@code idx_bookings_item_start} в порядке времени начала.
+     * Поток нужно читать внутри транзакции и закрывать после использования.
+     *
+     * @param itemId Идентификатор вещи.
+     * @param status Статус бронирований.
+     * @param from Начало промежутка.
+     * @param to Конец промежутка.
+     * @return Поток бронирований, отсортированный по времени начала.
+     */
+    @Query("""
+            SELECT new ru.practicum.shareit.booking.dto.BookingDtoShort(
+                b.item.id, b.id, b.start, b.end, b.booker.id, b.status)
+            FROM Booking b
+            WHERE b.item.id = ?1 AND b.status = ?2 AND b.start < ?4 AND b.end > ?3
+            ORDER BY b.start
+            """)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"))
+    Stream<BookingDtoShort> streamBookingsInRange(long itemId, BookingStatus status, LocalDateTime from,
+                                                  LocalDateTime to);
+
+    /**
+     * Возвращает поток всех бронирований с указанными статусами, которые заканчиваются после заданного момента.
+     * Используется для загрузки сроков бронирований в планировщик при запуске приложения.
+     * Поток нужно читать внутри транзакции и закрывать после использования.
+     *
+     * @param statuses Статусы бронирований.
+     * @param localDateTime Момент времени для проверки.
+     * @return Поток бронирований.
+     */
+    @Query("""
+            SELECT new ru.practicum.shareit.booking.dto.BookingDtoShort(
+                b.item.id, b.id, b.start, b.end, b.booker.id, b.status)
+            FROM Booking b
+            WHERE b.status IN ?1 AND b.end > ?2
+            """)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<BookingDtoShort> streamUnfinishedBookings(Collection<BookingStatus> statuses, LocalDateTime localDateTime);
+
     /**
      * Проверяет авторизацию на отзыв о вещи после аренды.
      *
@@ -186,4 +415,44 @@ public interface JpaBookingRepository extends JpaRepository<Booking, Long> {
             WHERE b.booker.id = ?1 AND b.item.id = ?2 AND b.end < ?3
             """)
     Optional<Booking> checkItemReviewAuthorizationAfterRental(long bookerId, long itemId, LocalDateTime localDateTime);
+
+    /**
+     * Находит бронирования, закончившиеся до указанного момента, и блокирует их на запись до конца транзакции.
+     * Используется при переносе завершённых бронирований в архив.
+     *
+     * @param localDateTime Горизонт архивации.
+     * @param limit Максимальное количество бронирований.
+     * @return Идентификаторы бронирований в порядке возрастания.
+     */
+    @Query(value = """
+            SELECT booking_id FROM bookings
+            WHERE end_date < ?1
+            ORDER BY booking_id
+            FETCH FIRST ?2 ROWS ONLY
+            FOR UPDATE
+            """, nativeQuery = true)
+    List<Long> findIdsForArchiveBefore(LocalDateTime localDateTime, int limit);
+
+    /**
+     * Возвращает годы окончания указанных бронирований.
+     * Используется для создания секций архива на PostgreSQL перед переносом.
+     *
+     * @param bookingIds Идентификаторы бронирований.
+     * @return Годы окончания без повторов.
+     */
+    @Query(value = """
+            SELECT DISTINCT CAST(EXTRACT(YEAR FROM end_date) AS INTEGER) FROM bookings
+            WHERE booking_id IN ?1
+            """, nativeQuery = true)
+    List<Integer> findEndYears(Collection<Long> bookingIds);
+
+    /**
+     * Удаляет бронирования по идентификаторам одним запросом.
+     *
+     * @param bookingIds Идентификаторы бронирований.
+     * @return Количество удалённых бронирований.
+     */
+    @Modifying
+    @Query("DELETE FROM Booking b WHERE b.id IN ?1")
+    int deleteAllByIdIn(Collection<Long> bookingIds);
 }
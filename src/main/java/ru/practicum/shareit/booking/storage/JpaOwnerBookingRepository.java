@@ -0,0 +1,242 @@
+package ru.practicum.shareit.booking.storage;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingDtoView;
+import ru.practicum.shareit.booking.dto.BookingStateCounts;
+import ru.practicum.shareit.booking.model.OwnerBooking;
+import ru.practicum.shareit.booking.model.enums.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Репозиторий модели чтения бронирований для владельцев вещей.
+ * <p>
+ * Страницы читаются одним запросом к одной таблице: условия и порядок вычисляются по индексам
+ * {@code (owner_id, start_date, booking_id)} и {@code (owner_id, status, start_date)}, а все данные для ответа
+ * хранятся в самой строке модели чтения. Бронирования упорядочены по времени начала (от последнего к первому),
+ * а при равном времени начала — по убыванию ID. Страница начинается после бронирования с ключом
+ * ({@code afterStart}, {@code afterId}).
+ * </p>
+ */
+public interface JpaOwnerBookingRepository extends JpaRepository<OwnerBooking, Long> {
+
+    /**
+     * Находит страницу бронирований вещей владельца.
+     *
+     * @param userId Идентификатор владельца.
+     * @param afterStart Время начала последнего бронирования предыдущей страницы.
+     * @param afterId Идентификатор последнего бронирования предыдущей страницы.
+     * @param page Смещение и размер страницы.
+     * @return Страница бронирований с данными вещи, её владельца и арендатора.
+     */
+    @Query("""
+            SELECT new ru.practicum.shareit.booking.dto.BookingDtoView(
+                b.id, b.start, b.end, b.status, b.itemId, b.itemName, b.itemDescription, b.itemAvailable,
+                b.itemQuantity, b.itemRequest, b.ownerId, b.ownerName, b.ownerEmail, b.bookerId, b.bookerName,
+                b.bookerEmail)
+            FROM OwnerBooking b
+            WHERE b.ownerId = ?1
+              AND (b.start < ?2 OR (b.start = ?2 AND b.id < ?3))
+            ORDER BY b.start DESC, b.id DESC
+            """)
+    List<BookingDtoView> findAllByOwnerId(long userId, LocalDateTime afterStart, long afterId, Pageable page);
+
+    /**
+     * Находит страницу текущих бронирований вещей владельца на заданный момент времени.
+     *
+     * @param userId Идентификатор владельца.
+     * @param localDateTime Момент времени для проверки.
+     * @param afterStart Время начала последнего бронирования предыдущей страницы.
+     * @param afterId Идентификатор последнего бронирования предыдущей страницы.
+     * @param page Смещение и размер страницы.
+     * @return Страница бронирований с данными вещи, её владельца и арендатора.
+     */
+    @Query("""
+            SELECT new ru.practicum.shareit.booking.dto.BookingDtoView(
+                b.id, b.start, b.end, b.status, b.itemId, b.itemName, b.itemDescription, b.itemAvailable,
+                b.itemQuantity, b.itemRequest, b.ownerId, b.ownerName, b.ownerEmail, b.bookerId, b.bookerName,
+                b.bookerEmail)
+            FROM OwnerBooking b
+            WHERE b.ownerId = ?1 AND b.start < ?2 AND b.end > ?2
+              AND (b.start < ?3 OR (b.start = ?3 AND b.id < ?4))
+            ORDER BY b.start DESC, b.id DESC
+            """)
+    List<BookingDtoView> findAllByOwnerStateCurrent(long userId, LocalDateTime localDateTime,
+                                                    LocalDateTime afterStart, long afterId, Pageable page);
+
+    /**
+     * Находит страницу прошедших бронирований вещей владельца.
+     *
+     * @param userId Идентификатор владельца.
+     * @param localDateTime Момент времени для проверки.
+     * @param afterStart Время начала последнего бронирования предыдущей страницы.
+     * @param afterId Идентификатор последнего бронирования предыдущей страницы.
+     * @param page Смещение и размер страницы.
+     * @return Страница бронирований с данными вещи, её владельца и арендатора.
+     */
+    @Query("""
+            SELECT new ru.practicum.shareit.booking.dto.BookingDtoView(
+                b.id, b.start, b.end, b.status, b.itemId, b.itemName, b.itemDescription, b.itemAvailable,
+                b.itemQuantity, b.itemRequest, b.ownerId, b.ownerName, b.ownerEmail, b.bookerId, b.bookerName,
+                b.bookerEmail)
+            FROM OwnerBooking b
+            WHERE b.ownerId = ?1 AND b.end < ?2
+              AND (b.start < ?3 OR (b.start = ?3 AND b.id < ?4))
+            ORDER BY b.start DESC, b.id DESC
+            """)
+    List<BookingDtoView> findAllByOwnerStatePast(long userId, LocalDateTime localDateTime, LocalDateTime afterStart,
+                                                 long afterId, Pageable page);
+
+    /**
+     * Находит страницу будущих бронирований вещей владельца.
+     *
+     * @param userId Идентификатор владельца.
+     * @param localDateTime Момент времени для проверки.
+     * @param afterStart Время начала последнего бронирования предыдущей страницы.
+     * @param afterId Идентификатор последнего бронирования предыдущей страницы.
+     * @param page Смещение и размер страницы.
+     * @return Страница бронирований с данными вещи, её владельца и арендатора.
+     */
+    @Query("""
+            SELECT new ru.practicum.shareit.booking.dto.BookingDtoView(
+                b.id, b.start, b.end, b.status, b.itemId, b.itemName, b.itemDescription, b.itemAvailable,
+                b.itemQuantity, b.itemRequest, b.ownerId, b.ownerName, b.ownerEmail, b.bookerId, b.bookerName,
+                b.bookerEmail)
+            FROM OwnerBooking b
+            WHERE b.ownerId = ?1 AND ?2 < b.start
+              AND (b.start < ?3 OR (b.start = ?3 AND b.id < ?4))
+            ORDER BY b.start DESC, b.id DESC
+            """)
+    List<BookingDtoView> findAllByOwnerStateFuture(long userId, LocalDateTime localDateTime,
+                                                   LocalDateTime afterStart, long afterId, Pageable page);
+
+    /**
+     * Находит страницу бронирований вещей владельца с указанным статусом.
+     *
+     * @param userId Идентификатор владельца.
+     * @param status Статус бронирования.
+     * @param afterStart Время начала последнего бронирования предыдущей страницы.
+     * @param afterId Идентификатор последнего бронирования предыдущей страницы.
+     * @param page Смещение и размер страницы.
+     * @return Страница бронирований с данными вещи, её владельца и арендатора.
+     */
+    @Query("""
+            SELECT new ru.practicum.shareit.booking.dto.BookingDtoView(
+                b.id, b.start, b.end, b.status, b.itemId, b.itemName, b.itemDescription, b.itemAvailable,
+                b.itemQuantity, b.itemRequest, b.ownerId, b.ownerName, b.ownerEmail, b.bookerId, b.bookerName,
+                b.bookerEmail)
+            FROM OwnerBooking b
+            WHERE b.ownerId = ?1 AND b.status = ?2
+              AND (b.start < ?3 OR (b.start = ?3 AND b.id < ?4))
+            ORDER BY b.start DESC, b.id DESC
+            """)
+    List<BookingDtoView> findAllByOwnerIdAndStatus(long userId, BookingStatus status, LocalDateTime afterStart,
+                                                   long afterId, Pageable page);
+
+    /**
+     * Подсчитывает бронирования вещей владельца по всем состояниям одним запросом.
+     *
+     * @param userId Идентификатор владельца.
+     * @param localDateTime Момент времени, относительно которого определяются состояния.
+     * @return Количество бронирований по состояниям.
+     */
+    @Query("""
+            SELECT new ru.practicum.shareit.booking.dto.BookingStateCounts(
+                COUNT(b),
+                COALESCE(SUM(CASE WHEN b.start < ?2 AND b.end > ?2 THEN 1L ELSE 0L END), 0L),
+                COALESCE(SUM(CASE WHEN b.end < ?2 THEN 1L ELSE 0L END), 0L),
+                COALESCE(SUM(CASE WHEN ?2 < b.start THEN 1L ELSE 0L END), 0L),
+                COALESCE(SUM(CASE WHEN b.status = ru.practicum.shareit.booking.model.enums.BookingStatus.WAITING
+                                  THEN 1L ELSE 0L END), 0L),
+                COALESCE(SUM(CASE WHEN b.status = ru.practicum.shareit.booking.model.enums.BookingStatus.REJECTED
+                                  THEN 1L ELSE 0L END), 0L))
+            FROM OwnerBooking b
+            WHERE b.ownerId = ?1
+            """)
+    BookingStateCounts countByOwnerIdGroupByState(long userId, LocalDateTime localDateTime);
+
+    /**
+     * Добавляет в модель чтения только что созданные бронирования вместе с данными вещи, её владельца и арендатора.
+     *
+     * @param bookingIds Идентификаторы бронирований.
+     * @return Количество добавленных бронирований.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO owner_bookings (booking_id, owner_id, owner_name, owner_email, item_id, item_name,
+                                        item_description, item_available, item_quantity, item_request, booker_id,
+                                        booker_name, booker_email, start_date, end_date, status)
+            SELECT b.booking_id, o.user_id, o.name, o.email, i.item_id, i.name, i.description, i.available,
+                   i.quantity, i.request, u.user_id, u.name, u.email, b.start_date, b.end_date, b.status
+            FROM bookings b
+            JOIN items i ON i.item_id = b.item_id
+            JOIN users o ON o.user_id = i.owner_id
+            JOIN users u ON u.user_id = b.booker_id
+            WHERE b.booking_id IN ?1
+            """, nativeQuery = true)
+    int copyFromBookings(Collection<Long> bookingIds);
+
+    /**
+     * Изменяет статус бронирований в модели чтения.
+     *
+     * @param bookingIds Идентификаторы бронирований.
+     * @param status Новый статус.
+     * @return Количество изменённых бронирований.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE OwnerBooking b SET b.status = ?2 WHERE b.id IN ?1")
+    int updateStatus(Collection<Long> bookingIds, BookingStatus status);
+
+    /**
+     * Изменяет данные вещи во всех её бронированиях в модели чтения.
+     *
+     * @param itemId Идентификатор вещи.
+     * @param name Название вещи.
+     * @param description Описание вещи.
+     * @param available Доступность вещи для аренды.
+     * @param quantity Количество одинаковых экземпляров вещи.
+     * @return Количество изменённых бронирований.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("""
+            UPDATE OwnerBooking b
+            SET b.itemName = ?2, b.itemDescription = ?3, b.itemAvailable = ?4, b.itemQuantity = ?5
+            WHERE b.itemId = ?1
+            """)
+    int updateItem(long itemId, String name, String description, Boolean available, Integer quantity);
+
+    /**
+     * Изменяет имя и почту владельца во всех бронированиях его вещей в модели чтения.
+     *
+     * @param ownerId Идентификатор владельца.
+     * @param name Имя владельца.
+     * @param email Электронная почта владельца.
+     * @return Количество изменённых бронирований.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE OwnerBooking b SET b.ownerName = ?2, b.ownerEmail = ?3 WHERE b.ownerId = ?1")
+    int updateOwner(long ownerId, String name, String email);
+
+    /**
+     * Изменяет имя и почту арендатора во всех его бронированиях в модели чтения.
+     *
+     * @param bookerId Идентификатор арендатора.
+     * @param name Имя арендатора.
+     * @param email Электронная почта арендатора.
+     * @return Количество изменённых бронирований.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE OwnerBooking b SET b.bookerName = ?2, b.bookerEmail = ?3 WHERE b.bookerId = ?1")
+    int updateBooker(long bookerId, String name, String email);
+}
@@ -0,0 +1,150 @@
+package ru.practicum.shareit.booking.storage;
+
+/**
+ * Разреженное дерево отрезков над временной шкалой для подсчёта одновременных бронирований.
+ * <p>
+ * Шкала разбита на ячейки по одной секунде, дерево охватывает {@code 2^}{@value #DEPTH} ячеек от начала эпохи,
+ * то есть примерно до 4147 года. Отрезки за пределами шкалы обрезаются по её границам, поэтому более поздние
+ * бронирования отклоняются при проверке времени ({@link BookingIntervalIndex#LATEST_END}).
+ * Узлы создаются только на путях к изменённым отрезкам, а поддеревья, в которых не осталось бронирований,
+ * удаляются. Прибавление к отрезку и поиск максимума на отрезке выполняются за O({@value #DEPTH}) без
+ * проталкивания отложенных изменений: узел хранит прибавку ко всему своему отрезку, а максимум узла
+ * включает эту прибавку.
+ * </p>
+ * <p>
+ * Класс не потокобезопасен, вызовы нужно синхронизировать снаружи.
+ * </p>
+ */
+final class OccupancyTree {
+
+    static final int DEPTH = 36;
+
+    static final long SIZE = 1L << DEPTH;
+
+    private final Node root = new Node();
+
+    /**
+     * Прибавляет значение ко всем ячейкам отрезка {@code [from, to)}.
+     *
+     * @param from  первая ячейка
+     * @param to    ячейка после последней
+     * @param delta прибавляемое значение
+     */
+    void add(long from, long to, int delta) {
+        add(root, 0, SIZE, clamp(from), clamp(to), delta);
+    }
+
+    /**
+     * Возвращает наибольшее значение ячейки на отрезке {@code [from, to)}.
+     *
+     * @param from первая ячейка
+     * @param to   ячейка после последней
+     * @return наибольшее значение на отрезке
+     */
+    int max(long from, long to) {
+        long start = clamp(from);
+        long end = clamp(to);
+        return start < end ? max(root, 0, SIZE, start, end) : 0;
+    }
+
+    /**
+     * Проверяет, что во всех ячейках ноль.
+     *
+     * @return {@code true}, если в дереве нет отрезков
+     */
+    boolean isEmpty() {
+        return root.left == null && root.right == null && root.add == 0;
+    }
+
+    private static void add(Node node, long low, long high, long from, long to, int delta) {
+        if (from >= to) {
+            return;
+        }
+        if (from <= low && high <= to) {
+            node.add += delta;
+            node.max += delta;
+            node.min += delta;
+            return;
+        }
+        long middle = (low + high) >>> 1;
+        if (from < middle) {
+            if (node.left == null) {
+                node.left = new Node();
+            }
+            add(node.left, low, middle, from, to, delta);
+        }
+        if (to > middle) {
+            if (node.right == null) {
+                node.right = new Node();
+            }
+            add(node.right, middle, high, from, to, delta);
+        }
+        node.max = node.add + Math.max(maxOf(node.left), maxOf(node.right));
+        node.min = node.add + Math.min(minOf(node.left), minOf(node.right));
+        if (isZero(node.left)) {
+            node.left = null;
+        }
+        if (isZero(node.right)) {
+            node.right = null;
+        }
+    }
+
+    private static int max(Node node, long low, long high, long from, long to) {
+        if (node == null) {
+            return 0;
+        }
+        if (from <= low && high <= to) {
+            return node.max;
+        }
+        long middle = (low + high) >>> 1;
+        int result = Integer.MIN_VALUE;
+        if (from < middle) {
+            result = max(node.left, low, middle, from, to);
+        }
+        if (to > middle) {
+            result = Math.max(result, max(node.right, middle, high, from, to));
+        }
+        return node.add + result;
+    }
+
+    private static int maxOf(Node node) {
+        return node == null ? 0 : node.max;
+    }
+
+    private static int minOf(Node node) {
+        return node == null ? 0 : node.min;
+    }
+
+    private static boolean isZero(Node node) {
+        return node != null && node.max == 0 && node.min == 0;
+    }
+
+    private static long clamp(long cell) {
+        return Math.max(0, Math.min(cell, SIZE));
+    }
+
+    /**
+     * Узел дерева. Отсутствующий дочерний узел означает отрезок из нулей.
+     */
+    private static final class Node {
+
+        /**
+         * Прибавка ко всему отрезку узла.
+         */
+        private int add;
+
+        /**
+         * Наибольшее значение на отрезке узла с учётом прибавки узла, но без прибавок предков.
+         */
+        private int max;
+
+        /**
+         * Наименьшее значение на отрезке узла с учётом прибавки узла, но без прибавок предков.
+         */
+        private int min;
+
+        private Node left;
+
+        private Node right;
+    }
+}
@@ -3,14 +3,21 @@ package ru.practicum.shareit.item.controllers;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.item.dto.CommentDtoRequest;
 import ru.practicum.shareit.item.dto.CommentDtoResponse;
+import ru.practicum.shareit.item.dto.FreeWindowDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoBooking;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.pagination.CursorPage;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Контроллер для управления вещами в системе.
@@ -67,27 +74,93 @@ public class ItemController {
     }
 
     /**
-     * Получает список всех вещей, принадлежащих пользователю.
+     * Возвращает свободные промежутки времени вещи, в которые её можно забронировать.
+     *
+     * @param itemId уникальный идентификатор вещи
+     * @param from   начало интервала
+     * @param to     конец интервала
+     * @return список {@link FreeWindowDto} свободных промежутков в порядке времени начала
+     */
+    @GetMapping("/{itemId}/availability")
+    public List<FreeWindowDto> getItemAvailability(
+            @PathVariable long itemId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Запрос на получение свободных промежутков вещи. ID вещи: {}, с {} по {}", itemId, from, to);
+        return itemServiceImpl.getItemAvailability(itemId, from, to);
+    }
+
+    /**
+     * Получает страницу вещей, принадлежащих пользователю.
+     * <p>
+     * Курсор следующей страницы возвращается в заголовке {@value CursorPage#NEXT_CURSOR_HEADER}
+     * и передаётся в параметре {@code after} следующего запроса.
      *
      * @param userId уникальный идентификатор пользователя
-     * @return список {@link ItemDtoBooking} всех вещей пользователя
+     * @param after  курсор предыдущей страницы (не указывается для первой страницы)
+     * @param size   размер страницы
+     * @return список {@link ItemDtoBooking} вещей пользователя на странице
      */
     @GetMapping
-    public List<ItemDtoBooking> getAllItemsFromUser(@RequestHeader("X-Sharer-User-Id") long userId) {
-        log.info("Запрос на получение списка всех вещей владельца. ID владельца: {}", userId);
-        return itemServiceImpl.getAllItemsFromUser(userId);
+    public ResponseEntity<List<ItemDtoBooking>> getAllItemsFromUser(
+            @RequestHeader("X-Sharer-User-Id") long userId,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "${shareit.pagination.default-size}") int size) {
+        log.info("Запрос на получение списка всех вещей владельца. ID владельца: {}, курсор: {}, размер: {}",
+                userId, after, size);
+        return itemServiceImpl.getAllItemsFromUser(userId, after, size).toResponseEntity();
     }
 
     /**
      * Ищет доступные для аренды вещи по заданному тексту.
+     * <p>
+     * Курсор следующей страницы возвращается в заголовке {@value CursorPage#NEXT_CURSOR_HEADER}
+     * и передаётся в параметре {@code after} следующего запроса.
      *
-     * @param text текст для поиска в названии и описании вещей
+     * @param text  текст для поиска в названии и описании вещей (может отсутствовать, если указаны теги)
+     * @param fuzzy искать по названию с учётом опечаток
+     * @param tags  теги, которые должны быть у всех найденных вещей (через запятую)
+     * @param after курсор предыдущей страницы (не указывается для первой страницы)
+     * @param size  размер страницы
      * @return список {@link ItemDto} доступных для аренды вещей, соответствующих тексту поиска
      */
     @GetMapping("/search")
-    public List<ItemDto> searchAvailableItemsByText(@RequestParam String text) {
-        log.info("Запрос на поиск доступных для аренды вещей. Текст поиска: {}", text);
-        return itemServiceImpl.searchAvailableItemsByText(text);
+    public ResponseEntity<List<ItemDto>> searchAvailableItemsByText(
+            @RequestParam(required = false) String text,
+            @RequestParam(defaultValue = "false") boolean fuzzy,
+            @RequestParam(required = false) Set<String> tags,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "${shareit.pagination.default-size}") int size) {
+        log.info("Запрос на поиск вещей. Текст поиска: {}, нечёткий: {}, теги: {}, курсор: {}, размер: {}",
+                text, fuzzy, tags, after, size);
+        return itemServiceImpl.searchAvailableItemsByText(text, fuzzy, tags, after, size).toResponseEntity();
+    }
+
+    /**
+     * Возвращает фасеты тегов: количество доступных для аренды вещей по каждому тегу
+     * среди вещей, у которых есть все указанные теги.
+     *
+     * @param tags теги фильтра (через запятую, не указываются для подсчёта по всем вещам)
+     * @return количество вещей по тегам
+     */
+    @GetMapping("/search/facets")
+    public Map<String, Integer> getTagFacets(@RequestParam(required = false) Set<String> tags) {
+        log.info("Запрос на получение фасетов тегов. Теги фильтра: {}", tags);
+        return itemServiceImpl.getTagFacets(tags);
+    }
+
+    /**
+     * Возвращает подсказки названий доступных для аренды вещей по префиксу.
+     *
+     * @param prefix префикс названия вещи
+     * @param size   максимальное количество подсказок
+     * @return список различных названий вещей, начиная с самых частых
+     */
+    @GetMapping("/suggest")
+    public List<String> suggestItemNames(@RequestParam String prefix,
+                                         @RequestParam(defaultValue = "${shareit.suggest.default-size}") int size) {
+        log.info("Запрос на подсказки названий вещей. Префикс: {}, размер: {}", prefix, size);
+        return itemServiceImpl.suggestItemNames(prefix, size);
     }
 
     /**
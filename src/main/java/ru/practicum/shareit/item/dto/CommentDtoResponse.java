@@ -1,5 +1,6 @@
 package ru.practicum.shareit.item.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 
@@ -11,6 +12,7 @@ import java.time.LocalDateTime;
  */
 @Builder
 @Data
+@AllArgsConstructor
 public class CommentDtoResponse {
 
     /**
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.item.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO для представления свободного промежутка времени, в который вещь можно забронировать.
+ *
+ * @param start начало свободного промежутка
+ * @param end   конец свободного промежутка
+ */
+public record FreeWindowDto(LocalDateTime start, LocalDateTime end) {
+}
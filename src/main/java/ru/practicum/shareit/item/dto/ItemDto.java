@@ -2,9 +2,12 @@ package ru.practicum.shareit.item.dto;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
 import lombok.Builder;
 import lombok.Data;
 
+import java.util.Set;
+
 /**
  * Объект передачи данных (DTO) для представления информации о вещи.
  * Используется для передачи данных между клиентом и сервером, а также для отображения информации о вещи.
@@ -45,10 +48,23 @@ public class ItemDto {
     @NotNull(message = "Статус не может быть пустым.")
     private Boolean available;
 
+    /**
+     * Количество одинаковых экземпляров вещи.
+     * Может быть null: при создании вещь одна, при обновлении количество не изменяется.
+     */
+    @Positive(message = "Количество вещей должно быть положительным.")
+    private Integer quantity;
+
     /**
      * Дополнительная информация о запросе, с которым связана вещь.
      * Может быть null, если вещь не связана с запросом.
      */
     private String request;
 
+    /**
+     * Теги (категории) вещи.
+     * Может быть null, если теги не заданы или не изменяются.
+     */
+    private Set<String> tags;
+
 }
\ No newline at end of file
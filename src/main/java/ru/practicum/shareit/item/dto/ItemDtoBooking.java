@@ -5,6 +5,7 @@ import lombok.Data;
 import ru.practicum.shareit.booking.dto.BookingDtoItem;
 
 import java.util.List;
+import java.util.Set;
 
 /**
  * DTO для представления вещи с информацией о бронированиях и комментариях.
@@ -34,11 +35,21 @@ public class ItemDtoBooking {
      */
     private Boolean available;
 
+    /**
+     * Количество одинаковых экземпляров вещи.
+     */
+    private Integer quantity;
+
     /**
      * Запрос на создание вещи, если он имеется.
      */
     private String request;
 
+    /**
+     * Теги (категории) вещи.
+     */
+    private Set<String> tags;
+
     /**
      * Последнее бронирование вещи.
      */
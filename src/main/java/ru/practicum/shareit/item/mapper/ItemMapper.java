@@ -3,6 +3,11 @@ package ru.practicum.shareit.item.mapper;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoBooking;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSnapshot;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * Класс для преобразования объектов между слоями данных и представления.
@@ -22,7 +27,27 @@ public class ItemMapper {
                 .name(item.getName())
                 .description(item.getDescription())
                 .available(item.getAvailable())
+                .quantity(item.getQuantity())
                 .request(item.getRequest())
+                .tags(item.getTags() == null ? Set.of() : Set.copyOf(item.getTags()))
+                .build();
+    }
+
+    /**
+     * Копирует объект передачи данных {@link ItemDto}, чтобы изменения копии не затрагивали оригинал.
+     *
+     * @param itemDto Объект передачи данных {@link ItemDto}, который необходимо скопировать.
+     * @return Новый объект передачи данных {@link ItemDto} с теми же данными.
+     */
+    public static ItemDto copyOf(ItemDto itemDto) {
+        return ItemDto.builder()
+                .id(itemDto.getId())
+                .name(itemDto.getName())
+                .description(itemDto.getDescription())
+                .available(itemDto.getAvailable())
+                .quantity(itemDto.getQuantity())
+                .request(itemDto.getRequest())
+                .tags(itemDto.getTags() == null ? null : Set.copyOf(itemDto.getTags()))
                 .build();
     }
 
@@ -38,7 +63,9 @@ public class ItemMapper {
                 .name(itemDto.getName())
                 .description(itemDto.getDescription())
                 .available(itemDto.getAvailable())
+                .quantity(itemDto.getQuantity() == null ? 1 : itemDto.getQuantity())
                 .request(itemDto.getRequest())
+                .tags(itemDto.getTags() == null ? new HashSet<>() : new HashSet<>(itemDto.getTags()))
                 .build();
     }
 
@@ -54,7 +81,66 @@ public class ItemMapper {
                 .name(item.getName())
                 .description(item.getDescription())
                 .available(item.getAvailable())
+                .quantity(item.getQuantity())
                 .request(item.getRequest())
+                .tags(item.getTags() == null ? Set.of() : Set.copyOf(item.getTags()))
+                .build();
+    }
+
+    /**
+     * Преобразует объект модели {@link Item} в неизменяемый снимок {@link ItemSnapshot}.
+     *
+     * @param item Объект модели {@link Item}, который необходимо преобразовать.
+     * @return Снимок {@link ItemSnapshot}, содержащий данные из {@link Item}.
+     */
+    public static ItemSnapshot toItemSnapshot(Item item) {
+        User owner = item.getOwner();
+        return new ItemSnapshot(item.getId(), item.getName(), item.getDescription(), item.getAvailable(),
+                item.getQuantity(), owner == null ? null : owner.getId(), owner == null ? null : owner.getName(),
+                owner == null ? null : owner.getEmail(), item.getRequest(),
+                item.getTags() == null ? Set.of() : Set.copyOf(item.getTags()));
+    }
+
+    /**
+     * Преобразует снимок {@link ItemSnapshot} в отсоединённый объект модели {@link Item} вместе с владельцем.
+     * Объект не попадает в контекст персистентности и используется только для ответа.
+     *
+     * @param snapshot Снимок {@link ItemSnapshot}, который необходимо преобразовать.
+     * @return Объект модели {@link Item}, содержащий данные из снимка.
+     */
+    public static Item toItem(ItemSnapshot snapshot) {
+        User owner = snapshot.ownerId() == null ? null : User.builder()
+                .id(snapshot.ownerId())
+                .name(snapshot.ownerName())
+                .email(snapshot.ownerEmail())
+                .build();
+        return Item.builder()
+                .id(snapshot.id())
+                .name(snapshot.name())
+                .description(snapshot.description())
+                .available(snapshot.available())
+                .quantity(snapshot.quantity())
+                .owner(owner)
+                .request(snapshot.request())
+                .tags(new HashSet<>(snapshot.tags()))
+                .build();
+    }
+
+    /**
+     * Преобразует снимок {@link ItemSnapshot} в объект передачи данных {@link ItemDtoBooking}.
+     *
+     * @param snapshot Снимок {@link ItemSnapshot}, который необходимо преобразовать.
+     * @return Объект передачи данных {@link ItemDtoBooking}, содержащий данные из снимка.
+     */
+    public static ItemDtoBooking toItemDtoBooking(ItemSnapshot snapshot) {
+        return ItemDtoBooking.builder()
+                .id(snapshot.id())
+                .name(snapshot.name())
+                .description(snapshot.description())
+                .available(snapshot.available())
+                .quantity(snapshot.quantity())
+                .request(snapshot.request())
+                .tags(snapshot.tags())
                 .build();
     }
 
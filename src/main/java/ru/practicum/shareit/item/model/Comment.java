@@ -12,6 +12,7 @@ import java.time.LocalDateTime;
  */
 @Entity
 @Table(name = "comments", schema = "public")
+@NamedEntityGraph(name = Comment.AUTHOR_GRAPH, attributeNodes = @NamedAttributeNode("author"))
 @Getter
 @Setter
 @Builder
@@ -19,6 +20,11 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class Comment {
 
+    /**
+     * Граф загрузки отзыва вместе с автором.
+     */
+    public static final String AUTHOR_GRAPH = "Comment.author";
+
     /**
      * Уникальный идентификатор комментария.
      */
@@ -35,14 +41,14 @@ public class Comment {
     /**
      * Вещь, к которой принадлежит комментарий.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "item_id")
     private Item item;
 
     /**
      * Автор комментария.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author_id")
     private User author;
 
@@ -1,9 +1,16 @@
 package ru.practicum.shareit.item.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
+import ru.practicum.shareit.item.search.ItemSearchIndexListener;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.HashSet;
+import java.util.Set;
+
 /**
  * Представляет собой модель данных для вещи.
  * Содержит информацию о вещи, включая её идентификатор, название, описание, доступность,
@@ -11,6 +18,9 @@ import ru.practicum.shareit.user.model.User;
  */
 @Entity
 @Table(name = "items", schema = "public")
+@NamedEntityGraph(name = Item.OWNER_GRAPH, attributeNodes = @NamedAttributeNode("owner"))
+@EntityListeners(ItemSearchIndexListener.class)
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Getter
 @Setter
 @Builder
@@ -18,6 +28,11 @@ import ru.practicum.shareit.user.model.User;
 @AllArgsConstructor
 public class Item {
 
+    /**
+     * Граф загрузки вещи вместе с владельцем.
+     */
+    public static final String OWNER_GRAPH = "Item.owner";
+
     /**
      * Уникальный идентификатор вещи.
      * Устанавливается системой при создании вещи.
@@ -46,11 +61,19 @@ public class Item {
      */
     private Boolean available;
 
+    /**
+     * Количество одинаковых экземпляров вещи.
+     * Столько бронирований вещи может действовать одновременно. По умолчанию вещь одна.
+     */
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer quantity = 1;
+
     /**
      * Идентификатор владельца вещи.
      * Указывает на пользователя, который является владельцем этой вещи.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "owner_id")
     private User owner;
 
@@ -60,4 +83,15 @@ public class Item {
      */
     private String request;
 
+    /**
+     * Теги (категории) вещи в нижнем регистре.
+     * Например, "инструменты" или "дача". Теги всех загруженных вещей читаются одним дополнительным запросом.
+     */
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "item_tags", joinColumns = @JoinColumn(name = "item_id"))
+    @Column(name = "tag")
+    @Fetch(FetchMode.SUBSELECT)
+    @Builder.Default
+    private Set<String> tags = new HashSet<>();
+
 }
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.item.model;
+
+import java.util.Set;
+
+/**
+ * Неизменяемый снимок вещи для кэша.
+ * Содержит только данные самой вещи и владельца, без ссылок на другие сущности.
+ *
+ * @param id          уникальный идентификатор вещи
+ * @param name        название вещи
+ * @param description описание вещи
+ * @param available   доступность вещи для аренды
+ * @param quantity    количество одинаковых экземпляров вещи
+ * @param ownerId     идентификатор владельца вещи
+ * @param ownerName   имя владельца вещи
+ * @param ownerEmail  электронная почта владельца вещи
+ * @param request     запрос, с которым связана вещь
+ * @param tags        неизменяемый набор тегов вещи
+ */
+public record ItemSnapshot(Long id,
+                           String name,
+                           String description,
+                           Boolean available,
+                           Integer quantity,
+                           Long ownerId,
+                           String ownerName,
+                           String ownerEmail,
+                           String request,
+                           Set<String> tags) {
+}
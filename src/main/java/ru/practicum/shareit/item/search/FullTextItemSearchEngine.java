@@ -0,0 +1,158 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.JpaItemRepository;
+import ru.practicum.shareit.pagination.CursorCodec;
+import ru.practicum.shareit.pagination.CursorPage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
+import java.util.stream.Collectors;
+
+/**
+ * Движок поиска вещей, использующий полнотекстовый поиск базы данных.
+ * Используется при {@code shareit.search.engine=fulltext}.
+ * <p>
+ * В PostgreSQL поиск идёт по генерируемому столбцу {@code items.search_vector} с GIN-индексом
+ * (см. {@code schema-postgresql.sql}), в H2 — по встроенному полнотекстовому индексу
+ * (см. {@code schema-h2.sql}). Нужный запрос выбирается по {@code spring.sql.init.platform}.
+ * Результат сортируется по релевантности, а при равной релевантности — по ID, поэтому порядок вещей
+ * и страницы по курсору детерминированы. Встроенный индекс H2 не оценивает релевантность, поэтому в H2
+ * она вычисляется по вхождению текста запроса в название и описание вещи.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "fulltext")
+@RequiredArgsConstructor
+public class FullTextItemSearchEngine implements ItemSearchEngine {
+
+    /**
+     * Количество строк, запрашиваемых за один раз при поиске с фильтром.
+     */
+    private static final int FILTER_CHUNK = 500;
+
+    private final JpaItemRepository jpaItemRepository;
+
+    /**
+     * Платформа базы данных, для которой выполнена инициализация схемы.
+     */
+    @Value("${spring.sql.init.platform}")
+    private String platform;
+
+    /**
+     * Максимальное количество вещей в результате поиска.
+     */
+    @Value("${shareit.search.max-results:1000}")
+    private int maxResults;
+
+    /**
+     * Ищет страницу доступных вещей полнотекстовым запросом к базе данных.
+     * Вещи упорядочены по убыванию релевантности, а при равной релевантности — по ID.
+     * Курсор содержит релевантность и ID последней вещи страницы.
+     *
+     * @param text  непустой текст для поиска
+     * @param after курсор предыдущей страницы или {@code null}
+     * @param size  размер страницы, не больше {@code shareit.search.max-results}
+     * @return страница найденных вещей
+     */
+    @Override
+    public CursorPage<ItemDto> search(String text, String after, int size) {
+        int limit = Math.min(size, maxResults);
+        return toPage(findRanked(text, after, limit + 1), limit);
+    }
+
+    /**
+     * Ищет страницу доступных вещей среди прошедших фильтр. Найденные строки читаются в порядке
+     * релевантности порциями не меньше {@value #FILTER_CHUNK}, фильтр применяется к ID до загрузки вещей.
+     *
+     * @param text     непустой текст для поиска
+     * @param after    курсор предыдущей страницы или {@code null}
+     * @param size     размер страницы, не больше {@code shareit.search.max-results}
+     * @param idFilter фильтр ID вещей
+     * @return страница найденных вещей
+     */
+    @Override
+    public CursorPage<ItemDto> search(String text, String after, int size, LongPredicate idFilter) {
+        int limit = Math.min(size, maxResults);
+        int chunk = Math.max(limit + 1, FILTER_CHUNK);
+        List<Object[]> rows = new ArrayList<>();
+        String cursor = after;
+        while (rows.size() <= limit) {
+            List<Object[]> found = findRanked(text, cursor, chunk);
+            found.stream().filter(row -> idFilter.test(toId(row))).forEach(rows::add);
+            if (found.size() < chunk) {
+                break;
+            }
+            cursor = CursorCodec.encode(toRank(found.getLast()), toId(found.getLast()));
+        }
+        return toPage(rows, limit);
+    }
+
+    /**
+     * Загружает вещи найденных строк и формирует страницу.
+     *
+     * @param rows  пары (ID вещи, релевантность) в порядке страницы
+     * @param limit размер страницы
+     * @return страница найденных вещей
+     */
+    private CursorPage<ItemDto> toPage(List<Object[]> rows, int limit) {
+        List<Long> ids = rows.stream().map(FullTextItemSearchEngine::toId).toList();
+        Map<Long, Item> items = jpaItemRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        List<RankedItem> rankedItems = rows.stream()
+                .filter(row -> items.containsKey(toId(row)))
+                .map(row -> new RankedItem(ItemMapper.toItemDto(items.get(toId(row))), toRank(row)))
+                .toList();
+        return CursorPage.of(rankedItems, limit, item -> CursorCodec.encode(item.rank(), item.item().getId()))
+                .map(RankedItem::item);
+    }
+
+    /**
+     * Выполняет полнотекстовый запрос для текущей платформы базы данных.
+     *
+     * @param text  текст для поиска
+     * @param after курсор предыдущей страницы или {@code null}
+     * @param limit максимальное количество строк
+     * @return пары (ID вещи, релевантность)
+     */
+    private List<Object[]> findRanked(String text, String after, int limit) {
+        boolean h2 = "h2".equals(platform);
+        if (after == null) {
+            return h2
+                    ? jpaItemRepository.searchFullTextH2(text, limit)
+                    : jpaItemRepository.searchFullTextPostgresql(text, limit);
+        }
+        String[] cursor = CursorCodec.decode(after, 2);
+        double rank = CursorCodec.parseDouble(cursor[0], after);
+        long afterId = CursorCodec.parseLong(cursor[1], after);
+        return h2
+                ? jpaItemRepository.searchFullTextH2After(text, rank, afterId, limit)
+                : jpaItemRepository.searchFullTextPostgresqlAfter(text, rank, afterId, limit);
+    }
+
+    private static long toId(Object[] row) {
+        return ((Number) row[0]).longValue();
+    }
+
+    private static double toRank(Object[] row) {
+        return ((Number) row[1]).doubleValue();
+    }
+
+    /**
+     * Найденная вещь вместе с её релевантностью.
+     *
+     * @param item DTO вещи
+     * @param rank релевантность вещи
+     */
+    private record RankedItem(ItemDto item, double rank) {
+    }
+}
@@ -0,0 +1,304 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.JpaItemRepository;
+import ru.practicum.shareit.pagination.CursorCodec;
+import ru.practicum.shareit.pagination.CursorPage;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+import java.util.regex.Pattern;
+
+/**
+ * Движок поиска вещей на основе инвертированного индекса в памяти приложения.
+ * Используется по умолчанию ({@code shareit.search.engine=index}).
+ * <p>
+ * В индекс попадают только доступные для аренды вещи. Названия и описания разбиваются на слова,
+ * а в индекс записываются все суффиксы каждого слова, обрезанные до {@value #MAX_SUFFIX_LENGTH} символов.
+ * Поэтому поиск подстроки внутри слова сводится к поиску по префиксу в отсортированном словаре суффиксов
+ * и не требует перебора всех вещей, а размер индекса растёт линейно с длиной слова, а не квадратично.
+ * Более длинное слово запроса ищется по первым {@value #MAX_SUFFIX_LENGTH} символам.
+ * Найденные кандидаты дополнительно проверяются на вхождение всего текста запроса,
+ * поэтому результат совпадает с поиском {@code LIKE '%text%'} без учёта регистра.
+ * </p>
+ * <p>
+ * Списки ID вещей для каждого суффикса упорядочены, поэтому страница собирается обходом кандидатов
+ * по возрастанию ID начиная с курсора: списки суффиксов одного слова запроса сливаются, а списки разных
+ * слов пересекаются перескоком к наибольшему из текущих ID. Обход заканчивается, как только найдено
+ * на одну вещь больше размера страницы, и не перебирает и не сортирует всех кандидатов.
+ * </p>
+ * <p>
+ * Индекс строится при старте приложения и поддерживается в актуальном состоянии
+ * слушателем сущностей {@link ItemSearchIndexListener}.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "index", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class InMemoryItemSearchEngine implements ItemSearchEngine {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * Наибольшая длина суффикса в словаре.
+     */
+    static final int MAX_SUFFIX_LENGTH = 16;
+
+    private final JpaItemRepository jpaItemRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Проиндексированные вещи по их ID.
+     */
+    private final Map<Long, Document> documents = new HashMap<>();
+
+    /**
+     * Словарь суффиксов слов и ID вещей, в которых они встречаются.
+     */
+    private final NavigableMap<String, NavigableSet<Long>> suffixes = new TreeMap<>();
+
+    /**
+     * Максимальное количество вещей в результате поиска.
+     */
+    @Value("${shareit.search.max-results:1000}")
+    private int maxResults;
+
+    /**
+     * Перестраивает индекс по всем вещам из базы данных.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Item> items = jpaItemRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            suffixes.clear();
+            items.forEach(this::addDocument);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Построен поисковый индекс вещей. Проиндексировано вещей: {}", documents.size());
+    }
+
+    /**
+     * Добавляет вещь в индекс или обновляет её.
+     * Недоступная для аренды вещь удаляется из индекса.
+     *
+     * @param item сохранённая вещь
+     */
+    public void index(Item item) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(item.getId());
+            addDocument(item);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Удаляет вещь из индекса.
+     *
+     * @param itemId ID удалённой вещи
+     */
+    public void remove(long itemId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ищет страницу доступных вещей по индексу среди вещей, ID которых удовлетворяют фильтру.
+     * Вещи упорядочены по ID, курсор содержит ID последней вещи страницы.
+     *
+     * @param text     непустой текст для поиска
+     * @param after    курсор предыдущей страницы или {@code null}
+     * @param size     размер страницы, не больше {@code shareit.search.max-results}
+     * @param idFilter фильтр ID вещей
+     * @return страница найденных вещей
+     */
+    @Override
+    public CursorPage<ItemDto> search(String text, String after, int size, LongPredicate idFilter) {
+        String query = normalize(text);
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return CursorPage.empty();
+        }
+        long afterId = CursorCodec.decodeId(after);
+        int limit = Math.min(size, maxResults);
+        List<ItemDto> items = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            List<Postings> postings = tokens.stream().map(this::postingsOf).toList();
+            long id = afterId;
+            while (items.size() <= limit && id < Long.MAX_VALUE && (id = nextCommon(postings, id + 1)) >= 0) {
+                Document document = documents.get(id);
+                if (idFilter.test(id) && document.matches(query)) {
+                    items.add(ItemMapper.copyOf(document.item()));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return CursorPage.of(items, limit, item -> CursorCodec.encode(item.getId()));
+    }
+
+    /**
+     * Возвращает упорядоченные списки ID вещей, содержащих слово запроса как подстроку слова.
+     * Для слов длиннее {@value #MAX_SUFFIX_LENGTH} символов списки могут содержать лишние вещи,
+     * они отсеиваются проверкой всего текста запроса.
+     *
+     * @param token слово запроса в нижнем регистре
+     * @return списки суффиксов, начинающихся со слова
+     */
+    private Postings postingsOf(String token) {
+        String key = token.length() > MAX_SUFFIX_LENGTH ? token.substring(0, MAX_SUFFIX_LENGTH) : token;
+        return new Postings(suffixes.subMap(key, true, key + Character.MAX_VALUE, true).values());
+    }
+
+    /**
+     * Находит наименьший ID, не меньший указанного, который есть у всех слов запроса.
+     *
+     * @param postings списки ID для каждого слова запроса
+     * @param from     наименьший допустимый ID
+     * @return найденный ID или {@code -1}, если такого нет
+     */
+    private static long nextCommon(List<Postings> postings, long from) {
+        long id = from;
+        boolean agreed = false;
+        while (!agreed) {
+            agreed = true;
+            for (Postings tokenPostings : postings) {
+                long found = tokenPostings.seek(id);
+                if (found < 0) {
+                    return -1;
+                }
+                if (found != id) {
+                    id = found;
+                    agreed = false;
+                }
+            }
+        }
+        return id;
+    }
+
+    private void addDocument(Item item) {
+        if (!Boolean.TRUE.equals(item.getAvailable())) {
+            return;
+        }
+        Document document = new Document(ItemMapper.toItemDto(item), normalize(item.getName()),
+                normalize(item.getDescription()));
+        documents.put(item.getId(), document);
+        for (String suffix : document.suffixes()) {
+            suffixes.computeIfAbsent(suffix, key -> new TreeSet<>()).add(item.getId());
+        }
+    }
+
+    private void removeDocument(long itemId) {
+        Document document = documents.remove(itemId);
+        if (document == null) {
+            return;
+        }
+        for (String suffix : document.suffixes()) {
+            NavigableSet<Long> ids = suffixes.get(suffix);
+            if (ids != null) {
+                ids.remove(itemId);
+                if (ids.isEmpty()) {
+                    suffixes.remove(suffix);
+                }
+            }
+        }
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private static List<String> tokenize(String text) {
+        return Arrays.stream(TOKEN_SEPARATOR.split(text))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    /**
+     * Объединение упорядоченных списков ID суффиксов одного слова запроса, читаемое по возрастанию ID.
+     * Очередь хранит по одному текущему ID каждого списка; списки, отставшие от запрошенного ID,
+     * перематываются поиском в дереве, а не перебором.
+     */
+    private static final class Postings {
+
+        private final PriorityQueue<Head> heads = new PriorityQueue<>(Comparator.comparingLong(Head::id));
+
+        private Postings(Collection<NavigableSet<Long>> lists) {
+            for (NavigableSet<Long> list : lists) {
+                heads.add(new Head(list, list.first()));
+            }
+        }
+
+        /**
+         * Возвращает наименьший ID из списков, не меньший указанного.
+         *
+         * @param target наименьший допустимый ID
+         * @return найденный ID или {@code -1}, если списки исчерпаны
+         */
+        private long seek(long target) {
+            while (!heads.isEmpty() && heads.peek().id() < target) {
+                Head head = heads.poll();
+                Long next = head.list().ceiling(target);
+                if (next != null) {
+                    heads.add(new Head(head.list(), next));
+                }
+            }
+            return heads.isEmpty() ? -1 : heads.peek().id();
+        }
+
+        /**
+         * Текущий ID списка.
+         *
+         * @param list список ID суффикса
+         * @param id   текущий ID
+         */
+        private record Head(NavigableSet<Long> list, long id) {
+        }
+    }
+
+    /**
+     * Проиндексированная вещь.
+     *
+     * @param item        DTO вещи, копии которого возвращаются в результате поиска
+     * @param name        название в нижнем регистре
+     * @param description описание в нижнем регистре
+     */
+    private record Document(ItemDto item, String name, String description) {
+
+        boolean matches(String query) {
+            return name.contains(query) || description.contains(query);
+        }
+
+        Set<String> suffixes() {
+            Set<String> result = new HashSet<>();
+            for (String token : tokenize(name + " " + description)) {
+                for (int i = 0; i < token.length(); i++) {
+                    result.add(token.substring(i, Math.min(token.length(), i + MAX_SUFFIX_LENGTH)));
+                }
+            }
+            return result;
+        }
+    }
+}
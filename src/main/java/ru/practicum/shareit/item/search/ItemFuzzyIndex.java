@@ -0,0 +1,423 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.JpaItemRepository;
+import ru.practicum.shareit.pagination.CursorCodec;
+import ru.practicum.shareit.pagination.CursorPage;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+import java.util.regex.Pattern;
+
+/**
+ * Индекс нечёткого поиска доступных вещей по названию, устойчивый к опечаткам.
+ * <p>
+ * Слова названий приводятся к нижнему регистру и транслитерируются в латиницу, поэтому запрос
+ * «drel» находит «Дрель». Для каждого слова строятся символьные триграммы. По общим триграммам
+ * подбираются слова-кандидаты, для которых затем проверяется, что расстояние Левенштейна до слова
+ * запроса не превышает допустимого. Допустимое расстояние зависит от длины слова
+ * и ограничено настройкой {@code shareit.search.fuzzy.max-distance}.
+ * </p>
+ * <p>
+ * Индекс строится при старте приложения независимо от выбранного {@code shareit.search.engine}
+ * и поддерживается в актуальном состоянии слушателем сущностей {@link ItemSearchIndexListener}.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ItemFuzzyIndex {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Map<Character, String> TRANSLITERATION = Map.ofEntries(
+            Map.entry('а', "a"), Map.entry('б', "b"), Map.entry('в', "v"), Map.entry('г', "g"),
+            Map.entry('д', "d"), Map.entry('е', "e"), Map.entry('ё', "e"), Map.entry('ж', "zh"),
+            Map.entry('з', "z"), Map.entry('и', "i"), Map.entry('й', "i"), Map.entry('к', "k"),
+            Map.entry('л', "l"), Map.entry('м', "m"), Map.entry('н', "n"), Map.entry('о', "o"),
+            Map.entry('п', "p"), Map.entry('р', "r"), Map.entry('с', "s"), Map.entry('т', "t"),
+            Map.entry('у', "u"), Map.entry('ф', "f"), Map.entry('х', "h"), Map.entry('ц', "ts"),
+            Map.entry('ч', "ch"), Map.entry('ш', "sh"), Map.entry('щ', "sch"), Map.entry('ъ', ""),
+            Map.entry('ы', "y"), Map.entry('ь', ""), Map.entry('э', "e"), Map.entry('ю', "yu"),
+            Map.entry('я', "ya"));
+
+    private final JpaItemRepository jpaItemRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Проиндексированные вещи по их ID.
+     */
+    private final Map<Long, Document> documents = new HashMap<>();
+
+    /**
+     * Нормализованные слова названий и ID вещей, в которых они встречаются.
+     */
+    private final Map<String, Set<Long>> tokens = new HashMap<>();
+
+    /**
+     * Триграммы и слова, в которых они встречаются.
+     */
+    private final Map<String, Set<String>> trigrams = new HashMap<>();
+
+    /**
+     * Максимальное допустимое расстояние Левенштейна между словом запроса и словом названия.
+     */
+    @Value("${shareit.search.fuzzy.max-distance:2}")
+    private int maxDistance;
+
+    /**
+     * Максимальное количество вещей в результате поиска.
+     */
+    @Value("${shareit.search.max-results:1000}")
+    private int maxResults;
+
+    /**
+     * Перестраивает индекс по всем вещам из базы данных.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Item> items = jpaItemRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            tokens.clear();
+            trigrams.clear();
+            items.forEach(this::addDocument);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Построен индекс нечёткого поиска вещей. Проиндексировано вещей: {}", documents.size());
+    }
+
+    /**
+     * Добавляет вещь в индекс или обновляет её.
+     * Недоступная для аренды вещь удаляется из индекса.
+     *
+     * @param item сохранённая вещь
+     */
+    public void index(Item item) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(item.getId());
+            addDocument(item);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Удаляет вещь из индекса.
+     *
+     * @param itemId ID удалённой вещи
+     */
+    public void remove(long itemId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ищет страницу доступных вещей, в названии которых для каждого слова запроса есть похожее слово.
+     * <p>
+     * Вещи упорядочены по суммарному расстоянию до слов запроса, а при равном расстоянии — по ID.
+     * Курсор содержит расстояние и ID последней вещи страницы.
+     * </p>
+     *
+     * @param text  непустой текст для поиска
+     * @param after курсор предыдущей страницы или {@code null}
+     * @param size  размер страницы, не больше {@code shareit.search.max-results}
+     * @return страница найденных вещей
+     */
+    public CursorPage<ItemDto> search(String text, String after, int size) {
+        return search(text, after, size, id -> true);
+    }
+
+    /**
+     * Ищет страницу доступных вещей так же, как {@link #search(String, String, int)},
+     * но только среди вещей, ID которых удовлетворяют фильтру.
+     *
+     * @param text     непустой текст для поиска
+     * @param after    курсор предыдущей страницы или {@code null}
+     * @param size     размер страницы, не больше {@code shareit.search.max-results}
+     * @param idFilter фильтр ID вещей
+     * @return страница найденных вещей
+     */
+    public CursorPage<ItemDto> search(String text, String after, int size, LongPredicate idFilter) {
+        int limit = Math.min(size, maxResults);
+        int afterDistance = -1;
+        long afterId = 0;
+        if (after != null) {
+            String[] cursor = CursorCodec.decode(after, 2);
+            afterDistance = (int) CursorCodec.parseLong(cursor[0], after);
+            afterId = CursorCodec.parseLong(cursor[1], after);
+        }
+        List<Match> matches;
+        lock.readLock().lock();
+        try {
+            matches = findMatches(tokenize(text));
+        } finally {
+            lock.readLock().unlock();
+        }
+        int cursorDistance = afterDistance;
+        long cursorId = afterId;
+        List<Match> rows = matches.stream()
+                .filter(match -> idFilter.test(match.item().getId()))
+                .filter(match -> match.distance() > cursorDistance
+                        || match.distance() == cursorDistance && match.item().getId() > cursorId)
+                .sorted(Comparator.comparingInt(Match::distance).thenComparing(match -> match.item().getId()))
+                .limit(limit + 1L)
+                .toList();
+        return CursorPage.of(rows, limit, match -> CursorCodec.encode(match.distance(), match.item().getId()))
+                .map(match -> ItemMapper.copyOf(match.item()));
+    }
+
+    /**
+     * Находит вещи, содержащие похожее слово для каждого слова запроса.
+     *
+     * @param queryTokens нормализованные слова запроса
+     * @return найденные вещи с суммарным расстоянием до слов запроса
+     */
+    private List<Match> findMatches(List<String> queryTokens) {
+        if (queryTokens.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Integer> distances = null;
+        for (String queryToken : queryTokens) {
+            Map<Long, Integer> tokenDistances = findSimilar(queryToken);
+            if (distances == null) {
+                distances = tokenDistances;
+            } else {
+                distances.keySet().retainAll(tokenDistances.keySet());
+                distances.replaceAll((id, distance) -> distance + tokenDistances.get(id));
+            }
+            if (distances.isEmpty()) {
+                return List.of();
+            }
+        }
+        return distances.entrySet().stream()
+                .map(entry -> new Match(documents.get(entry.getKey()).item(), entry.getValue()))
+                .toList();
+    }
+
+    /**
+     * Находит вещи, в названии которых есть слово, похожее на слово запроса.
+     *
+     * @param queryToken нормализованное слово запроса
+     * @return минимальное расстояние до слова запроса для каждой найденной вещи
+     */
+    private Map<Long, Integer> findSimilar(String queryToken) {
+        int allowed = allowedDistance(queryToken, maxDistance);
+        Set<String> queryGrams = trigramsOf(queryToken);
+        Map<String, Integer> sharedGrams = new HashMap<>();
+        for (String gram : queryGrams) {
+            for (String token : trigrams.getOrDefault(gram, Set.of())) {
+                sharedGrams.merge(token, 1, Integer::sum);
+            }
+        }
+        // Одна правка затрагивает не больше трёх триграмм слова.
+        int minShared = queryGrams.size() - 3 * allowed;
+        if (minShared <= 0) {
+            // Правки могут затронуть все триграммы короткого слова, поэтому проверяются все слова подходящей длины.
+            tokens.keySet().forEach(token -> sharedGrams.putIfAbsent(token, 0));
+        }
+        Map<Long, Integer> result = new HashMap<>();
+        sharedGrams.forEach((token, shared) -> {
+            if (shared < minShared || Math.abs(token.length() - queryToken.length()) > allowed) {
+                return;
+            }
+            int distance = distance(queryToken, token, allowed);
+            if (distance <= allowed) {
+                for (Long id : tokens.get(token)) {
+                    result.merge(id, distance, Math::min);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Вычисляет суммарное расстояние от слов запроса до названия без обращения к индексу.
+     * <p>
+     * Результат совпадает с тем, по которому индекс отбирает и упорядочивает вещи: для каждого слова запроса
+     * берётся ближайшее слово названия в пределах допустимого расстояния. Используется там, где индекс
+     * не построен, например в хранилище в памяти.
+     * </p>
+     *
+     * @param text        текст запроса
+     * @param name        название вещи
+     * @param maxDistance максимальное допустимое расстояние для одного слова
+     * @return суммарное расстояние или {@code -1}, если для какого-то слова запроса нет похожего слова в названии
+     */
+    public static int nameDistance(String text, String name, int maxDistance) {
+        List<String> queryTokens = tokenize(text);
+        if (queryTokens.isEmpty()) {
+            return -1;
+        }
+        Set<String> nameTokens = new HashSet<>(tokenize(name));
+        int total = 0;
+        for (String queryToken : queryTokens) {
+            int allowed = allowedDistance(queryToken, maxDistance);
+            int best = allowed + 1;
+            for (String token : nameTokens) {
+                if (Math.abs(token.length() - queryToken.length()) <= allowed) {
+                    best = Math.min(best, distance(queryToken, token, allowed));
+                }
+            }
+            if (best > allowed) {
+                return -1;
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    /**
+     * Вычисляет допустимое расстояние для слова запроса: короткие слова должны совпадать точно.
+     *
+     * @param token       слово запроса
+     * @param maxDistance максимальное допустимое расстояние
+     * @return допустимое расстояние Левенштейна
+     */
+    private static int allowedDistance(String token, int maxDistance) {
+        if (token.length() <= 3) {
+            return 0;
+        }
+        if (token.length() <= 5) {
+            return Math.min(1, maxDistance);
+        }
+        return maxDistance;
+    }
+
+    private void addDocument(Item item) {
+        if (!Boolean.TRUE.equals(item.getAvailable())) {
+            return;
+        }
+        Document document = new Document(ItemMapper.toItemDto(item), new HashSet<>(tokenize(item.getName())));
+        documents.put(item.getId(), document);
+        for (String token : document.tokens()) {
+            Set<Long> ids = tokens.computeIfAbsent(token, key -> new HashSet<>());
+            if (ids.isEmpty()) {
+                trigramsOf(token).forEach(gram -> trigrams.computeIfAbsent(gram, key -> new HashSet<>()).add(token));
+            }
+            ids.add(item.getId());
+        }
+    }
+
+    private void removeDocument(long itemId) {
+        Document document = documents.remove(itemId);
+        if (document == null) {
+            return;
+        }
+        for (String token : document.tokens()) {
+            Set<Long> ids = tokens.get(token);
+            ids.remove(itemId);
+            if (ids.isEmpty()) {
+                tokens.remove(token);
+                for (String gram : trigramsOf(token)) {
+                    Set<String> gramTokens = trigrams.get(gram);
+                    gramTokens.remove(token);
+                    if (gramTokens.isEmpty()) {
+                        trigrams.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Разбивает текст на нормализованные слова: нижний регистр и транслитерация кириллицы в латиницу.
+     *
+     * @param text исходный текст
+     * @return список нормализованных слов
+     */
+    static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        return Arrays.stream(TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT)))
+                .map(ItemFuzzyIndex::transliterate)
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    private static String transliterate(String token) {
+        StringBuilder result = new StringBuilder(token.length());
+        for (char symbol : token.toCharArray()) {
+            result.append(TRANSLITERATION.getOrDefault(symbol, String.valueOf(symbol)));
+        }
+        return result.toString();
+    }
+
+    private static Set<String> trigramsOf(String token) {
+        String padded = "^" + token + "$";
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            result.add(padded.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    /**
+     * Вычисляет расстояние Левенштейна с ранним выходом при превышении порога.
+     *
+     * @param first  первое слово
+     * @param second второе слово
+     * @param limit  порог расстояния
+     * @return расстояние или {@code limit + 1}, если оно превышает порог
+     */
+    private static int distance(String first, String second, int limit) {
+        int[] previous = new int[second.length() + 1];
+        int[] current = new int[second.length() + 1];
+        for (int j = 0; j <= second.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= first.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= second.length(); j++) {
+                int cost = first.charAt(i - 1) == second.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[second.length()], limit + 1);
+    }
+
+    /**
+     * Проиндексированная вещь.
+     *
+     * @param item   DTO вещи, возвращаемый в результате поиска
+     * @param tokens нормализованные слова названия
+     */
+    private record Document(ItemDto item, Set<String> tokens) {
+    }
+
+    /**
+     * Найденная вещь.
+     *
+     * @param item     DTO вещи
+     * @param distance суммарное расстояние до слов запроса
+     */
+    private record Match(ItemDto item, int distance) {
+    }
+}
@@ -0,0 +1,191 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.pagination.CursorPage;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Ограниченный по размеру кэш результатов поиска вещей.
+ * <p>
+ * Ключом служит текст запроса в нижнем регистре вместе с режимом поиска, тегами фильтра, курсором
+ * и размером страницы.
+ * При переполнении вытесняется запись, к которой дольше всего не обращались (LRU).
+ * Одновременные запросы с одинаковым ключом объединяются: поиск выполняет только первый из них,
+ * остальные дожидаются его результата.
+ * </p>
+ * <p>
+ * Кэш сбрасывается методом {@link #invalidate()} при изменении названия, описания, доступности или тегов вещи,
+ * а также слушателем {@link ItemSearchIndexListener} после обновления поисковых индексов.
+ * Внутри транзакции кэш сбрасывается повторно после её фиксации: до фиксации параллельный поиск ещё видит
+ * прежнее состояние базы данных и индексов и мог сохранить его в кэш.
+ * Результат поиска, начатого до сброса, в кэш не сохраняется.
+ * </p>
+ * <p>
+ * {@link ItemDto} изменяемы, поэтому кэш хранит собственные копии найденных вещей
+ * и каждому запросу возвращает новые копии.
+ * </p>
+ */
+@Component
+@Slf4j
+public class ItemSearchCache {
+
+    private final Object lock = new Object();
+
+    private final int maxEntries;
+
+    /**
+     * Результаты поиска по ключу в порядке обращения. Незавершённый результат означает, что поиск выполняется.
+     */
+    private final Map<SearchKey, CompletableFuture<CursorPage<ItemDto>>> entries;
+
+    /**
+     * Номер поколения кэша, увеличивается при каждом сбросе.
+     */
+    private long generation;
+
+    public ItemSearchCache(@Value("${shareit.search.cache.max-entries:1000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<SearchKey, CompletableFuture<CursorPage<ItemDto>>> eldest) {
+                return size() > ItemSearchCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Возвращает результат поиска без фильтра по тегам из кэша или выполняет поиск и сохраняет его результат.
+     *
+     * @param text   текст для поиска
+     * @param fuzzy  признак нечёткого поиска
+     * @param after  курсор предыдущей страницы или {@code null}
+     * @param size   размер страницы
+     * @param search выполняет поиск при отсутствии результата в кэше
+     * @return страница найденных вещей
+     */
+    public CursorPage<ItemDto> get(String text, boolean fuzzy, String after, int size,
+                                   Supplier<CursorPage<ItemDto>> search) {
+        return get(text, fuzzy, Set.of(), after, size, search);
+    }
+
+    /**
+     * Возвращает результат поиска из кэша или выполняет поиск и сохраняет его результат.
+     *
+     * @param text   текст для поиска
+     * @param fuzzy  признак нечёткого поиска
+     * @param tags   нормализованные теги фильтра, пустой набор — без фильтра
+     * @param after  курсор предыдущей страницы или {@code null}
+     * @param size   размер страницы
+     * @param search выполняет поиск при отсутствии результата в кэше
+     * @return страница найденных вещей
+     */
+    public CursorPage<ItemDto> get(String text, boolean fuzzy, Set<String> tags, String after, int size,
+                                   Supplier<CursorPage<ItemDto>> search) {
+        if (maxEntries < 1) {
+            return search.get();
+        }
+        SearchKey key = new SearchKey(text.toLowerCase(Locale.ROOT), fuzzy, Set.copyOf(tags), after, size);
+        CompletableFuture<CursorPage<ItemDto>> cached;
+        CompletableFuture<CursorPage<ItemDto>> future = new CompletableFuture<>();
+        long searchGeneration;
+        synchronized (lock) {
+            cached = entries.putIfAbsent(key, future);
+            searchGeneration = generation;
+        }
+        if (cached != null) {
+            log.debug("Результат поиска взят из кэша: {}", key);
+            return copyOf(join(cached));
+        }
+        try {
+            CursorPage<ItemDto> result = search.get();
+            future.complete(copyOf(result));
+            synchronized (lock) {
+                if (generation != searchGeneration) {
+                    entries.remove(key, future);
+                }
+            }
+            return copyOf(result);
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                entries.remove(key, future);
+            }
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Сбрасывает все сохранённые результаты поиска, а внутри транзакции — ещё и после её фиксации.
+     */
+    public void invalidate() {
+        clear();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    clear();
+                }
+            });
+        }
+    }
+
+    private void clear() {
+        synchronized (lock) {
+            generation++;
+            entries.clear();
+        }
+        log.debug("Кэш результатов поиска вещей сброшен.");
+    }
+
+    /**
+     * Копирует страницу найденных вещей, чтобы изменения DTO вызывающим кодом не затрагивали кэш.
+     *
+     * @param page страница найденных вещей
+     * @return страница с копиями DTO
+     */
+    private static CursorPage<ItemDto> copyOf(CursorPage<ItemDto> page) {
+        return page.map(ItemMapper::copyOf);
+    }
+
+    /**
+     * Ожидает результат поиска, который мог ещё выполняться другим запросом.
+     *
+     * @param future результат поиска
+     * @return страница найденных вещей
+     */
+    private static CursorPage<ItemDto> join(CompletableFuture<CursorPage<ItemDto>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Ключ кэша.
+     *
+     * @param text  текст запроса в нижнем регистре
+     * @param fuzzy признак нечёткого поиска
+     * @param tags  теги фильтра
+     * @param after курсор предыдущей страницы или {@code null}
+     * @param size  размер страницы
+     */
+    private record SearchKey(String text, boolean fuzzy, Set<String> tags, String after, int size) {
+    }
+}
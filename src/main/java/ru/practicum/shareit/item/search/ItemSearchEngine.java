@@ -0,0 +1,51 @@
+package ru.practicum.shareit.item.search;
+
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.pagination.CursorPage;
+
+import java.util.function.LongPredicate;
+
+/**
+ * Движок поиска доступных для аренды вещей.
+ * <p>
+ * Реализация выбирается настройкой {@code shareit.search.engine}:
+ * <ul>
+ *     <li>{@code index} — инвертированный индекс в памяти приложения ({@link InMemoryItemSearchEngine});</li>
+ *     <li>{@code like} — поиск подстроки средствами базы данных ({@link JpaItemSearchEngine});</li>
+ *     <li>{@code fulltext} — полнотекстовый поиск базы данных с ранжированием по релевантности
+ *     ({@link FullTextItemSearchEngine}).</li>
+ * </ul>
+ * </p>
+ */
+public interface ItemSearchEngine {
+
+    /**
+     * Ищет страницу доступных вещей, в названии или описании которых встречается текст (без учёта регистра).
+     * <p>
+     * Используется курсорная пагинация: курсор следующей страницы непрозрачен и понятен только
+     * выдавшему его движку.
+     * </p>
+     *
+     * @param text  непустой текст для поиска
+     * @param after курсор, полученный с предыдущей страницей, или {@code null} для первой страницы
+     * @param size  размер страницы
+     * @return страница найденных вещей в порядке, определяемом движком
+     */
+    default CursorPage<ItemDto> search(String text, String after, int size) {
+        return search(text, after, size, id -> true);
+    }
+
+    /**
+     * Ищет страницу доступных вещей так же, как {@link #search(String, String, int)},
+     * но только среди вещей, ID которых удовлетворяют фильтру. Порядок вещей и курсоры те же,
+     * что и без фильтра, поэтому найденные вещи совпадают с результатом поиска без фильтра,
+     * из которого убраны не прошедшие фильтр.
+     *
+     * @param text     непустой текст для поиска
+     * @param after    курсор, полученный с предыдущей страницей, или {@code null} для первой страницы
+     * @param size     размер страницы
+     * @param idFilter фильтр ID вещей, например по битовой карте тегов
+     * @return страница найденных вещей в порядке, определяемом движком
+     */
+    CursorPage<ItemDto> search(String text, String after, int size, LongPredicate idFilter);
+}
@@ -0,0 +1,98 @@
+package ru.practicum.shareit.item.search;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.HashSet;
+
+/**
+ * Слушатель сущностей {@link Item}, поддерживающий поисковые индексы в актуальном состоянии.
+ * <p>
+ * Вызывается Hibernate после вставки, обновления и удаления вещи, то есть ещё до фиксации транзакции.
+ * Поэтому изменения индексов откладываются до {@link TransactionSynchronization#afterCommit()}: при откате
+ * транзакции индексы не меняются. Вне транзакции изменения применяются сразу. Вещь копируется в момент
+ * события, так что в индекс попадает состояние, записанное в базу данных.
+ * </p>
+ * <p>
+ * Индексы нечёткого поиска, подсказок и тегов обновляются всегда, а индекс точного поиска — только если он включён
+ * настройкой {@code shareit.search.engine}. После обновления индексов сбрасывается кэш {@link ItemSearchCache},
+ * чтобы в нём не остались результаты, найденные по прежнему состоянию индексов.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemSearchIndexListener {
+
+    private final ObjectProvider<InMemoryItemSearchEngine> inMemoryItemSearchEngine;
+    private final ItemFuzzyIndex itemFuzzyIndex;
+    private final ItemSuggestIndex itemSuggestIndex;
+    private final ItemTagIndex itemTagIndex;
+    private final ItemSearchCache itemSearchCache;
+
+    /**
+     * Добавляет сохранённую вещь в индексы или обновляет её после фиксации транзакции.
+     *
+     * @param item сохранённая вещь
+     */
+    @PostPersist
+    @PostUpdate
+    public void onSave(Item item) {
+        Item saved = copyOf(item);
+        afterCommit(() -> {
+            inMemoryItemSearchEngine.ifAvailable(engine -> engine.index(saved));
+            itemFuzzyIndex.index(saved);
+            itemSuggestIndex.index(saved);
+            itemTagIndex.index(saved);
+            itemSearchCache.invalidate();
+        });
+    }
+
+    /**
+     * Удаляет вещь из индексов после фиксации транзакции.
+     *
+     * @param item удалённая вещь
+     */
+    @PostRemove
+    public void onRemove(Item item) {
+        long itemId = item.getId();
+        afterCommit(() -> {
+            inMemoryItemSearchEngine.ifAvailable(engine -> engine.remove(itemId));
+            itemFuzzyIndex.remove(itemId);
+            itemSuggestIndex.remove(itemId);
+            itemTagIndex.remove(itemId);
+            itemSearchCache.invalidate();
+        });
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    private static Item copyOf(Item item) {
+        return Item.builder()
+                .id(item.getId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .available(item.getAvailable())
+                .quantity(item.getQuantity())
+                .request(item.getRequest())
+                .tags(item.getTags() == null ? new HashSet<>() : new HashSet<>(item.getTags()))
+                .build();
+    }
+}
@@ -0,0 +1,395 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.JpaItemRepository;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Индекс подсказок названий доступных вещей по префиксу.
+ * <p>
+ * Названия в нижнем регистре хранятся в сжатом префиксном дереве (radix trie): цепочки узлов
+ * с единственным потомком объединяются в один узел с многосимвольной меткой, поэтому число узлов
+ * не превышает удвоенного числа различных названий. Вес названия — количество доступных вещей с ним.
+ * Каждый узел хранит наибольший вес в своём поддереве, поэтому подсказки с наибольшим весом находятся
+ * обходом по убыванию этой оценки без просмотра всего поддерева найденного префикса и без запросов
+ * к базе данных.
+ * </p>
+ * <p>
+ * Название отображается в том написании, которое встречается у большего числа вещей, а при равенстве —
+ * в первом по алфавиту. При удалении вещи её написание перестаёт учитываться.
+ * </p>
+ * <p>
+ * Индекс строится при старте приложения и поддерживается в актуальном состоянии
+ * слушателем сущностей {@link ItemSearchIndexListener}.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ItemSuggestIndex {
+
+    private final JpaItemRepository jpaItemRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Корень префиксного дерева с пустой меткой.
+     */
+    private Node root = new Node("");
+
+    /**
+     * Названия проиндексированных вещей по их ID.
+     */
+    private final Map<Long, String> names = new HashMap<>();
+
+    /**
+     * Перестраивает индекс по всем вещам из базы данных.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Item> items = jpaItemRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            root = new Node("");
+            names.clear();
+            items.forEach(this::addName);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Построен индекс подсказок названий вещей. Проиндексировано вещей: {}", names.size());
+    }
+
+    /**
+     * Добавляет название вещи в индекс или обновляет его.
+     * Недоступная для аренды вещь удаляется из индекса.
+     *
+     * @param item сохранённая вещь
+     */
+    public void index(Item item) {
+        lock.writeLock().lock();
+        try {
+            removeName(item.getId());
+            addName(item);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Удаляет название вещи из индекса.
+     *
+     * @param itemId ID удалённой вещи
+     */
+    public void remove(long itemId) {
+        lock.writeLock().lock();
+        try {
+            removeName(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Порядок обхода: по убыванию веса, затем по ключу; название узла раньше его поддерева.
+     */
+    private static final Comparator<Candidate> CANDIDATE_ORDER = Comparator.comparingInt(Candidate::weight)
+            .reversed()
+            .thenComparing(Candidate::key)
+            .thenComparingInt(candidate -> candidate.terminal() ? 0 : 1);
+
+    /**
+     * Возвращает названия доступных вещей, начинающиеся с указанного префикса (без учёта регистра).
+     * Одинаковые названия возвращаются один раз.
+     *
+     * @param prefix непустой префикс названия
+     * @param size   максимальное количество подсказок, проверенное вызывающим кодом
+     * @return названия по убыванию количества вещей с ними, при равном количестве — в алфавитном порядке
+     */
+    public List<String> suggest(String prefix, int size) {
+        List<String> result = new ArrayList<>(size);
+        lock.readLock().lock();
+        try {
+            Candidate start = find(normalize(prefix));
+            if (start != null) {
+                collect(start, result, size);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    private void addName(Item item) {
+        if (!Boolean.TRUE.equals(item.getAvailable()) || item.getName() == null || item.getName().isBlank()) {
+            return;
+        }
+        names.put(item.getId(), item.getName());
+        insert(normalize(item.getName()), item.getName());
+    }
+
+    private void removeName(long itemId) {
+        String name = names.remove(itemId);
+        if (name != null) {
+            delete(normalize(name), name);
+        }
+    }
+
+    /**
+     * Находит узел, поддерево которого содержит все ключи с указанным префиксом.
+     *
+     * @param prefix префикс в нижнем регистре
+     * @return поддерево узла вместе с его ключом или {@code null}, если таких ключей нет
+     */
+    private Candidate find(String prefix) {
+        Node node = root;
+        String rest = prefix;
+        StringBuilder key = new StringBuilder();
+        while (!rest.isEmpty()) {
+            Node child = node.child(rest.charAt(0));
+            if (child == null) {
+                return null;
+            }
+            if (child.label.startsWith(rest)) {
+                return new Candidate(child, key + child.label, false);
+            }
+            if (!rest.startsWith(child.label)) {
+                return null;
+            }
+            key.append(child.label);
+            rest = rest.substring(child.label.length());
+            node = child;
+        }
+        return new Candidate(node, key.toString(), false);
+    }
+
+    /**
+     * Собирает названия поддерева по убыванию веса. Поддеревья раскрываются в порядке наибольшего веса в них,
+     * поэтому просматриваются только узлы, которые могут попасть в результат, и их непосредственные потомки.
+     *
+     * @param start  поддерево найденного префикса
+     * @param result список найденных названий
+     * @param limit  максимальное количество названий
+     */
+    private static void collect(Candidate start, List<String> result, int limit) {
+        PriorityQueue<Candidate> queue = new PriorityQueue<>(CANDIDATE_ORDER);
+        queue.add(start);
+        while (!queue.isEmpty() && result.size() < limit) {
+            Candidate candidate = queue.poll();
+            Node node = candidate.node();
+            if (candidate.terminal()) {
+                result.add(node.name());
+                continue;
+            }
+            if (node.count > 0) {
+                queue.add(new Candidate(node, candidate.key(), true));
+            }
+            if (node.children != null) {
+                for (Node child : node.children.values()) {
+                    queue.add(new Candidate(child, candidate.key() + child.label, false));
+                }
+            }
+        }
+    }
+
+    private void insert(String key, String name) {
+        Deque<Node> path = new ArrayDeque<>();
+        Node node = root;
+        String rest = key;
+        while (!rest.isEmpty()) {
+            path.push(node);
+            Node child = node.child(rest.charAt(0));
+            if (child == null) {
+                child = new Node(rest);
+                node.addChild(child);
+                node = child;
+                break;
+            }
+            int common = commonPrefixLength(child.label, rest);
+            if (common < child.label.length()) {
+                Node middle = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                middle.addChild(child);
+                middle.best = child.best;
+                node.addChild(middle);
+                child = middle;
+            }
+            rest = rest.substring(common);
+            node = child;
+        }
+        node.addForm(name);
+        node.updateBest();
+        path.forEach(Node::updateBest);
+    }
+
+    private void delete(String key, String name) {
+        Deque<Node> path = new ArrayDeque<>();
+        Node node = root;
+        String rest = key;
+        while (!rest.isEmpty()) {
+            Node child = node.child(rest.charAt(0));
+            if (child == null || !rest.startsWith(child.label)) {
+                return;
+            }
+            path.push(node);
+            rest = rest.substring(child.label.length());
+            node = child;
+        }
+        if (!node.removeForm(name)) {
+            return;
+        }
+        if (node.count == 0) {
+            Node parent = path.peek();
+            if (node.children == null && parent != null) {
+                parent.children.remove(node.label.charAt(0));
+                if (parent.children.isEmpty()) {
+                    parent.children = null;
+                }
+                node = path.pop();
+            }
+            if (node != root && node.count == 0 && node.children != null && node.children.size() == 1) {
+                node.mergeWithOnlyChild();
+            }
+        }
+        node.updateBest();
+        path.forEach(Node::updateBest);
+    }
+
+    /**
+     * Поддерево узла или название, которым заканчивается узел, в очереди обхода.
+     *
+     * @param node     узел дерева
+     * @param key      ключ узла в нижнем регистре
+     * @param terminal {@code true} для названия узла, {@code false} для всего поддерева
+     */
+    private record Candidate(Node node, String key, boolean terminal) {
+
+        private int weight() {
+            return terminal ? node.count : node.best;
+        }
+    }
+
+    private static int commonPrefixLength(String first, String second) {
+        int length = Math.min(first.length(), second.length());
+        int i = 0;
+        while (i < length && first.charAt(i) == second.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static String normalize(String text) {
+        return text.strip().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Узел сжатого префиксного дерева.
+     */
+    private static final class Node {
+
+        /**
+         * Метка ребра от родителя к узлу.
+         */
+        private String label;
+
+        /**
+         * Потомки по первому символу их метки; {@code null} у листа.
+         */
+        private TreeMap<Character, Node> children;
+
+        /**
+         * Написания названий, заканчивающихся в этом узле, с количеством вещей; {@code null}, если таких нет.
+         */
+        private TreeMap<String, Integer> forms;
+
+        /**
+         * Количество вещей, название которых заканчивается в этом узле.
+         */
+        private int count;
+
+        /**
+         * Наибольшее количество вещей с одним названием в поддереве узла, включая сам узел.
+         */
+        private int best;
+
+        private Node(String label) {
+            this.label = label;
+        }
+
+        private Node child(char first) {
+            return children == null ? null : children.get(first);
+        }
+
+        private void addChild(Node child) {
+            if (children == null) {
+                children = new TreeMap<>();
+            }
+            children.put(child.label.charAt(0), child);
+        }
+
+        /**
+         * Возвращает написание названия, которое встречается у большего числа вещей.
+         */
+        private String name() {
+            String name = null;
+            int max = 0;
+            for (Map.Entry<String, Integer> form : forms.entrySet()) {
+                if (form.getValue() > max) {
+                    name = form.getKey();
+                    max = form.getValue();
+                }
+            }
+            return name;
+        }
+
+        private void addForm(String name) {
+            if (forms == null) {
+                forms = new TreeMap<>();
+            }
+            forms.merge(name, 1, Integer::sum);
+            count++;
+        }
+
+        /**
+         * Удаляет одно написание названия.
+         *
+         * @return {@code true}, если такое написание было в узле
+         */
+        private boolean removeForm(String name) {
+            if (forms == null || forms.computeIfPresent(name, (key, value) -> value - 1) == null) {
+                return false;
+            }
+            forms.remove(name, 0);
+            if (forms.isEmpty()) {
+                forms = null;
+            }
+            count--;
+            return true;
+        }
+
+        private void updateBest() {
+            best = count;
+            if (children != null) {
+                for (Node child : children.values()) {
+                    best = Math.max(best, child.best);
+                }
+            }
+        }
+
+        private void mergeWithOnlyChild() {
+            Node child = children.firstEntry().getValue();
+            label = label + child.label;
+            children = child.children;
+            forms = child.forms;
+            count = child.count;
+            best = child.best;
+        }
+    }
+}
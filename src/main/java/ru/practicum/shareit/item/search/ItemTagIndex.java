@@ -0,0 +1,230 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.error.exception.ValidationException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.JpaItemRepository;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Битовый индекс тегов вещей для фильтрации и подсчёта фасетов.
+ * <p>
+ * Для каждого тега хранится битовая карта ({@link LongBitmap}) ID вещей с этим тегом,
+ * а отдельная карта отмечает вещи, доступные для аренды. ID вещей выдаются последовательно,
+ * поэтому карты получаются плотными и компактными. Фильтр по нескольким тегам — это пересечение карт,
+ * а количество вещей для каждого тега (фасет) — мощность пересечения карты тега с результатом фильтра.
+ * </p>
+ * <p>
+ * Индекс строится при старте приложения и поддерживается в актуальном состоянии
+ * слушателем сущностей {@link ItemSearchIndexListener}.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ItemTagIndex {
+
+    /**
+     * Максимальная длина тега, совпадает с размером столбца {@code item_tags.tag}.
+     */
+    public static final int MAX_TAG_LENGTH = 50;
+
+    private final JpaItemRepository jpaItemRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Битовые карты ID вещей по тегам.
+     */
+    private final Map<String, LongBitmap> bitmaps = new HashMap<>();
+
+    /**
+     * Битовая карта ID доступных для аренды вещей.
+     */
+    private final LongBitmap available = new LongBitmap();
+
+    /**
+     * Проиндексированные теги по ID вещи.
+     */
+    private final Map<Long, Set<String>> itemTags = new HashMap<>();
+
+    /**
+     * Перестраивает индекс по всем вещам из базы данных.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Item> items = jpaItemRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            bitmaps.clear();
+            available.clear();
+            itemTags.clear();
+            items.forEach(this::addItem);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Построен индекс тегов вещей. Тегов: {}, доступных вещей: {}", bitmaps.size(),
+                available.cardinality());
+    }
+
+    /**
+     * Добавляет вещь в индекс или обновляет её теги и доступность.
+     *
+     * @param item сохранённая вещь
+     */
+    public void index(Item item) {
+        lock.writeLock().lock();
+        try {
+            removeItem(item.getId());
+            addItem(item);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Удаляет вещь из индекса.
+     *
+     * @param itemId ID удалённой вещи
+     */
+    public void remove(long itemId) {
+        lock.writeLock().lock();
+        try {
+            removeItem(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает проиндексированные теги вещи.
+     *
+     * @param itemId ID вещи
+     * @return неизменяемый набор тегов (пустой, если у вещи нет тегов)
+     */
+    public Set<String> tagsOf(long itemId) {
+        lock.readLock().lock();
+        try {
+            return itemTags.getOrDefault(itemId, Set.of());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает битовую карту доступных вещей, у которых есть все указанные теги.
+     *
+     * @param tags нормализованные теги
+     * @return новая битовая карта ID вещей
+     */
+    public LongBitmap filter(Collection<String> tags) {
+        lock.readLock().lock();
+        try {
+            LongBitmap result = available.copy();
+            for (String tag : tags) {
+                LongBitmap bitmap = bitmaps.get(tag);
+                if (bitmap == null) {
+                    return new LongBitmap();
+                }
+                result.and(bitmap);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Подсчитывает фасеты: сколько доступных вещей с указанными тегами имеют каждый из тегов.
+     *
+     * @param tags нормализованные теги фильтра (пустой набор — все доступные вещи)
+     * @return количество вещей по тегам в алфавитном порядке, теги без вещей не включаются
+     */
+    public Map<String, Integer> facets(Collection<String> tags) {
+        LongBitmap matching = filter(tags);
+        Map<String, Integer> result = new TreeMap<>();
+        lock.readLock().lock();
+        try {
+            bitmaps.forEach((tag, bitmap) -> {
+                int count = bitmap.intersectionCardinality(matching);
+                if (count > 0) {
+                    result.put(tag, count);
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Возвращает ID вещей из битовой карты, следующие за указанным, в порядке возрастания.
+     *
+     * @param bitmap  битовая карта ID вещей
+     * @param afterId ID, после которого начинается выборка (0 для начала)
+     * @param limit   максимальное количество ID
+     * @return список ID вещей
+     */
+    public static List<Long> idsAfter(LongBitmap bitmap, long afterId, int limit) {
+        List<Long> ids = new ArrayList<>();
+        for (long id = bitmap.nextSetBit(afterId + 1); id >= 0 && ids.size() < limit; id = bitmap.nextSetBit(id + 1)) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    /**
+     * Нормализует теги: удаляет пробелы по краям, приводит к нижнему регистру и отбрасывает пустые.
+     *
+     * @param tags исходные теги или {@code null}
+     * @return набор нормализованных тегов
+     * @throws ValidationException если тег длиннее {@value #MAX_TAG_LENGTH} символов
+     */
+    public static Set<String> normalize(Collection<String> tags) {
+        if (tags == null) {
+            return Set.of();
+        }
+        Set<String> result = new HashSet<>();
+        for (String tag : tags) {
+            if (tag == null || tag.isBlank()) {
+                continue;
+            }
+            String normalized = tag.strip().toLowerCase(Locale.ROOT);
+            if (normalized.length() > MAX_TAG_LENGTH) {
+                throw new ValidationException("Длина тега не может превышать " + MAX_TAG_LENGTH + " символов.");
+            }
+            result.add(normalized);
+        }
+        return result;
+    }
+
+    private void addItem(Item item) {
+        long id = item.getId();
+        Set<String> tags = Set.copyOf(item.getTags());
+        itemTags.put(id, tags);
+        tags.forEach(tag -> bitmaps.computeIfAbsent(tag, key -> new LongBitmap()).set(id));
+        available.set(id, Boolean.TRUE.equals(item.getAvailable()));
+    }
+
+    private void removeItem(long itemId) {
+        available.clear(itemId);
+        Set<String> tags = itemTags.remove(itemId);
+        if (tags == null) {
+            return;
+        }
+        for (String tag : tags) {
+            LongBitmap bitmap = bitmaps.get(tag);
+            bitmap.clear(itemId);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(tag);
+            }
+        }
+    }
+}
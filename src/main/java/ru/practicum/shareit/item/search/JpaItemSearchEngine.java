@@ -0,0 +1,75 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.JpaItemRepository;
+import ru.practicum.shareit.pagination.CursorCodec;
+import ru.practicum.shareit.pagination.CursorPage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongPredicate;
+
+/**
+ * Движок поиска вещей, выполняющий поиск подстроки ({@code LIKE '%text%'}) в базе данных.
+ * Используется при {@code shareit.search.engine=like}.
+ */
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "like")
+@RequiredArgsConstructor
+public class JpaItemSearchEngine implements ItemSearchEngine {
+
+    /**
+     * Количество вещей, запрашиваемых за один раз при поиске с фильтром.
+     */
+    private static final int FILTER_CHUNK = 500;
+
+    private final JpaItemRepository jpaItemRepository;
+
+    /**
+     * Ищет страницу доступных вещей запросом к базе данных.
+     * Вещи упорядочены по ID, курсор содержит ID последней вещи страницы.
+     *
+     * @param text  непустой текст для поиска
+     * @param after курсор предыдущей страницы или {@code null}
+     * @param size  размер страницы
+     * @return страница найденных вещей
+     */
+    @Override
+    public CursorPage<ItemDto> search(String text, String after, int size) {
+        List<Item> items = jpaItemRepository.searchAvailableByText(text, CursorCodec.decodeId(after),
+                Limit.of(size + 1));
+        return CursorPage.of(items, size, item -> CursorCodec.encode(item.getId())).map(ItemMapper::toItemDto);
+    }
+
+    /**
+     * Ищет страницу доступных вещей среди прошедших фильтр. Найденные вещи читаются в порядке ID
+     * порциями не меньше {@value #FILTER_CHUNK}, пока страница не будет заполнена.
+     *
+     * @param text     непустой текст для поиска
+     * @param after    курсор предыдущей страницы или {@code null}
+     * @param size     размер страницы
+     * @param idFilter фильтр ID вещей
+     * @return страница найденных вещей
+     */
+    @Override
+    public CursorPage<ItemDto> search(String text, String after, int size, LongPredicate idFilter) {
+        int chunk = Math.max(size + 1, FILTER_CHUNK);
+        long afterId = CursorCodec.decodeId(after);
+        List<Item> items = new ArrayList<>();
+        while (items.size() <= size) {
+            List<Item> found = jpaItemRepository.searchAvailableByText(text, afterId, Limit.of(chunk));
+            found.stream().filter(item -> idFilter.test(item.getId())).forEach(items::add);
+            if (found.size() < chunk) {
+                break;
+            }
+            afterId = found.getLast().getId();
+        }
+        return CursorPage.of(items, size, item -> CursorCodec.encode(item.getId())).map(ItemMapper::toItemDto);
+    }
+}
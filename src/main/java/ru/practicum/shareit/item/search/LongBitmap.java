@@ -0,0 +1,185 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Битовая карта неотрицательных чисел типа {@code long}.
+ * <p>
+ * Диапазон чисел разбит на блоки по {@code 2^}{@value #BLOCK_BITS} значений, для каждого непустого блока хранится
+ * отдельный {@link BitSet}. Последовательные ID вещей попадают в небольшое число плотных блоков, а ID больше
+ * {@link Integer#MAX_VALUE} поддерживаются без переполнения.
+ * </p>
+ * <p>
+ * Класс не потокобезопасен, вызовы нужно синхронизировать снаружи.
+ * </p>
+ */
+public final class LongBitmap {
+
+    private static final int BLOCK_BITS = 16;
+
+    private static final long BLOCK_MASK = (1L << BLOCK_BITS) - 1;
+
+    /**
+     * Блоки карты по номеру блока. Пустые блоки не хранятся.
+     */
+    private final TreeMap<Long, BitSet> blocks = new TreeMap<>();
+
+    /**
+     * Устанавливает или сбрасывает бит.
+     *
+     * @param value число
+     * @param bit   новое значение бита
+     */
+    public void set(long value, boolean bit) {
+        if (bit) {
+            blocks.computeIfAbsent(block(value), key -> new BitSet()).set(offset(value));
+        } else {
+            clear(value);
+        }
+    }
+
+    /**
+     * Устанавливает бит.
+     *
+     * @param value число
+     */
+    public void set(long value) {
+        set(value, true);
+    }
+
+    /**
+     * Сбрасывает бит.
+     *
+     * @param value число
+     */
+    public void clear(long value) {
+        BitSet bitmap = blocks.get(block(value));
+        if (bitmap == null) {
+            return;
+        }
+        bitmap.clear(offset(value));
+        if (bitmap.isEmpty()) {
+            blocks.remove(block(value));
+        }
+    }
+
+    /**
+     * Сбрасывает все биты.
+     */
+    public void clear() {
+        blocks.clear();
+    }
+
+    /**
+     * Проверяет бит.
+     *
+     * @param value число
+     * @return {@code true}, если бит установлен
+     */
+    public boolean get(long value) {
+        BitSet bitmap = blocks.get(block(value));
+        return bitmap != null && bitmap.get(offset(value));
+    }
+
+    /**
+     * Оставляет только биты, установленные и в другой карте.
+     *
+     * @param other другая карта
+     */
+    public void and(LongBitmap other) {
+        Iterator<Map.Entry<Long, BitSet>> iterator = blocks.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, BitSet> entry = iterator.next();
+            BitSet bitmap = other.blocks.get(entry.getKey());
+            if (bitmap == null) {
+                iterator.remove();
+                continue;
+            }
+            entry.getValue().and(bitmap);
+            if (entry.getValue().isEmpty()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Возвращает количество установленных битов.
+     *
+     * @return количество битов
+     */
+    public int cardinality() {
+        int cardinality = 0;
+        for (BitSet bitmap : blocks.values()) {
+            cardinality += bitmap.cardinality();
+        }
+        return cardinality;
+    }
+
+    /**
+     * Проверяет, что в карте нет установленных битов.
+     *
+     * @return {@code true}, если карта пуста
+     */
+    public boolean isEmpty() {
+        return blocks.isEmpty();
+    }
+
+    /**
+     * Возвращает количество общих установленных битов с другой картой, не изменяя карты.
+     *
+     * @param other другая карта
+     * @return количество битов пересечения
+     */
+    public int intersectionCardinality(LongBitmap other) {
+        int cardinality = 0;
+        for (Map.Entry<Long, BitSet> entry : blocks.entrySet()) {
+            BitSet bitmap = other.blocks.get(entry.getKey());
+            if (bitmap != null) {
+                BitSet intersection = (BitSet) entry.getValue().clone();
+                intersection.and(bitmap);
+                cardinality += intersection.cardinality();
+            }
+        }
+        return cardinality;
+    }
+
+    /**
+     * Возвращает наименьшее число с установленным битом, не меньшее указанного.
+     *
+     * @param from число, с которого начинается поиск
+     * @return найденное число или -1
+     */
+    public long nextSetBit(long from) {
+        long start = Math.max(from, 0);
+        for (Map.Entry<Long, BitSet> entry : blocks.tailMap(block(start), true).entrySet()) {
+            int offset = entry.getKey() == block(start) ? offset(start) : 0;
+            int bit = entry.getValue().nextSetBit(offset);
+            if (bit >= 0) {
+                return (entry.getKey() << BLOCK_BITS) | bit;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Создаёт независимую копию карты.
+     *
+     * @return копия карты
+     */
+    public LongBitmap copy() {
+        LongBitmap copy = new LongBitmap();
+        blocks.forEach((key, bitmap) -> copy.blocks.put(key, (BitSet) bitmap.clone()));
+        return copy;
+    }
+
+    private static long block(long value) {
+        return value >>> BLOCK_BITS;
+    }
+
+    private static int offset(long value) {
+        return (int) (value & BLOCK_MASK);
+    }
+}
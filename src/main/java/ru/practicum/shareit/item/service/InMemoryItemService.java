@@ -2,21 +2,31 @@ package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.error.exception.NotFoundException;
 import ru.practicum.shareit.item.dto.CommentDtoRequest;
 import ru.practicum.shareit.item.dto.CommentDtoResponse;
+import ru.practicum.shareit.item.dto.FreeWindowDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoBooking;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSnapshot;
+import ru.practicum.shareit.item.search.ItemFuzzyIndex;
+import ru.practicum.shareit.item.search.ItemTagIndex;
 import ru.practicum.shareit.item.storage.ItemStorage;
+import ru.practicum.shareit.pagination.CursorCodec;
+import ru.practicum.shareit.pagination.CursorPage;
 import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.InMemoryUserService;
 
-import java.util.List;
-import java.util.Optional;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Реализация интерфейса {@link ItemService}, предоставляющая операции с вещами.
@@ -30,6 +40,24 @@ public class InMemoryItemService implements ItemService {
     private final ItemStorage inMemoryItemStorage;
     private final InMemoryUserService inMemoryUserService;
 
+    /**
+     * Наибольший размер страницы.
+     */
+    @Value("${shareit.pagination.max-size:1000}")
+    private int maxPageSize;
+
+    /**
+     * Наибольшее количество подсказок названий в ответе.
+     */
+    @Value("${shareit.suggest.max-size:50}")
+    private int suggestMaxSize;
+
+    /**
+     * Максимальное допустимое расстояние Левенштейна при нечётком поиске.
+     */
+    @Value("${shareit.search.fuzzy.max-distance:2}")
+    private int maxFuzzyDistance;
+
     /**
      * Создает новую вещь и сохраняет её в хранилище.
      * Проверяет, существует ли пользователь с указанным ID перед созданием вещи.
@@ -44,6 +72,7 @@ public class InMemoryItemService implements ItemService {
         inMemoryUserService.getUserByIdDto(userId);
         User user = UserMapper.toUser(inMemoryUserService.getUserByIdDto(userId));
         item.setOwner(user);
+        item.setTags(ItemTagIndex.normalize(itemDto.getTags()));
         Item itemResultDao = inMemoryItemStorage.createItem(item);
         log.info("Создана вещь DAO: \n{}", itemResultDao);
         ItemDto itemResultDto = ItemMapper.toItemDto(itemResultDao);
@@ -69,6 +98,8 @@ public class InMemoryItemService implements ItemService {
         Optional.ofNullable(itemDto.getName()).ifPresent(item::setName);
         Optional.ofNullable(itemDto.getDescription()).ifPresent(item::setDescription);
         Optional.ofNullable(itemDto.getAvailable()).ifPresent(item::setAvailable);
+        Optional.ofNullable(itemDto.getQuantity()).ifPresent(item::setQuantity);
+        Optional.ofNullable(itemDto.getTags()).map(ItemTagIndex::normalize).ifPresent(item::setTags);
         log.info("Обновлённая вещь DAO: \n{}", item);
         ItemDto resultDto = ItemMapper.toItemDto(inMemoryItemStorage.updateItem(item));
         log.info("Обновлённая вещь DTO: \n{}", resultDto);
@@ -88,41 +119,133 @@ public class InMemoryItemService implements ItemService {
     }
 
     /**
-     * Получает список всех вещей, принадлежащих пользователю с указанным идентификатором.
+     * Возвращает свободные промежутки времени вещи в указанном интервале.
+     * Бронирования в хранилище в памяти не ведутся, поэтому доступная вещь свободна весь интервал.
+     *
+     * @param itemId Уникальный идентификатор вещи
+     * @param from   Начало интервала
+     * @param to     Конец интервала
+     * @return Список свободных промежутков
+     */
+    @Override
+    public List<FreeWindowDto> getItemAvailability(long itemId, LocalDateTime from, LocalDateTime to) {
+        Item item = inMemoryItemStorage.getItemById(itemId);
+        if (!from.isBefore(to) || !Boolean.TRUE.equals(item.getAvailable())) {
+            return List.of();
+        }
+        return List.of(new FreeWindowDto(from, to));
+    }
+
+    /**
+     * Получает страницу вещей, принадлежащих пользователю с указанным идентификатором.
      *
      * @param userId Уникальный идентификатор владельца вещей
-     * @return Список DTO всех вещей пользователя
+     * @param after  Курсор предыдущей страницы или {@code null} для первой страницы
+     * @param size   Размер страницы
+     * @return Страница DTO вещей пользователя
      */
     @Override
-    public List<ItemDtoBooking> getAllItemsFromUser(long userId) {
+    public CursorPage<ItemDtoBooking> getAllItemsFromUser(long userId, String after, int size) {
+        CursorCodec.checkSize(size, maxPageSize);
         inMemoryUserService.getUserByIdDto(userId);
         log.info("Получен список вещей. ID владельца: {}.", userId);
-        return inMemoryItemStorage.getAllItemsFromUser(userId).stream().map(ItemMapper::toItemDtoBooking).toList();
+        return toPage(inMemoryItemStorage.getAllItemsFromUser(userId).stream(), after, size)
+                .map(ItemMapper::toItemDtoBooking);
     }
 
     /**
      * Выполняет поиск доступных вещей по тексту.
-     * Ищет в названии и описании вещи.
+     * Точный поиск ищет в названии и описании вещи. Нечёткий поиск ищет в названии с учётом опечаток
+     * по тем же правилам, что и {@link ItemFuzzyIndex}, и упорядочивает вещи по расстоянию до запроса.
+     * Если указаны теги, ищет только среди вещей со всеми этими тегами; без текста возвращает все такие вещи.
      *
-     * @param text Текст для поиска
-     * @return Список DTO найденных доступных вещей
+     * @param text  Текст для поиска
+     * @param fuzzy Признак нечёткого поиска с учётом опечаток в названии
+     * @param tags  Теги для фильтрации или {@code null}
+     * @param after Курсор предыдущей страницы или {@code null} для первой страницы
+     * @param size  Размер страницы
+     * @return Страница DTO найденных доступных вещей
      */
     @Override
-    public List<ItemDto> searchAvailableItemsByText(String text) {
+    public CursorPage<ItemDto> searchAvailableItemsByText(String text, boolean fuzzy, Set<String> tags, String after,
+                                                          int size) {
+        CursorCodec.checkSize(size, maxPageSize);
         List<Item> allItems = inMemoryItemStorage.getAllItems();
-        if (text == null || text.isEmpty()) {
+        Set<String> normalizedTags = ItemTagIndex.normalize(tags);
+        boolean noText = text == null || text.isEmpty();
+        if (noText && normalizedTags.isEmpty()) {
             log.warn("Не указан текст для поиска.");
-            return List.of();
+            return CursorPage.empty();
         }
-        List<ItemDto> resultSearch = allItems.stream()
+        Stream<Item> candidates = allItems.stream()
                 .filter(Item::getAvailable)
-                .filter(item -> item.getName().toUpperCase().contains(text.toUpperCase())
-                        || item.getDescription().toUpperCase().contains(text.toUpperCase()))
-                .map(ItemMapper::toItemDto).toList();
-        log.info("Получен список вещей. Текст поиска: {} \n{}", text, resultSearch);
+                .filter(item -> item.getTags().containsAll(normalizedTags));
+        CursorPage<ItemDto> resultSearch = !noText && fuzzy
+                ? toFuzzyPage(candidates, text, after, size).map(ItemMapper::toItemDto)
+                : toPage(candidates
+                .filter(item -> noText || item.getName().toUpperCase().contains(text.toUpperCase())
+                        || item.getDescription().toUpperCase().contains(text.toUpperCase())), after, size)
+                .map(ItemMapper::toItemDto);
+        log.info("Получен список вещей. Текст поиска: {} \n{}", text, resultSearch.content());
         return resultSearch;
     }
 
+    /**
+     * Подсчитывает количество доступных вещей по каждому тегу среди вещей со всеми указанными тегами.
+     *
+     * @param tags Теги для фильтрации или {@code null}
+     * @return Количество вещей по тегам в алфавитном порядке
+     */
+    @Override
+    public Map<String, Integer> getTagFacets(Set<String> tags) {
+        Set<String> normalizedTags = ItemTagIndex.normalize(tags);
+        Map<String, Integer> facets = new TreeMap<>();
+        inMemoryItemStorage.getAllItems().stream()
+                .filter(Item::getAvailable)
+                .filter(item -> item.getTags().containsAll(normalizedTags))
+                .flatMap(item -> item.getTags().stream())
+                .forEach(tag -> facets.merge(tag, 1, Integer::sum));
+        log.info("Получены фасеты тегов. Теги фильтра: {} \n{}", tags, facets);
+        return facets;
+    }
+
+    /**
+     * Возвращает названия доступных вещей, начинающиеся с указанного префикса.
+     *
+     * @param prefix Префикс названия
+     * @param size   Максимальное количество подсказок
+     * @return Список различных названий по убыванию количества вещей с ними,
+     * при равном количестве — в алфавитном порядке
+     */
+    @Override
+    public List<String> suggestItemNames(String prefix, int size) {
+        CursorCodec.checkSize(size, suggestMaxSize);
+        if (prefix == null || prefix.isBlank()) {
+            log.warn("Не указан префикс для подсказок.");
+            return List.of();
+        }
+        String normalizedPrefix = prefix.strip().toLowerCase();
+        Map<String, List<String>> forms = inMemoryItemStorage.getAllItems().stream()
+                .filter(Item::getAvailable)
+                .map(Item::getName)
+                .filter(name -> name.toLowerCase().startsWith(normalizedPrefix))
+                .collect(Collectors.groupingBy(String::toLowerCase));
+        List<String> suggestions = forms.entrySet().stream()
+                .sorted(Comparator.comparing((Map.Entry<String, List<String>> entry) -> entry.getValue().size())
+                        .reversed()
+                        .thenComparing(Map.Entry::getKey))
+                .limit(size)
+                .map(entry -> entry.getValue().stream()
+                        .collect(Collectors.groupingBy(Function.identity(), TreeMap::new, Collectors.counting()))
+                        .entrySet().stream()
+                        .max(Map.Entry.comparingByValue())
+                        .orElseThrow()
+                        .getKey())
+                .toList();
+        log.info("Получены подсказки названий вещей. Префикс: {} \n{}", prefix, suggestions);
+        return suggestions;
+    }
+
     /**
      * Удаляет вещь по её уникальному идентификатору.
      * Проверяет права на удаление на основе ID пользователя.
@@ -164,6 +287,26 @@ public class InMemoryItemService implements ItemService {
         return null;
     }
 
+    @Override
+    public Item checkItemExistWithOwner(long itemId) {
+        return checkItemExist(itemId);
+    }
+
+    @Override
+    public Item getItemReference(long itemId) {
+        return checkItemExist(itemId);
+    }
+
+    @Override
+    public List<Item> lockItemsWithOwner(Collection<Long> itemIds) {
+        return itemIds.stream().sorted().distinct().map(this::checkItemExistWithOwner).toList();
+    }
+
+    @Override
+    public ItemSnapshot getItemSnapshot(long itemId) {
+        return ItemMapper.toItemSnapshot(inMemoryItemStorage.getItemById(itemId));
+    }
+
     @Override
     public void checkUserAuthorizationForItem(long userId, Item item) {
 
@@ -174,6 +317,56 @@ public class InMemoryItemService implements ItemService {
         return null;
     }
 
+    /**
+     * Формирует страницу вещей, упорядоченных по ID.
+     *
+     * @param items вещи
+     * @param after курсор предыдущей страницы или {@code null} для первой страницы
+     * @param size  размер страницы
+     * @return страница вещей
+     */
+    private CursorPage<Item> toPage(Stream<Item> items, String after, int size) {
+        long afterId = CursorCodec.decodeId(after);
+        List<Item> rows = items
+                .filter(item -> item.getId() > afterId)
+                .sorted(Comparator.comparing(Item::getId))
+                .limit(size + 1L)
+                .toList();
+        return CursorPage.of(rows, size, item -> CursorCodec.encode(item.getId()));
+    }
+
+    /**
+     * Формирует страницу вещей, похожих на текст запроса, в порядке возрастания расстояния, а при равном
+     * расстоянии — ID. Курсор содержит расстояние и ID последней вещи страницы, как у {@link ItemFuzzyIndex}.
+     *
+     * @param items Вещи для поиска
+     * @param text  Непустой текст для поиска
+     * @param after Курсор предыдущей страницы или {@code null} для первой страницы
+     * @param size  Размер страницы
+     * @return Страница найденных вещей
+     */
+    private CursorPage<Item> toFuzzyPage(Stream<Item> items, String text, String after, int size) {
+        int afterDistance = -1;
+        long afterId = 0;
+        if (after != null) {
+            String[] cursor = CursorCodec.decode(after, 2);
+            afterDistance = (int) CursorCodec.parseLong(cursor[0], after);
+            afterId = CursorCodec.parseLong(cursor[1], after);
+        }
+        int cursorDistance = afterDistance;
+        long cursorId = afterId;
+        List<FuzzyMatch> rows = items
+                .map(item -> new FuzzyMatch(item, ItemFuzzyIndex.nameDistance(text, item.getName(), maxFuzzyDistance)))
+                .filter(match -> match.distance() >= 0)
+                .filter(match -> match.distance() > cursorDistance
+                        || match.distance() == cursorDistance && match.item().getId() > cursorId)
+                .sorted(Comparator.comparingInt(FuzzyMatch::distance).thenComparing(match -> match.item().getId()))
+                .limit(size + 1L)
+                .toList();
+        return CursorPage.of(rows, size, match -> CursorCodec.encode(match.distance(), match.item().getId()))
+                .map(FuzzyMatch::item);
+    }
+
     /**
      * Проверяет права на редактирование или удаление вещи.
      * Выбрасывает исключение {@link NotFoundException}, если пользователь не является владельцем вещи.
@@ -189,4 +382,12 @@ public class InMemoryItemService implements ItemService {
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * Вещь, найденная нечётким поиском.
+     *
+     * @param item     Найденная вещь
+     * @param distance Суммарное расстояние до слов запроса
+     */
+    private record FuzzyMatch(Item item, int distance) {
+    }
+}
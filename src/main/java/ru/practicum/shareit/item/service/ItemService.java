@@ -2,11 +2,18 @@ package ru.practicum.shareit.item.service;
 
 import ru.practicum.shareit.item.dto.CommentDtoRequest;
 import ru.practicum.shareit.item.dto.CommentDtoResponse;
+import ru.practicum.shareit.item.dto.FreeWindowDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoBooking;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSnapshot;
+import ru.practicum.shareit.pagination.CursorPage;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Интерфейс для управления операциями с вещами в системе.
@@ -45,21 +52,58 @@ public interface ItemService {
     ItemDtoBooking getItemById(long userId, long itemId);
 
     /**
-     * Получает список всех вещей, принадлежащих пользователю с указанным идентификатором.
+     * Возвращает свободные промежутки времени вещи в указанном интервале.
+     *
+     * @param itemId Уникальный идентификатор вещи
+     * @param from   Начало интервала
+     * @param to     Конец интервала
+     * @return Список свободных промежутков в порядке времени начала
+     */
+    List<FreeWindowDto> getItemAvailability(long itemId, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Получает страницу вещей, принадлежащих пользователю с указанным идентификатором.
+     * Вещи упорядочены по ID.
      *
      * @param userId Уникальный идентификатор владельца вещей
-     * @return Список DTO всех вещей пользователя
+     * @param after  Курсор, полученный с предыдущей страницей, или {@code null} для первой страницы
+     * @param size   Размер страницы
+     * @return Страница DTO вещей пользователя
      */
-    List<ItemDtoBooking> getAllItemsFromUser(long userId);
+    CursorPage<ItemDtoBooking> getAllItemsFromUser(long userId, String after, int size);
 
     /**
      * Выполняет поиск доступных вещей по тексту.
-     * Ищет в названии и описании вещи.
+     * Ищет в названии и описании вещи, а в нечётком режиме — в названии с учётом опечаток.
+     * Если указаны теги, ищет только среди вещей со всеми этими тегами; без текста возвращает все такие вещи.
+     *
+     * @param text  Текст для поиска
+     * @param fuzzy Признак нечёткого поиска
+     * @param tags  Теги для фильтрации или {@code null}
+     * @param after Курсор, полученный с предыдущей страницей, или {@code null} для первой страницы
+     * @param size  Размер страницы
+     * @return Страница DTO найденных доступных вещей
+     */
+    CursorPage<ItemDto> searchAvailableItemsByText(String text, boolean fuzzy, Set<String> tags, String after,
+                                                   int size);
+
+    /**
+     * Подсчитывает количество доступных вещей по каждому тегу среди вещей со всеми указанными тегами.
+     *
+     * @param tags Теги для фильтрации или {@code null}
+     * @return Количество вещей по тегам
+     */
+    Map<String, Integer> getTagFacets(Set<String> tags);
+
+    /**
+     * Возвращает названия доступных вещей, начинающиеся с указанного префикса.
      *
-     * @param text Текст для поиска
-     * @return Список DTO найденных доступных вещей
+     * @param prefix Префикс названия
+     * @param size   Максимальное количество подсказок, не больше {@code shareit.suggest.max-size}
+     * @return Список различных названий по убыванию количества вещей с ними,
+     * при равном количестве — в алфавитном порядке
      */
-    List<ItemDto> searchAvailableItemsByText(String text);
+    List<String> suggestItemNames(String prefix, int size);
 
     /**
      * Удаляет вещь по её уникальному идентификатору.
@@ -90,6 +134,40 @@ public interface ItemService {
      */
     Item checkItemExist(long itemId);
 
+    /**
+     * Проверяет существование вещи и загружает её вместе с владельцем.
+     *
+     * @param itemId Уникальный идентификатор вещи
+     * @return Объект модели {@link Item} с загруженным владельцем
+     */
+    Item checkItemExistWithOwner(long itemId);
+
+    /**
+     * Возвращает ссылку на вещь для связи с другими сущностями без чтения вещи из хранилища.
+     * Существование вещи должно быть проверено заранее, например через {@link #getItemSnapshot(long)}.
+     *
+     * @param itemId Уникальный идентификатор вещи
+     * @return Ссылка на объект модели {@link Item}
+     */
+    Item getItemReference(long itemId);
+
+    /**
+     * Блокирует вещи на запись до конца текущей транзакции в порядке возрастания ID
+     * и загружает их вместе с владельцами.
+     *
+     * @param itemIds Уникальные идентификаторы вещей
+     * @return Вещи с загруженными владельцами в порядке возрастания ID
+     */
+    List<Item> lockItemsWithOwner(Collection<Long> itemIds);
+
+    /**
+     * Возвращает неизменяемый снимок вещи без загрузки связанных сущностей.
+     *
+     * @param itemId Уникальный идентификатор вещи
+     * @return Снимок {@link ItemSnapshot} вещи
+     */
+    ItemSnapshot getItemSnapshot(long itemId);
+
     /**
      * Проверяет авторизацию пользователя для работы с вещью.
      *
@@ -2,28 +2,50 @@ package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingDtoShort;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.enums.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingIntervalIndex;
+import ru.practicum.shareit.booking.storage.JpaArchivedBookingRepository;
 import ru.practicum.shareit.booking.storage.JpaBookingRepository;
+import ru.practicum.shareit.booking.storage.JpaOwnerBookingRepository;
 import ru.practicum.shareit.error.exception.ForbiddenException;
 import ru.practicum.shareit.error.exception.NotFoundException;
 import ru.practicum.shareit.error.exception.ValidationException;
 import ru.practicum.shareit.item.dto.CommentDtoRequest;
 import ru.practicum.shareit.item.dto.CommentDtoResponse;
+import ru.practicum.shareit.item.dto.FreeWindowDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoBooking;
 import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSnapshot;
+import ru.practicum.shareit.item.search.ItemFuzzyIndex;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchEngine;
+import ru.practicum.shareit.item.search.ItemSearchIndexListener;
+import ru.practicum.shareit.item.search.ItemSuggestIndex;
+import ru.practicum.shareit.item.search.ItemTagIndex;
+import ru.practicum.shareit.item.search.LongBitmap;
 import ru.practicum.shareit.item.storage.JpaCommentRepository;
+import ru.practicum.shareit.item.storage.ItemSnapshotCache;
 import ru.practicum.shareit.item.storage.JpaItemRepository;
+import ru.practicum.shareit.pagination.CursorCodec;
+import ru.practicum.shareit.pagination.CursorPage;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserServiceImpl;
 
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Реализация сервиса для управления вещами.
@@ -38,7 +60,36 @@ public class ItemServiceImpl implements ItemService {
     private final JpaItemRepository jpaItemRepository;
     private final UserServiceImpl userServiceImpl;
     private final JpaBookingRepository jpaBookingRepository;
+    private final JpaArchivedBookingRepository jpaArchivedBookingRepository;
+    private final JpaOwnerBookingRepository jpaOwnerBookingRepository;
     private final JpaCommentRepository jpaCommentRepository;
+    private final ItemSearchEngine itemSearchEngine;
+    private final ItemFuzzyIndex itemFuzzyIndex;
+    private final ItemSuggestIndex itemSuggestIndex;
+    private final ItemSearchCache itemSearchCache;
+    private final ItemTagIndex itemTagIndex;
+    private final ItemSearchIndexListener itemSearchIndexListener;
+    private final ItemSnapshotCache itemSnapshotCache;
+    private final BookingIntervalIndex bookingIntervalIndex;
+
+    /**
+     * Максимальное количество последних комментариев на вещь в списке вещей владельца.
+     * Значение меньше единицы отключает ограничение.
+     */
+    @Value("${shareit.items.owner-comments-limit:0}")
+    private int ownerCommentsLimit;
+
+    /**
+     * Наибольший размер страницы.
+     */
+    @Value("${shareit.pagination.max-size:1000}")
+    private int maxPageSize;
+
+    /**
+     * Наибольшее количество подсказок названий в ответе.
+     */
+    @Value("${shareit.suggest.max-size:50}")
+    private int suggestMaxSize;
 
     /**
      * Создает новую вещь и сохраняет её в базе данных.
@@ -52,7 +103,11 @@ public class ItemServiceImpl implements ItemService {
         Item item = ItemMapper.toItem(itemDto);
         User user = userServiceImpl.checkUserExist(userId);
         item.setOwner(user);
+        item.setTags(ItemTagIndex.normalize(itemDto.getTags()));
         Item itemResultDao = jpaItemRepository.save(item);
+        if (Boolean.TRUE.equals(itemResultDao.getAvailable())) {
+            itemSearchCache.invalidate();
+        }
         log.info("Создана вещь DAO: \n{}", itemResultDao);
         ItemDto itemResultDto = ItemMapper.toItemDto(itemResultDao);
         log.info("Вещь DTO: \n{}", itemResultDto);
@@ -61,29 +116,70 @@ public class ItemServiceImpl implements ItemService {
 
     /**
      * Обновляет существующую вещь.
+     * Кэш результатов поиска сбрасывается, только если изменились название, описание, доступность или теги вещи.
+     * Изменение только тегов не вызывает {@code @PostUpdate}: у вещи нет версии, а теги хранятся отдельной
+     * коллекцией, поэтому в этом случае вещь переиндексируется явно через {@link ItemSearchIndexListener}.
+     * При изменении количества вещи её интервалы бронирований перезагружаются в индексе, а при изменении
+     * названия, описания, доступности или количества они в той же транзакции обновляются в модели чтения
+     * бронирований владельца.
      *
      * @param userId  идентификатор пользователя, который пытается обновить вещь
      * @param itemId  идентификатор обновляемой вещи
      * @param itemDto DTO объекта вещи с обновленными данными
      * @return обновленная вещь в виде DTO
+     * @throws ValidationException если количество вещи не положительное
      */
     @Override
+    @Transactional
     public ItemDto updateItem(long userId, long itemId, ItemDto itemDto) {
+        if (itemDto.getQuantity() != null && itemDto.getQuantity() < 1) {
+            throw new ValidationException("Количество вещей должно быть положительным.");
+        }
         Item item = checkItemExist(itemId);
         userServiceImpl.checkUserExist(userId);
         checkUserAuthorizationForItem(userId, item);
         log.info("Старая вещь DAO: \n{}", item);
+        String oldName = item.getName();
+        String oldDescription = item.getDescription();
+        Boolean oldAvailable = item.getAvailable();
+        Integer oldQuantity = item.getQuantity();
+        Set<String> oldTags = Set.copyOf(item.getTags());
         Optional.ofNullable(itemDto.getName()).ifPresent(item::setName);
         Optional.ofNullable(itemDto.getDescription()).ifPresent(item::setDescription);
         Optional.ofNullable(itemDto.getAvailable()).ifPresent(item::setAvailable);
+        Optional.ofNullable(itemDto.getQuantity()).ifPresent(item::setQuantity);
+        if (itemDto.getTags() != null) {
+            item.getTags().clear();
+            item.getTags().addAll(ItemTagIndex.normalize(itemDto.getTags()));
+        }
         log.info("Обновлённая вещь DAO: \n{}", item);
         ItemDto resultDto = ItemMapper.toItemDto(jpaItemRepository.save(item));
+        boolean searchableChanged = !Objects.equals(oldName, item.getName())
+                || !Objects.equals(oldDescription, item.getDescription())
+                || !Objects.equals(oldAvailable, item.getAvailable());
+        boolean quantityChanged = !Objects.equals(oldQuantity, item.getQuantity());
+        if (searchableChanged || quantityChanged) {
+            jpaOwnerBookingRepository.updateItem(itemId, item.getName(), item.getDescription(), item.getAvailable(),
+                    item.getQuantity());
+        }
+        itemSnapshotCache.evict(itemId);
+        if (quantityChanged) {
+            bookingIntervalIndex.evict(itemId);
+        }
+        boolean tagsChanged = !oldTags.equals(item.getTags());
+        if (tagsChanged) {
+            itemSearchIndexListener.onSave(item);
+        }
+        if (searchableChanged || tagsChanged) {
+            itemSearchCache.invalidate();
+        }
         log.info("Обновлённая вещь DTO: \n{}", resultDto);
         return resultDto;
     }
 
     /**
      * Получает информацию о вещи по её идентификатору.
+     * Данные вещи читаются из кэша снимков {@link ItemSnapshotCache}.
      *
      * @param userId идентификатор пользователя, запрашивающего информацию о вещи
      * @param itemId идентификатор вещи
@@ -91,66 +187,260 @@ public class ItemServiceImpl implements ItemService {
      */
     @Override
     public ItemDtoBooking getItemById(long userId, long itemId) {
-        Item item = checkItemExist(itemId);
+        ItemSnapshot item = getItemSnapshot(itemId);
         ItemDtoBooking itemDtoBooking = ItemMapper.toItemDtoBooking(item);
-        if (item.getOwner().getId() == userId) {
-            itemDtoBooking.setLastBooking(BookingMapper.toBookingDtoItem(
-                    jpaBookingRepository.findLastBookingByBookerId(
-                            itemDtoBooking.getId(), LocalDateTime.now()).orElse(null)));
-            itemDtoBooking.setNextBooking(BookingMapper.toBookingDtoItem(
-                    jpaBookingRepository.findNextBookingByBookerId(
-                            itemDtoBooking.getId(), LocalDateTime.now()).orElse(null)));
+        if (item.ownerId() == userId) {
+            setLastAndNextBookings(List.of(itemDtoBooking));
         }
-        jpaCommentRepository.findCommentsByItemId(itemId).ifPresent(comment ->
-                itemDtoBooking.setComments(comment.stream().map(CommentMapper::toCommentDtoResponse).toList()));
+        itemDtoBooking.setComments(getCommentsByItemIds(List.of(itemId), null).getOrDefault(itemId, List.of()));
         log.info("Получена вещь. ID вещи: {}", itemId);
         return itemDtoBooking;
     }
 
     /**
-     * Получает список всех вещей пользователя.
+     * Возвращает свободные промежутки времени вещи в интервале {@code [from, to)}.
+     * <p>
+     * Подтверждённые бронирования вещи, пересекающиеся с интервалом, читаются потоком в порядке времени начала,
+     * а свободными считаются промежутки, в которых одновременно действует меньше бронирований, чем экземпляров
+     * вещи. Окончания действующих бронирований хранятся в очереди с приоритетом. Недоступная для аренды вещь
+     * свободных промежутков не имеет.
+     * </p>
+     *
+     * @param itemId идентификатор вещи
+     * @param from   начало интервала
+     * @param to     конец интервала
+     * @return свободные промежутки в порядке времени начала
+     * @throws ValidationException если начало интервала не раньше его конца
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<FreeWindowDto> getItemAvailability(long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Начало интервала должно быть раньше его конца.");
+        }
+        ItemSnapshot item = getItemSnapshot(itemId);
+        if (!Boolean.TRUE.equals(item.available())) {
+            log.info("Вещь недоступна для аренды. ID вещи: {}", itemId);
+            return List.of();
+        }
+        int quantity = item.quantity();
+        List<FreeWindowDto> windows = new ArrayList<>();
+        PriorityQueue<LocalDateTime> ends = new PriorityQueue<>();
+        LocalDateTime freeFrom = from;
+        try (Stream<BookingDtoShort> bookings = jpaBookingRepository.streamBookingsInRange(itemId,
+                BookingStatus.APPROVED, from, to)) {
+            for (BookingDtoShort booking : (Iterable<BookingDtoShort>) bookings::iterator) {
+                while (!ends.isEmpty() && !ends.peek().isAfter(booking.start())) {
+                    LocalDateTime end = ends.poll();
+                    if (freeFrom == null && ends.size() < quantity) {
+                        freeFrom = end.isAfter(from) ? end : from;
+                    }
+                }
+                ends.add(booking.end());
+                if (freeFrom != null && ends.size() >= quantity) {
+                    if (booking.start().isAfter(freeFrom)) {
+                        windows.add(new FreeWindowDto(freeFrom, booking.start()));
+                    }
+                    freeFrom = null;
+                }
+            }
+        }
+        while (freeFrom == null && !ends.isEmpty()) {
+            LocalDateTime end = ends.poll();
+            if (ends.size() < quantity) {
+                freeFrom = end.isAfter(from) ? end : from;
+            }
+        }
+        if (freeFrom != null && freeFrom.isBefore(to)) {
+            windows.add(new FreeWindowDto(freeFrom, to));
+        }
+        log.info("Получены свободные промежутки вещи. ID вещи: {}, с {} по {}: {}", itemId, from, to, windows);
+        return windows;
+    }
+
+    /**
+     * Получает страницу вещей пользователя.
+     * Из базы данных читается только запрошенная страница: вещи упорядочены по ID,
+     * а курсор содержит ID последней вещи страницы.
      *
      * @param userId идентификатор пользователя
-     * @return список вещей в виде DTO
+     * @param after  курсор предыдущей страницы или {@code null} для первой страницы
+     * @param size   размер страницы
+     * @return страница вещей в виде DTO
      */
     @Override
-    public List<ItemDtoBooking> getAllItemsFromUser(long userId) {
+    public CursorPage<ItemDtoBooking> getAllItemsFromUser(long userId, String after, int size) {
+        CursorCodec.checkSize(size, maxPageSize);
         userServiceImpl.checkUserExist(userId);
-        List<Item> items = jpaItemRepository.findAllByOwnerId(userId);
-        List<ItemDtoBooking> itemDtoBookings = items.stream().map(ItemMapper::toItemDtoBooking).toList();
+        List<Item> items = jpaItemRepository.findAllByOwnerIdAndIdGreaterThanOrderByIdAsc(
+                userId, CursorCodec.decodeId(after), Limit.of(size + 1));
+        CursorPage<ItemDtoBooking> page = CursorPage.of(items, size, item -> CursorCodec.encode(item.getId()))
+                .map(ItemMapper::toItemDtoBooking);
+        List<ItemDtoBooking> itemDtoBookings = page.content();
+        setLastAndNextBookings(itemDtoBookings);
+        Map<Long, List<CommentDtoResponse>> comments = getCommentsByItemIds(
+                itemDtoBookings.stream().map(ItemDtoBooking::getId).toList(), ownerCommentsLimit);
         for (ItemDtoBooking itemDtoBooking : itemDtoBookings) {
-            itemDtoBooking.setLastBooking(BookingMapper.toBookingDtoItem(
-                    jpaBookingRepository.findLastBookingByBookerId(
-                            itemDtoBooking.getId(), LocalDateTime.now()).orElse(null)));
-            itemDtoBooking.setNextBooking(BookingMapper.toBookingDtoItem(
-                    jpaBookingRepository.findNextBookingByBookerId(
-                            itemDtoBooking.getId(), LocalDateTime.now()).orElse(null)));
-            jpaCommentRepository.findCommentsByItemId(itemDtoBooking.getId()).ifPresent(comment ->
-                    itemDtoBooking.setComments(comment.stream().map(CommentMapper::toCommentDtoResponse).toList()));
+            itemDtoBooking.setComments(comments.getOrDefault(itemDtoBooking.getId(), List.of()));
         }
-        log.info("Получен список вещей. ID владельца: {}.", userId);
-        return itemDtoBookings;
+        log.info("Получена страница вещей. ID владельца: {}, количество: {}.", userId, itemDtoBookings.size());
+        return page;
+    }
+
+    /**
+     * Заполняет последнее и следующее бронирование для списка вещей.
+     * <p>
+     * Бронирования загружаются двумя запросами на весь список независимо от количества вещей,
+     * поэтому метод подходит для любых ответов, содержащих несколько вещей. Архив запрашивается третьим
+     * запросом, только для вещей без завершённых бронирований в оперативной таблице.
+     * </p>
+     *
+     * @param itemDtoBookings список вещей, для которых нужно заполнить бронирования
+     */
+    public void setLastAndNextBookings(List<ItemDtoBooking> itemDtoBookings) {
+        if (itemDtoBookings.isEmpty()) {
+            return;
+        }
+        List<Long> itemIds = itemDtoBookings.stream().map(ItemDtoBooking::getId).toList();
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, BookingDtoShort> lastBookings =
+                new HashMap<>(toMapByItemId(jpaBookingRepository.findLastBookingsByItemIds(itemIds, now)));
+        List<Long> archivedItemIds = itemIds.stream().filter(itemId -> !lastBookings.containsKey(itemId)).toList();
+        if (!archivedItemIds.isEmpty()) {
+            lastBookings.putAll(toMapByItemId(jpaArchivedBookingRepository.findLastBookingsByItemIds(archivedItemIds)));
+        }
+        Map<Long, BookingDtoShort> nextBookings =
+                toMapByItemId(jpaBookingRepository.findNextBookingsByItemIds(itemIds, now));
+        for (ItemDtoBooking itemDtoBooking : itemDtoBookings) {
+            itemDtoBooking.setLastBooking(BookingMapper.toBookingDtoItem(lastBookings.get(itemDtoBooking.getId())));
+            itemDtoBooking.setNextBooking(BookingMapper.toBookingDtoItem(nextBookings.get(itemDtoBooking.getId())));
+        }
+    }
+
+    /**
+     * Загружает комментарии для набора вещей одним запросом без загрузки сущностей.
+     *
+     * @param itemIds идентификаторы вещей
+     * @param limit   максимальное количество последних комментариев на одну вещь;
+     *                {@code null} или значение меньше единицы означает отсутствие ограничения
+     * @return комментарии, сгруппированные по идентификатору вещи; вещи без комментариев в результат не попадают
+     */
+    public Map<Long, List<CommentDtoResponse>> getCommentsByItemIds(Collection<Long> itemIds, Integer limit) {
+        if (itemIds.isEmpty()) {
+            return Map.of();
+        }
+        List<CommentDtoResponse> comments = limit == null || limit < 1
+                ? jpaCommentRepository.findCommentDtosByItemIds(itemIds)
+                : jpaCommentRepository.findLastCommentDtosByItemIds(itemIds, limit);
+        return comments.stream().collect(Collectors.groupingBy(CommentDtoResponse::getItemId));
     }
 
     /**
      * Ищет доступные вещи по текстовому запросу.
+     * Нечёткий поиск выполняется по индексу {@link ItemFuzzyIndex}, точный — выбранным движком поиска.
+     * Если указаны теги, движок ищет только среди вещей из битовой карты индекса {@link ItemTagIndex},
+     * поэтому найденные вещи и их порядок те же, что и без тегов. Результаты поиска по тексту кэшируются
+     * в {@link ItemSearchCache}. Без текста возвращаются все вещи с указанными тегами.
      *
-     * @param text текст для поиска
-     * @return список найденных вещей в виде DTO
+     * @param text  текст для поиска
+     * @param fuzzy признак нечёткого поиска с учётом опечаток в названии
+     * @param tags  теги, которые должны быть у всех найденных вещей, или {@code null}
+     * @param after курсор предыдущей страницы или {@code null} для первой страницы
+     * @param size  размер страницы
+     * @return страница найденных вещей в виде DTO
      */
     @Override
-    public List<ItemDto> searchAvailableItemsByText(String text) {
+    public CursorPage<ItemDto> searchAvailableItemsByText(String text, boolean fuzzy, Set<String> tags, String after,
+                                                          int size) {
+        CursorCodec.checkSize(size, maxPageSize);
+        Set<String> normalizedTags = ItemTagIndex.normalize(tags);
         if (text == null || text.isEmpty()) {
-            log.warn("Не указан текст для поиска.");
-            return List.of();
+            if (normalizedTags.isEmpty()) {
+                log.warn("Не указан текст для поиска.");
+                return CursorPage.empty();
+            }
+            CursorPage<ItemDto> resultSearch = findByTags(normalizedTags, after, size);
+            log.info("Получен список вещей. Теги: {} \n{}", normalizedTags, resultSearch.content());
+            return resultSearch;
         }
-        List<Item> allItems = jpaItemRepository
-                .findByAvailableTrueAndNameContainingIgnoreCaseOrAvailableTrueAndDescriptionContainingIgnoreCase(text, text);
-        List<ItemDto> resultSearch = allItems.stream().map(ItemMapper::toItemDto).toList();
-        log.info("Получен список вещей. Текст поиска: {} \n{}", text, resultSearch);
+        CursorPage<ItemDto> resultSearch = itemSearchCache.get(text, fuzzy, normalizedTags, after, size,
+                () -> search(text, fuzzy, normalizedTags, after, size));
+        log.info("Получен список вещей. Текст поиска: {}, теги: {} \n{}", text, normalizedTags,
+                resultSearch.content());
         return resultSearch;
     }
 
+    /**
+     * Возвращает количество доступных вещей для каждого тега среди вещей, у которых есть все указанные теги.
+     * Подсчёт выполняется пересечением битовых карт индекса {@link ItemTagIndex}.
+     *
+     * @param tags теги фильтра или {@code null}
+     * @return количество вещей по тегам в алфавитном порядке
+     */
+    @Override
+    public Map<String, Integer> getTagFacets(Set<String> tags) {
+        Map<String, Integer> facets = itemTagIndex.facets(ItemTagIndex.normalize(tags));
+        log.info("Получены фасеты тегов. Теги фильтра: {} \n{}", tags, facets);
+        return facets;
+    }
+
+    /**
+     * Ищет страницу доступных вещей по тексту. Если указаны теги, поиск ограничивается вещами
+     * из битовой карты {@link ItemTagIndex}, которая пересекается с результатом индекса или движка.
+     *
+     * @param text  непустой текст для поиска
+     * @param fuzzy признак нечёткого поиска
+     * @param tags  нормализованные теги, пустой набор — без фильтра
+     * @param after курсор предыдущей страницы или {@code null}
+     * @param size  размер страницы
+     * @return страница найденных вещей в виде DTO
+     */
+    private CursorPage<ItemDto> search(String text, boolean fuzzy, Set<String> tags, String after, int size) {
+        if (tags.isEmpty()) {
+            return fuzzy
+                    ? itemFuzzyIndex.search(text, after, size)
+                    : itemSearchEngine.search(text, after, size);
+        }
+        LongBitmap candidates = itemTagIndex.filter(tags);
+        return fuzzy
+                ? itemFuzzyIndex.search(text, after, size, candidates::get)
+                : itemSearchEngine.search(text, after, size, candidates::get);
+    }
+
+    /**
+     * Возвращает страницу доступных вещей со всеми указанными тегами в порядке ID.
+     *
+     * @param tags  непустой набор нормализованных тегов
+     * @param after курсор предыдущей страницы или {@code null}
+     * @param size  размер страницы
+     * @return страница вещей в виде DTO
+     */
+    private CursorPage<ItemDto> findByTags(Set<String> tags, String after, int size) {
+        List<Long> ids = ItemTagIndex.idsAfter(itemTagIndex.filter(tags), CursorCodec.decodeId(after), size + 1);
+        List<Item> items = new ArrayList<>(jpaItemRepository.findAllById(ids));
+        items.sort(Comparator.comparing(Item::getId));
+        return CursorPage.of(items, size, item -> CursorCodec.encode(item.getId())).map(ItemMapper::toItemDto);
+    }
+
+    /**
+     * Возвращает подсказки названий доступных вещей по префиксу из индекса {@link ItemSuggestIndex}.
+     *
+     * @param prefix префикс названия
+     * @param size   максимальное количество подсказок
+     * @return список различных названий по убыванию количества вещей с ними, при равном количестве — по алфавиту
+     */
+    @Override
+    public List<String> suggestItemNames(String prefix, int size) {
+        CursorCodec.checkSize(size, suggestMaxSize);
+        if (prefix == null || prefix.isBlank()) {
+            log.warn("Не указан префикс для подсказок.");
+            return List.of();
+        }
+        List<String> suggestions = itemSuggestIndex.suggest(prefix, size);
+        log.info("Получены подсказки названий вещей. Префикс: {} \n{}", prefix, suggestions);
+        return suggestions;
+    }
+
     /**
      * Удаляет вещь по её идентификатору.
      *
@@ -163,6 +453,11 @@ public class ItemServiceImpl implements ItemService {
         userServiceImpl.checkUserExist(userId);
         checkUserAuthorizationForItem(userId, item);
         jpaItemRepository.delete(item);
+        itemSnapshotCache.evict(itemId);
+        bookingIntervalIndex.evict(itemId);
+        if (Boolean.TRUE.equals(item.getAvailable())) {
+            itemSearchCache.invalidate();
+        }
         log.info("Удалена вещь. ID владельца: {}, ID вещи: {}", userId, itemId);
     }
 
@@ -174,7 +469,10 @@ public class ItemServiceImpl implements ItemService {
     @Override
     public void deleteAllItemsByUser(long userId) {
         userServiceImpl.checkUserExist(userId);
-        jpaItemRepository.deleteAllByOwnerId(userId);
+        List<Item> items = jpaItemRepository.deleteAllByOwnerId(userId);
+        itemSnapshotCache.evictByOwner(userId);
+        bookingIntervalIndex.evictAll(items.stream().map(Item::getId).toList());
+        itemSearchCache.invalidate();
         log.info("Удалены все вещи. ID владельца: {}", userId);
     }
 
@@ -184,6 +482,9 @@ public class ItemServiceImpl implements ItemService {
     @Override
     public void deleteAllItems() {
         jpaItemRepository.deleteAll();
+        itemSnapshotCache.clear();
+        bookingIntervalIndex.clear();
+        itemSearchCache.invalidate();
         log.info("Удалены все вещи.");
     }
 
@@ -203,6 +504,73 @@ public class ItemServiceImpl implements ItemService {
         });
     }
 
+    /**
+     * Проверяет существование вещи и загружает её вместе с владельцем одним запросом.
+     * Используется там, где вещь целиком попадает в ответ.
+     *
+     * @param itemId идентификатор вещи
+     * @return объект вещи с загруженным владельцем
+     * @throws NotFoundException если вещь не найдена
+     */
+    @Override
+    public Item checkItemExistWithOwner(long itemId) {
+        return jpaItemRepository.findWithOwnerById(itemId).orElseThrow(() -> {
+            String errorMessage = "Вещи с ID: " + itemId + " не существует.";
+            log.warn("Ошибка получения: {}", errorMessage);
+            return new NotFoundException(errorMessage);
+        });
+    }
+
+    /**
+     * Возвращает ссылку на вещь через {@link JpaItemRepository#getReferenceById}, не выполняя запрос к базе данных.
+     *
+     * @param itemId идентификатор вещи, существование которой уже проверено
+     * @return ссылка на вещь
+     */
+    @Override
+    public Item getItemReference(long itemId) {
+        return jpaItemRepository.getReferenceById(itemId);
+    }
+
+    /**
+     * Блокирует строки вещей на запись в порядке возрастания ID и загружает вещи вместе с владельцами.
+     * Должен вызываться внутри транзакции: блокировки снимаются при её завершении.
+     *
+     * @param itemIds идентификаторы вещей
+     * @return вещи с загруженными владельцами в порядке возрастания ID
+     * @throws NotFoundException если какие-то вещи не найдены
+     */
+    @Override
+    public List<Item> lockItemsWithOwner(Collection<Long> itemIds) {
+        Set<Long> ids = new TreeSet<>(itemIds);
+        List<Long> locked = jpaItemRepository.lockAllByIdIn(ids);
+        if (locked.size() < ids.size()) {
+            ids.removeAll(locked);
+            String errorMessage = "Вещей с ID: " + ids + " не существует.";
+            log.warn("Ошибка получения: {}", errorMessage);
+            throw new NotFoundException(errorMessage);
+        }
+        return jpaItemRepository.findAllWithOwnerByIdIn(locked).stream()
+                .sorted(Comparator.comparing(Item::getId))
+                .toList();
+    }
+
+    /**
+     * Возвращает снимок вещи из кэша {@link ItemSnapshotCache}, при отсутствии в кэше читает вещь из базы данных.
+     *
+     * @param itemId идентификатор вещи
+     * @return неизменяемый снимок вещи
+     * @throws NotFoundException если вещь не найдена
+     */
+    @Override
+    public ItemSnapshot getItemSnapshot(long itemId) {
+        return itemSnapshotCache.get(itemId).orElseThrow(() -> {
+            String errorMessage = "Вещи с ID: " + itemId + " не существует.";
+            log.warn("Ошибка получения: {}", errorMessage);
+            return new NotFoundException(errorMessage);
+        });
+    }
+
     /**
      * Проверяет авторизацию пользователя для работы с вещью.
      *
@@ -230,8 +598,9 @@ public class ItemServiceImpl implements ItemService {
     public CommentDtoResponse createComment(long authorId, long itemId, CommentDtoRequest commentDtoRequest) {
         log.info("Начало метода createComment");
         User author = userServiceImpl.checkUserExist(authorId);
-        Item item = checkItemExist(itemId);
+        getItemSnapshot(itemId);
         checkAuthorAuthorizationForItem(authorId, itemId);
+        Item item = jpaItemRepository.getReferenceById(itemId);
         Comment comment = Comment.builder()
                 .text(commentDtoRequest.text())
                 .item(item)
@@ -253,10 +622,24 @@ public class ItemServiceImpl implements ItemService {
      * @throws ValidationException если авторизация не пройдена
      */
     public void checkAuthorAuthorizationForItem(long bookerId, long itemId) {
-        jpaBookingRepository.checkItemReviewAuthorizationAfterRental(bookerId, itemId, LocalDateTime.now()).orElseThrow(() -> {
+        LocalDateTime now = LocalDateTime.now();
+        if (jpaBookingRepository.checkItemReviewAuthorizationAfterRental(bookerId, itemId, now).isEmpty()
+                && !jpaArchivedBookingRepository.existsByBookerIdAndItemIdAndEndBefore(bookerId, itemId, now)) {
             String errorMessage = "Не пройдена авторизация. ID booker: " + bookerId + ", ID item: " + itemId;
             log.warn("Ошибка: {}", errorMessage);
-            return new ValidationException(errorMessage);
-        });
+            throw new ValidationException(errorMessage);
+        }
+    }
+
+    /**
+     * Группирует бронирования по ID вещи.
+     * Если у вещи несколько подходящих бронирований с одинаковым временем, выбирается бронирование с большим ID.
+     *
+     * @param bookings список бронирований
+     * @return бронирования, сгруппированные по ID вещи
+     */
+    private Map<Long, BookingDtoShort> toMapByItemId(List<BookingDtoShort> bookings) {
+        return bookings.stream().collect(Collectors.toMap(BookingDtoShort::itemId, Function.identity(),
+                (first, second) -> first.id() > second.id() ? first : second));
     }
 }
\ No newline at end of file
@@ -0,0 +1,166 @@
+package ru.practicum.shareit.item.storage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.ItemSnapshot;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Ограниченный по размеру кэш снимков вещей со сквозным чтением из базы данных.
+ * <p>
+ * При переполнении вытесняется снимок, к которому дольше всего не обращались (LRU).
+ * Снимок содержит имя и почту владельца, поэтому вещь читается из базы данных вместе с владельцем,
+ * а снимки удаляются из кэша после обновления или удаления вещи и после обновления её владельца.
+ * Снимок, прочитанный до удаления, в кэш не сохраняется. Внутри транзакции снимки удаляются ещё раз после её
+ * фиксации, чтобы в кэше не остался снимок, прочитанный параллельно до фиксации изменений.
+ * </p>
+ * <p>
+ * Статистика публикуется через actuator в метриках {@code cache.gets} (теги {@code result=hit|miss}),
+ * {@code cache.evictions} и {@code cache.size} с тегом {@code cache=items}.
+ * </p>
+ */
+@Component
+@Slf4j
+public class ItemSnapshotCache {
+
+    private static final String CACHE_NAME = "items";
+
+    private final JpaItemRepository jpaItemRepository;
+
+    private final int maxEntries;
+
+    /**
+     * Снимки вещей по ID в порядке обращения.
+     */
+    private final Map<Long, ItemSnapshot> snapshots;
+
+    /**
+     * Номер поколения кэша, увеличивается при каждом удалении снимков.
+     */
+    private long generation;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public ItemSnapshotCache(JpaItemRepository jpaItemRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${shareit.items.cache.max-entries:10000}") int maxEntries) {
+        this.jpaItemRepository = jpaItemRepository;
+        this.maxEntries = maxEntries;
+        this.snapshots = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ItemSnapshot> eldest) {
+                if (size() > ItemSnapshotCache.this.maxEntries) {
+                    ItemSnapshotCache.this.evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.hits = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "hit")
+                .description("Количество снимков вещей, найденных в кэше")
+                .register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "miss")
+                .description("Количество снимков вещей, прочитанных из базы данных")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("cache.evictions").tag("cache", CACHE_NAME)
+                .description("Количество снимков вещей, вытесненных при переполнении кэша")
+                .register(meterRegistry);
+        Gauge.builder("cache.size", this, ItemSnapshotCache::size).tag("cache", CACHE_NAME)
+                .description("Количество снимков вещей в кэше")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Возвращает снимок вещи из кэша или читает вещь из базы данных и сохраняет её снимок.
+     *
+     * @param itemId ID вещи
+     * @return снимок вещи или пустой {@link Optional}, если вещь не найдена
+     */
+    public Optional<ItemSnapshot> get(long itemId) {
+        long loadGeneration;
+        synchronized (snapshots) {
+            ItemSnapshot snapshot = snapshots.get(itemId);
+            if (snapshot != null) {
+                hits.increment();
+                return Optional.of(snapshot);
+            }
+            loadGeneration = generation;
+        }
+        misses.increment();
+        Optional<ItemSnapshot> loaded = jpaItemRepository.findWithOwnerById(itemId)
+                .map(ItemMapper::toItemSnapshot);
+        if (maxEntries > 0 && loaded.isPresent()) {
+            synchronized (snapshots) {
+                if (generation == loadGeneration) {
+                    snapshots.putIfAbsent(itemId, loaded.get());
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Удаляет снимок вещи из кэша.
+     *
+     * @param itemId ID обновлённой или удалённой вещи
+     */
+    public void evict(long itemId) {
+        removeNowAndAfterCommit(() -> snapshots.remove(itemId));
+        log.debug("Снимок вещи удалён из кэша. ID вещи: {}", itemId);
+    }
+
+    /**
+     * Удаляет из кэша снимки всех вещей владельца.
+     *
+     * @param ownerId ID обновлённого владельца или владельца удалённых вещей
+     */
+    public void evictByOwner(long ownerId) {
+        removeNowAndAfterCommit(() -> snapshots.values()
+                .removeIf(snapshot -> snapshot.ownerId() != null && snapshot.ownerId() == ownerId));
+        log.debug("Снимки вещей владельца удалены из кэша. ID владельца: {}", ownerId);
+    }
+
+    /**
+     * Удаляет из кэша все снимки.
+     */
+    public void clear() {
+        removeNowAndAfterCommit(snapshots::clear);
+    }
+
+    private void removeNowAndAfterCommit(Runnable removal) {
+        remove(removal);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(removal);
+                }
+            });
+        }
+    }
+
+    private void remove(Runnable removal) {
+        synchronized (snapshots) {
+            generation++;
+            removal.run();
+        }
+    }
+
+    private int size() {
+        synchronized (snapshots) {
+            return snapshots.size();
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package ru.practicum.shareit.item.storage;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.dto.CommentDtoResponse;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,9 +24,45 @@ public interface JpaCommentRepository extends JpaRepository<Comment, Long> {
      * @return список комментариев, обернутый в Optional. Если комментарии не найдены,
      *         возвращается пустой Optional.
      */
+    @EntityGraph(Comment.AUTHOR_GRAPH)
     @Query("""
     SELECT c FROM Comment c
     WHERE c.item.id = ?1
     """)
     Optional<List<Comment>> findCommentsByItemId(long itemId);
+
+    /**
+     * Находит комментарии сразу для набора вещей одним запросом.
+     * Результат сразу проецируется в DTO, сущности комментариев, авторов и вещей не загружаются.
+     *
+     * @param itemIds идентификаторы вещей, для которых нужно найти комментарии
+     * @return список комментариев, отсортированный по идентификатору вещи и времени добавления
+     */
+    @Query("""
+    SELECT new ru.practicum.shareit.item.dto.CommentDtoResponse(c.id, c.text, c.item.id, a.name, c.created)
+    FROM Comment c
+    JOIN c.author a
+    WHERE c.item.id IN ?1
+    ORDER BY c.item.id, c.id
+    """)
+    List<CommentDtoResponse> findCommentDtosByItemIds(Collection<Long> itemIds);
+
+    /**
+     * Находит последние комментарии сразу для набора вещей одним запросом,
+     * не более указанного количества на каждую вещь.
+     * Результат сразу проецируется в DTO, сущности комментариев, авторов и вещей не загружаются.
+     *
+     * @param itemIds идентификаторы вещей, для которых нужно найти комментарии
+     * @param limit   максимальное количество комментариев на одну вещь
+     * @return список комментариев, отсортированный по идентификатору вещи и времени добавления
+     */
+    @Query("""
+    SELECT new ru.practicum.shareit.item.dto.CommentDtoResponse(c.id, c.text, c.item.id, a.name, c.created)
+    FROM Comment c
+    JOIN c.author a
+    WHERE c.item.id IN ?1
+      AND (SELECT COUNT(n) FROM Comment n WHERE n.item.id = c.item.id AND n.id > c.id) < ?2
+    ORDER BY c.item.id, c.id
+    """)
+    List<CommentDtoResponse> findLastCommentDtosByItemIds(Collection<Long> itemIds, long limit);
 }
@@ -1,9 +1,15 @@
 package ru.practicum.shareit.item.storage;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Репозиторий для работы с вещами.
@@ -12,6 +18,44 @@ import java.util.List;
  */
 public interface JpaItemRepository extends JpaRepository<Item, Long> {
 
+    /**
+     * Находит вещь вместе с владельцем одним запросом.
+     *
+     * @param itemId идентификатор вещи
+     * @return вещь, если она существует
+     */
+    @EntityGraph(Item.OWNER_GRAPH)
+    Optional<Item> findWithOwnerById(long itemId);
+
+    /**
+     * Находит вещи вместе с владельцами одним запросом.
+     *
+     * @param itemIds идентификаторы вещей
+     * @return найденные вещи
+     */
+    @EntityGraph(Item.OWNER_GRAPH)
+    List<Item> findAllWithOwnerByIdIn(Collection<Long> itemIds);
+
+    /**
+     * Возвращает количество экземпляров вещи без загрузки самой вещи.
+     *
+     * @param itemId идентификатор вещи
+     * @return количество экземпляров, если вещь найдена
+     */
+    @Query("SELECT i.quantity FROM Item i WHERE i.id = ?1")
+    Optional<Integer> findQuantityById(long itemId);
+
+    /**
+     * Блокирует строки вещей на запись до конца транзакции. Строки блокируются в порядке возрастания ID,
+     * чтобы параллельные транзакции с пересекающимися наборами вещей не приводили к взаимной блокировке.
+     * Блокируются только строки вещей, без строк их владельцев.
+     *
+     * @param itemIds идентификаторы вещей
+     * @return идентификаторы найденных и заблокированных вещей в порядке возрастания
+     */
+    @Query(value = "SELECT item_id FROM items WHERE item_id IN ?1 ORDER BY item_id FOR UPDATE", nativeQuery = true)
+    List<Long> lockAllByIdIn(Collection<Long> itemIds);
+
     /**
      * Находит все вещи, принадлежащие пользователю по его идентификатору.
      *
@@ -21,21 +65,130 @@ public interface JpaItemRepository extends JpaRepository<Item, Long> {
     List<Item> findAllByOwnerId(long userId);
 
     /**
-     * Находит доступные вещи по имени или описанию.
+     * Находит страницу вещей пользователя, следующих за указанной вещью в порядке возрастания ID.
+     *
+     * @param userId  идентификатор пользователя, чьи вещи нужно найти
+     * @param afterId ID последней вещи предыдущей страницы (0 для первой страницы)
+     * @param limit   максимальное количество вещей
+     * @return список вещей, отсортированный по ID
+     */
+    List<Item> findAllByOwnerIdAndIdGreaterThanOrderByIdAsc(long userId, long afterId, Limit limit);
+
+    /**
+     * Находит страницу доступных вещей по имени или описанию.
      * Вещи должны быть доступны (available = true) и содержать указанный текст
      * в названии или описании (независимо от регистра).
      *
-     * @param name текст для поиска в названии вещи
-     * @param description текст для поиска в описании вещи
-     * @return список доступных вещей, соответствующих критериям поиска
+     * @param text    текст для поиска в названии и описании вещи
+     * @param afterId ID последней вещи предыдущей страницы (0 для первой страницы)
+     * @param limit   максимальное количество вещей
+     * @return список доступных вещей, соответствующих критериям поиска, отсортированный по ID
+     */
+    @Query("""
+            SELECT i FROM Item i
+            WHERE i.available = TRUE AND i.id > ?2
+              AND (UPPER(i.name) LIKE UPPER(CONCAT('%', ?1, '%'))
+                   OR UPPER(i.description) LIKE UPPER(CONCAT('%', ?1, '%')))
+            ORDER BY i.id
+            """)
+    List<Item> searchAvailableByText(String text, long afterId, Limit limit);
+
+    /**
+     * Выполняет полнотекстовый поиск доступных вещей в PostgreSQL (первая страница).
+     * Использует генерируемый столбец {@code search_vector} с GIN-индексом
+     * и сортирует результат по релевантности ({@code ts_rank}).
+     *
+     * @param text  текст для поиска
+     * @param limit максимальное количество вещей в результате
+     * @return пары (ID вещи, релевантность), от более релевантных к менее релевантным
+     */
+    @Query(value = """
+            SELECT r.item_id, r.rank FROM (
+                SELECT i.item_id, ts_rank(i.search_vector, plainto_tsquery('russian', ?1)) AS rank
+                FROM items i
+                WHERE i.available = TRUE AND i.search_vector @@ plainto_tsquery('russian', ?1)) r
+            ORDER BY r.rank DESC, r.item_id
+            LIMIT ?2
+            """, nativeQuery = true)
+    List<Object[]> searchFullTextPostgresql(String text, int limit);
+
+    /**
+     * Выполняет полнотекстовый поиск доступных вещей в PostgreSQL (следующие страницы).
+     *
+     * @param text    текст для поиска
+     * @param rank    релевантность последней вещи предыдущей страницы
+     * @param afterId ID последней вещи предыдущей страницы
+     * @param limit   максимальное количество вещей в результате
+     * @return пары (ID вещи, релевантность), от более релевантных к менее релевантным
+     */
+    @Query(value = """
+            SELECT r.item_id, r.rank FROM (
+                SELECT i.item_id, ts_rank(i.search_vector, plainto_tsquery('russian', ?1)) AS rank
+                FROM items i
+                WHERE i.available = TRUE AND i.search_vector @@ plainto_tsquery('russian', ?1)) r
+            WHERE r.rank < ?2 OR (r.rank = ?2 AND r.item_id > ?3)
+            ORDER BY r.rank DESC, r.item_id
+            LIMIT ?4
+            """, nativeQuery = true)
+    List<Object[]> searchFullTextPostgresqlAfter(String text, double rank, long afterId, int limit);
+
+    /**
+     * Выполняет полнотекстовый поиск доступных вещей встроенным полнотекстовым индексом H2 (первая страница).
+     * <p>
+     * {@code FT_SEARCH_DATA} возвращает одинаковую релевантность для всех найденных строк, поэтому она
+     * вычисляется в запросе: текст запроса целиком в названии прибавляет 2, в описании — 1, а вещь, слова
+     * запроса в которой найдены только по отдельности, получает 1. При равной релевантности вещи упорядочены по ID.
+     * </p>
+     *
+     * @param text  текст для поиска
+     * @param limit максимальное количество вещей в результате
+     * @return пары (ID вещи, релевантность), от более релевантных к менее релевантным
+     */
+    @Query(value = """
+            SELECT r.item_id, r.rank FROM (
+                SELECT i.item_id,
+                       CAST(1 + CASE WHEN LOCATE(LOWER(?1), LOWER(i.name)) > 0 THEN 2 ELSE 0 END
+                              + CASE WHEN LOCATE(LOWER(?1), LOWER(i.description)) > 0 THEN 1 ELSE 0 END
+                            AS DOUBLE PRECISION) AS rank
+                FROM FT_SEARCH_DATA(?1, 0, 0) ft
+                JOIN items i ON i.item_id = CAST(ft.KEYS[1] AS BIGINT)
+                WHERE ft."TABLE" = 'ITEMS' AND i.available = TRUE) r
+            ORDER BY r.rank DESC, r.item_id
+            LIMIT ?2
+            """, nativeQuery = true)
+    List<Object[]> searchFullTextH2(String text, int limit);
+
+    /**
+     * Выполняет полнотекстовый поиск доступных вещей встроенным полнотекстовым индексом H2 (следующие страницы).
+     * Релевантность вычисляется так же, как в {@link #searchFullTextH2}.
+     *
+     * @param text    текст для поиска
+     * @param rank    релевантность последней вещи предыдущей страницы
+     * @param afterId ID последней вещи предыдущей страницы
+     * @param limit   максимальное количество вещей в результате
+     * @return пары (ID вещи, релевантность), от более релевантных к менее релевантным
      */
-    List<Item> findByAvailableTrueAndNameContainingIgnoreCaseOrAvailableTrueAndDescriptionContainingIgnoreCase(
-            String name, String description);
+    @Query(value = """
+            SELECT r.item_id, r.rank FROM (
+                SELECT i.item_id,
+                       CAST(1 + CASE WHEN LOCATE(LOWER(?1), LOWER(i.name)) > 0 THEN 2 ELSE 0 END
+                              + CASE WHEN LOCATE(LOWER(?1), LOWER(i.description)) > 0 THEN 1 ELSE 0 END
+                            AS DOUBLE PRECISION) AS rank
+                FROM FT_SEARCH_DATA(?1, 0, 0) ft
+                JOIN items i ON i.item_id = CAST(ft.KEYS[1] AS BIGINT)
+                WHERE ft."TABLE" = 'ITEMS' AND i.available = TRUE) r
+            WHERE r.rank < ?2 OR (r.rank = ?2 AND r.item_id > ?3)
+            ORDER BY r.rank DESC, r.item_id
+            LIMIT ?4
+            """, nativeQuery = true)
+    List<Object[]> searchFullTextH2After(String text, double rank, long afterId, int limit);
 
     /**
      * Удаляет все вещи, принадлежащие пользователю по его идентификатору.
      *
      * @param userId идентификатор пользователя, чьи вещи нужно удалить
+     * @return удалённые вещи
      */
-    void deleteAllByOwnerId(long userId);
+    @Transactional
+    List<Item> deleteAllByOwnerId(long userId);
 }
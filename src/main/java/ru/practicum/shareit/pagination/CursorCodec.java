@@ -0,0 +1,133 @@
+package ru.practicum.shareit.pagination;
+
+import ru.practicum.shareit.error.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.stream.Collectors;
+
+/**
+ * Кодирование и разбор непрозрачных курсоров для курсорной (keyset) пагинации.
+ * <p>
+ * Курсор содержит значения ключа сортировки последнего элемента страницы
+ * и передаётся клиенту в виде строки Base64 (URL-safe).
+ * </p>
+ */
+public class CursorCodec {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Кодирует значения ключа сортировки в курсор.
+     *
+     * @param values значения ключа сортировки последнего элемента страницы
+     * @return курсор
+     */
+    public static String encode(Object... values) {
+        String raw = Arrays.stream(values).map(String::valueOf).collect(Collectors.joining(SEPARATOR));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Разбирает курсор на значения ключа сортировки.
+     *
+     * @param cursor курсор, полученный от клиента
+     * @param count  ожидаемое количество значений
+     * @return значения ключа сортировки
+     * @throws ValidationException если курсор некорректен
+     */
+    public static String[] decode(String cursor, int count) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] values = raw.split("\\|", -1);
+            if (values.length == count) {
+                return values;
+            }
+        } catch (IllegalArgumentException ignored) {
+            // обрабатывается ниже как некорректный курсор
+        }
+        throw new ValidationException("Некорректный курсор страницы: " + cursor);
+    }
+
+    /**
+     * Разбирает курсор, содержащий только ID последнего элемента страницы.
+     *
+     * @param cursor курсор, полученный от клиента, или {@code null} для первой страницы
+     * @return ID последнего элемента предыдущей страницы или 0 для первой страницы
+     * @throws ValidationException если курсор некорректен
+     */
+    public static long decodeId(String cursor) {
+        if (cursor == null) {
+            return 0;
+        }
+        return parseLong(decode(cursor, 1)[0], cursor);
+    }
+
+    /**
+     * Разбирает числовое значение курсора.
+     *
+     * @param value  значение из курсора
+     * @param cursor исходный курсор для сообщения об ошибке
+     * @return числовое значение
+     * @throws ValidationException если значение не является числом
+     */
+    public static long parseLong(String value, String cursor) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Некорректный курсор страницы: " + cursor);
+        }
+    }
+
+    /**
+     * Разбирает дробное значение курсора.
+     *
+     * @param value  значение из курсора
+     * @param cursor исходный курсор для сообщения об ошибке
+     * @return дробное значение
+     * @throws ValidationException если значение не является числом
+     */
+    public static double parseDouble(String value, String cursor) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Некорректный курсор страницы: " + cursor);
+        }
+    }
+
+    /**
+     * Разбирает дату и время из значения курсора.
+     *
+     * @param value  значение из курсора
+     * @param cursor исходный курсор (для сообщения об ошибке)
+     * @return дата и время
+     * @throws ValidationException если значение не является датой и временем
+     */
+    public static LocalDateTime parseDateTime(String value, String cursor) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new ValidationException("Некорректный курсор страницы: " + cursor);
+        }
+    }
+
+    /**
+     * Проверяет размер страницы. Ограничение сверху не даёт запросить всю таблицу одной страницей,
+     * а запрос страницы с лишним элементом ({@code size + 1}) не переполняет {@code int}.
+     *
+     * @param size    запрошенный размер страницы
+     * @param maxSize наибольший допустимый размер страницы ({@code shareit.pagination.max-size})
+     * @throws ValidationException если размер страницы меньше единицы или больше наибольшего
+     */
+    public static void checkSize(int size, int maxSize) {
+        if (size < 1) {
+            throw new ValidationException("Размер страницы должен быть больше нуля.");
+        }
+        if (size > maxSize) {
+            throw new ValidationException("Размер страницы не может быть больше " + maxSize + ".");
+        }
+    }
+}
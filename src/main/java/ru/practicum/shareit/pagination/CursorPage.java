@@ -0,0 +1,78 @@
+package ru.practicum.shareit.pagination;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Страница результатов при курсорной (keyset) пагинации.
+ * <p>
+ * Курсор следующей страницы непрозрачен для клиента: он передаётся в ответе заголовком
+ * {@value #NEXT_CURSOR_HEADER} и возвращается в параметре {@code after} следующего запроса.
+ * Если следующей страницы нет, курсор равен {@code null}.
+ * </p>
+ *
+ * @param content элементы текущей страницы
+ * @param next    курсор следующей страницы или {@code null}, если страница последняя
+ * @param <T>     тип элементов страницы
+ */
+public record CursorPage<T>(List<T> content, String next) {
+
+    /**
+     * Заголовок ответа, в котором передаётся курсор следующей страницы.
+     */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    /**
+     * Создаёт пустую страницу без следующей страницы.
+     *
+     * @param <T> тип элементов страницы
+     * @return пустая страница
+     */
+    public static <T> CursorPage<T> empty() {
+        return new CursorPage<>(List.of(), null);
+    }
+
+    /**
+     * Создаёт страницу из результата запроса, запросившего на один элемент больше размера страницы.
+     * Наличие лишнего элемента означает, что существует следующая страница.
+     *
+     * @param rows     результат запроса длиной не более {@code size + 1}
+     * @param size     размер страницы
+     * @param cursorOf функция, вычисляющая курсор по последнему элементу страницы
+     * @param <T>      тип элементов страницы
+     * @return страница результатов
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, String> cursorOf) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> content = rows.subList(0, size);
+        return new CursorPage<>(content, cursorOf.apply(content.getLast()));
+    }
+
+    /**
+     * Преобразует элементы страницы, сохраняя курсор.
+     *
+     * @param mapper функция преобразования элемента
+     * @param <R>    тип элементов новой страницы
+     * @return страница с преобразованными элементами
+     */
+    public <R> CursorPage<R> map(Function<T, R> mapper) {
+        return new CursorPage<>(content.stream().map(mapper).toList(), next);
+    }
+
+    /**
+     * Формирует HTTP-ответ: элементы страницы в теле и курсор следующей страницы в заголовке.
+     *
+     * @return HTTP-ответ со страницей
+     */
+    public ResponseEntity<List<T>> toResponseEntity() {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (next != null) {
+            response.header(NEXT_CURSOR_HEADER, next);
+        }
+        return response.body(content);
+    }
+}
@@ -0,0 +1,64 @@
+package ru.practicum.shareit.pagination;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Запрос страницы с произвольным смещением, не кратным размеру страницы.
+ * <p>
+ * Стандартный {@link org.springframework.data.domain.PageRequest} задаёт смещение номером страницы,
+ * поэтому не подходит для параметров {@code from}/{@code size} и для выборки на одну строку больше
+ * размера страницы, по которой определяется наличие следующей страницы.
+ * Сортировка задаётся в самом запросе.
+ * </p>
+ *
+ * @param offset количество пропускаемых строк
+ * @param limit  максимальное количество строк
+ */
+public record OffsetLimitRequest(long offset, int limit) implements Pageable {
+
+    @Override
+    public int getPageNumber() {
+        return (int) (offset / limit);
+    }
+
+    @Override
+    public int getPageSize() {
+        return limit;
+    }
+
+    @Override
+    public long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public Sort getSort() {
+        return Sort.unsorted();
+    }
+
+    @Override
+    public Pageable next() {
+        return new OffsetLimitRequest(offset + limit, limit);
+    }
+
+    @Override
+    public Pageable previousOrFirst() {
+        return hasPrevious() ? new OffsetLimitRequest(Math.max(offset - limit, 0), limit) : first();
+    }
+
+    @Override
+    public Pageable first() {
+        return new OffsetLimitRequest(0, limit);
+    }
+
+    @Override
+    public Pageable withPage(int pageNumber) {
+        return new OffsetLimitRequest((long) pageNumber * limit, limit);
+    }
+
+    @Override
+    public boolean hasPrevious() {
+        return offset > 0;
+    }
+}
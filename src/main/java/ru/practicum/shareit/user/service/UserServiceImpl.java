@@ -3,8 +3,14 @@ package ru.practicum.shareit.user.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.storage.BookingIntervalIndex;
+import ru.practicum.shareit.booking.storage.JpaOwnerBookingRepository;
 import ru.practicum.shareit.error.exception.ConflictException;
 import ru.practicum.shareit.error.exception.NotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.storage.ItemSnapshotCache;
 import ru.practicum.shareit.item.storage.JpaItemRepository;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.mapper.UserMapper;
@@ -28,6 +34,10 @@ public class UserServiceImpl implements UserService {
 
     private final JpaUserRepository jpaUserRepository;
     private final JpaItemRepository jpaItemRepository;
+    private final ItemSearchCache itemSearchCache;
+    private final ItemSnapshotCache itemSnapshotCache;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final JpaOwnerBookingRepository jpaOwnerBookingRepository;
 
     /**
      * Создает нового пользователя на основе переданного DTO и возвращает созданного пользователя в виде DTO.
@@ -52,7 +62,9 @@ public class UserServiceImpl implements UserService {
     /**
      * Обновляет данные пользователя на основе переданного DTO.
      * <p>
-     * Валидирует email на уникальность перед обновлением.
+     * Валидирует email на уникальность перед обновлением. Снимки вещей пользователя удаляются из кэша,
+     * так как содержат его имя и почту. В той же транзакции имя и почта обновляются в модели чтения
+     * бронирований владельца {@code owner_bookings} — и как у владельца вещей, и как у арендатора.
      * </p>
      *
      * @param userId  ID пользователя, которого нужно обновить
@@ -61,6 +73,7 @@ public class UserServiceImpl implements UserService {
      * @throws ConflictException если email уже используется другим пользователем
      */
     @Override
+    @Transactional
     public UserDto updateUserDto(long userId, UserDto userDto) {
         validateUserEmail(userDto.getEmail());
         User user = checkUserExist(userId);
@@ -69,6 +82,11 @@ public class UserServiceImpl implements UserService {
         Optional.ofNullable(userDto.getEmail()).ifPresent(user::setEmail);
         log.info("Обновлённый пользователь DAO: \n{}", user);
         UserDto resultDto = UserMapper.toUserDto(jpaUserRepository.save(user));
+        if (userDto.getName() != null || userDto.getEmail() != null) {
+            jpaOwnerBookingRepository.updateOwner(userId, resultDto.getName(), resultDto.getEmail());
+            jpaOwnerBookingRepository.updateBooker(userId, resultDto.getName(), resultDto.getEmail());
+        }
+        itemSnapshotCache.evictByOwner(userId);
         log.info("Обновлённый пользователь DTO: \n{}", resultDto);
         return resultDto;
     }
@@ -90,7 +108,9 @@ public class UserServiceImpl implements UserService {
     /**
      * Удаляет пользователя по его ID.
      * <p>
-     * Также удаляет все вещи, принадлежащие этому пользователю.
+     * Также удаляет все вещи, принадлежащие этому пользователю. Вещи удаляются до пользователя,
+     * чтобы их удаление прошло через JPA, а не только каскадом в базе данных,
+     * и слушатели сущностей (например, поисковый индекс) узнали о нём.
      * </p>
      *
      * @param userId уникальный идентификатор пользователя для удаления
@@ -99,8 +119,11 @@ public class UserServiceImpl implements UserService {
     @Override
     public void deleteUserById(long userId) {
         checkUserExist(userId);
+        List<Item> items = jpaItemRepository.deleteAllByOwnerId(userId);
+        itemSnapshotCache.evictByOwner(userId);
+        itemSearchCache.invalidate();
         jpaUserRepository.deleteById(userId);
-        jpaItemRepository.deleteAllByOwnerId(userId);
+        bookingIntervalIndex.evictAll(items.stream().map(Item::getId).toList());
         log.info("Удалён пользователь и его вещи. ID пользователя: {}", userId);
     }
 
@@ -120,8 +143,11 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     public void deleteAllUsers() {
-        jpaUserRepository.deleteAll();
         jpaItemRepository.deleteAll();
+        itemSnapshotCache.clear();
+        itemSearchCache.invalidate();
+        jpaUserRepository.deleteAll();
+        bookingIntervalIndex.clear();
         log.info("Удалены все пользователи и все вещи.");
     }
 
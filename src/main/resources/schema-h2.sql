@@ -0,0 +1,19 @@
+CREATE ALIAS IF NOT EXISTS FT_INIT FOR 'org.h2.fulltext.FullText.init';
+CALL FT_INIT();
+CALL FT_DROP_ALL();
+CALL FT_CREATE_INDEX('PUBLIC', 'ITEMS', 'NAME,DESCRIPTION');
+
+CREATE TABLE IF NOT EXISTS bookings_archive
+(
+    booking_id BIGINT                      NOT NULL,
+    start_date TIMESTAMP WITHOUT TIME ZONE,
+    end_date   TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    item_id    BIGINT REFERENCES items (item_id) ON DELETE CASCADE,
+    booker_id  BIGINT REFERENCES users (user_id) ON DELETE CASCADE,
+    status     VARCHAR,
+    CONSTRAINT pk_booking_archive PRIMARY KEY (booking_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_booker_start ON bookings_archive (booker_id, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_item_start ON bookings_archive (item_id, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_item_end ON bookings_archive (item_id, end_date);
@@ -0,0 +1,20 @@
+ALTER TABLE items
+    ADD COLUMN IF NOT EXISTS search_vector TSVECTOR
+        GENERATED ALWAYS AS (to_tsvector('russian', coalesce(name, '') || ' ' || coalesce(description, ''))) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_items_search_vector ON items USING GIN (search_vector);
+
+CREATE TABLE IF NOT EXISTS bookings_archive
+(
+    booking_id BIGINT                      NOT NULL,
+    start_date TIMESTAMP WITHOUT TIME ZONE,
+    end_date   TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    item_id    BIGINT REFERENCES items (item_id) ON DELETE CASCADE,
+    booker_id  BIGINT REFERENCES users (user_id) ON DELETE CASCADE,
+    status     VARCHAR,
+    CONSTRAINT pk_booking_archive PRIMARY KEY (booking_id, end_date)
+) PARTITION BY RANGE (end_date);
+
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_booker_start ON bookings_archive (booker_id, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_item_start ON bookings_archive (item_id, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_archive_item_end ON bookings_archive (item_id, end_date);
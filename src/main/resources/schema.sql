@@ -1,4 +1,7 @@
+drop table if exists item_tags cascade;
 drop table if exists comments cascade;
+drop table if exists owner_bookings cascade;
+drop table if exists bookings_archive cascade;
 drop table if exists bookings cascade;
 drop table if exists items cascade;
 drop table if exists users cascade;
@@ -18,11 +21,21 @@ CREATE TABLE IF NOT EXISTS items
     name        VARCHAR(255)                            NOT NULL,
     description VARCHAR(255),
     available   BOOLEAN,
+    quantity    INTEGER DEFAULT 1                       NOT NULL,
     owner_id    BIGINT REFERENCES users (user_id) ON DELETE CASCADE,
     request     VARCHAR(255),
     CONSTRAINT pk_item PRIMARY KEY (item_id)
 );
 
+CREATE INDEX IF NOT EXISTS idx_items_owner ON items (owner_id);
+
+CREATE TABLE IF NOT EXISTS item_tags
+(
+    item_id BIGINT REFERENCES items (item_id) ON DELETE CASCADE NOT NULL,
+    tag     VARCHAR(50)                                          NOT NULL,
+    CONSTRAINT pk_item_tag PRIMARY KEY (item_id, tag)
+);
+
 CREATE TABLE IF NOT EXISTS bookings
 (
     booking_id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
@@ -34,6 +47,37 @@ CREATE TABLE IF NOT EXISTS bookings
     CONSTRAINT pk_booking PRIMARY KEY (booking_id)
 );
 
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_end ON bookings (item_id, end_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_end ON bookings (end_date);
+
+CREATE TABLE IF NOT EXISTS owner_bookings
+(
+    booking_id       BIGINT REFERENCES bookings (booking_id) ON DELETE CASCADE NOT NULL,
+    owner_id         BIGINT                                                    NOT NULL,
+    owner_name       VARCHAR(255)                                              NOT NULL,
+    owner_email      VARCHAR(512)                                              NOT NULL,
+    item_id          BIGINT                                                    NOT NULL,
+    item_name        VARCHAR(255)                                              NOT NULL,
+    item_description VARCHAR(255),
+    item_available   BOOLEAN,
+    item_quantity    INTEGER                                                   NOT NULL,
+    item_request     VARCHAR(255),
+    booker_id        BIGINT                                                    NOT NULL,
+    booker_name      VARCHAR(255)                                              NOT NULL,
+    booker_email     VARCHAR(512)                                              NOT NULL,
+    start_date       TIMESTAMP WITHOUT TIME ZONE,
+    end_date         TIMESTAMP WITHOUT TIME ZONE,
+    status           VARCHAR,
+    CONSTRAINT pk_owner_booking PRIMARY KEY (booking_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_owner_bookings_owner_start ON owner_bookings (owner_id, start_date, booking_id);
+CREATE INDEX IF NOT EXISTS idx_owner_bookings_owner_status ON owner_bookings (owner_id, status, start_date);
+CREATE INDEX IF NOT EXISTS idx_owner_bookings_item ON owner_bookings (item_id);
+CREATE INDEX IF NOT EXISTS idx_owner_bookings_booker ON owner_bookings (booker_id);
+
 CREATE TABLE IF NOT EXISTS comments
 (
     comment_id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
@@ -43,3 +87,5 @@ CREATE TABLE IF NOT EXISTS comments
     created    TIMESTAMP WITHOUT TIME ZONE,
     CONSTRAINT pk_comment PRIMARY KEY (comment_id)
 );
+
+CREATE INDEX IF NOT EXISTS idx_comments_item ON comments (item_id);
@@ -0,0 +1,232 @@
+package ru.practicum.shareit.booking.events;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.user.model.User;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class BookingEventBrokerTest {
+
+    private static final Pattern EVENT_ID = Pattern.compile("id:(\\d+)");
+
+    @Autowired
+    private BookingEventBroker bookingEventBroker;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void deliversEventOnlyAfterCommit() throws InterruptedException {
+        long ownerId = randomUserId();
+        RecordingEmitter emitter = new RecordingEmitter();
+        bookingEventBroker.subscribe(ownerId, emitter);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(createEvent(ownerId));
+            try {
+                assertNull(emitter.sent.poll(200, TimeUnit.MILLISECONDS));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertNotNull(emitter.sent.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void dropsEventOfRolledBackTransaction() throws InterruptedException {
+        long ownerId = randomUserId();
+        RecordingEmitter emitter = new RecordingEmitter();
+        bookingEventBroker.subscribe(ownerId, emitter);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(createEvent(ownerId));
+            status.setRollbackOnly();
+        });
+
+        assertNull(emitter.sent.poll(200, TimeUnit.MILLISECONDS));
+        assertEquals(1, bookingEventBroker.countSubscribers(ownerId));
+    }
+
+    @Test
+    void dropsOldestEventWhenBufferIsFull() throws InterruptedException {
+        BookingEventBroker broker = new BookingEventBroker(2, Duration.ofMinutes(1));
+        long ownerId = randomUserId();
+        RecordingEmitter emitter = new RecordingEmitter();
+        emitter.blockFirstSend = true;
+        broker.subscribe(ownerId, emitter);
+        try {
+            broker.onBookingEvent(createEvent(ownerId));
+            assertTrue(emitter.sending.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 3; i++) {
+                broker.onBookingEvent(createEvent(ownerId));
+            }
+            emitter.release.countDown();
+
+            List<Long> ids = List.of(nextId(emitter), nextId(emitter), nextId(emitter));
+
+            assertEquals(List.of(1L, 3L, 4L), ids);
+            assertNull(emitter.sent.poll(200, TimeUnit.MILLISECONDS));
+        } finally {
+            broker.shutdown();
+        }
+    }
+
+    @Test
+    void unsubscribesAndCompletesEmitterWhenSendFails() throws InterruptedException {
+        BookingEventBroker broker = new BookingEventBroker(10, Duration.ofMinutes(1));
+        long ownerId = randomUserId();
+        RecordingEmitter emitter = new RecordingEmitter();
+        emitter.failure = new IOException("Клиент отключился");
+        broker.subscribe(ownerId, emitter);
+        try {
+            broker.onBookingEvent(createEvent(ownerId));
+
+            assertInstanceOf(IOException.class, emitter.completedWithError.poll(5, TimeUnit.SECONDS));
+            assertEquals(0, broker.countSubscribers(ownerId));
+            broker.onBookingEvent(createEvent(ownerId));
+            assertEquals(1, emitter.attempts);
+        } finally {
+            broker.shutdown();
+        }
+    }
+
+    @Test
+    void unsubscribesOnTimeoutAndError() {
+        BookingEventBroker broker = new BookingEventBroker(10, Duration.ofMinutes(1));
+        long ownerId = randomUserId();
+        RecordingEmitter timedOut = new RecordingEmitter();
+        RecordingEmitter failed = new RecordingEmitter();
+        broker.subscribe(ownerId, timedOut);
+        broker.subscribe(ownerId, failed);
+        try {
+            assertEquals(2, broker.countSubscribers(ownerId));
+
+            timedOut.timeoutCallback.run();
+
+            assertEquals(1, broker.countSubscribers(ownerId));
+            assertTrue(timedOut.completed);
+
+            failed.errorCallback.accept(new IOException("Обрыв соединения"));
+
+            assertEquals(0, broker.countSubscribers(ownerId));
+        } finally {
+            broker.shutdown();
+        }
+    }
+
+    private long nextId(RecordingEmitter emitter) throws InterruptedException {
+        String event = emitter.sent.poll(5, TimeUnit.SECONDS);
+        assertNotNull(event);
+        Matcher matcher = EVENT_ID.matcher(event);
+        assertTrue(matcher.find());
+        return Long.parseLong(matcher.group(1));
+    }
+
+    private static long randomUserId() {
+        return ThreadLocalRandom.current().nextLong(1_000_000_000L, Long.MAX_VALUE);
+    }
+
+    private static BookingEvent createEvent(long ownerId) {
+        return new BookingEvent(BookingEvent.Type.CREATED, ownerId, BookingDto.builder()
+                .id(1L)
+                .booker(User.builder().id(ownerId).build())
+                .build());
+    }
+
+    /**
+     * Поток событий, запоминающий отправленные события и обратные вызовы вместо записи в ответ.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final BlockingQueue<String> sent = new LinkedBlockingQueue<>();
+
+        private final BlockingQueue<Throwable> completedWithError = new LinkedBlockingQueue<>();
+
+        private final CountDownLatch sending = new CountDownLatch(1);
+
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        private volatile boolean blockFirstSend;
+
+        private volatile IOException failure;
+
+        private volatile int attempts;
+
+        private volatile boolean completed;
+
+        private Runnable timeoutCallback;
+
+        private Consumer<Throwable> errorCallback;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            attempts++;
+            if (failure != null) {
+                throw failure;
+            }
+            if (blockFirstSend && sending.getCount() > 0) {
+                sending.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            sent.add(builder.build().stream()
+                    .map(part -> String.valueOf(part.getData()))
+                    .collect(Collectors.joining()));
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+            super.complete();
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            completedWithError.add(ex);
+            super.completeWithError(ex);
+        }
+
+        @Override
+        public void onTimeout(Runnable callback) {
+            timeoutCallback = callback;
+            super.onTimeout(callback);
+        }
+
+        @Override
+        public void onError(Consumer<Throwable> callback) {
+            errorCallback = callback;
+            super.onError(callback);
+        }
+    }
+}
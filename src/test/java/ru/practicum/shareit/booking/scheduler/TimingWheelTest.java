@@ -0,0 +1,77 @@
+package ru.practicum.shareit.booking.scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+
+    @Test
+    void firesEachTimeoutAtItsDeadline() {
+        TimingWheel<Long> wheel = new TimingWheel<>(10);
+        Random random = new Random(42);
+        List<Long> deadlines = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            long deadline = 11 + (long) (Math.pow(random.nextDouble(), 4) * 1_000_000);
+            deadlines.add(deadline);
+            wheel.schedule(deadline, deadline);
+        }
+
+        long fired = 0;
+        for (long tick = 11; tick <= 1_000_011; tick += 1 + random.nextInt(100)) {
+            for (long deadline : wheel.advance(tick)) {
+                assertTrue(deadline <= tick && deadline > tick - 101, "Таймер " + deadline + " сработал в " + tick);
+                fired++;
+            }
+        }
+        fired += wheel.advance(1_000_111).size();
+
+        assertEquals(deadlines.size(), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void firesTimeoutsAtLevelBoundaries() {
+        for (int level = 1; level < TimingWheel.LEVELS; level++) {
+            long boundary = 1L << (6 * level);
+            for (long deadline = boundary; deadline <= 3 * boundary; deadline += boundary) {
+                TimingWheel<Long> wheel = new TimingWheel<>(10);
+                wheel.schedule(deadline, deadline);
+
+                assertEquals(List.of(), wheel.advance(deadline - 1));
+                assertEquals(List.of(deadline), wheel.advance(deadline), "Таймер " + deadline);
+                assertEquals(0, wheel.size());
+            }
+        }
+    }
+
+    @Test
+    void cancelledTimeoutDoesNotFire() {
+        TimingWheel<String> wheel = new TimingWheel<>(0);
+        TimingWheel.Timeout<String> cancelled = wheel.schedule(5_000, "cancelled");
+        wheel.schedule(5_000, "kept");
+
+        wheel.cancel(cancelled);
+        wheel.cancel(cancelled);
+
+        assertEquals(1, wheel.size());
+        assertEquals(List.of(), wheel.advance(4_999));
+        assertEquals(List.of("kept"), wheel.advance(5_000));
+    }
+
+    @Test
+    void overdueAndDistantTimeoutsFire() {
+        TimingWheel<String> wheel = new TimingWheel<>(100);
+        wheel.schedule(50, "overdue");
+        wheel.schedule(100 + (1L << 40), "distant");
+
+        assertEquals(List.of("overdue"), wheel.advance(100));
+        assertEquals(List.of(), wheel.advance(100 + (1L << 36)));
+        assertEquals(List.of("distant"), wheel.advance(100 + (1L << 40)));
+    }
+}
@@ -0,0 +1,640 @@
+package ru.practicum.shareit.booking.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingDtoRequest;
+import ru.practicum.shareit.booking.dto.BookingQuery;
+import ru.practicum.shareit.booking.events.BookingTransition;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.OwnerBooking;
+import ru.practicum.shareit.booking.model.enums.BookingRole;
+import ru.practicum.shareit.booking.model.enums.BookingSort;
+import ru.practicum.shareit.booking.model.enums.BookingState;
+import ru.practicum.shareit.booking.model.enums.BookingStatus;
+import ru.practicum.shareit.booking.storage.BookingArchiver;
+import ru.practicum.shareit.booking.storage.BookingIntervalIndex;
+import ru.practicum.shareit.booking.storage.JpaBookingRepository;
+import ru.practicum.shareit.booking.storage.JpaOwnerBookingRepository;
+import ru.practicum.shareit.error.exception.ConflictException;
+import ru.practicum.shareit.error.exception.NotFoundException;
+import ru.practicum.shareit.error.exception.ValidationException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.storage.ItemSnapshotCache;
+import ru.practicum.shareit.item.storage.JpaItemRepository;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.storage.JpaUserRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class BookingServiceImplTest {
+
+    @Autowired
+    private BookingServiceImpl bookingServiceImpl;
+
+    @Autowired
+    private JpaUserRepository jpaUserRepository;
+
+    @Autowired
+    private JpaItemRepository jpaItemRepository;
+
+    @Autowired
+    private JpaBookingRepository jpaBookingRepository;
+
+    @Autowired
+    private JpaOwnerBookingRepository jpaOwnerBookingRepository;
+
+    @Autowired
+    private ItemService itemServiceImpl;
+
+    @Autowired
+    private UserService userServiceImpl;
+
+    @Autowired
+    private BookingArchiver bookingArchiver;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+
+    private User owner;
+
+    private User booker;
+
+    private Booking booking;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        owner = jpaUserRepository.save(createUser());
+        booker = jpaUserRepository.save(createUser());
+        Item item = jpaItemRepository.save(Item.builder()
+                .name("Дрель")
+                .description("Простая дрель")
+                .available(true)
+                .owner(owner)
+                .build());
+        LocalDateTime now = LocalDateTime.now();
+        booking = jpaBookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(now.minusDays(3))
+                .end(now.minusDays(2))
+                .status(BookingStatus.WAITING)
+                .build());
+        jpaOwnerBookingRepository.copyFromBookings(List.of(booking.getId()));
+    }
+
+    @Test
+    void getBookingByIdLoadsBookingGraphWithSingleStatement() {
+        statistics.clear();
+        BookingDto bookingDto = bookingServiceImpl.getBookingById(booker.getId(), booking.getId());
+
+        // пользователь, бронирование с вещью, владельцем и арендатором, теги вещи
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityFetchCount());
+        assertEquals(owner.getName(), bookingDto.getItem().getOwner().getName());
+        assertEquals(booker.getName(), bookingDto.getBooker().getName());
+    }
+
+    @Test
+    void confirmOrRejectBookingDoesNotFetchAssociationsSeparately() {
+        statistics.clear();
+        BookingDto bookingDto = bookingServiceImpl.confirmOrRejectBooking(owner.getId(), booking.getId(), false);
+
+        assertEquals(0, statistics.getEntityFetchCount());
+        assertEquals(BookingStatus.REJECTED, bookingDto.getStatus());
+        assertEquals(owner.getName(), bookingDto.getItem().getOwner().getName());
+    }
+
+    @Test
+    void confirmOrRejectBookingRejectsAlreadyProcessedBooking() {
+        bookingServiceImpl.confirmOrRejectBooking(owner.getId(), booking.getId(), true);
+
+        assertThrows(ConflictException.class,
+                () -> bookingServiceImpl.confirmOrRejectBooking(owner.getId(), booking.getId(), false));
+        assertEquals(BookingStatus.APPROVED, jpaBookingRepository.findById(booking.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void confirmOrRejectBookingsChangesOnlyWaitingBookings() {
+        Booking approved = jpaBookingRepository.save(Booking.builder()
+                .item(booking.getItem())
+                .booker(booker)
+                .start(booking.getStart().minusDays(5))
+                .end(booking.getStart().minusDays(4))
+                .status(BookingStatus.APPROVED)
+                .build());
+
+        List<BookingDto> result = bookingServiceImpl.confirmOrRejectBookings(owner.getId(),
+                List.of(approved.getId(), booking.getId()), false);
+
+        assertEquals(2, result.size());
+        assertEquals(BookingStatus.APPROVED, result.getFirst().getStatus());
+        assertEquals(BookingStatus.REJECTED, result.getLast().getStatus());
+    }
+
+    @Test
+    void createBookingsCreatesAllOrNothing() {
+        Item item = booking.getItem();
+        Item other = jpaItemRepository.save(Item.builder()
+                .name("Лестница")
+                .description("Стремянка")
+                .available(true)
+                .owner(owner)
+                .build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        List<BookingDto> created = bookingServiceImpl.createBookings(booker.getId(), List.of(
+                createRequest(item, start, start.plusDays(1)),
+                createRequest(other, start, start.plusDays(1))));
+
+        assertEquals(2, created.size());
+        assertEquals(other.getId(), created.getLast().getItem().getId());
+        assertThrows(ConflictException.class, () -> bookingServiceImpl.createBookings(booker.getId(), List.of(
+                createRequest(other, start.plusDays(2), start.plusDays(3)),
+                createRequest(item, start.plusHours(12), start.plusDays(2)))));
+        assertEquals(1, jpaBookingRepository.findAll().stream()
+                .filter(saved -> saved.getItem().getId().equals(other.getId()))
+                .count());
+        assertEquals(1, bookingServiceImpl.createBookings(booker.getId(),
+                List.of(createRequest(other, start.plusDays(2), start.plusDays(3)))).size());
+    }
+
+    @Test
+    void createBookingsChecksItemsBeforeAdmission() {
+        Item item = booking.getItem();
+        long missingId = jpaItemRepository.findAll().stream().mapToLong(Item::getId).max().orElseThrow() + 1000;
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        assertThrows(NotFoundException.class, () -> bookingServiceImpl.createBookings(booker.getId(), List.of(
+                createRequest(item, start, start.plusDays(1)),
+                BookingDtoRequest.builder().itemId(missingId).start(start).end(start.plusDays(1)).build())));
+
+        Map<?, ?> indexed = (Map<?, ?>) ReflectionTestUtils.getField(bookingIntervalIndex, "items");
+        assertFalse(indexed.containsKey(missingId));
+    }
+
+    @Test
+    void deleteUserByIdEvictsOnlyTheirItemsFromIntervalIndex() {
+        User other = jpaUserRepository.save(createUser());
+        Item otherItem = jpaItemRepository.save(Item.builder()
+                .name("Лобзик")
+                .description("Электрический лобзик")
+                .available(true)
+                .owner(other)
+                .build());
+        Item item = booking.getItem();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        bookingServiceImpl.createBooking(booker.getId(), createRequest(item, start, start.plusDays(1)));
+        bookingServiceImpl.createBooking(booker.getId(), createRequest(otherItem, start, start.plusDays(1)));
+
+        userServiceImpl.deleteUserById(other.getId());
+
+        Map<?, ?> indexed = (Map<?, ?>) ReflectionTestUtils.getField(bookingIntervalIndex, "items");
+        assertTrue(indexed.containsKey(item.getId()));
+        assertFalse(indexed.containsKey(otherItem.getId()));
+    }
+
+    @Test
+    void createBookingRejectsEndBeyondIntervalIndexRange() {
+        Item item = jpaItemRepository.save(Item.builder()
+                .name("Телескоп")
+                .description("Зеркальный телескоп")
+                .available(true)
+                .owner(owner)
+                .build());
+        LocalDateTime end = BookingIntervalIndex.LATEST_END;
+
+        assertThrows(ValidationException.class, () -> bookingServiceImpl.createBooking(booker.getId(),
+                createRequest(item, end.minusDays(1), end.plusSeconds(1))));
+        assertThrows(ValidationException.class, () -> bookingServiceImpl.createBookings(booker.getId(),
+                List.of(createRequest(item, end.plusYears(1), end.plusYears(2)))));
+
+        bookingServiceImpl.createBooking(booker.getId(), createRequest(item, end.minusDays(1), end));
+
+        assertThrows(ConflictException.class, () -> bookingServiceImpl.createBooking(booker.getId(),
+                createRequest(item, end.minusHours(1), end)));
+    }
+
+    @Test
+    void createBookingAdmitsConcurrentBookingsUpToQuantity() {
+        Item chairs = jpaItemRepository.save(Item.builder()
+                .name("Стул")
+                .description("Складной стул")
+                .available(true)
+                .quantity(2)
+                .owner(owner)
+                .build());
+        LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).plusDays(1);
+
+        bookingServiceImpl.createBooking(booker.getId(), createRequest(chairs, start, start.plusDays(2)));
+        bookingServiceImpl.createBooking(booker.getId(), createRequest(chairs, start.plusDays(1), start.plusDays(3)));
+
+        assertThrows(ConflictException.class, () -> bookingServiceImpl.createBooking(booker.getId(),
+                createRequest(chairs, start.plusHours(36), start.plusHours(40))));
+        bookingServiceImpl.createBooking(booker.getId(), createRequest(chairs, start.plusDays(2), start.plusDays(4)));
+    }
+
+    @Test
+    void expiredBookingReleasesItemTimeOnlyAfterCommit() {
+        Item boat = jpaItemRepository.save(Item.builder()
+                .name("Лодка")
+                .description("Надувная лодка")
+                .available(true)
+                .owner(owner)
+                .build());
+        LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).plusDays(1);
+        BookingDto waiting = bookingServiceImpl.createBooking(booker.getId(),
+                createRequest(boat, start, start.plusDays(1)));
+        BookingTransition expired = new BookingTransition(BookingTransition.Type.EXPIRED, waiting.getId(),
+                boat.getId(), start);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            bookingServiceImpl.onBookingTransition(expired);
+            status.setRollbackOnly();
+        });
+
+        assertEquals(BookingStatus.WAITING, jpaBookingRepository.findById(waiting.getId()).orElseThrow().getStatus());
+        assertThrows(ConflictException.class, () -> bookingServiceImpl.createBooking(booker.getId(),
+                createRequest(boat, start, start.plusDays(1))));
+
+        bookingServiceImpl.onBookingTransition(expired);
+
+        assertEquals(BookingStatus.CANCELLED,
+                jpaBookingRepository.findById(waiting.getId()).orElseThrow().getStatus());
+        bookingServiceImpl.createBooking(booker.getId(), createRequest(boat, start, start.plusDays(1)));
+    }
+
+    @Test
+    void createBookingAdmitsOneOfConcurrentBookingsWhileIntervalsAreEvicted() throws Exception {
+        Item item = jpaItemRepository.save(Item.builder()
+                .name("Палатка")
+                .description("Двухместная палатка")
+                .available(true)
+                .owner(owner)
+                .build());
+        LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).plusDays(1);
+        int rounds = 20;
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        try {
+            Future<?> evictor = executor.submit(() -> {
+                while (running.get()) {
+                    bookingIntervalIndex.evict(item.getId());
+                }
+            });
+            for (int round = 0; round < rounds; round++) {
+                LocalDateTime roundStart = start.plusDays(2L * round);
+                CountDownLatch ready = new CountDownLatch(1);
+                List<Future<Boolean>> results = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    results.add(executor.submit(() -> {
+                        ready.await();
+                        try {
+                            bookingServiceImpl.createBooking(booker.getId(),
+                                    createRequest(item, roundStart, roundStart.plusDays(1)));
+                            return true;
+                        } catch (ConflictException e) {
+                            return false;
+                        }
+                    }));
+                }
+                ready.countDown();
+                long admitted = 0;
+                for (Future<Boolean> result : results) {
+                    admitted += result.get() ? 1 : 0;
+                }
+                assertEquals(1, admitted);
+            }
+            running.set(false);
+            evictor.get();
+        } finally {
+            running.set(false);
+            executor.shutdown();
+        }
+
+        assertEquals(rounds, jpaBookingRepository.findAll().stream()
+                .filter(saved -> saved.getItem().getId().equals(item.getId()))
+                .count());
+    }
+
+    @Test
+    void createBookingReadsItemFromSnapshotCache() {
+        Item item = booking.getItem();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        bookingServiceImpl.createBooking(booker.getId(), createRequest(item, start, start.plusDays(1)));
+        double hits = countCacheGets("hit");
+        double misses = countCacheGets("miss");
+        statistics.clear();
+
+        BookingDto created = bookingServiceImpl.createBooking(booker.getId(),
+                createRequest(item, start.plusDays(2), start.plusDays(3)));
+
+        assertEquals(0, statistics.getEntityStatistics(Item.class.getName()).getLoadCount());
+        assertEquals(hits + 1, countCacheGets("hit"));
+        assertEquals(misses, countCacheGets("miss"));
+        assertEquals(item.getId(), created.getItem().getId());
+        assertEquals(owner.getName(), created.getItem().getOwner().getName());
+        assertEquals(item.getId(), jpaBookingRepository.findById(created.getId()).orElseThrow().getItem().getId());
+    }
+
+    @Test
+    void createBookingSeesItemAndOwnerUpdates() {
+        Item item = booking.getItem();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        bookingServiceImpl.createBooking(booker.getId(), createRequest(item, start, start.plusDays(1)));
+
+        String ownerName = UUID.randomUUID().toString();
+        userServiceImpl.updateUserDto(owner.getId(), UserDto.builder().name(ownerName).build());
+        BookingDto created = bookingServiceImpl.createBooking(booker.getId(),
+                createRequest(item, start.plusDays(2), start.plusDays(3)));
+
+        assertEquals(ownerName, created.getItem().getOwner().getName());
+
+        itemServiceImpl.updateItem(owner.getId(), item.getId(), ItemDto.builder().available(false).build());
+
+        assertThrows(ValidationException.class, () -> bookingServiceImpl.createBooking(booker.getId(),
+                createRequest(item, start.plusDays(4), start.plusDays(5))));
+    }
+
+    @Test
+    void itemSnapshotCacheCountsHitsMissesAndEvictions() {
+        Item other = jpaItemRepository.save(Item.builder()
+                .name("Лестница")
+                .description("Стремянка")
+                .available(true)
+                .owner(owner)
+                .build());
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ItemSnapshotCache cache = new ItemSnapshotCache(jpaItemRepository, registry, 1);
+
+        cache.get(booking.getItem().getId());
+        cache.get(booking.getItem().getId());
+        cache.get(other.getId());
+        cache.get(booking.getItem().getId());
+
+        assertEquals(1, registry.get("cache.gets").tag("result", "hit").counter().count());
+        assertEquals(3, registry.get("cache.gets").tag("result", "miss").counter().count());
+        assertEquals(2, registry.get("cache.evictions").counter().count());
+        assertEquals(1, registry.get("cache.size").gauge().value());
+        assertEquals(owner.getEmail(), cache.get(booking.getItem().getId()).orElseThrow().ownerEmail());
+    }
+
+    @Test
+    void ownerReadModelFollowsBookingAndItemChanges() {
+        Item item = booking.getItem();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingDto created = bookingServiceImpl.createBooking(booker.getId(),
+                createRequest(item, start, start.plusDays(1)));
+
+        List<BookingDto> waiting = bookingServiceImpl.getAllByOwnerId(owner.getId(), BookingState.WAITING, null, 0,
+                10).content();
+        assertEquals(List.of(created.getId(), booking.getId()), waiting.stream().map(BookingDto::getId).toList());
+
+        bookingServiceImpl.confirmOrRejectBooking(owner.getId(), created.getId(), false);
+        itemServiceImpl.updateItem(owner.getId(), item.getId(), ItemDto.builder()
+                .name("Перфоратор")
+                .description("Мощный перфоратор")
+                .quantity(2)
+                .build());
+        String ownerName = UUID.randomUUID().toString();
+        String bookerEmail = UUID.randomUUID() + "@mail.ru";
+        userServiceImpl.updateUserDto(owner.getId(), UserDto.builder().name(ownerName).build());
+        userServiceImpl.updateUserDto(booker.getId(), UserDto.builder().email(bookerEmail).build());
+
+        OwnerBooking rejected = jpaOwnerBookingRepository.findById(created.getId()).orElseThrow();
+        assertEquals(BookingStatus.REJECTED, rejected.getStatus());
+        assertEquals("Перфоратор", rejected.getItemName());
+        waiting = bookingServiceImpl.getAllByOwnerId(owner.getId(), BookingState.WAITING, null, 0, 10).content();
+        assertEquals(List.of(booking.getId()), waiting.stream().map(BookingDto::getId).toList());
+        BookingDto view = waiting.getFirst();
+        assertEquals("Перфоратор", view.getItem().getName());
+        assertEquals("Мощный перфоратор", view.getItem().getDescription());
+        assertEquals(2, view.getItem().getQuantity());
+        assertEquals(ownerName, view.getItem().getOwner().getName());
+        assertEquals(owner.getEmail(), view.getItem().getOwner().getEmail());
+        assertEquals(booker.getName(), view.getBooker().getName());
+        assertEquals(bookerEmail, view.getBooker().getEmail());
+    }
+
+    @Test
+    void getAllByOwnerIdReadsPageWithSingleStatement() {
+        statistics.clear();
+        List<BookingDto> waiting = bookingServiceImpl.getAllByOwnerId(owner.getId(), BookingState.WAITING, null, 0,
+                10).content();
+
+        // проверка пользователя и один запрос к модели чтения без загрузки бронирований по ID
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(List.of(booking.getId()), waiting.stream().map(BookingDto::getId).toList());
+        assertEquals("Простая дрель", waiting.getFirst().getItem().getDescription());
+        assertEquals(owner.getEmail(), waiting.getFirst().getItem().getOwner().getEmail());
+        assertEquals(booker.getName(), waiting.getFirst().getBooker().getName());
+    }
+
+    @Test
+    void queryBookingsCombinesFiltersInSingleStatement() {
+        Item item = booking.getItem();
+        Item other = jpaItemRepository.save(Item.builder()
+                .name("Лестница")
+                .description("Стремянка")
+                .available(true)
+                .owner(owner)
+                .build());
+        LocalDateTime now = LocalDateTime.now();
+        Booking first = saveBooking(item, now.plusDays(10), BookingStatus.APPROVED);
+        Booking second = saveBooking(other, now.plusDays(11), BookingStatus.APPROVED);
+        saveBooking(item, now.plusDays(12), BookingStatus.WAITING);
+        saveBooking(item, now.plusDays(40), BookingStatus.APPROVED);
+        BookingQuery query = new BookingQuery(BookingRole.OWNER, Set.of(BookingStatus.APPROVED),
+                Set.of(item.getId(), other.getId()), now.plusDays(5), now.plusDays(30), BookingSort.START_ASC);
+
+        statistics.clear();
+        CursorPage<BookingDto> page = bookingServiceImpl.queryBookings(owner.getId(), query, null, 1);
+
+        // проверка пользователя и один запрос бронирований; архив не запрашивается
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(List.of(first.getId()), page.content().stream().map(BookingDto::getId).toList());
+        CursorPage<BookingDto> next = bookingServiceImpl.queryBookings(owner.getId(), query, page.next(), 1);
+        assertEquals(List.of(second.getId()), next.content().stream().map(BookingDto::getId).toList());
+        assertNull(next.next());
+    }
+
+    @Test
+    void pagesByCursorAcrossEqualStartTimes() {
+        User pager = jpaUserRepository.save(createUser());
+        User itemOwner = jpaUserRepository.save(createUser());
+        Item item = jpaItemRepository.save(Item.builder()
+                .name("Байдарка")
+                .description("Трёхместная байдарка")
+                .available(true)
+                .owner(itemOwner)
+                .build());
+        LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).plusDays(5);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(jpaBookingRepository.save(Booking.builder()
+                    .item(item)
+                    .booker(pager)
+                    .start(start)
+                    .end(start.plusDays(1))
+                    .status(BookingStatus.APPROVED)
+                    .build()).getId());
+        }
+        jpaOwnerBookingRepository.copyFromBookings(ids);
+        List<Long> descending = ids.stream().sorted(Comparator.reverseOrder()).toList();
+        BookingQuery query = new BookingQuery(BookingRole.BOOKER, Set.of(), Set.of(item.getId()), null, null,
+                BookingSort.START_ASC);
+
+        assertEquals(descending, collectPages(after -> bookingServiceImpl.getBookingState(pager.getId(),
+                BookingState.ALL, after, 0, 2)));
+        assertEquals(descending, collectPages(after -> bookingServiceImpl.getAllByOwnerId(itemOwner.getId(),
+                BookingState.ALL, after, 0, 2)));
+        assertEquals(ids.stream().sorted().toList(), collectPages(after -> bookingServiceImpl.queryBookings(
+                pager.getId(), query, after, 2)));
+        assertThrows(ValidationException.class, () -> bookingServiceImpl.getBookingState(pager.getId(),
+                BookingState.ALL, null, Integer.MAX_VALUE, 2));
+        assertEquals(List.of(), bookingServiceImpl.getAllByOwnerId(itemOwner.getId(), BookingState.ALL, null, 1000,
+                2).content());
+        assertThrows(ValidationException.class, () -> bookingServiceImpl.getAllByOwnerId(itemOwner.getId(),
+                BookingState.ALL, null, 1001, 2));
+    }
+
+    @Test
+    void getBookingStateCountsCountsAllStatesWithSingleStatement() {
+        statistics.clear();
+        Map<BookingState, Long> bookerCounts = bookingServiceImpl.getBookingStateCounts(booker.getId());
+        Map<BookingState, Long> ownerCounts = bookingServiceImpl.getOwnerBookingStateCounts(owner.getId());
+
+        // по одному запросу на проверку пользователя, на подсчёт в оперативной таблице или модели чтения и в архиве
+        assertEquals(6, statistics.getPrepareStatementCount());
+        Map<BookingState, Long> expected = Map.of(BookingState.ALL, 1L, BookingState.CURRENT, 0L,
+                BookingState.PAST, 1L, BookingState.FUTURE, 0L, BookingState.WAITING, 1L, BookingState.REJECTED, 0L);
+        assertEquals(expected, bookerCounts);
+        assertEquals(expected, ownerCounts);
+    }
+
+    @Test
+    void archivedBookingsRemainInHistory() {
+        LocalDateTime now = LocalDateTime.now();
+        Booking old = jpaBookingRepository.save(Booking.builder()
+                .item(booking.getItem())
+                .booker(booker)
+                .start(now.minusDays(100))
+                .end(now.minusDays(99))
+                .status(BookingStatus.REJECTED)
+                .build());
+
+        assertTrue(bookingArchiver.archive() > 0);
+
+        assertTrue(jpaBookingRepository.findById(old.getId()).isEmpty());
+        assertEquals(old.getId(), bookingServiceImpl.getBookingById(owner.getId(), old.getId()).getId());
+        List<BookingDto> all = bookingServiceImpl.getBookingState(booker.getId(), BookingState.ALL, null, 0, 10)
+                .content();
+        assertEquals(List.of(booking.getId(), old.getId()), all.stream().map(BookingDto::getId).toList());
+        List<BookingDto> rejected = bookingServiceImpl.getAllByOwnerId(owner.getId(), BookingState.REJECTED, null, 0,
+                10).content();
+        assertEquals(List.of(old.getId()), rejected.stream().map(BookingDto::getId).toList());
+        Map<BookingState, Long> counts = bookingServiceImpl.getBookingStateCounts(booker.getId());
+        assertEquals(2L, counts.get(BookingState.ALL));
+        assertEquals(2L, counts.get(BookingState.PAST));
+        assertEquals(1L, counts.get(BookingState.REJECTED));
+    }
+
+    @Test
+    void reviewAuthorizationQueryDoesNotLoadAssociations() {
+        statistics.clear();
+        boolean authorized = jpaBookingRepository.checkItemReviewAuthorizationAfterRental(booker.getId(),
+                booking.getItem().getId(), LocalDateTime.now()).isPresent();
+
+        assertTrue(authorized);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityFetchCount());
+    }
+
+    private List<Long> collectPages(Function<String, CursorPage<BookingDto>> pages) {
+        List<Long> ids = new ArrayList<>();
+        String after = null;
+        do {
+            CursorPage<BookingDto> page = pages.apply(after);
+            page.content().forEach(booking -> ids.add(booking.getId()));
+            after = page.next();
+        } while (after != null);
+        return ids;
+    }
+
+    private double countCacheGets(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", "items").tag("result", result).counter().count();
+    }
+
+    private User createUser() {
+        String name = UUID.randomUUID().toString();
+        return User.builder()
+                .name(name)
+                .email(name + "@mail.ru")
+                .build();
+    }
+
+    private BookingDtoRequest createRequest(Item item, LocalDateTime start, LocalDateTime end) {
+        return BookingDtoRequest.builder()
+                .itemId(item.getId())
+                .start(start)
+                .end(end)
+                .build();
+    }
+
+    private Booking saveBooking(Item item, LocalDateTime start, BookingStatus status) {
+        return jpaBookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(start)
+                .end(start.plusDays(1))
+                .status(status)
+                .build());
+    }
+}
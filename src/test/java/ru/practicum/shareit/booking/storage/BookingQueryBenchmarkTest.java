@@ -0,0 +1,174 @@
+package ru.practicum.shareit.booking.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.shareit.booking.dto.BookingDtoView;
+import ru.practicum.shareit.booking.dto.BookingQuery;
+import ru.practicum.shareit.booking.model.enums.BookingRole;
+import ru.practicum.shareit.booking.model.enums.BookingSort;
+import ru.practicum.shareit.booking.model.enums.BookingStatus;
+import ru.practicum.shareit.pagination.OffsetLimitRequest;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Сравнивает время выполнения запросов {@link BookingCriteriaRepository} и соответствующих им фиксированных
+ * запросов {@link JpaBookingRepository} на заполненной базе H2. Бронирования владельца фиксированными запросами
+ * читаются так же, как в сервисе, — одним запросом к модели чтения {@link JpaOwnerBookingRepository}.
+ * <p>
+ * Для каждой пары сначала проверяется, что запросы возвращают одни и те же бронирования, затем каждый запрос
+ * выполняется для разных пользователей и в журнал выводится среднее время одного выполнения.
+ * Тест не запускается вместе с остальными, для запуска используется профиль Maven {@code benchmark}.
+ * </p>
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:shareit-benchmark")
+class BookingQueryBenchmarkTest {
+
+    private static final int USERS = 200;
+    private static final int ITEMS = 2_000;
+    private static final int BOOKINGS_PER_ITEM = 20;
+
+    private static final int WARMUP = 500;
+    private static final int ITERATIONS = 2_000;
+    private static final int PAGE_SIZE = 20;
+
+    private static final LocalDateTime FIRST_PAGE_START = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    @Autowired
+    private JpaBookingRepository jpaBookingRepository;
+
+    @Autowired
+    private JpaOwnerBookingRepository jpaOwnerBookingRepository;
+
+    @Autowired
+    private BookingCriteriaRepository bookingCriteriaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    private final OffsetLimitRequest page = new OffsetLimitRequest(0, PAGE_SIZE + 1);
+
+    @BeforeEach
+    void seed() {
+        Integer bookings = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings", Integer.class);
+        if (bookings != null && bookings > 0) {
+            return;
+        }
+        List<Object[]> users = new ArrayList<>();
+        for (long id = 1; id <= USERS; id++) {
+            users.add(new Object[]{id, "Пользователь " + id, "user" + id + "@mail.ru"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (user_id, name, email) VALUES (?, ?, ?)", users);
+        List<Object[]> items = new ArrayList<>();
+        List<Object[]> bookingRows = new ArrayList<>();
+        for (long id = 1; id <= ITEMS; id++) {
+            items.add(new Object[]{id, "Вещь " + id, "Описание " + id, true, id % USERS + 1});
+            for (int i = 0; i < BOOKINGS_PER_ITEM; i++) {
+                LocalDateTime start = now.plusDays(i * 3L - BOOKINGS_PER_ITEM * 3 / 2).plusMinutes(id);
+                bookingRows.add(new Object[]{Timestamp.valueOf(start), Timestamp.valueOf(start.plusDays(2)), id,
+                        (id + i) % USERS + 1, BookingStatus.values()[i % BookingStatus.values().length].name()});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO items (item_id, name, description, available, owner_id) "
+                + "VALUES (?, ?, ?, ?, ?)", items);
+        jdbcTemplate.batchUpdate("INSERT INTO bookings (start_date, end_date, item_id, booker_id, status) "
+                + "VALUES (?, ?, ?, ?, ?)", bookingRows);
+        jdbcTemplate.update("INSERT INTO owner_bookings (booking_id, owner_id, owner_name, owner_email, item_id, "
+                + "item_name, item_description, item_available, item_quantity, item_request, booker_id, booker_name, "
+                + "booker_email, start_date, end_date, status) SELECT b.booking_id, o.user_id, o.name, o.email, "
+                + "i.item_id, i.name, i.description, i.available, i.quantity, i.request, u.user_id, u.name, u.email, "
+                + "b.start_date, b.end_date, b.status FROM bookings b JOIN items i ON i.item_id = b.item_id "
+                + "JOIN users o ON o.user_id = i.owner_id JOIN users u ON u.user_id = b.booker_id");
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void bookerQueries() {
+        compare("арендатор, все",
+                userId -> jpaBookingRepository.findAllByBookerId(userId, FIRST_PAGE_START, Long.MAX_VALUE, page),
+                userId -> bookingCriteriaRepository.findAll(userId, query(BookingRole.BOOKER, Set.of(), null),
+                        null, 0, PAGE_SIZE + 1));
+        compare("арендатор, ожидающие",
+                userId -> jpaBookingRepository.findAllByBookerIdAndStatus(userId, BookingStatus.WAITING,
+                        FIRST_PAGE_START, Long.MAX_VALUE, page),
+                userId -> bookingCriteriaRepository.findAll(userId,
+                        query(BookingRole.BOOKER, Set.of(BookingStatus.WAITING), null), null, 0, PAGE_SIZE + 1));
+        compare("арендатор, будущие",
+                userId -> jpaBookingRepository.findAllByBookerStateFuture(userId, now, FIRST_PAGE_START,
+                        Long.MAX_VALUE, page),
+                userId -> bookingCriteriaRepository.findAll(userId, query(BookingRole.BOOKER, Set.of(), now),
+                        null, 0, PAGE_SIZE + 1));
+    }
+
+    @Test
+    void ownerQueries() {
+        compare("владелец, все",
+                userId -> jpaOwnerBookingRepository.findAllByOwnerId(userId, FIRST_PAGE_START,
+                        Long.MAX_VALUE, page),
+                userId -> bookingCriteriaRepository.findAll(userId, query(BookingRole.OWNER, Set.of(), null),
+                        null, 0, PAGE_SIZE + 1));
+        compare("владелец, ожидающие",
+                userId -> jpaOwnerBookingRepository.findAllByOwnerIdAndStatus(userId,
+                        BookingStatus.WAITING, FIRST_PAGE_START, Long.MAX_VALUE, page),
+                userId -> bookingCriteriaRepository.findAll(userId,
+                        query(BookingRole.OWNER, Set.of(BookingStatus.WAITING), null), null, 0, PAGE_SIZE + 1));
+        compare("владелец, будущие",
+                userId -> jpaOwnerBookingRepository.findAllByOwnerStateFuture(userId, now,
+                        FIRST_PAGE_START, Long.MAX_VALUE, page),
+                userId -> bookingCriteriaRepository.findAll(userId, query(BookingRole.OWNER, Set.of(), now),
+                        null, 0, PAGE_SIZE + 1));
+    }
+
+    private BookingQuery query(BookingRole role, Set<BookingStatus> statuses, LocalDateTime from) {
+        return new BookingQuery(role, statuses, Set.of(), from, null, BookingSort.START_DESC);
+    }
+
+    /**
+     * Проверяет, что запросы возвращают одни и те же бронирования, и выводит среднее время их выполнения.
+     *
+     * @param name     название пары запросов
+     * @param fixed    фиксированный запрос для пользователя
+     * @param criteria запрос Criteria API для пользователя
+     */
+    private void compare(String name, IntFunction<List<BookingDtoView>> fixed,
+                         IntFunction<List<BookingDtoView>> criteria) {
+        for (int userId = 1; userId <= USERS; userId += USERS / 10) {
+            assertEquals(ids(fixed.apply(userId)), ids(criteria.apply(userId)), name);
+        }
+        double fixedMicros = measure(fixed);
+        double criteriaMicros = measure(criteria);
+        log.info("{}: фиксированный запрос {} мкс, Criteria API {} мкс", name, String.format("%.1f", fixedMicros),
+                String.format("%.1f", criteriaMicros));
+    }
+
+    private double measure(IntFunction<List<BookingDtoView>> query) {
+        for (int i = 0; i < WARMUP; i++) {
+            query.apply(i % USERS + 1);
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            query.apply(i % USERS + 1);
+        }
+        return (System.nanoTime() - started) / 1_000.0 / ITERATIONS;
+    }
+
+    private static List<Long> ids(List<BookingDtoView> bookings) {
+        return bookings.stream().map(BookingDtoView::id).toList();
+    }
+}
@@ -0,0 +1,304 @@
+package ru.practicum.shareit.booking.storage;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingDtoShort;
+import ru.practicum.shareit.booking.dto.BookingQuery;
+import ru.practicum.shareit.booking.model.enums.BookingRole;
+import ru.practicum.shareit.booking.model.enums.BookingSort;
+import ru.practicum.shareit.booking.model.enums.BookingStatus;
+import ru.practicum.shareit.pagination.OffsetLimitRequest;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Проверяет планы выполнения запросов {@link JpaBookingRepository} на заполненной базе H2.
+ * <p>
+ * SQL, который Hibernate отправляет в базу, перехватывается {@link SqlCapture}, после чего для каждого
+ * запроса выполняется {@code EXPLAIN}. Тест падает, если в плане появляется полный просмотр таблицы.
+ * </p>
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:shareit-plans",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "ru.practicum.shareit.booking.storage.JpaBookingRepositoryPlanTest$SqlCapture"})
+class JpaBookingRepositoryPlanTest {
+
+    private static final int USERS = 50;
+    private static final int ITEMS = 200;
+    private static final int BOOKINGS_PER_ITEM = 10;
+
+    private static final long ARCHIVE_FIRST_ID = 1_000_000;
+
+    private static final LocalDateTime FIRST_PAGE_START = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    @Autowired
+    private JpaBookingRepository jpaBookingRepository;
+
+    @Autowired
+    private JpaArchivedBookingRepository jpaArchivedBookingRepository;
+
+    @Autowired
+    private JpaOwnerBookingRepository jpaOwnerBookingRepository;
+
+    @Autowired
+    private BookingCriteriaRepository bookingCriteriaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @BeforeEach
+    void seed() {
+        Integer bookings = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings", Integer.class);
+        if (bookings != null && bookings > 0) {
+            return;
+        }
+        List<Object[]> users = new ArrayList<>();
+        for (long id = 1; id <= USERS; id++) {
+            users.add(new Object[]{id, "Пользователь " + id, "user" + id + "@mail.ru"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (user_id, name, email) VALUES (?, ?, ?)", users);
+
+        List<Object[]> items = new ArrayList<>();
+        List<Object[]> comments = new ArrayList<>();
+        List<Object[]> bookingRows = new ArrayList<>();
+        List<Object[]> archiveRows = new ArrayList<>();
+        for (long id = 1; id <= ITEMS; id++) {
+            long ownerId = id % USERS + 1;
+            items.add(new Object[]{id, "Вещь " + id, "Описание " + id, true, ownerId});
+            comments.add(new Object[]{id, "Отзыв " + id, id, (id + 1) % USERS + 1, Timestamp.valueOf(now)});
+            for (int i = 0; i < BOOKINGS_PER_ITEM; i++) {
+                LocalDateTime start = now.plusDays(i * 3L - BOOKINGS_PER_ITEM * 3 / 2);
+                long bookerId = (id + i) % USERS + 1;
+                bookingRows.add(new Object[]{Timestamp.valueOf(start), Timestamp.valueOf(start.plusDays(2)), id,
+                        bookerId, BookingStatus.values()[i % BookingStatus.values().length].name()});
+                LocalDateTime archivedStart = start.minusYears(1);
+                archiveRows.add(new Object[]{ARCHIVE_FIRST_ID + (id - 1) * BOOKINGS_PER_ITEM + i,
+                        Timestamp.valueOf(archivedStart), Timestamp.valueOf(archivedStart.plusDays(2)), id, bookerId,
+                        BookingStatus.values()[i % BookingStatus.values().length].name()});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO items (item_id, name, description, available, owner_id) "
+                + "VALUES (?, ?, ?, ?, ?)", items);
+        jdbcTemplate.batchUpdate("INSERT INTO comments (comment_id, text, item_id, author_id, created) "
+                + "VALUES (?, ?, ?, ?, ?)", comments);
+        jdbcTemplate.batchUpdate("INSERT INTO bookings (start_date, end_date, item_id, booker_id, status) "
+                + "VALUES (?, ?, ?, ?, ?)", bookingRows);
+        jdbcTemplate.update("INSERT INTO owner_bookings (booking_id, owner_id, owner_name, owner_email, item_id, "
+                + "item_name, item_description, item_available, item_quantity, item_request, booker_id, booker_name, "
+                + "booker_email, start_date, end_date, status) SELECT b.booking_id, o.user_id, o.name, o.email, "
+                + "i.item_id, i.name, i.description, i.available, i.quantity, i.request, u.user_id, u.name, u.email, "
+                + "b.start_date, b.end_date, b.status FROM bookings b JOIN items i ON i.item_id = b.item_id "
+                + "JOIN users o ON o.user_id = i.owner_id JOIN users u ON u.user_id = b.booker_id");
+        jdbcTemplate.batchUpdate("INSERT INTO bookings_archive (booking_id, start_date, end_date, item_id, booker_id, "
+                + "status) VALUES (?, ?, ?, ?, ?, ?)", archiveRows);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void bookerQueriesUseIndexes() {
+        OffsetLimitRequest page = new OffsetLimitRequest(0, 11);
+        assertNoFullScan(() -> {
+            jpaBookingRepository.findAllByBookerId(1, FIRST_PAGE_START, Long.MAX_VALUE, page);
+            jpaBookingRepository.findAllByBookerStateCurrent(1, now, FIRST_PAGE_START, Long.MAX_VALUE, page);
+            jpaBookingRepository.findAllByBookerStatePast(1, now, FIRST_PAGE_START, Long.MAX_VALUE, page);
+            jpaBookingRepository.findAllByBookerStateFuture(1, now, FIRST_PAGE_START, Long.MAX_VALUE, page);
+            jpaBookingRepository.findAllByBookerIdAndStatus(1, BookingStatus.WAITING, FIRST_PAGE_START,
+                    Long.MAX_VALUE, page);
+        });
+    }
+
+    @Test
+    void ownerQueriesUseIndexes() {
+        OffsetLimitRequest page = new OffsetLimitRequest(0, 11);
+        assertNoFullScan(() -> {
+            jpaOwnerBookingRepository.findAllByOwnerId(1, FIRST_PAGE_START, Long.MAX_VALUE, page);
+            jpaOwnerBookingRepository.findAllByOwnerStateCurrent(1, now, FIRST_PAGE_START, Long.MAX_VALUE, page);
+            jpaOwnerBookingRepository.findAllByOwnerStatePast(1, now, FIRST_PAGE_START, Long.MAX_VALUE, page);
+            jpaOwnerBookingRepository.findAllByOwnerStateFuture(1, now, FIRST_PAGE_START, Long.MAX_VALUE, page);
+            jpaOwnerBookingRepository.findAllByOwnerIdAndStatus(1, BookingStatus.WAITING, FIRST_PAGE_START,
+                    Long.MAX_VALUE, page);
+        });
+    }
+
+    @Test
+    @Transactional
+    void ownerReadModelMaintenanceUsesIndexes() {
+        List<Long> ids = List.of(1L, 2L, 3L);
+        jpaOwnerBookingRepository.deleteAllById(ids);
+        jpaOwnerBookingRepository.flush();
+        assertNoFullScan(() -> {
+            jpaOwnerBookingRepository.copyFromBookings(ids);
+            jpaOwnerBookingRepository.updateStatus(ids, BookingStatus.APPROVED);
+            jpaOwnerBookingRepository.updateItem(1, "Вещь", "Описание", true, 1);
+            jpaOwnerBookingRepository.updateOwner(2, "Владелец", "owner@mail.ru");
+            jpaOwnerBookingRepository.updateBooker(2, "Арендатор", "booker@mail.ru");
+        });
+    }
+
+    @Test
+    void criteriaQueriesUseIndexes() {
+        BookingQuery byStatus = new BookingQuery(BookingRole.BOOKER, Set.of(BookingStatus.APPROVED), Set.of(), null,
+                null, BookingSort.START_DESC);
+        BookingQuery byItems = new BookingQuery(BookingRole.OWNER, Set.of(BookingStatus.APPROVED,
+                BookingStatus.WAITING), Set.of(1L, 51L), now.minusDays(10), now.plusDays(10), BookingSort.START_ASC);
+        assertNoFullScan(() -> {
+            bookingCriteriaRepository.findAll(1, byStatus, null, 0, 11);
+            bookingCriteriaRepository.findAll(1, byStatus, now, 100, 11);
+            bookingCriteriaRepository.findAll(2, byItems, null, 0, 11);
+            bookingCriteriaRepository.findAll(2, byItems, now, 100, 11);
+            bookingCriteriaRepository.findAllArchived(1, byStatus, null, 0, 11);
+            bookingCriteriaRepository.findAllArchived(2, byItems, now, 100, 11);
+        });
+    }
+
+    @Test
+    void countQueriesUseIndexes() {
+        assertNoFullScan(() -> {
+            jpaBookingRepository.countByBookerIdGroupByState(1, now);
+            jpaOwnerBookingRepository.countByOwnerIdGroupByState(1, now);
+        });
+    }
+
+    @Test
+    void detailsQueryUsesIndexes() {
+        assertNoFullScan(() -> jpaBookingRepository.findWithDetailsById(1));
+    }
+
+    @Test
+    @Transactional
+    void approvalQueriesUseIndexes() {
+        List<Long> ids = List.of(1L, 2L, 3L);
+        assertNoFullScan(() -> {
+            jpaBookingRepository.findAllForUpdateByIdInAndOwnerId(ids, 2);
+            jpaBookingRepository.updateWaitingStatus(ids, 2, BookingStatus.APPROVED);
+            jpaBookingRepository.findViewsByIdIn(ids);
+            jpaBookingRepository.cancelWaiting(4);
+        });
+    }
+
+    @Test
+    void archiveQueriesUseIndexes() {
+        OffsetLimitRequest page = new OffsetLimitRequest(0, 11);
+        assertNoFullScan(() -> {
+            jpaArchivedBookingRepository.findViewById(ARCHIVE_FIRST_ID);
+            jpaArchivedBookingRepository.findAllByBookerId(1, FIRST_PAGE_START, Long.MAX_VALUE, page);
+            jpaArchivedBookingRepository.findAllByBookerIdAndStatus(1, BookingStatus.REJECTED, FIRST_PAGE_START,
+                    Long.MAX_VALUE, page);
+            jpaArchivedBookingRepository.findAllByOwnerId(1, FIRST_PAGE_START, Long.MAX_VALUE, page);
+            jpaArchivedBookingRepository.findAllByOwnerIdAndStatus(1, BookingStatus.REJECTED, FIRST_PAGE_START,
+                    Long.MAX_VALUE, page);
+            jpaArchivedBookingRepository.countByBookerIdGroupByState(1);
+            jpaArchivedBookingRepository.countByOwnerIdGroupByState(1);
+            jpaArchivedBookingRepository.findLastBookingsByItemIds(List.of(1L, 2L, 3L));
+            jpaArchivedBookingRepository.existsByBookerIdAndItemIdAndEndBefore(1, 1, now);
+        });
+    }
+
+    @Test
+    @Transactional
+    void archivalQueriesUseIndexes() {
+        List<Long> ids = List.of(1L, 2L, 3L);
+        assertNoFullScan(() -> {
+            jpaBookingRepository.findIdsForArchiveBefore(now.minusDays(10), 100);
+            jpaBookingRepository.findEndYears(ids);
+            jpaArchivedBookingRepository.copyFromBookings(ids);
+            jpaBookingRepository.deleteAllByIdIn(ids);
+        });
+    }
+
+    @Test
+    @Transactional(readOnly = true)
+    void itemQueriesUseIndexes() {
+        assertNoFullScan(() -> {
+            jpaBookingRepository.findLastBookingByBookerId(1, now);
+            jpaBookingRepository.findNextBookingByBookerId(1, now);
+            jpaBookingRepository.findLastBookingsByItemIds(List.of(1L, 2L, 3L), now);
+            jpaBookingRepository.findNextBookingsByItemIds(List.of(1L, 2L, 3L), now);
+            jpaBookingRepository.findIntervalsByItemId(1, BookingIntervalIndex.BLOCKING_STATUSES, now);
+            try (Stream<BookingDtoShort> bookings = jpaBookingRepository.streamBookingsInRange(1,
+                    BookingStatus.APPROVED, now.minusDays(30), now.plusDays(30))) {
+                bookings.forEach(booking -> {
+                });
+            }
+            jpaBookingRepository.checkItemReviewAuthorizationAfterRental(1, 1, now);
+        });
+    }
+
+    /**
+     * Выполняет запросы и проверяет, что ни в одном плане нет полного просмотра таблицы.
+     *
+     * @param queries вызовы методов репозитория
+     */
+    private void assertNoFullScan(Runnable queries) {
+        SqlCapture.clear();
+        queries.run();
+        List<String> statements = SqlCapture.captured();
+        assertFalse(statements.isEmpty(), "Запросы не были перехвачены.");
+        for (String sql : statements) {
+            String plan = explain(sql);
+            assertFalse(plan.contains(".tableScan"), () -> "Полный просмотр таблицы в плане запроса:\n" + plan);
+        }
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.execute("EXPLAIN " + sql, (PreparedStatement statement) -> {
+            int parameters = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                statement.setNull(i, Types.NULL);
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1)).append('\n');
+                }
+            }
+            return plan.toString();
+        });
+    }
+
+    /**
+     * Перехватчик SQL, который Hibernate отправляет в базу данных.
+     */
+    public static class SqlCapture implements StatementInspector {
+
+        private static final List<String> STATEMENTS = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            synchronized (STATEMENTS) {
+                STATEMENTS.add(sql);
+            }
+            return sql;
+        }
+
+        static void clear() {
+            synchronized (STATEMENTS) {
+                STATEMENTS.clear();
+            }
+        }
+
+        static List<String> captured() {
+            synchronized (STATEMENTS) {
+                return List.copyOf(STATEMENTS);
+            }
+        }
+    }
+}
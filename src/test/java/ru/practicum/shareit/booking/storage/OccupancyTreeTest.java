@@ -0,0 +1,64 @@
+package ru.practicum.shareit.booking.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OccupancyTreeTest {
+
+    @Test
+    void maxMatchesNaiveCount() {
+        OccupancyTree tree = new OccupancyTree();
+        int[] cells = new int[2_000];
+        long offset = 1_700_000_000L;
+        Random random = new Random(42);
+        List<long[]> added = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            if (!added.isEmpty() && random.nextInt(3) == 0) {
+                long[] removed = added.remove(random.nextInt(added.size()));
+                tree.add(offset + removed[0], offset + removed[1], -1);
+                update(cells, removed, -1);
+            } else {
+                int from = random.nextInt(cells.length - 1);
+                long[] interval = {from, Math.min(cells.length, from + 1 + random.nextInt(200))};
+                tree.add(offset + interval[0], offset + interval[1], 1);
+                update(cells, interval, 1);
+                added.add(interval);
+            }
+            int from = random.nextInt(cells.length - 1);
+            int to = from + 1 + random.nextInt(cells.length - from - 1);
+            int expected = 0;
+            for (int cell = from; cell < to; cell++) {
+                expected = Math.max(expected, cells[cell]);
+            }
+            assertEquals(expected, tree.max(offset + from, offset + to));
+        }
+    }
+
+    @Test
+    void removedIntervalsAreDropped() {
+        OccupancyTree tree = new OccupancyTree();
+        tree.add(100, 200, 1);
+        tree.add(150, 300, 1);
+
+        assertEquals(2, tree.max(0, OccupancyTree.SIZE));
+        assertEquals(1, tree.max(200, 250));
+
+        tree.add(100, 200, -1);
+        tree.add(150, 300, -1);
+
+        assertEquals(0, tree.max(0, OccupancyTree.SIZE));
+        assertTrue(tree.isEmpty());
+    }
+
+    private static void update(int[] cells, long[] interval, int delta) {
+        for (int cell = (int) interval[0]; cell < interval[1]; cell++) {
+            cells[cell] += delta;
+        }
+    }
+}
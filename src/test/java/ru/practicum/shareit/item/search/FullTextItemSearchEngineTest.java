@@ -0,0 +1,77 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.JpaItemRepository;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.JpaUserRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "shareit.search.engine=fulltext",
+        "spring.datasource.url=jdbc:h2:mem:shareit-fulltext"
+})
+class FullTextItemSearchEngineTest {
+
+    @Autowired
+    private FullTextItemSearchEngine fullTextItemSearchEngine;
+
+    @Autowired
+    private JpaItemRepository jpaItemRepository;
+
+    @Autowired
+    private JpaUserRepository jpaUserRepository;
+
+    @Test
+    void ranksNameMatchesFirstAndBreaksTiesById() {
+        String word = "w" + UUID.randomUUID().toString().replace("-", "");
+        User owner = createOwner();
+        Item inDescription = saveItem(owner, "Вещь", word);
+        Item inName = saveItem(owner, word, "Вещь");
+        Item inBoth = saveItem(owner, word, "Описание " + word);
+        Item inNameAgain = saveItem(owner, word, "Другая вещь");
+        List<Long> expected = List.of(inBoth.getId(), inName.getId(), inNameAgain.getId(), inDescription.getId());
+
+        assertEquals(expected, fullTextItemSearchEngine.search(word, null, 10).content().stream()
+                .map(ItemDto::getId)
+                .toList());
+        assertEquals(expected, searchByPages(word));
+    }
+
+    private List<Long> searchByPages(String text) {
+        List<Long> ids = new ArrayList<>();
+        String after = null;
+        do {
+            CursorPage<ItemDto> page = fullTextItemSearchEngine.search(text, after, 1);
+            page.content().forEach(item -> ids.add(item.getId()));
+            after = page.next();
+        } while (after != null);
+        return ids;
+    }
+
+    private User createOwner() {
+        String name = UUID.randomUUID().toString();
+        return jpaUserRepository.save(User.builder()
+                .name(name)
+                .email(name + "@mail.ru")
+                .build());
+    }
+
+    private Item saveItem(User owner, String name, String description) {
+        return jpaItemRepository.save(Item.builder()
+                .name(name)
+                .description(description)
+                .available(true)
+                .owner(owner)
+                .build());
+    }
+}
@@ -0,0 +1,166 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.JpaItemRepository;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.JpaUserRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class InMemoryItemSearchEngineTest {
+
+    @Autowired
+    private InMemoryItemSearchEngine inMemoryItemSearchEngine;
+
+    @Autowired
+    private JpaItemRepository jpaItemRepository;
+
+    @Autowired
+    private JpaUserRepository jpaUserRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void findsInsertedItemBySubstringOfLongWord() {
+        String word = uniqueWord();
+        Item item = jpaItemRepository.save(createItem(word));
+
+        assertEquals(List.of(item.getId()), searchIds(word));
+        assertEquals(List.of(item.getId()), searchIds(word.substring(3, 25)));
+        assertEquals(List.of(item.getId()), searchIds(word.substring(20).toUpperCase()));
+        assertTrue(searchIds(word + "x").isEmpty());
+    }
+
+    @Test
+    void pagesItemsMatchingAllWordsInIdOrder() {
+        String word = uniqueWord();
+        long first = jpaItemRepository.save(createItem(word + " кирпич")).getId();
+        long second = jpaItemRepository.save(createItem(word + " кирпичный")).getId();
+        jpaItemRepository.save(createItem(word + " доска"));
+        long third = jpaItemRepository.save(createItem("x" + word + " кирпич")).getId();
+        String query = word.substring(5) + " КИРП";
+
+        assertEquals(List.of(first, second, third), searchIds(query));
+        assertEquals(List.of(first, second, third), searchByPages(query, 1));
+        assertEquals(List.of(first, second, third), searchByPages(query, 2));
+        assertEquals(List.of(first, third), inMemoryItemSearchEngine.search(query, null, 10, id -> id != second)
+                .content().stream().map(ItemDto::getId).toList());
+    }
+
+    @Test
+    void returnsEmptyPageForTextWithoutWords() {
+        jpaItemRepository.save(createItem(uniqueWord()));
+
+        assertTrue(searchIds("!!! ").isEmpty());
+    }
+
+    @Test
+    void returnsCopiesOfIndexedItems() {
+        String word = uniqueWord();
+        jpaItemRepository.save(createItem(word));
+
+        inMemoryItemSearchEngine.search(word, null, 10).content().getFirst().setName("Изменено");
+
+        assertEquals(word, inMemoryItemSearchEngine.search(word, null, 10).content().getFirst().getName());
+    }
+
+    @Test
+    void reindexesUpdatedItem() {
+        String oldWord = uniqueWord();
+        String newWord = uniqueWord();
+        Item item = jpaItemRepository.save(createItem(oldWord));
+
+        item.setName(newWord);
+        jpaItemRepository.save(item);
+
+        assertTrue(searchIds(oldWord).isEmpty());
+        assertEquals(List.of(item.getId()), searchIds(newWord));
+
+        item.setAvailable(false);
+        jpaItemRepository.save(item);
+
+        assertTrue(searchIds(newWord).isEmpty());
+    }
+
+    @Test
+    void removesDeletedItem() {
+        String word = uniqueWord();
+        Item item = jpaItemRepository.save(createItem(word));
+
+        jpaItemRepository.deleteById(item.getId());
+
+        assertTrue(searchIds(word).isEmpty());
+    }
+
+    @Test
+    void ignoresRolledBackChanges() {
+        String word = uniqueWord();
+        transactionTemplate.executeWithoutResult(status -> {
+            jpaItemRepository.saveAndFlush(createItem(word));
+            status.setRollbackOnly();
+        });
+
+        assertTrue(searchIds(word).isEmpty());
+
+        String keptWord = uniqueWord();
+        Item item = jpaItemRepository.save(createItem(keptWord));
+        transactionTemplate.executeWithoutResult(status -> {
+            Item managed = jpaItemRepository.findById(item.getId()).orElseThrow();
+            managed.setName(uniqueWord());
+            jpaItemRepository.flush();
+            jpaItemRepository.delete(managed);
+            jpaItemRepository.flush();
+            status.setRollbackOnly();
+        });
+
+        assertEquals(List.of(item.getId()), searchIds(keptWord));
+    }
+
+    private List<Long> searchIds(String text) {
+        return inMemoryItemSearchEngine.search(text, null, 10).content().stream()
+                .map(ItemDto::getId)
+                .toList();
+    }
+
+    private List<Long> searchByPages(String text, int size) {
+        List<Long> ids = new ArrayList<>();
+        String after = null;
+        do {
+            CursorPage<ItemDto> page = inMemoryItemSearchEngine.search(text, after, size);
+            page.content().forEach(item -> ids.add(item.getId()));
+            after = page.next();
+        } while (after != null);
+        return ids;
+    }
+
+    private Item createItem(String word) {
+        String name = UUID.randomUUID().toString();
+        User owner = jpaUserRepository.save(User.builder()
+                .name(name)
+                .email(name + "@mail.ru")
+                .build());
+        return Item.builder()
+                .name(word)
+                .description("Описание")
+                .available(true)
+                .owner(owner)
+                .build();
+    }
+
+    private static String uniqueWord() {
+        return "w" + UUID.randomUUID().toString().replace("-", "");
+    }
+}
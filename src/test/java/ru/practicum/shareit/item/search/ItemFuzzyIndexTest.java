@@ -0,0 +1,147 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.CursorPage;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ItemFuzzyIndexTest {
+
+    private ItemFuzzyIndex itemFuzzyIndex;
+
+    @BeforeEach
+    void setUp() {
+        itemFuzzyIndex = new ItemFuzzyIndex(null);
+        ReflectionTestUtils.setField(itemFuzzyIndex, "maxDistance", 2);
+        ReflectionTestUtils.setField(itemFuzzyIndex, "maxResults", 1000);
+    }
+
+    @Test
+    void allowedDistanceDependsOnWordLength() {
+        index(1, "Кот");
+        index(2, "Палка");
+        index(3, "Молоток");
+
+        assertEquals(List.of(1L), searchIds("кот"));
+        assertEquals(List.of(), searchIds("кит"));
+        assertEquals(List.of(2L), searchIds("palko"));
+        assertEquals(List.of(), searchIds("pilko"));
+        assertEquals(List.of(3L), searchIds("малаток"));
+        assertEquals(List.of(3L), searchIds("molotk"));
+        assertEquals(List.of(), searchIds("малатак"));
+    }
+
+    @Test
+    void maxDistanceLimitsLongWords() {
+        ReflectionTestUtils.setField(itemFuzzyIndex, "maxDistance", 1);
+        index(1, "Молоток");
+
+        assertEquals(List.of(1L), searchIds("молотак"));
+        assertEquals(List.of(), searchIds("малаток"));
+    }
+
+    @Test
+    void ranksByTotalDistanceAndThenById() {
+        index(1, "Малаток");
+        index(2, "Молотак");
+        index(3, "Молоток");
+        index(4, "Молоток большой");
+        index(5, "Пила");
+
+        List<Long> expected = List.of(3L, 4L, 2L, 1L);
+
+        assertEquals(expected, searchIds("молоток"));
+        assertEquals(expected, searchByPages("молоток"));
+        assertEquals(List.of(4L), searchIds("малоток бальшой"));
+        assertEquals(List.of(), searchIds("молоток пила"));
+    }
+
+    @Test
+    void removesUnavailableAndDeletedItems() {
+        index(1, "Молоток");
+        index(2, "Молоток");
+
+        itemFuzzyIndex.index(Item.builder().id(1L).name("Молоток").available(false).build());
+        itemFuzzyIndex.remove(2);
+
+        assertEquals(List.of(), searchIds("молоток"));
+    }
+
+    @Test
+    void indexFindsSameItemsAsNameDistance() {
+        Random random = new Random(42);
+        Map<Long, String> names = new HashMap<>();
+        for (long id = 1; id <= 300; id++) {
+            String name = randomWord(random) + " " + randomWord(random);
+            names.put(id, name);
+            index(id, name);
+        }
+        for (int i = 0; i < 300; i++) {
+            String query = mutate(random, names.get(1L + random.nextInt(names.size())).split(" ")[random.nextInt(2)]);
+            List<Long> expected = names.entrySet().stream()
+                    .filter(entry -> ItemFuzzyIndex.nameDistance(query, entry.getValue(), 2) >= 0)
+                    .sorted(Comparator.comparingInt((Map.Entry<Long, String> entry) ->
+                                    ItemFuzzyIndex.nameDistance(query, entry.getValue(), 2))
+                            .thenComparing(Map.Entry::getKey))
+                    .map(Map.Entry::getKey)
+                    .toList();
+
+            assertEquals(expected, searchIds(query), query);
+        }
+    }
+
+    private List<Long> searchIds(String text) {
+        return itemFuzzyIndex.search(text, null, 1000).content().stream()
+                .map(ItemDto::getId)
+                .toList();
+    }
+
+    private List<Long> searchByPages(String text) {
+        List<Long> ids = new ArrayList<>();
+        String after = null;
+        do {
+            CursorPage<ItemDto> page = itemFuzzyIndex.search(text, after, 1);
+            page.content().forEach(item -> ids.add(item.getId()));
+            after = page.next();
+        } while (after != null);
+        return ids;
+    }
+
+    private void index(long id, String name) {
+        itemFuzzyIndex.index(Item.builder().id(id).name(name).available(true).build());
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder word = new StringBuilder();
+        int length = 3 + random.nextInt(6);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(4)));
+        }
+        return word.toString();
+    }
+
+    private static String mutate(Random random, String word) {
+        StringBuilder result = new StringBuilder(word);
+        int edits = random.nextInt(4);
+        for (int i = 0; i < edits && !result.isEmpty(); i++) {
+            int position = random.nextInt(result.length());
+            switch (random.nextInt(3)) {
+                case 0 -> result.setCharAt(position, (char) ('a' + random.nextInt(4)));
+                case 1 -> result.insert(position, (char) ('a' + random.nextInt(4)));
+                default -> result.deleteCharAt(position);
+            }
+        }
+        return result.toString();
+    }
+}
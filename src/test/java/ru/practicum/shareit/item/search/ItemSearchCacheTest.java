@@ -0,0 +1,153 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.pagination.CursorPage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemSearchCacheTest {
+
+    private final ItemSearchCache itemSearchCache = new ItemSearchCache(2);
+
+    private final AtomicInteger searches = new AtomicInteger();
+
+    @Test
+    void coalescesConcurrentSearchesWithSameKey() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Map<Thread, CursorPage<ItemDto>> results = new ConcurrentHashMap<>();
+        Thread leader = new Thread(() -> results.put(Thread.currentThread(),
+                itemSearchCache.get("Дрель", false, null, 10, () -> {
+                    started.countDown();
+                    await(release);
+                    return search();
+                })));
+        leader.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        List<Thread> followers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread follower = new Thread(() -> results.put(Thread.currentThread(),
+                    itemSearchCache.get("ДРЕЛЬ", false, null, 10, this::search)));
+            follower.start();
+            followers.add(follower);
+        }
+        for (Thread follower : followers) {
+            awaitWaiting(follower);
+        }
+        release.countDown();
+        leader.join(5000);
+        for (Thread follower : followers) {
+            follower.join(5000);
+        }
+
+        assertEquals(5, results.size());
+        results.values().forEach(page -> assertEquals(1L, page.content().getFirst().getId()));
+        assertEquals(1, searches.get());
+    }
+
+    @Test
+    void separatesKeysAndEvictsLeastRecentlyUsed() {
+        itemSearchCache.get("дрель", false, null, 10, this::search);
+        itemSearchCache.get("дрель", true, null, 10, this::search);
+        itemSearchCache.get("дрель", false, null, 10, this::search);
+        itemSearchCache.get("дрель", false, null, 20, this::search);
+
+        assertEquals(3, searches.get());
+
+        itemSearchCache.get("дрель", false, null, 10, this::search);
+        itemSearchCache.get("дрель", true, null, 10, this::search);
+
+        assertEquals(4, searches.get());
+    }
+
+    @Test
+    void invalidateDropsCachedResults() {
+        itemSearchCache.get("дрель", false, null, 10, this::search);
+        itemSearchCache.invalidate();
+
+        assertEquals(2L, itemSearchCache.get("дрель", false, null, 10, this::search).content().getFirst().getId());
+    }
+
+    @Test
+    void doesNotCacheResultOfSearchRacingWithWrite() {
+        CursorPage<ItemDto> stale = itemSearchCache.get("дрель", false, null, 10, () -> {
+            CursorPage<ItemDto> result = search();
+            itemSearchCache.invalidate();
+            return result;
+        });
+
+        assertEquals(1L, stale.content().getFirst().getId());
+        assertEquals(2L, itemSearchCache.get("дрель", false, null, 10, this::search).content().getFirst().getId());
+        assertEquals(2L, itemSearchCache.get("дрель", false, null, 10, this::search).content().getFirst().getId());
+    }
+
+    @Test
+    void doesNotCacheFailedSearch() {
+        Supplier<CursorPage<ItemDto>> failing = () -> {
+            searches.incrementAndGet();
+            throw new IllegalStateException("Поиск недоступен");
+        };
+
+        assertThrows(IllegalStateException.class, () -> itemSearchCache.get("дрель", false, null, 10, failing));
+        assertEquals(2L, itemSearchCache.get("дрель", false, null, 10, this::search).content().getFirst().getId());
+    }
+
+    @Test
+    void returnsCopiesOfCachedItems() {
+        CursorPage<ItemDto> first = itemSearchCache.get("дрель", false, null, 10, this::search);
+        first.content().getFirst().setName("Изменено");
+        CursorPage<ItemDto> second = itemSearchCache.get("дрель", false, null, 10, this::search);
+        second.content().getFirst().setAvailable(false);
+        CursorPage<ItemDto> third = itemSearchCache.get("дрель", false, null, 10, this::search);
+
+        assertEquals(1, searches.get());
+        assertEquals("Дрель", second.content().getFirst().getName());
+        assertEquals("Дрель", third.content().getFirst().getName());
+        assertEquals(true, third.content().getFirst().getAvailable());
+        assertEquals(Set.of("инструмент"), third.content().getFirst().getTags());
+        assertEquals(first.next(), third.next());
+    }
+
+    private CursorPage<ItemDto> search() {
+        return page(searches.incrementAndGet());
+    }
+
+    private static CursorPage<ItemDto> page(long id) {
+        return new CursorPage<>(List.of(ItemDto.builder()
+                .id(id)
+                .name("Дрель")
+                .description("Аккумуляторная")
+                .available(true)
+                .tags(Set.of("инструмент"))
+                .build()), "next");
+    }
+
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != Thread.State.WAITING) {
+            assertTrue(System.nanoTime() < deadline, "Поток не ожидает результата поиска");
+            Thread.sleep(10);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
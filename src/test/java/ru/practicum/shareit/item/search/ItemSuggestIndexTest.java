@@ -0,0 +1,98 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ItemSuggestIndexTest {
+
+    private ItemSuggestIndex itemSuggestIndex;
+
+    @BeforeEach
+    void setUp() {
+        itemSuggestIndex = new ItemSuggestIndex(null);
+    }
+
+    @Test
+    void suggestsMostFrequentNamesFirst() {
+        index(1, "Дрель");
+        index(2, "Дрова");
+        index(3, "Дрова");
+        index(4, "Дрова");
+        index(5, "Дрезина");
+        index(6, "дрезина");
+        index(7, "Дрель ударная");
+        index(8, "Пила");
+
+        assertEquals(List.of("Дрова", "Дрезина", "Дрель", "Дрель ударная"), itemSuggestIndex.suggest("др", 10));
+        assertEquals(List.of("Дрова", "Дрезина"), itemSuggestIndex.suggest("ДР", 2));
+        assertEquals(List.of("Дрель", "Дрель ударная"), itemSuggestIndex.suggest("дрель", 10));
+        assertEquals(List.of(), itemSuggestIndex.suggest("дрк", 10));
+    }
+
+    @Test
+    void insertSplitsAndDeleteMergesNodes() {
+        index(1, "Книга");
+        index(2, "Книжка");
+        index(3, "Кн");
+
+        assertEquals(List.of("Кн", "Книга", "Книжка"), itemSuggestIndex.suggest("к", 10));
+
+        itemSuggestIndex.remove(2);
+
+        assertEquals(List.of("Книга"), itemSuggestIndex.suggest("кни", 10));
+        assertEquals(List.of(), itemSuggestIndex.suggest("книж", 10));
+
+        itemSuggestIndex.remove(3);
+
+        assertEquals(List.of("Книга"), itemSuggestIndex.suggest("кн", 10));
+
+        index(2, "Книжка");
+        itemSuggestIndex.remove(1);
+
+        assertEquals(List.of("Книжка"), itemSuggestIndex.suggest("книжк", 10));
+
+        itemSuggestIndex.remove(2);
+
+        assertEquals(List.of(), itemSuggestIndex.suggest("к", 10));
+    }
+
+    @Test
+    void refreshesDisplayedNameWhenItemIsRemoved() {
+        index(1, "ДРЕЛЬ");
+        index(2, "дрель");
+        index(3, "дрель");
+
+        assertEquals(List.of("дрель"), itemSuggestIndex.suggest("др", 10));
+
+        itemSuggestIndex.remove(2);
+        itemSuggestIndex.remove(3);
+
+        assertEquals(List.of("ДРЕЛЬ"), itemSuggestIndex.suggest("др", 10));
+
+        index(4, "Дрель");
+        itemSuggestIndex.remove(1);
+
+        assertEquals(List.of("Дрель"), itemSuggestIndex.suggest("др", 10));
+    }
+
+    @Test
+    void reindexesRenamedAndUnavailableItems() {
+        index(1, "Палатка");
+        index(1, "Пила");
+
+        assertEquals(List.of("Пила"), itemSuggestIndex.suggest("п", 10));
+
+        itemSuggestIndex.index(Item.builder().id(1L).name("Пила").available(false).build());
+
+        assertEquals(List.of(), itemSuggestIndex.suggest("п", 10));
+    }
+
+    private void index(long id, String name) {
+        itemSuggestIndex.index(Item.builder().id(id).name(name).available(true).build());
+    }
+}
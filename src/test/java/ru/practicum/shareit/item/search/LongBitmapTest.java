@@ -0,0 +1,48 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongBitmapTest {
+
+    private static final long LARGE_ID = Integer.MAX_VALUE + 10L;
+
+    @Test
+    void supportsIdsAboveIntegerRange() {
+        LongBitmap bitmap = new LongBitmap();
+        bitmap.set(3);
+        bitmap.set(LARGE_ID);
+        bitmap.set(LARGE_ID + 70_000);
+
+        assertTrue(bitmap.get(LARGE_ID));
+        assertEquals(3, bitmap.cardinality());
+        assertEquals(List.of(LARGE_ID, LARGE_ID + 70_000), ItemTagIndex.idsAfter(bitmap, 3, 10));
+        assertEquals(List.of(LARGE_ID + 70_000), ItemTagIndex.idsAfter(bitmap, LARGE_ID, 10));
+
+        bitmap.clear(LARGE_ID);
+        assertFalse(bitmap.get(LARGE_ID));
+        assertEquals(LARGE_ID + 70_000, bitmap.nextSetBit(4));
+    }
+
+    @Test
+    void intersectsBlocks() {
+        LongBitmap first = new LongBitmap();
+        LongBitmap second = new LongBitmap();
+        first.set(1);
+        first.set(LARGE_ID);
+        second.set(LARGE_ID);
+        second.set(100_000);
+
+        assertEquals(1, first.intersectionCardinality(second));
+        LongBitmap intersection = first.copy();
+        intersection.and(second);
+
+        assertEquals(List.of(LARGE_ID), ItemTagIndex.idsAfter(intersection, 0, 10));
+        assertEquals(2, first.cardinality());
+    }
+}
@@ -0,0 +1,77 @@
+package ru.practicum.shareit.item.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.service.InMemoryUserService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class InMemoryItemServiceTest {
+
+    @Autowired
+    private InMemoryItemService inMemoryItemService;
+
+    @Autowired
+    private InMemoryUserService inMemoryUserService;
+
+    @Test
+    void fuzzySearchFindsNamesWithTyposRankedByDistance() {
+        String word = "w" + UUID.randomUUID().toString().replace("-", "");
+        long ownerId = createOwner();
+        long twoTypos = createItem(ownerId, word.substring(0, word.length() - 2) + "zz", true).getId();
+        long exact = createItem(ownerId, word, true).getId();
+        long oneTypo = createItem(ownerId, word.substring(0, word.length() - 1) + "z", true).getId();
+        createItem(ownerId, word.substring(0, word.length() - 3) + "zzz", true);
+        createItem(ownerId, word, false);
+
+        List<Long> expected = List.of(exact, oneTypo, twoTypos);
+
+        assertEquals(expected, searchIds(word, true, null, 10));
+        assertEquals(expected, searchByPages(word));
+        assertEquals(List.of(exact), searchIds(word, false, null, 10));
+        assertEquals(List.of(), searchIds(word, true, Set.of("инструмент"), 10));
+    }
+
+    private List<Long> searchIds(String text, boolean fuzzy, Set<String> tags, int size) {
+        return inMemoryItemService.searchAvailableItemsByText(text, fuzzy, tags, null, size).content().stream()
+                .map(ItemDto::getId)
+                .toList();
+    }
+
+    private List<Long> searchByPages(String text) {
+        List<Long> ids = new ArrayList<>();
+        String after = null;
+        do {
+            CursorPage<ItemDto> page = inMemoryItemService.searchAvailableItemsByText(text, true, null, after, 1);
+            page.content().forEach(item -> ids.add(item.getId()));
+            after = page.next();
+        } while (after != null);
+        return ids;
+    }
+
+    private long createOwner() {
+        String name = UUID.randomUUID().toString();
+        return inMemoryUserService.createUserDto(UserDto.builder()
+                .name(name)
+                .email(name + "@mail.ru")
+                .build()).getId();
+    }
+
+    private ItemDto createItem(long ownerId, String name, boolean available) {
+        return inMemoryItemService.createItem(ownerId, ItemDto.builder()
+                .name(name)
+                .description("Описание")
+                .available(available)
+                .build());
+    }
+}
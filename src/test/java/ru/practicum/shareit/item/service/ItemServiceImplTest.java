@@ -0,0 +1,347 @@
+package ru.practicum.shareit.item.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.enums.BookingStatus;
+import ru.practicum.shareit.booking.storage.JpaBookingRepository;
+import ru.practicum.shareit.error.exception.ValidationException;
+import ru.practicum.shareit.item.dto.CommentDtoResponse;
+import ru.practicum.shareit.item.dto.FreeWindowDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemDtoBooking;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemTagIndex;
+import ru.practicum.shareit.item.storage.JpaCommentRepository;
+import ru.practicum.shareit.item.storage.JpaItemRepository;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.storage.JpaUserRepository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ItemServiceImplTest {
+
+    @Autowired
+    private ItemServiceImpl itemServiceImpl;
+
+    @Autowired
+    private JpaUserRepository jpaUserRepository;
+
+    @Autowired
+    private JpaItemRepository jpaItemRepository;
+
+    @Autowired
+    private JpaBookingRepository jpaBookingRepository;
+
+    @Autowired
+    private JpaCommentRepository jpaCommentRepository;
+
+    @Autowired
+    private ItemTagIndex itemTagIndex;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void getAllItemsFromUserLoadsBookingsWithConstantNumberOfQueries() {
+        User smallOwner = createOwnerWithBookedItems(1);
+        User largeOwner = createOwnerWithBookedItems(10);
+
+        statistics.clear();
+        List<ItemDtoBooking> smallResult = itemServiceImpl.getAllItemsFromUser(smallOwner.getId(), null, 100).content();
+        long smallBookingQueries = countBookingQueries();
+        long smallStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        List<ItemDtoBooking> largeResult = itemServiceImpl.getAllItemsFromUser(largeOwner.getId(), null, 100).content();
+        long largeBookingQueries = countBookingQueries();
+        long largeStatements = statistics.getPrepareStatementCount();
+
+        assertEquals(1, smallResult.size());
+        assertEquals(10, largeResult.size());
+        largeResult.forEach(item -> {
+            assertNotNull(item.getLastBooking());
+            assertNotNull(item.getNextBooking());
+            assertEquals(2, item.getComments().size());
+        });
+        assertEquals(smallBookingQueries, largeBookingQueries);
+        assertEquals(smallStatements, largeStatements);
+    }
+
+    @Test
+    void getAllItemsFromUserReturnsPagesByCursor() {
+        User owner = createOwnerWithBookedItems(3);
+
+        CursorPage<ItemDtoBooking> firstPage = itemServiceImpl.getAllItemsFromUser(owner.getId(), null, 2);
+        CursorPage<ItemDtoBooking> secondPage = itemServiceImpl.getAllItemsFromUser(owner.getId(),
+                firstPage.next(), 2);
+
+        assertEquals(2, firstPage.content().size());
+        assertNotNull(firstPage.next());
+        assertEquals(1, secondPage.content().size());
+        assertNull(secondPage.next());
+        assertTrue(firstPage.content().getLast().getId() < secondPage.content().getFirst().getId());
+    }
+
+    @Test
+    void pagesAreLimitedByMaxSize() {
+        User owner = createOwnerWithBookedItems(1);
+
+        assertEquals(1, itemServiceImpl.getAllItemsFromUser(owner.getId(), null, 1000).content().size());
+        assertThrows(ValidationException.class, () -> itemServiceImpl.getAllItemsFromUser(owner.getId(), null, 1001));
+        assertThrows(ValidationException.class,
+                () -> itemServiceImpl.getAllItemsFromUser(owner.getId(), null, Integer.MAX_VALUE));
+        assertThrows(ValidationException.class,
+                () -> itemServiceImpl.searchAvailableItemsByText("Дрель", false, Set.of(), null, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void getCommentsByItemIdsReturnsLastCommentsWithinLimit() {
+        User owner = createOwnerWithBookedItems(2);
+        List<Long> itemIds = jpaItemRepository.findAllByOwnerId(owner.getId()).stream().map(Item::getId).toList();
+
+        Map<Long, List<CommentDtoResponse>> comments = itemServiceImpl.getCommentsByItemIds(itemIds, 1);
+
+        assertEquals(2, comments.size());
+        comments.values().forEach(itemComments -> {
+            assertEquals(1, itemComments.size());
+            assertEquals("Второй отзыв", itemComments.getFirst().getText());
+        });
+    }
+
+    @Test
+    void updateItemReindexesChangedTags() {
+        User owner = jpaUserRepository.save(createUser());
+        String name = "Пила " + UUID.randomUUID();
+        String oldTag = "tag-" + UUID.randomUUID();
+        String newTag = "tag-" + UUID.randomUUID();
+        long itemId = itemServiceImpl.createItem(owner.getId(), ItemDto.builder()
+                .name(name)
+                .description("Ножовка")
+                .available(true)
+                .tags(Set.of(oldTag))
+                .build()).getId();
+        assertEquals(Set.of(oldTag), itemServiceImpl.searchAvailableItemsByText(name, false, null, null, 10)
+                .content().getFirst().getTags());
+
+        itemServiceImpl.updateItem(owner.getId(), itemId, ItemDto.builder().tags(Set.of(newTag)).build());
+
+        assertEquals(Set.of(newTag), itemTagIndex.tagsOf(itemId));
+        assertEquals(Map.of(), itemServiceImpl.getTagFacets(Set.of(oldTag)));
+        assertEquals(Map.of(newTag, 1), itemServiceImpl.getTagFacets(Set.of(newTag)));
+        assertTrue(itemServiceImpl.searchAvailableItemsByText(name, false, Set.of(oldTag), null, 10).content()
+                .isEmpty());
+        assertEquals(List.of(itemId), itemServiceImpl.searchAvailableItemsByText(name, false, Set.of(newTag), null,
+                10).content().stream().map(ItemDto::getId).toList());
+        assertEquals(Set.of(newTag), itemServiceImpl.searchAvailableItemsByText(name, false, null, null, 10)
+                .content().getFirst().getTags());
+    }
+
+    @Test
+    void searchWithTagsReturnsEngineMatchesHavingAllTags() {
+        User owner = jpaUserRepository.save(createUser());
+        String word = "w" + UUID.randomUUID().toString().replace("-", "");
+        String tag = "tag-" + UUID.randomUUID();
+        long first = createTaggedItem(owner, "Дрель " + word, Set.of(tag, "инструмент"));
+        createTaggedItem(owner, "Дрель " + word, Set.of());
+        long second = createTaggedItem(owner, "Перфоратор", Set.of(tag));
+        createTaggedItem(owner, "Шуруповёрт", Set.of(tag));
+        itemServiceImpl.updateItem(owner.getId(), second, ItemDto.builder().description("Сверлит как " + word)
+                .build());
+
+        assertEquals(List.of(first, second), itemServiceImpl.searchAvailableItemsByText(word.substring(3), false,
+                Set.of(tag), null, 10).content().stream().map(ItemDto::getId).toList());
+        CursorPage<ItemDto> page = itemServiceImpl.searchAvailableItemsByText(word, false, Set.of(tag), null, 1);
+        assertEquals(List.of(first), page.content().stream().map(ItemDto::getId).toList());
+        assertEquals(List.of(second), itemServiceImpl.searchAvailableItemsByText(word, false, Set.of(tag),
+                page.next(), 1).content().stream().map(ItemDto::getId).toList());
+        assertEquals(List.of(first), itemServiceImpl.searchAvailableItemsByText(word, false,
+                Set.of(tag, "инструмент"), null, 10).content().stream().map(ItemDto::getId).toList());
+    }
+
+    @Test
+    void suggestItemNamesRejectsSizeAboveSuggestMaxSize() {
+        User owner = jpaUserRepository.save(createUser());
+        String word = "w" + UUID.randomUUID().toString().replace("-", "");
+        createTaggedItem(owner, word, Set.of());
+
+        assertEquals(List.of(word), itemServiceImpl.suggestItemNames(word, 50));
+        assertThrows(ValidationException.class, () -> itemServiceImpl.suggestItemNames(word, 51));
+    }
+
+    @Test
+    void searchCacheDropsResultsFoundBeforeCommit() {
+        User owner = jpaUserRepository.save(createUser());
+        String oldWord = "w" + UUID.randomUUID().toString().replace("-", "");
+        String newWord = "w" + UUID.randomUUID().toString().replace("-", "");
+        long itemId = itemServiceImpl.createItem(owner.getId(), ItemDto.builder()
+                .name(oldWord)
+                .description("Описание")
+                .available(true)
+                .build()).getId();
+        assertEquals(List.of(itemId), searchIds(oldWord));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            itemServiceImpl.updateItem(owner.getId(), itemId, ItemDto.builder().name(newWord).build());
+            assertEquals(List.of(itemId), searchIds(oldWord));
+            assertEquals(List.of(), searchIds(newWord));
+        });
+
+        assertEquals(List.of(), searchIds(oldWord));
+        assertEquals(List.of(itemId), searchIds(newWord));
+    }
+
+    @Test
+    void getItemAvailabilitySkipsAdjacentAndOverlappingBookings() {
+        User owner = jpaUserRepository.save(createUser());
+        User booker = jpaUserRepository.save(createUser());
+        Item item = jpaItemRepository.save(createItem(owner, 1));
+        LocalDateTime from = LocalDate.now().plusDays(10).atStartOfDay();
+        saveBookings(item, booker, from, new int[][]{{-1, 1}, {2, 3}, {3, 4}, {5, 7}, {6, 8}, {9, 11}});
+        Booking waiting = createBooking(item, booker, from.plusHours(8), from.plusHours(9));
+        waiting.setStatus(BookingStatus.WAITING);
+        jpaBookingRepository.save(waiting);
+
+        assertEquals(List.of(window(from, 1, 2), window(from, 4, 5), window(from, 8, 9)),
+                itemServiceImpl.getItemAvailability(item.getId(), from, from.plusHours(10)));
+        assertEquals(List.of(window(from, 4, 5)),
+                itemServiceImpl.getItemAvailability(item.getId(), from.plusHours(3), from.plusHours(6)));
+        assertEquals(List.of(), itemServiceImpl.getItemAvailability(item.getId(), from.plusHours(2),
+                from.plusHours(4)));
+    }
+
+    @Test
+    void getItemAvailabilityCountsConcurrentBookingsAgainstQuantity() {
+        User owner = jpaUserRepository.save(createUser());
+        User booker = jpaUserRepository.save(createUser());
+        Item item = jpaItemRepository.save(createItem(owner, 2));
+        LocalDateTime from = LocalDate.now().plusDays(10).atStartOfDay();
+        saveBookings(item, booker, from,
+                new int[][]{{0, 4}, {1, 2}, {3, 5}, {5, 6}, {5, 7}, {8, 12}, {9, 10}});
+
+        assertEquals(List.of(window(from, 0, 1), window(from, 2, 3), window(from, 4, 5), window(from, 6, 9)),
+                itemServiceImpl.getItemAvailability(item.getId(), from, from.plusHours(10)));
+        assertEquals(List.of(window(from, 10, 12)),
+                itemServiceImpl.getItemAvailability(item.getId(), from.plusHours(9), from.plusHours(12)));
+    }
+
+    private void saveBookings(Item item, User booker, LocalDateTime from, int[][] hours) {
+        for (int[] interval : hours) {
+            jpaBookingRepository.save(createBooking(item, booker, from.plusHours(interval[0]),
+                    from.plusHours(interval[1])));
+        }
+    }
+
+    private static FreeWindowDto window(LocalDateTime from, int startHour, int endHour) {
+        return new FreeWindowDto(from.plusHours(startHour), from.plusHours(endHour));
+    }
+
+    private Item createItem(User owner, int quantity) {
+        return Item.builder()
+                .name("Палатка " + UUID.randomUUID())
+                .description("Туристическая палатка")
+                .available(true)
+                .quantity(quantity)
+                .owner(owner)
+                .build();
+    }
+
+    private long createTaggedItem(User owner, String name, Set<String> tags) {
+        return itemServiceImpl.createItem(owner.getId(), ItemDto.builder()
+                .name(name)
+                .description("Описание")
+                .available(true)
+                .tags(tags)
+                .build()).getId();
+    }
+
+    private List<Long> searchIds(String text) {
+        return itemServiceImpl.searchAvailableItemsByText(text, false, null, null, 10).content().stream()
+                .map(ItemDto::getId)
+                .toList();
+    }
+
+    private long countBookingQueries() {
+        return Arrays.stream(statistics.getQueries())
+                .filter(query -> query.contains("Booking"))
+                .mapToLong(query -> statistics.getQueryStatistics(query).getExecutionCount())
+                .sum();
+    }
+
+    private User createOwnerWithBookedItems(int itemCount) {
+        User owner = jpaUserRepository.save(createUser());
+        User booker = jpaUserRepository.save(createUser());
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < itemCount; i++) {
+            Item item = jpaItemRepository.save(Item.builder()
+                    .name("Дрель " + i)
+                    .description("Простая дрель")
+                    .available(true)
+                    .owner(owner)
+                    .build());
+            jpaBookingRepository.save(createBooking(item, booker, now.minusDays(3), now.minusDays(2)));
+            jpaBookingRepository.save(createBooking(item, booker, now.plusDays(2), now.plusDays(3)));
+            jpaCommentRepository.save(createComment(item, booker, "Первый отзыв"));
+            jpaCommentRepository.save(createComment(item, booker, "Второй отзыв"));
+        }
+        return owner;
+    }
+
+    private User createUser() {
+        String name = UUID.randomUUID().toString();
+        return User.builder()
+                .name(name)
+                .email(name + "@mail.ru")
+                .build();
+    }
+
+    private Booking createBooking(Item item, User booker, LocalDateTime start, LocalDateTime end) {
+        return Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(start)
+                .end(end)
+                .status(BookingStatus.APPROVED)
+                .build();
+    }
+
+    private Comment createComment(Item item, User author, String text) {
+        return Comment.builder()
+                .item(item)
+                .author(author)
+                .text(text)
+                .created(LocalDateTime.now())
+                .build();
+    }
+}